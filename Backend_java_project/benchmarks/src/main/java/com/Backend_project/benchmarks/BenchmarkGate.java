@@ -0,0 +1,120 @@
+package com.Backend_project.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Runs the benchmarks and compares them with the stored baseline. Scores
+ * are compared by their confidence intervals: a benchmark fails the build
+ * only when the lower bound of its average time is above the baseline's
+ * upper bound grown by the tolerance, so a noisy run is not taken for a
+ * regression. Benchmarks without a baseline are only reported.
+ *
+ * Baselines depend on the machine they were recorded on and are not kept
+ * in the repository. The first run on a machine records one; record it
+ * again (benchmarks.update-baseline=true) when the machine changes.
+ *
+ * Arguments: baseline file, JMH result file.
+ */
+public class BenchmarkGate {
+
+    public static void main(String[] args) throws Exception {
+        File baselineFile = new File(args[0]);
+        File resultFile = new File(args[1]);
+        double tolerance = Double.parseDouble(System.getProperty("benchmarks.tolerance", "0.30"));
+        boolean updateBaseline = Boolean.parseBoolean(System.getProperty("benchmarks.update-baseline", "false"));
+
+        resultFile.getParentFile().mkdirs();
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("benchmarks.include", ".*"))
+                .result(resultFile.getPath())
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        List<Baseline> measured = new ArrayList<>();
+        for (RunResult result : results) {
+            measured.add(Baseline.of(result));
+        }
+        measured.sort(Comparator.comparing(Baseline::id));
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (updateBaseline || !baselineFile.exists()) {
+            objectMapper.writeValue(baselineFile, measured);
+            System.out.println("Recorded " + measured.size() + " baselines in " + baselineFile);
+            return;
+        }
+
+        Map<String, Baseline> baselines = new HashMap<>();
+        for (Baseline baseline : objectMapper.readValue(baselineFile, Baseline[].class)) {
+            baselines.put(baseline.id(), baseline);
+        }
+
+        List<String> regressions = new ArrayList<>();
+        System.out.println();
+        System.out.printf("%-100s %22s %22s %8s%n", "Benchmark", "Baseline", "Now", "Change");
+        for (Baseline now : measured) {
+            Baseline before = baselines.get(now.id());
+            if (before == null) {
+                System.out.printf("%-100s %22s %22s %8s%n", now.id(), "-", now.interval(), "new");
+                continue;
+            }
+            double change = now.score() / before.score() - 1;
+            boolean regressed = now.lower() > before.upper() * (1 + tolerance);
+            System.out.printf("%-100s %22s %22s %+7.1f%%%s%n", now.id(), before.interval(), now.interval(),
+                    change * 100, regressed ? " REGRESSED" : "");
+            if (regressed) {
+                regressions.add(now.id());
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmarks regressed by more than %.0f%% beyond their confidence intervals: %s%n",
+                    regressions.size(), tolerance * 100, regressions);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Average time of one benchmark with one set of parameters, and the
+     * half-width of its 99.9% confidence interval
+     */
+    public record Baseline(String benchmark, Map<String, String> params, String unit, double score,
+                           double scoreError) {
+
+        static Baseline of(RunResult result) {
+            Map<String, String> params = new TreeMap<>();
+            for (String key : result.getParams().getParamsKeys()) {
+                params.put(key, result.getParams().getParam(key));
+            }
+            double error = result.getPrimaryResult().getScoreError();
+            return new Baseline(result.getParams().getBenchmark(), params,
+                    result.getPrimaryResult().getScoreUnit(), result.getPrimaryResult().getScore(),
+                    Double.isNaN(error) ? 0 : error);
+        }
+
+        double lower() {
+            return score - scoreError;
+        }
+
+        double upper() {
+            return score + scoreError;
+        }
+
+        String interval() {
+            return String.format("%.3f +- %.3f", score, scoreError);
+        }
+
+        String id() {
+            return params.isEmpty() ? benchmark : benchmark + params;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.Backend_project.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning a recursive tree response into the structures stored on a project
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+public class GitHubTreeBenchmark {
+
+    @Param({ "1000", "20000" })
+    private int files;
+
+    private GitHubService gitHubService;
+    private List<Map<String, Object>> items;
+    private Map<String, Object> treeData;
+
+    @Setup
+    public void setUp() {
+        gitHubService = new GitHubService(null, null);
+        items = SyntheticTrees.items(files, 42);
+        treeData = Map.of("tree", items);
+    }
+
+    @Benchmark
+    public Map<String, Object> transformTreeForFrontend() {
+        return gitHubService.transformTreeForFrontend(items);
+    }
+
+    @Benchmark
+    public Map<String, Object> processGitHubTree() {
+        return gitHubService.processGitHubTree(treeData);
+    }
+}
@@ -0,0 +1,50 @@
+package com.Backend_project.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ignore checks run once per tree entry; measured over a whole tree's
+ * worth of paths
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+public class PathFilterBenchmark {
+
+    private GitHubService gitHubService;
+    private List<String> paths;
+
+    @Setup
+    public void setUp() {
+        gitHubService = new GitHubService(null, null);
+        paths = SyntheticTrees.paths(SyntheticTrees.items(5000, 7));
+    }
+
+    @Benchmark
+    public int shouldIgnorePath() {
+        int ignored = 0;
+        for (String path : paths) {
+            if (gitHubService.shouldIgnorePath(path)) {
+                ignored++;
+            }
+        }
+        return ignored;
+    }
+
+    @Benchmark
+    public int shouldSkipPath() {
+        int skipped = 0;
+        for (String path : paths) {
+            if (gitHubService.shouldSkipPath(path)) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+}
@@ -0,0 +1,57 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.Project;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a project with its whole file tree, as the project endpoints do
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+public class ProjectSerializationBenchmark {
+
+    @Param({ "1000", "20000" })
+    private int files;
+
+    private ObjectMapper objectMapper;
+    private Project project;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+
+        Map<String, Object> main = new HashMap<>();
+        main.put("sha", "0123456789abcdef0123456789abcdef01234567");
+        main.put("tree", new GitHubService(null, null).transformTreeForFrontend(SyntheticTrees.items(files, 42)));
+        Map<String, Object> fileTree = new HashMap<>();
+        fileTree.put("main", main);
+
+        project = new Project();
+        project.setId("65f1c0ffee0123456789abcd");
+        project.setUserId("65f1c0ffee0123456789abce");
+        project.setRepositoryId("123456789");
+        project.setRepositoryName("thesis");
+        project.setRepositoryOwner("owner");
+        project.setDefaultBranch("main");
+        project.setStatus("ACTIVE");
+        project.setFileTree(fileTree);
+        project.setCreatedAt(new Date(0));
+        project.setUpdatedAt(new Date(0));
+        project.setAccessible(true);
+    }
+
+    @Benchmark
+    public byte[] writeProject() throws Exception {
+        return objectMapper.writeValueAsBytes(project);
+    }
+}
@@ -0,0 +1,61 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.ProjectFile;
+import com.Backend_project.repository.ProjectFileRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling a project's tree with cached file contents, against an in-memory
+ * repository so only the walk and the lookups are measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+public class ProjectTreeEnrichmentBenchmark {
+
+    @Param({ "1000", "20000" })
+    private int files;
+
+    private ProjectService projectService;
+    private Map<String, Object> fileTree;
+
+    @Setup
+    public void setUp() {
+        ProjectFile cached = new ProjectFile();
+        cached.setProjectId("project");
+        cached.setContent("\\section{Introduction}\n" + "Lorem ipsum dolor sit amet. ".repeat(40));
+        cached.setSize(cached.getContent().length());
+
+        // One lookup in three is a cache hit
+        ProjectFileRepository repository = (ProjectFileRepository) Proxy.newProxyInstance(
+                ProjectFileRepository.class.getClassLoader(), new Class<?>[] { ProjectFileRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByProjectIdAndPath")) {
+                        return args[1].hashCode() % 3 == 0 ? Optional.of(cached) : Optional.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        projectService = new ProjectService();
+        ReflectionTestUtils.setField(projectService, "projectFileRepository", repository);
+
+        fileTree = new HashMap<>();
+        fileTree.put("sha", "0123456789abcdef0123456789abcdef01234567");
+        fileTree.put("tree", new GitHubService(null, null)
+                .transformTreeForFrontend(SyntheticTrees.items(files, 42)));
+    }
+
+    @Benchmark
+    public Map<String, Object> enrichFileTreeWithContent() {
+        return projectService.enrichFileTreeWithContent(fileTree, "project");
+    }
+}
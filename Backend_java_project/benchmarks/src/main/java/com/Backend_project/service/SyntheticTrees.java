@@ -0,0 +1,72 @@
+package com.Backend_project.service;
+
+import java.util.*;
+
+/**
+ * Repository trees shaped like the ones the GitHub trees API returns, with
+ * a share of build output and dependency folders the services skip
+ */
+final class SyntheticTrees {
+    private static final String[] DIRECTORIES = {
+            "src", "main", "java", "docs", "chapters", "figures", "test", "lib", "api", "util" };
+    private static final String[] IGNORED = { "node_modules", "target", "__pycache__", ".git", "build" };
+    private static final String[] EXTENSIONS = { ".java", ".tex", ".md", ".py", ".json", ".bib", ".log", ".pyc" };
+
+    private SyntheticTrees() {
+    }
+
+    /**
+     * Flat tree entries, parents before children, as in a recursive tree response
+     */
+    static List<Map<String, Object>> items(int files, long seed) {
+        Random random = new Random(seed);
+        Set<String> directories = new LinkedHashSet<>();
+        List<Map<String, Object>> blobs = new ArrayList<>(files);
+
+        for (int i = 0; i < files; i++) {
+            int depth = 1 + random.nextInt(5);
+            StringBuilder path = new StringBuilder();
+            for (int level = 0; level < depth; level++) {
+                // One in ten files lives under a folder the services ignore
+                String directory = level == 0 && random.nextInt(10) == 0
+                        ? IGNORED[random.nextInt(IGNORED.length)]
+                        : DIRECTORIES[random.nextInt(DIRECTORIES.length)] + random.nextInt(4);
+                if (path.length() > 0) {
+                    path.append('/');
+                }
+                path.append(directory);
+                directories.add(path.toString());
+            }
+            path.append("/file").append(i).append(EXTENSIONS[random.nextInt(EXTENSIONS.length)]);
+            blobs.add(entry(path.toString(), "blob", 200 + random.nextInt(50_000)));
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(directories.size() + blobs.size());
+        for (String directory : directories) {
+            items.add(entry(directory, "tree", null));
+        }
+        items.addAll(blobs);
+        return items;
+    }
+
+    static List<String> paths(List<Map<String, Object>> items) {
+        List<String> paths = new ArrayList<>(items.size());
+        for (Map<String, Object> item : items) {
+            paths.add((String) item.get("path"));
+        }
+        return paths;
+    }
+
+    private static Map<String, Object> entry(String path, String type, Integer size) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("path", path);
+        entry.put("type", type);
+        entry.put("mode", "blob".equals(type) ? "100644" : "040000");
+        entry.put("sha", Integer.toHexString(path.hashCode()) + "0000000000000000000000000000000000");
+        entry.put("url", "https://api.github.com/repos/owner/repo/git/" + type + "s/" + path.hashCode());
+        if (size != null) {
+            entry.put("size", size);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,112 @@
+package com.Backend_project.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times every GitHub call per endpoint and status, and tracks the rate limit
+ * GitHub reports. URLs are built by string formatting, so they are mapped
+ * back to endpoint templates here to keep owners, repositories and shas out
+ * of the tags.
+ */
+@Component
+public class GitHubMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    /** Segments followed by one variable segment */
+    private static final Set<String> ONE_VARIABLE = Set.of("repositories", "trees", "commits", "blobs",
+            "compare", "pulls", "issues", "branches", "applications", "users");
+
+    /** Segments followed by a path or ref that may itself contain slashes */
+    private static final Set<String> REST_VARIABLE = Set.of("contents", "heads");
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong rateLimitRemaining = new AtomicLong(-1);
+
+    @Autowired
+    public GitHubMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("github.rate_limit.remaining", rateLimitRemaining, AtomicLong::get)
+                .description("Requests left in the rate limit window of the last response")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            String remaining = response.getHeaders().getFirst("X-RateLimit-Remaining");
+            if (remaining != null) {
+                try {
+                    rateLimitRemaining.set(Long.parseLong(remaining.trim()));
+                } catch (NumberFormatException e) {
+                    // Not worth failing the request over
+                }
+            }
+            return response;
+        } finally {
+            sample.stop(Timer.builder("github.requests")
+                    .description("GitHub API calls")
+                    .tag("method", request.getMethod().name())
+                    .tag("endpoint", endpoint(request.getURI().getRawPath()))
+                    .tag("status", status)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Endpoint template of a GitHub API path, e.g.
+     * /repos/{owner}/{repo}/git/trees/{sha}
+     */
+    static String endpoint(String path) {
+        if (path == null || path.isEmpty() || "/".equals(path)) {
+            return "/";
+        }
+        String[] segments = path.startsWith("/") ? path.substring(1).split("/") : path.split("/");
+        StringBuilder template = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            template.append('/').append(segment);
+            if ("repos".equals(segment) && i == 0) {
+                template.append("/{owner}/{repo}");
+                i += 2;
+            } else if (REST_VARIABLE.contains(segment)) {
+                if (i + 1 < segments.length) {
+                    template.append("/{").append("heads".equals(segment) ? "branch" : "path").append('}');
+                }
+                break;
+            } else if (ONE_VARIABLE.contains(segment) && i + 1 < segments.length) {
+                template.append("/{").append(variableName(segment)).append('}');
+                i++;
+            }
+        }
+        return template.toString();
+    }
+
+    private static String variableName(String segment) {
+        return switch (segment) {
+            case "pulls", "issues" -> "number";
+            case "trees", "commits", "blobs" -> "sha";
+            case "compare" -> "basehead";
+            case "branches" -> "branch";
+            case "applications" -> "client_id";
+            case "users" -> "username";
+            default -> "id";
+        };
+    }
+}
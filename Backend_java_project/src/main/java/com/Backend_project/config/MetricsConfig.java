@@ -0,0 +1,96 @@
+package com.Backend_project.config;
+
+import com.Backend_project.service.ProjectFileBulkWriter;
+import com.Backend_project.service.compile.LatexCompileCache;
+import com.Backend_project.service.compile.LatexCompileService;
+import com.Backend_project.service.jobs.JobQueue;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the counters the services already keep for their stats endpoints
+ * as meters, read at scrape time. Mongo command timings and connection pool
+ * meters come with the actuator's Mongo auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder compileMetrics(LatexCompileService compileService, LatexCompileCache compileCache) {
+        return registry -> {
+            Gauge.builder("latex.compile.queue.depth", compileService, LatexCompileService::getQueueDepth)
+                    .description("Compile jobs waiting for a worker")
+                    .register(registry);
+            Gauge.builder("latex.compile.active", compileService, stat(LatexCompileService::getStats, "activeJobs"))
+                    .register(registry);
+            for (String outcome : new String[] { "succeeded", "failed", "timedOut", "rejected" }) {
+                FunctionCounter.builder("latex.compile.jobs", compileService,
+                                stat(LatexCompileService::getStats, outcome))
+                        .tag("outcome", outcome)
+                        .register(registry);
+            }
+            FunctionCounter.builder("latex.compile.cache.requests", compileCache,
+                            stat(LatexCompileCache::getStats, "hits"))
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("latex.compile.cache.requests", compileCache,
+                            stat(LatexCompileCache::getStats, "misses"))
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("latex.compile.cache.bytes", compileCache, stat(LatexCompileCache::getStats, "bytes"))
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder jobMetrics(JobQueue jobQueue) {
+        return registry -> {
+            Gauge.builder("jobs.leases.held", jobQueue, stat(JobQueue::getStats, "heldLeases"))
+                    .register(registry);
+            for (String event : new String[] { "enqueued", "coalesced", "claimed", "reclaimed", "leasesLost",
+                    "completed", "failed" }) {
+                FunctionCounter.builder("jobs.events", jobQueue, stat(JobQueue::getStats, event))
+                        .tag("event", event)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder projectFileWriterMetrics(ProjectFileBulkWriter bulkWriter) {
+        return registry -> {
+            Gauge.builder("project_files.bulk.buffered", bulkWriter, stat(ProjectFileBulkWriter::getStats, "buffered"))
+                    .register(registry);
+            for (String event : new String[] { "filesWritten", "batchesWritten", "batchesRetried", "filesFailed" }) {
+                FunctionCounter.builder("project_files.bulk.events", bulkWriter,
+                                stat(ProjectFileBulkWriter::getStats, event))
+                        .tag("event", event)
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * GitHub URLs are built by string formatting, so the actuator's client
+     * timer would see every owner, repository and sha as a uri of its own.
+     * GitHubMetricsInterceptor times those calls per endpoint template instead.
+     */
+    @Bean
+    public MeterFilter gitHubClientRequestsFilter() {
+        return MeterFilter.deny(id -> "http.client.requests".equals(id.getName())
+                && "api.github.com".equals(id.getTag("client.name")));
+    }
+
+    private static <T> ToDoubleFunction<T> stat(Function<T, Map<String, Object>> stats, String key) {
+        return source -> stats.apply(source).get(key) instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+}
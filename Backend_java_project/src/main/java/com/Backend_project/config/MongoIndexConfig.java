@@ -0,0 +1,109 @@
+package com.Backend_project.config;
+
+import com.Backend_project.model.ChangeStreamCheckpoint;
+import com.Backend_project.model.CoordinatedJob;
+import com.Backend_project.model.LatexDocument;
+import com.Backend_project.model.LatexDocumentRevision;
+import com.Backend_project.model.Project;
+import com.Backend_project.model.ProjectFile;
+import com.Backend_project.model.PullRequest;
+import com.Backend_project.model.PullRequestPatch;
+import com.Backend_project.model.User;
+import com.Backend_project.model.WebhookDelivery;
+import com.mongodb.MongoCommandException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the document classes once the application
+ * is up. Runs on its own thread so an unreachable database never blocks
+ * startup; failures are logged and the finder methods keep working unindexed.
+ */
+@Configuration
+public class MongoIndexConfig {
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+
+    static final List<Class<?>> INDEXED_DOCUMENTS = List.of(
+            Project.class,
+            CoordinatedJob.class,
+            ChangeStreamCheckpoint.class,
+            ProjectFile.class,
+            PullRequest.class,
+            PullRequestPatch.class,
+            LatexDocument.class,
+            LatexDocumentRevision.class,
+            User.class,
+            WebhookDelivery.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mongoMappingContext;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        Thread thread = new Thread(this::ensureIndexes, "mongo-index-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+
+        for (Class<?> documentClass : INDEXED_DOCUMENTS) {
+            IndexOperations indexOps = mongoTemplate.indexOps(documentClass);
+            for (IndexDefinition index : resolver.resolveIndexFor(documentClass)) {
+                try {
+                    String name = ensureIndex(indexOps, index);
+                    logger.debug("Ensured index {} on {}", name, documentClass.getSimpleName());
+                } catch (Exception e) {
+                    logger.error("Failed to create index {} on {}: {}",
+                            index.getIndexKeys().toJson(), documentClass.getSimpleName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the index, rebuilding it when an index of the same name was
+     * built from an older declaration, such as one that was still unique
+     */
+    private String ensureIndex(IndexOperations indexOps, IndexDefinition index) {
+        try {
+            return indexOps.ensureIndex(index);
+        } catch (RuntimeException e) {
+            Object name = index.getIndexOptions().get("name");
+            if (name == null || !isOptionsConflict(e)) {
+                throw e;
+            }
+            logger.info("Rebuilding index {}, its declaration changed", name);
+            indexOps.dropIndex(name.toString());
+            return indexOps.ensureIndex(index);
+        }
+    }
+
+    private static boolean isOptionsConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException commandException) {
+                int code = commandException.getErrorCode();
+                return code == INDEX_OPTIONS_CONFLICT || code == INDEX_KEY_SPECS_CONFLICT;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,66 @@
+package com.Backend_project.config;
+
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporterBuilder;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.actuate.autoconfigure.tracing.otlp.OtlpProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoHandlerContext;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Traces a request through the ingestion job it queues, the GitHub calls
+ * the job makes and the Mongo writes it ends with. HTTP server and
+ * RestTemplate spans come from the actuator. Spans are exported to an OTLP
+ * collector only when management.otlp.tracing.endpoint is set, and to the
+ * log when tracing.log-spans is set; otherwise trace ids only reach the log
+ * lines. The actuator's own OTLP exporter is excluded because it falls back
+ * to a collector on localhost and logs every failed export.
+ */
+@Configuration
+@EnableConfigurationProperties(OtlpProperties.class)
+public class TracingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoTracing(ObservationRegistry observationRegistry) {
+        return builder -> builder
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+
+    /**
+     * Leave out Mongo commands issued outside any trace, such as the job
+     * poller's and lease heartbeat's, which would otherwise each start one
+     */
+    @Bean
+    public ObservationPredicate untracedMongoCommands() {
+        return (name, context) -> !(context instanceof MongoHandlerContext mongoContext)
+                || mongoContext.getRequestContext().hasKey(ObservationThreadLocalAccessor.KEY);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!'${management.otlp.tracing.endpoint:}'.isEmpty()")
+    public OtlpHttpSpanExporter otlpHttpSpanExporter(OtlpProperties properties) {
+        OtlpHttpSpanExporterBuilder builder = OtlpHttpSpanExporter.builder()
+                .setEndpoint(properties.getEndpoint())
+                .setTimeout(properties.getTimeout());
+        properties.getHeaders().forEach(builder::addHeader);
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.log-spans", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
@@ -1,5 +1,6 @@
 package com.Backend_project.config;
 
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -8,7 +9,8 @@ import org.springframework.web.client.RestTemplate;
 public class WebConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder, GitHubMetricsInterceptor gitHubMetricsInterceptor) {
+        // The builder adds a client span per request and the trace headers
+        return builder.additionalInterceptors(gitHubMetricsInterceptor).build();
     }
 }
\ No newline at end of file
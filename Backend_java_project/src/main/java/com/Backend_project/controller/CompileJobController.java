@@ -0,0 +1,41 @@
+package com.Backend_project.controller;
+
+import com.Backend_project.service.compile.CompileJobTracker;
+import com.Backend_project.service.compile.TrackedCompileJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/compile-jobs")
+public class CompileJobController {
+
+    @Autowired
+    private CompileJobTracker compileJobTracker;
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<TrackedCompileJob> getJob(
+            @PathVariable String jobId,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        return compileJobTracker.find(jobId, userId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Server-sent "status" and "log" events until the job finishes
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(
+            @PathVariable String jobId,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        return compileJobTracker.find(jobId, userId)
+                .map(job -> ResponseEntity.ok(compileJobTracker.subscribe(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
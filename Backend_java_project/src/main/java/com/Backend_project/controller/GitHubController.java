@@ -2,9 +2,11 @@ package com.Backend_project.controller;
 
 import com.Backend_project.dto.ApiResponse;
 import com.Backend_project.service.GitHubService;
+import com.Backend_project.service.GitHubWebhookService;
 import com.Backend_project.service.JwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.servlet.view.RedirectView;
 import org.springframework.web.bind.annotation.*;
@@ -28,6 +30,9 @@ public class GitHubController {
     @Autowired
     private GitHubService gitHubService;
 
+    @Autowired
+    private GitHubWebhookService gitHubWebhookService;
+
     @Autowired
     private JwtService jwtService;
 
@@ -264,4 +269,31 @@ public class GitHubController {
                     .body(ApiResponse.error("Failed to disconnect GitHub account", errors));
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/webhook")
+    public ResponseEntity<ApiResponse> receiveWebhook(
+            @RequestHeader(value = "X-GitHub-Event", required = false) String event,
+            @RequestHeader(value = "X-GitHub-Delivery", required = false) String deliveryId,
+            @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature,
+            @RequestBody byte[] body) {
+        Map<String, String> errors = new HashMap<>();
+        if (!gitHubWebhookService.isSignatureValid(body, signature)) {
+            logger.warn("Rejected webhook delivery {} with an invalid signature", deliveryId);
+            errors.put("message", "Invalid signature");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Webhook rejected", errors));
+        }
+        if (event == null) {
+            errors.put("message", "Missing X-GitHub-Event header");
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Webhook rejected", errors));
+        }
+        if (!gitHubWebhookService.enqueue(event, deliveryId, body)) {
+            errors.put("message", "Webhook queue is full");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error("Webhook not accepted", errors));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Webhook accepted", null));
+    }
+}
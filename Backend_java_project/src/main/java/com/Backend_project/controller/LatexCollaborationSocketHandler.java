@@ -0,0 +1,96 @@
+package com.Backend_project.controller;
+
+import com.Backend_project.security.JwtHandshakeInterceptor;
+import com.Backend_project.service.collab.CollaborationService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket endpoint for collaborative editing of one LaTeX document.
+ */
+@Component
+public class LatexCollaborationSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatexCollaborationSocketHandler.class);
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${latex.collab.max-message-bytes:1048576}")
+    private int maxMessageBytes;
+
+    @Value("${latex.collab.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${latex.collab.send-buffer-bytes:4194304}")
+    private int sendBufferBytes;
+
+    // Sends go through a decorator so broadcasts never block on one slow editor
+    private final Map<String, WebSocketSession> connections = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        session.setTextMessageSizeLimit(maxMessageBytes);
+        WebSocketSession connection = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs,
+                sendBufferBytes);
+        connections.put(session.getId(), connection);
+
+        try {
+            collaborationService.join(attribute(session, JwtHandshakeInterceptor.PROJECT_ID),
+                    attribute(session, JwtHandshakeInterceptor.DOCUMENT_ID),
+                    attribute(session, JwtHandshakeInterceptor.USER_ID),
+                    connection);
+        } catch (Exception e) {
+            logger.debug("Collaboration join failed: {}", e.getMessage());
+            connections.remove(session.getId());
+            session.close(CloseStatus.POLICY_VIOLATION.withReason(e.getMessage()));
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        WebSocketSession connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+
+        Map<String, Object> payload;
+        try {
+            payload = objectMapper.readValue(message.getPayload(), new TypeReference<Map<String, Object>>() {
+            });
+        } catch (Exception e) {
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        collaborationService.receive(attribute(session, JwtHandshakeInterceptor.DOCUMENT_ID),
+                attribute(session, JwtHandshakeInterceptor.USER_ID), connection, payload);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        WebSocketSession connection = connections.remove(session.getId());
+        if (connection != null) {
+            collaborationService.leave(attribute(session, JwtHandshakeInterceptor.DOCUMENT_ID), connection);
+        }
+    }
+
+    private String attribute(WebSocketSession session, String name) {
+        return (String) session.getAttributes().get(name);
+    }
+}
@@ -1,12 +1,25 @@
 package com.Backend_project.controller;
 
+import com.Backend_project.dto.LatexDocumentPatchRequest;
+import com.Backend_project.dto.LatexDocumentPatchResult;
+import com.Backend_project.exceptions.DocumentConflictException;
 import com.Backend_project.model.LatexDocument;
+import com.Backend_project.model.LatexDocumentRevision;
 import com.Backend_project.service.LatexDocumentService;
+import com.Backend_project.service.compile.TrackedCompileJob;
+import com.Backend_project.service.outline.LatexOutline;
+import com.Backend_project.service.outline.LatexSymbolMatch;
+import com.Backend_project.util.TextEdit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.file.Path;
 import java.util.List;
 
 @RestController
@@ -41,6 +54,28 @@ public class LatexDocumentController {
             LatexDocument updatedDocument = latexDocumentService.updateDocument(projectId, userId, documentId,
                     document);
             return ResponseEntity.ok(updatedDocument);
+        } catch (DocumentConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PatchMapping("/{documentId}")
+    public ResponseEntity<LatexDocumentPatchResult> patchDocument(
+            @PathVariable String projectId,
+            @PathVariable String documentId,
+            Authentication authentication,
+            @RequestBody LatexDocumentPatchRequest patch) {
+        try {
+            String userId = authentication.getName();
+            LatexDocumentPatchResult result = latexDocumentService.patchDocument(projectId, userId, documentId,
+                    patch);
+            return ResponseEntity.ok(result);
+        } catch (DocumentConflictException e) {
+            // Tell the editor which version it has to rebase onto
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new LatexDocumentPatchResult(documentId, e.getCurrentContentHash(), 0, null));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -87,17 +122,157 @@ public class LatexDocumentController {
         }
     }
 
+    @GetMapping("/{documentId}/outline")
+    public ResponseEntity<LatexOutline> getOutline(
+            @PathVariable String projectId,
+            @PathVariable String documentId,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            LatexOutline outline = latexDocumentService.getOutline(projectId, userId, documentId);
+            return ResponseEntity.ok(outline);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/symbols")
+    public ResponseEntity<List<LatexSymbolMatch>> findSymbols(
+            @PathVariable String projectId,
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(required = false) String kind,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            List<LatexSymbolMatch> symbols = latexDocumentService.findSymbols(projectId, userId, prefix, kind,
+                    Math.max(1, Math.min(limit, 500)));
+            return ResponseEntity.ok(symbols);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{documentId}/revisions")
+    public ResponseEntity<List<LatexDocumentRevision>> getRevisions(
+            @PathVariable String projectId,
+            @PathVariable String documentId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            List<LatexDocumentRevision> revisions = latexDocumentService.getRevisions(projectId, userId, documentId,
+                    before, limit);
+            return ResponseEntity.ok(revisions);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/{documentId}/revisions/{sequence}", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getRevisionContent(
+            @PathVariable String projectId,
+            @PathVariable String documentId,
+            @PathVariable long sequence,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            String content = latexDocumentService.getRevisionContent(projectId, userId, documentId, sequence);
+            return ResponseEntity.ok(content);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{documentId}/revisions/{sequence}/diff")
+    public ResponseEntity<TextEdit> diffRevision(
+            @PathVariable String projectId,
+            @PathVariable String documentId,
+            @PathVariable long sequence,
+            @RequestParam(required = false) Long to,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            TextEdit diff = latexDocumentService.diffRevisions(projectId, userId, documentId, sequence, to);
+            return ResponseEntity.ok(diff);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{documentId}/revisions/{sequence}/restore")
+    public ResponseEntity<LatexDocument> restoreRevision(
+            @PathVariable String projectId,
+            @PathVariable String documentId,
+            @PathVariable long sequence,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            LatexDocument document = latexDocumentService.restoreRevision(projectId, userId, documentId, sequence);
+            return ResponseEntity.ok(document);
+        } catch (DocumentConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/{documentId}/compile")
-    public ResponseEntity<LatexDocument> compileDocument(
+    public ResponseEntity<TrackedCompileJob> compileDocument(
+            @PathVariable String projectId,
+            @PathVariable String documentId,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            TrackedCompileJob job = latexDocumentService.compileDocument(projectId, userId, documentId);
+            return ResponseEntity.accepted().body(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{documentId}/pdf")
+    public ResponseEntity<Resource> getCompiledPdf(
             @PathVariable String projectId,
             @PathVariable String documentId,
             Authentication authentication) {
         try {
             String userId = authentication.getName();
-            LatexDocument compiledDocument = latexDocumentService.compileDocument(projectId, userId, documentId);
-            return ResponseEntity.ok(compiledDocument);
+            Path pdf = latexDocumentService.getCompiledPdf(projectId, userId, documentId);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .body(new FileSystemResource(pdf));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/build")
+    public ResponseEntity<TrackedCompileJob> buildProject(
+            @PathVariable String projectId,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            TrackedCompileJob job = latexDocumentService.buildProject(projectId, userId);
+            return ResponseEntity.accepted().body(job);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/build/pdf")
+    public ResponseEntity<Resource> getProjectBuildPdf(
+            @PathVariable String projectId,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            Path pdf = latexDocumentService.getProjectBuildPdf(projectId, userId);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .body(new FileSystemResource(pdf));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
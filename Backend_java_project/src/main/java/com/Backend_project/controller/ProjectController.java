@@ -2,8 +2,21 @@ package com.Backend_project.controller;
 
 import com.Backend_project.dto.ApiResponse;
 import com.Backend_project.model.Project;
+import com.Backend_project.model.ProjectStatus;
+import com.Backend_project.model.PullRequest;
+import com.Backend_project.model.PullRequestPatch;
+import com.Backend_project.model.PullRequestSummary;
 import com.Backend_project.service.ProjectService;
 import com.Backend_project.service.JwtService;
+import com.Backend_project.service.PullRequestService;
+import com.Backend_project.service.retrieval.ContextPack;
+import com.Backend_project.service.retrieval.ContextRetrievalService;
+import com.Backend_project.service.search.SearchIndexService;
+import com.Backend_project.service.search.SearchMode;
+import com.Backend_project.service.search.SearchResults;
+import com.Backend_project.service.symbols.CodeReference;
+import com.Backend_project.service.symbols.CodeSymbol;
+import com.Backend_project.service.symbols.SymbolIndexService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,6 +38,18 @@ public class ProjectController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private ContextRetrievalService contextRetrievalService;
+
+    @Autowired
+    private SymbolIndexService symbolIndexService;
+
     private String getUserIdFromToken(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -162,13 +187,13 @@ public class ProjectController {
             @PathVariable String projectId) {
         try {
             String userId = getUserIdFromToken(request);
-            Project project = projectService.getProjectStatus(userId, projectId);
+            ProjectStatus status = projectService.getProjectStatus(userId, projectId);
 
             Map<String, Object> data = new HashMap<>();
-            data.put("status", project.getStatus());
-            data.put("isAccessible", project.isAccessible());
-            if (project.getErrorMessage() != null) {
-                data.put("error", project.getErrorMessage());
+            data.put("status", status.getStatus());
+            data.put("isAccessible", status.isAccessible());
+            if (status.getErrorMessage() != null) {
+                data.put("error", status.getErrorMessage());
             }
 
             return ResponseEntity.ok(ApiResponse.success("Project status retrieved", data));
@@ -219,4 +244,160 @@ public class ProjectController {
                     .body(ApiResponse.error("Failed to get file content", errors));
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{projectId}/pulls")
+    public ResponseEntity<ApiResponse> getPullRequests(
+            HttpServletRequest request,
+            @PathVariable String projectId) {
+        try {
+            String userId = getUserIdFromToken(request);
+            List<PullRequestSummary> pullRequests = pullRequestService.getPullRequests(userId, projectId);
+            Map<String, Object> data = new HashMap<>();
+            data.put("pullRequests", pullRequests);
+            return ResponseEntity.ok(ApiResponse.success("Pull requests retrieved successfully", data));
+        } catch (Exception e) {
+            logger.error("Failed to get pull requests: {}", e.getMessage());
+            Map<String, String> errors = new HashMap<>();
+            errors.put("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to get pull requests", errors));
+        }
+    }
+
+    @GetMapping("/{projectId}/pulls/{number}")
+    public ResponseEntity<ApiResponse> getPullRequest(
+            HttpServletRequest request,
+            @PathVariable String projectId,
+            @PathVariable int number) {
+        try {
+            String userId = getUserIdFromToken(request);
+            PullRequest pullRequest = pullRequestService.getPullRequest(userId, projectId, number);
+            Map<String, Object> data = new HashMap<>();
+            data.put("pullRequest", pullRequest);
+            return ResponseEntity.ok(ApiResponse.success("Pull request retrieved successfully", data));
+        } catch (Exception e) {
+            logger.error("Failed to get pull request: {}", e.getMessage());
+            Map<String, String> errors = new HashMap<>();
+            errors.put("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to get pull request", errors));
+        }
+    }
+
+    @GetMapping("/{projectId}/pulls/{number}/patches")
+    public ResponseEntity<ApiResponse> getPullRequestPatches(
+            HttpServletRequest request,
+            @PathVariable String projectId,
+            @PathVariable int number,
+            @RequestParam(required = false) String path) {
+        try {
+            String userId = getUserIdFromToken(request);
+            List<PullRequestPatch> patches = pullRequestService.getPatches(userId, projectId, number, path);
+            Map<String, Object> data = new HashMap<>();
+            data.put("patches", patches);
+            return ResponseEntity.ok(ApiResponse.success("Patches retrieved successfully", data));
+        } catch (Exception e) {
+            logger.error("Failed to get pull request patches: {}", e.getMessage());
+            Map<String, String> errors = new HashMap<>();
+            errors.put("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to get pull request patches", errors));
+        }
+    }
+
+    @GetMapping("/{projectId}/search")
+    public ResponseEntity<ApiResponse> search(
+            HttpServletRequest request,
+            @PathVariable String projectId,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "terms") String mode,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            String userId = getUserIdFromToken(request);
+            SearchResults results = searchIndexService.search(projectId, userId, q,
+                    SearchMode.valueOf(mode.toUpperCase()), type, limit);
+            Map<String, Object> data = new HashMap<>();
+            data.put("hits", results.hits());
+            data.put("candidates", results.candidates());
+            data.put("complete", results.complete());
+            data.put("tookMillis", results.tookMillis());
+            return ResponseEntity.ok(ApiResponse.success("Search completed", data));
+        } catch (Exception e) {
+            logger.error("Failed to search project: {}", e.getMessage());
+            Map<String, String> errors = new HashMap<>();
+            errors.put("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to search project", errors));
+        }
+    }
+
+    @GetMapping("/{projectId}/context")
+    public ResponseEntity<ApiResponse> getContext(
+            HttpServletRequest request,
+            @PathVariable String projectId,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8000") int maxTokens) {
+        try {
+            String userId = getUserIdFromToken(request);
+            ContextPack pack = contextRetrievalService.retrieve(projectId, userId, q, maxTokens);
+            Map<String, Object> data = new HashMap<>();
+            data.put("chunks", pack.chunks());
+            data.put("usedTokens", pack.usedTokens());
+            data.put("maxTokens", pack.maxTokens());
+            data.put("matchedChunks", pack.matchedChunks());
+            return ResponseEntity.ok(ApiResponse.success("Context retrieved", data));
+        } catch (Exception e) {
+            logger.error("Failed to retrieve context: {}", e.getMessage());
+            Map<String, String> errors = new HashMap<>();
+            errors.put("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to retrieve context", errors));
+        }
+    }
+
+    @GetMapping("/{projectId}/symbols")
+    public ResponseEntity<ApiResponse> findSymbols(
+            HttpServletRequest request,
+            @PathVariable String projectId,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(required = false) String kind,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            String userId = getUserIdFromToken(request);
+            List<CodeSymbol> symbols = symbolIndexService.findSymbols(projectId, userId, q,
+                    !"exact".equalsIgnoreCase(match), kind, limit);
+            Map<String, Object> data = new HashMap<>();
+            data.put("symbols", symbols);
+            return ResponseEntity.ok(ApiResponse.success("Symbols found", data));
+        } catch (Exception e) {
+            logger.error("Failed to find symbols: {}", e.getMessage());
+            Map<String, String> errors = new HashMap<>();
+            errors.put("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to find symbols", errors));
+        }
+    }
+
+    @GetMapping("/{projectId}/symbols/references")
+    public ResponseEntity<ApiResponse> findReferences(
+            HttpServletRequest request,
+            @PathVariable String projectId,
+            @RequestParam String name,
+            @RequestParam(defaultValue = "200") int limit) {
+        try {
+            String userId = getUserIdFromToken(request);
+            List<CodeReference> references = symbolIndexService.findReferences(projectId, userId, name, limit);
+            Map<String, Object> data = new HashMap<>();
+            data.put("references", references);
+            return ResponseEntity.ok(ApiResponse.success("References found", data));
+        } catch (Exception e) {
+            logger.error("Failed to find references: {}", e.getMessage());
+            Map<String, String> errors = new HashMap<>();
+            errors.put("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to find references", errors));
+        }
+    }
+}
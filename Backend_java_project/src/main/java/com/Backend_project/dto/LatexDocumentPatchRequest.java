@@ -0,0 +1,12 @@
+package com.Backend_project.dto;
+
+import com.Backend_project.util.TextEdit;
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class LatexDocumentPatchRequest {
+    private String baseContentHash; // Hash of the content the edits were made against
+    private List<TextEdit> edits = new ArrayList<>();
+}
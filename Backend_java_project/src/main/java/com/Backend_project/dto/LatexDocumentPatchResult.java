@@ -0,0 +1,16 @@
+package com.Backend_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatexDocumentPatchResult {
+    private String documentId;
+    private String contentHash;
+    private int length;
+    private Date updatedAt;
+}
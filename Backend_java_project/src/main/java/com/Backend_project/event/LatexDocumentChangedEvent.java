@@ -0,0 +1,7 @@
+package com.Backend_project.event;
+
+/**
+ * A LaTeX document was created or its content or title changed.
+ */
+public record LatexDocumentChangedEvent(String projectId, String documentId, String title, String content) {
+}
@@ -0,0 +1,7 @@
+package com.Backend_project.event;
+
+/**
+ * A LaTeX document was deleted.
+ */
+public record LatexDocumentDeletedEvent(String projectId, String documentId) {
+}
@@ -0,0 +1,8 @@
+package com.Backend_project.event;
+
+/**
+ * Changes made by other nodes may have been missed, so every cache derived
+ * from the database must be dropped and rebuilt on demand.
+ */
+public record LocalCachesResetEvent() {
+}
@@ -0,0 +1,7 @@
+package com.Backend_project.event;
+
+/**
+ * A repository file's content was written to the project file cache.
+ */
+public record ProjectFileCachedEvent(String projectId, String path, String sha, String content) {
+}
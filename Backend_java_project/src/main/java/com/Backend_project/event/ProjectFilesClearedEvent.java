@@ -0,0 +1,8 @@
+package com.Backend_project.event;
+
+/**
+ * All cached files of a project were dropped, on resync or deletion.
+ * {@code projectDeleted} tells the two apart, for state that outlives a resync.
+ */
+public record ProjectFilesClearedEvent(String projectId, boolean projectDeleted) {
+}
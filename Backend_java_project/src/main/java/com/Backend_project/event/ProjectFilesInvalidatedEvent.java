@@ -0,0 +1,10 @@
+package com.Backend_project.event;
+
+import java.util.Set;
+
+/**
+ * Cached files of a project were dropped because the repository changed
+ * them; they are fetched again, and re-announced, when next read.
+ */
+public record ProjectFilesInvalidatedEvent(String projectId, Set<String> paths) {
+}
@@ -0,0 +1,14 @@
+package com.Backend_project.exceptions;
+
+public class DocumentConflictException extends RuntimeException {
+    private final String currentContentHash;
+
+    public DocumentConflictException(String message, String currentContentHash) {
+        super(message);
+        this.currentContentHash = currentContentHash;
+    }
+
+    public String getCurrentContentHash() {
+        return currentContentHash;
+    }
+}
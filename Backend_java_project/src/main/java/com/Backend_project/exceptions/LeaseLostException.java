@@ -0,0 +1,14 @@
+package com.Backend_project.exceptions;
+
+public class LeaseLostException extends RuntimeException {
+    private final String jobKey;
+
+    public LeaseLostException(String message, String jobKey) {
+        super(message);
+        this.jobKey = jobKey;
+    }
+
+    public String getJobKey() {
+        return jobKey;
+    }
+}
@@ -0,0 +1,72 @@
+package com.Backend_project.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.List;
+
+/**
+ * Symbols defined and referenced in one file blob, keyed by the blob sha so
+ * identical content is extracted once across paths, resyncs and projects.
+ */
+@Document(collection = "blob_symbols")
+public class BlobSymbols {
+    @Id
+    private String id; // Blob sha
+    private String language;
+    private int extractorVersion; // Records from older extractors are redone
+    private List<Definition> definitions;
+    private List<Reference> references;
+
+    /**
+     * A declared class, function, method or type; container is the enclosing declaration
+     */
+    public record Definition(String name, String kind, int line, String container) {
+    }
+
+    /**
+     * An identifier used on a line, at most once per name and line
+     */
+    public record Reference(String name, int line) {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public int getExtractorVersion() {
+        return extractorVersion;
+    }
+
+    public void setExtractorVersion(int extractorVersion) {
+        this.extractorVersion = extractorVersion;
+    }
+
+    public List<Definition> getDefinitions() {
+        return definitions;
+    }
+
+    public void setDefinitions(List<Definition> definitions) {
+        this.definitions = definitions;
+    }
+
+    public List<Reference> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<Reference> references) {
+        this.references = references;
+    }
+}
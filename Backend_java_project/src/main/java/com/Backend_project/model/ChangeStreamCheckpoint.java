@@ -0,0 +1,45 @@
+package com.Backend_project.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * How far a node has read the change stream, so it resumes from there after
+ * a restart. Checkpoints of nodes that stopped for good expire.
+ */
+@Document(collection = "change_stream_checkpoints")
+public class ChangeStreamCheckpoint {
+    @Id
+    private String id; // Node id
+    private String resumeToken; // The token's _data string
+    @Indexed(expireAfter = "7d")
+    private Date updatedAt;
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public void setResumeToken(String resumeToken) {
+        this.resumeToken = resumeToken;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,179 @@
+package com.Backend_project.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * A unit of work shared by all backend nodes. While a job is active at most
+ * one job exists per key, and it is owned by the node holding its lease. Every
+ * time a job changes hands its fencing token grows, so a node that lost its
+ * lease can no longer update the job.
+ */
+@Document(collection = "coordinated_jobs")
+@CompoundIndexes({
+        @CompoundIndex(name = "active_key", def = "{ 'key': 1 }", unique = true,
+                partialFilter = "{ 'active': true }"),
+        @CompoundIndex(name = "claimable", def = "{ 'active': 1, 'type': 1, 'leaseUntil': 1 }")
+})
+public class CoordinatedJob {
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    @Id
+    private String id;
+    private String type;
+    private String key;
+    private Status status;
+    /** Set while the job is queued or running; unset once it finished */
+    private Boolean active;
+    private Map<String, String> payload;
+    /** Trace headers of the request that queued the job */
+    private Map<String, String> traceContext;
+    private String owner;
+    private long fencingToken;
+    private Date leaseUntil;
+    private int attempts;
+    /** Asked to run again while it was running */
+    private boolean rerunRequested;
+    private String error;
+    private Date createdAt;
+    private Date updatedAt;
+    @Indexed(expireAfter = "7d")
+    private Date finishedAt;
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public Map<String, String> getPayload() {
+        return payload;
+    }
+
+    public void setPayload(Map<String, String> payload) {
+        this.payload = payload;
+    }
+
+    public Map<String, String> getTraceContext() {
+        return traceContext;
+    }
+
+    public void setTraceContext(Map<String, String> traceContext) {
+        this.traceContext = traceContext;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
+    public Date getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Date leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public boolean isRerunRequested() {
+        return rerunRequested;
+    }
+
+    public void setRerunRequested(boolean rerunRequested) {
+        this.rerunRequested = rerunRequested;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Date finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
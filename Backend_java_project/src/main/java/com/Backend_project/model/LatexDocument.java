@@ -1,23 +1,36 @@
 package com.Backend_project.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Date;
 
 @Document(collection = "latex_documents")
+@CompoundIndex(name = "project_type_order", def = "{ 'projectId': 1, 'type': 1, 'order': 1 }")
+@CompoundIndex(name = "project_order", def = "{ 'projectId': 1, 'order': 1 }")
 public class LatexDocument {
     @Id
     private String id;
     private String projectId;
     private String title;
     private String content;
+    private String contentHash; // SHA-256 of content
     private String type; // "chapter", "section", etc.
     private int order; // For ordering chapters/sections
     private String status; // "draft", "review", "completed"
     private Date createdAt;
     private Date updatedAt;
-    private String compiledContent; // Stores the compiled LaTeX output
+    @Indexed(sparse = true)
+    private String compiledArtifactId; // Compiled PDF in the artifact store
+    private String compileKey; // Compile cache key the artifact was built from
+    private String compileLog; // Tail of the last compiler log
+    private Date compiledAt;
     private boolean isCompiled;
+    @Version
+    private Long version; // Optimistic lock, bumped on every write
+    private long revisionCount; // Revisions recorded in latex_document_revisions
 
     // Getters and Setters
     public String getId() {
@@ -52,6 +65,14 @@ public class LatexDocument {
         this.content = content;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public String getType() {
         return type;
     }
@@ -92,12 +113,36 @@ public class LatexDocument {
         this.updatedAt = updatedAt;
     }
 
-    public String getCompiledContent() {
-        return compiledContent;
+    public String getCompiledArtifactId() {
+        return compiledArtifactId;
+    }
+
+    public void setCompiledArtifactId(String compiledArtifactId) {
+        this.compiledArtifactId = compiledArtifactId;
+    }
+
+    public String getCompileKey() {
+        return compileKey;
+    }
+
+    public void setCompileKey(String compileKey) {
+        this.compileKey = compileKey;
+    }
+
+    public String getCompileLog() {
+        return compileLog;
     }
 
-    public void setCompiledContent(String compiledContent) {
-        this.compiledContent = compiledContent;
+    public void setCompileLog(String compileLog) {
+        this.compileLog = compileLog;
+    }
+
+    public Date getCompiledAt() {
+        return compiledAt;
+    }
+
+    public void setCompiledAt(Date compiledAt) {
+        this.compiledAt = compiledAt;
     }
 
     public boolean isCompiled() {
@@ -107,4 +152,20 @@ public class LatexDocument {
     public void setCompiled(boolean compiled) {
         isCompiled = compiled;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public long getRevisionCount() {
+        return revisionCount;
+    }
+
+    public void setRevisionCount(long revisionCount) {
+        this.revisionCount = revisionCount;
+    }
+}
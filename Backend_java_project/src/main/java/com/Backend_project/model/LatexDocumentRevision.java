@@ -0,0 +1,126 @@
+package com.Backend_project.model;
+
+import com.Backend_project.util.TextEdit;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.Date;
+
+/**
+ * One earlier state of a LaTeX document's content. Instead of the content
+ * itself it normally holds the reverse delta that turns the next newer state
+ * back into this one; every few revisions a full snapshot is kept so that
+ * rebuilding any revision takes a bounded number of steps.
+ */
+@Document(collection = "latex_document_revisions")
+@CompoundIndex(name = "document_sequence", def = "{ 'documentId': 1, 'sequence': -1 }", unique = true)
+public class LatexDocumentRevision {
+    @Id
+    private String id;
+    private String documentId;
+    private String projectId;
+    private long sequence; // 0-based position in the document's history
+    private Long version; // Document version this content belonged to
+    private String userId; // Who replaced this content
+    private Date createdAt; // When this content was replaced
+    private String contentHash; // SHA-256 of this revision's content
+    private int length;
+    private TextEdit reverseDelta; // Turns the next newer content into this one
+    private String snapshot; // Full content, on snapshot revisions only
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    @JsonIgnore
+    public TextEdit getReverseDelta() {
+        return reverseDelta;
+    }
+
+    public void setReverseDelta(TextEdit reverseDelta) {
+        this.reverseDelta = reverseDelta;
+    }
+
+    @JsonIgnore
+    public String getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(String snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot != null;
+    }
+}
@@ -1,6 +1,7 @@
 package com.Backend_project.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Date;
 import java.util.Map;
@@ -9,11 +10,14 @@ import java.util.Map;
 public class Project {
     @Id
     private String id;
+    @Indexed
     private String userId;
+    @Indexed
     private String repositoryId;
     private String repositoryName;
     private String repositoryOwner;
     private String defaultBranch;
+    private String headSha; // Default branch commit the cached content reflects
     private String status; // PENDING, ACTIVE, FAILED
     private String errorMessage;
     private Map<String, Object> fileTree;
@@ -70,6 +74,14 @@ public class Project {
         this.defaultBranch = defaultBranch;
     }
 
+    public String getHeadSha() {
+        return headSha;
+    }
+
+    public void setHeadSha(String headSha) {
+        this.headSha = headSha;
+    }
+
     public String getStatus() {
         return status;
     }
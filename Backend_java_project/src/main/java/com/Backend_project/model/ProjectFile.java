@@ -1,10 +1,12 @@
 package com.Backend_project.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Date;
 
 @Document(collection = "project_files")
+@CompoundIndex(name = "project_path", def = "{ 'projectId': 1, 'path': 1 }", unique = true)
 public class ProjectFile {
     @Id
     private String id;
@@ -0,0 +1,79 @@
+package com.Backend_project.model;
+
+import java.util.Date;
+
+/**
+ * Lightweight read model of a project's ingestion status. Loaded through a
+ * field projection so status polls never touch the file tree.
+ */
+public class ProjectStatus {
+    private String id;
+    private String userId;
+    private String status;
+    private String errorMessage;
+    private boolean isAccessible;
+    private Date updatedAt;
+
+    public ProjectStatus() {
+    }
+
+    public static ProjectStatus from(Project project) {
+        ProjectStatus projectStatus = new ProjectStatus();
+        projectStatus.setId(project.getId());
+        projectStatus.setUserId(project.getUserId());
+        projectStatus.setStatus(project.getStatus());
+        projectStatus.setErrorMessage(project.getErrorMessage());
+        projectStatus.setAccessible(project.isAccessible());
+        projectStatus.setUpdatedAt(project.getUpdatedAt());
+        return projectStatus;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public boolean isAccessible() {
+        return isAccessible;
+    }
+
+    public void setAccessible(boolean accessible) {
+        isAccessible = accessible;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
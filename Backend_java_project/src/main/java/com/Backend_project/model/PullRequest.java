@@ -0,0 +1,206 @@
+package com.Backend_project.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pull request of a project's repository with its changed files and
+ * review comments. File patches live in pull_request_patches and are only
+ * loaded when a diff is opened.
+ */
+@Document(collection = "pull_requests")
+@CompoundIndex(name = "project_number", def = "{ 'projectId': 1, 'number': -1 }", unique = true)
+public class PullRequest {
+    @Id
+    private String id;
+    private String projectId;
+    private int number;
+    private String title;
+    private String state;
+    private String author;
+    private boolean draft;
+    private String body;
+    private String headRef;
+    private String headSha;
+    private String baseRef;
+    private String createdAt;
+    private String updatedAt; // GitHub timestamp, used to skip unchanged PRs on resync
+    private String mergedAt;
+    private int additions;
+    private int deletions;
+    private int changedFiles;
+    private int commentCount;
+    private List<FileChange> files;
+    private List<Map<String, Object>> comments;
+
+    /**
+     * A changed file without its patch
+     */
+    public record FileChange(String filename, String status, int additions, int deletions, int changes,
+            String previousFilename, boolean hasPatch) {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public boolean isDraft() {
+        return draft;
+    }
+
+    public void setDraft(boolean draft) {
+        this.draft = draft;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public String getHeadRef() {
+        return headRef;
+    }
+
+    public void setHeadRef(String headRef) {
+        this.headRef = headRef;
+    }
+
+    public String getHeadSha() {
+        return headSha;
+    }
+
+    public void setHeadSha(String headSha) {
+        this.headSha = headSha;
+    }
+
+    public String getBaseRef() {
+        return baseRef;
+    }
+
+    public void setBaseRef(String baseRef) {
+        this.baseRef = baseRef;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(String updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getMergedAt() {
+        return mergedAt;
+    }
+
+    public void setMergedAt(String mergedAt) {
+        this.mergedAt = mergedAt;
+    }
+
+    public int getAdditions() {
+        return additions;
+    }
+
+    public void setAdditions(int additions) {
+        this.additions = additions;
+    }
+
+    public int getDeletions() {
+        return deletions;
+    }
+
+    public void setDeletions(int deletions) {
+        this.deletions = deletions;
+    }
+
+    public int getChangedFiles() {
+        return changedFiles;
+    }
+
+    public void setChangedFiles(int changedFiles) {
+        this.changedFiles = changedFiles;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(int commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public List<FileChange> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<FileChange> files) {
+        this.files = files;
+    }
+
+    public List<Map<String, Object>> getComments() {
+        return comments;
+    }
+
+    public void setComments(List<Map<String, Object>> comments) {
+        this.comments = comments;
+    }
+}
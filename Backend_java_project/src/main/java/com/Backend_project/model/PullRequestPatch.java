@@ -0,0 +1,61 @@
+package com.Backend_project.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Unified diff of one file of a pull request, stored apart from the pull
+ * request so it is read only when that diff is viewed.
+ */
+@Document(collection = "pull_request_patches")
+@CompoundIndex(name = "project_number_file", def = "{ 'projectId': 1, 'number': 1, 'filename': 1 }", unique = true)
+public class PullRequestPatch {
+    @Id
+    private String id;
+    private String projectId;
+    private int number;
+    private String filename;
+    private String patch;
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public String getPatch() {
+        return patch;
+    }
+
+    public void setPatch(String patch) {
+        this.patch = patch;
+    }
+}
@@ -3,6 +3,7 @@ package com.Backend_project.model;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Date;
 
@@ -13,6 +14,7 @@ public class User {
     @Id
     private String id;
     private String username;
+    @Indexed
     private String email;
     private String password;
     private boolean emailVerified;
@@ -20,6 +22,7 @@ public class User {
     private boolean isBanned;
 
     // GitHub integration
+    @Indexed(sparse = true)
     private String githubId;
     private String githubUsername;
     private String githubAccessToken;
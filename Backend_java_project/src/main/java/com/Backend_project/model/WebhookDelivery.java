@@ -0,0 +1,55 @@
+package com.Backend_project.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A webhook delivery some node has accepted. GitHub reuses the delivery id
+ * when it redelivers, so the id being taken means the delivery was already
+ * handled, whichever node received it. Old deliveries expire.
+ */
+@Document(collection = "webhook_deliveries")
+public class WebhookDelivery {
+    @Id
+    private String id; // X-GitHub-Delivery
+    private String event;
+    @Indexed(expireAfter = "3d")
+    private Date receivedAt;
+
+    public WebhookDelivery() {
+    }
+
+    public WebhookDelivery(String id, String event, Date receivedAt) {
+        this.id = id;
+        this.event = event;
+        this.receivedAt = receivedAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public Date getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(Date receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+}
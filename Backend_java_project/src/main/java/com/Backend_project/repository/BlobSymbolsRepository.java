@@ -0,0 +1,9 @@
+package com.Backend_project.repository;
+
+import com.Backend_project.model.BlobSymbols;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BlobSymbolsRepository extends MongoRepository<BlobSymbols, String> {
+}
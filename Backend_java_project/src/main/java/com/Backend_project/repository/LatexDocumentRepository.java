@@ -17,6 +17,15 @@ public interface LatexDocumentRepository extends MongoRepository<LatexDocument,
      */
     List<LatexDocument> findByProjectId(String projectId);
 
+    /**
+     * Find a document only if it belongs to the given project, so a project's
+     * owner cannot reach another project's documents through their own
+     * @param id The ID of the document
+     * @param projectId The ID of the project
+     * @return Optional of LatexDocument
+     */
+    Optional<LatexDocument> findByIdAndProjectId(String id, String projectId);
+
     /**
      * Find all LaTeX documents belonging to a specific project and type
      * @param projectId The ID of the project
@@ -0,0 +1,59 @@
+package com.Backend_project.repository;
+
+import com.Backend_project.model.LatexDocumentRevision;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LatexDocumentRevisionRepository extends MongoRepository<LatexDocumentRevision, String> {
+
+    /**
+     * Page backwards through a document's history, leaving out deltas and snapshots
+     * @param documentId The ID of the document
+     * @param before Only revisions with a lower sequence are returned
+     * @param pageable Page size
+     * @return Revisions, newest first
+     */
+    @Query(value = "{ 'documentId': ?0, 'sequence': { $lt: ?1 } }", fields = "{ 'reverseDelta': 0, 'snapshot': 0 }",
+            sort = "{ 'sequence': -1 }")
+    List<LatexDocumentRevision> findSummaries(String documentId, long before, Pageable pageable);
+
+    /**
+     * Find a single revision of a document
+     * @param documentId The ID of the document
+     * @param sequence The revision's position in the history
+     * @return Optional of LatexDocumentRevision
+     */
+    Optional<LatexDocumentRevision> findByDocumentIdAndSequence(String documentId, long sequence);
+
+    /**
+     * Find the oldest snapshot at or after a revision, where reconstruction of it starts
+     * @param documentId The ID of the document
+     * @param sequence The revision to reconstruct
+     * @param pageable Page size, normally one
+     * @return Snapshot revisions, oldest first
+     */
+    @Query(value = "{ 'documentId': ?0, 'sequence': { $gte: ?1 }, 'snapshot': { $ne: null } }",
+            sort = "{ 'sequence': 1 }")
+    List<LatexDocumentRevision> findSnapshotsFrom(String documentId, long sequence, Pageable pageable);
+
+    /**
+     * Find the revisions in [from, to), newest first
+     * @param documentId The ID of the document
+     * @param from Lowest sequence, inclusive
+     * @param to Highest sequence, exclusive
+     * @return Revisions to replay backwards
+     */
+    @Query(value = "{ 'documentId': ?0, 'sequence': { $gte: ?1, $lt: ?2 } }", sort = "{ 'sequence': -1 }")
+    List<LatexDocumentRevision> findRange(String documentId, long from, long to);
+
+    /**
+     * Delete a document's whole history
+     * @param documentId The ID of the document
+     */
+    void deleteByDocumentId(String documentId);
+}
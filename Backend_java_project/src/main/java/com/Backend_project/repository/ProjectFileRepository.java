@@ -2,10 +2,31 @@ package com.Backend_project.repository;
 
 import com.Backend_project.model.ProjectFile;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import java.util.Collection;
+import java.util.Date;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProjectFileRepository extends MongoRepository<ProjectFile, String> {
     Optional<ProjectFile> findByProjectIdAndPath(String projectId, String path);
 
+    /**
+     * Stream every cached file of a project; the caller must close the stream
+     */
+    Stream<ProjectFile> findByProjectId(String projectId);
+
+    boolean existsByProjectIdAndPath(String projectId, String path);
+
+    /**
+     * Record a read without rewriting the cached content
+     */
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'lastAccessed': ?1 } }")
+    void updateLastAccessedById(String id, Date lastAccessed);
+
+    void deleteByProjectIdAndPathIn(String projectId, Collection<String> paths);
+
     void deleteByProjectId(String projectId);
 }
\ No newline at end of file
@@ -1,9 +1,35 @@
 package com.Backend_project.repository;
 
 import com.Backend_project.model.Project;
+import com.Backend_project.model.ProjectStatus;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProjectRepository extends MongoRepository<Project, String> {
     List<Project> findByUserId(String userId);
-}
\ No newline at end of file
+
+    /**
+     * Load only the status fields of a project, skipping the file tree
+     * @param id The ID of the project
+     * @return Optional of ProjectStatus
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'userId': 1, 'status': 1, 'errorMessage': 1, 'isAccessible': 1, 'updatedAt': 1 }")
+    Optional<ProjectStatus> findStatusById(String id);
+
+    /**
+     * Load the fields needed to sync the projects of a GitHub repository, skipping the file tree
+     * @param repositoryId The GitHub ID of the repository
+     * @return List of Project
+     */
+    @Query(value = "{ 'repositoryId': ?0 }", fields = "{ 'userId': 1, 'repositoryId': 1, 'repositoryOwner': 1, 'repositoryName': 1, 'defaultBranch': 1, 'headSha': 1, 'status': 1 }")
+    List<Project> findSyncTargetsByRepositoryId(String repositoryId);
+
+    /**
+     * Load the sync fields of every active project, for the background refresh
+     * @return List of Project
+     */
+    @Query(value = "{ 'status': 'ACTIVE' }", fields = "{ 'userId': 1, 'repositoryId': 1, 'repositoryOwner': 1, 'repositoryName': 1, 'defaultBranch': 1, 'headSha': 1, 'status': 1 }")
+    List<Project> findActiveSyncTargets();
+}
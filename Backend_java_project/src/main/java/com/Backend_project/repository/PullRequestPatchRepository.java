@@ -0,0 +1,23 @@
+package com.Backend_project.repository;
+
+import com.Backend_project.model.PullRequestPatch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import java.util.List;
+import java.util.Optional;
+
+public interface PullRequestPatchRepository extends MongoRepository<PullRequestPatch, String> {
+    Optional<PullRequestPatch> findByProjectIdAndNumberAndFilename(String projectId, int number, String filename);
+
+    List<PullRequestPatch> findByProjectIdAndNumber(String projectId, int number);
+
+    /**
+     * Load only the id and file name of a pull request's patches
+     */
+    @Query(value = "{ 'projectId': ?0, 'number': ?1 }", fields = "{ 'filename': 1 }")
+    List<PullRequestPatch> findKeysByProjectIdAndNumber(String projectId, int number);
+
+    void deleteByProjectIdAndNumber(String projectId, int number);
+
+    void deleteByProjectId(String projectId);
+}
@@ -0,0 +1,32 @@
+package com.Backend_project.repository;
+
+import com.Backend_project.model.PullRequest;
+import com.Backend_project.model.PullRequestSummary;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import java.util.List;
+import java.util.Optional;
+
+public interface PullRequestRepository extends MongoRepository<PullRequest, String> {
+
+    /**
+     * Load the list fields of a project's pull requests, newest first
+     * @param projectId The ID of the project
+     * @return List of PullRequestSummary
+     */
+    @Query(value = "{ 'projectId': ?0 }", sort = "{ 'number': -1 }", fields = "{ 'number': 1, 'title': 1, 'state': 1, 'author': 1, 'draft': 1, 'headRef': 1, 'baseRef': 1, 'createdAt': 1, 'updatedAt': 1, 'mergedAt': 1, 'additions': 1, 'deletions': 1, 'changedFiles': 1, 'commentCount': 1 }")
+    List<PullRequestSummary> findSummariesByProjectId(String projectId);
+
+    /**
+     * Load only the number, update time and changed file names of a project's
+     * pull requests, to tell which ones changed since the last sync
+     */
+    @Query(value = "{ 'projectId': ?0 }", fields = "{ 'number': 1, 'updatedAt': 1, 'state': 1, 'files.filename': 1 }")
+    List<PullRequest> findSyncStateByProjectId(String projectId);
+
+    Optional<PullRequest> findByProjectIdAndNumber(String projectId, int number);
+
+    void deleteByProjectIdAndNumber(String projectId, int number);
+
+    void deleteByProjectId(String projectId);
+}
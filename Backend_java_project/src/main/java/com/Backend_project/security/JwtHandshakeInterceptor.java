@@ -0,0 +1,91 @@
+package com.Backend_project.security;
+
+import com.Backend_project.model.ProjectStatus;
+import com.Backend_project.service.JwtTokenProvider;
+import com.Backend_project.service.ProjectStatusCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authenticates WebSocket handshakes for /ws/projects/{projectId}/latex/{documentId}.
+ * Browsers cannot set headers on a WebSocket request, so the JWT comes in the
+ * "token" query parameter or as a bearer Authorization header from other
+ * clients. The project must belong to the user.
+ */
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtHandshakeInterceptor.class);
+
+    public static final String USER_ID = "userId";
+    public static final String PROJECT_ID = "projectId";
+    public static final String DOCUMENT_ID = "documentId";
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private ProjectStatusCache projectStatusCache;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+            Map<String, Object> attributes) {
+        List<String> segments = UriComponentsBuilder.fromUri(request.getURI()).build().getPathSegments();
+        // ws, projects, {projectId}, latex, {documentId}
+        if (segments.size() != 5) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+        String projectId = segments.get(2);
+        String documentId = segments.get(4);
+
+        String token = getToken(request);
+        if (!StringUtils.hasText(token) || !tokenProvider.validateToken(token)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        String userId = tokenProvider.getUserIdFromToken(token);
+
+        try {
+            ProjectStatus project = projectStatusCache.get(projectId);
+            if (!project.getUserId().equals(userId)) {
+                response.setStatusCode(HttpStatus.FORBIDDEN);
+                return false;
+            }
+        } catch (Exception e) {
+            logger.debug("Rejected collaboration handshake for project {}: {}", projectId, e.getMessage());
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+
+        attributes.put(USER_ID, userId);
+        attributes.put(PROJECT_ID, projectId);
+        attributes.put(DOCUMENT_ID, documentId);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+            Exception exception) {
+    }
+
+    private String getToken(ServerHttpRequest request) {
+        String bearerToken = request.getHeaders().getFirst("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    }
+}
@@ -0,0 +1,48 @@
+package com.Backend_project.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Checks the X-Hub-Signature-256 header GitHub sends with webhook deliveries:
+ * "sha256=" followed by the hex HMAC-SHA256 of the raw body under the
+ * webhook secret. The comparison is constant-time.
+ */
+public final class WebhookSignatureVerifier {
+
+    private static final String PREFIX = "sha256=";
+
+    private WebhookSignatureVerifier() {
+    }
+
+    public static boolean verify(String secret, byte[] body, String signatureHeader) {
+        if (secret == null || secret.isEmpty() || signatureHeader == null || !signatureHeader.startsWith(PREFIX)) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            expected = HexFormat.of().parseHex(signatureHeader.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, hmac(secret, body));
+    }
+
+    public static String sign(String secret, byte[] body) {
+        return PREFIX + HexFormat.of().formatHex(hmac(secret, body));
+    }
+
+    private static byte[] hmac(String secret, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(body);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
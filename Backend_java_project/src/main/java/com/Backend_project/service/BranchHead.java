@@ -0,0 +1,10 @@
+package com.Backend_project.service;
+
+/**
+ * Result of a conditional branch ref request. When {@code notModified} is
+ * set GitHub answered 304 and {@code sha} is null; the rate limit fields are
+ * -1 when the response did not carry them.
+ */
+public record BranchHead(String sha, String etag, boolean notModified, int rateLimitRemaining,
+        long rateLimitResetEpochSeconds) {
+}
@@ -0,0 +1,380 @@
+package com.Backend_project.service;
+
+import com.Backend_project.event.LatexDocumentChangedEvent;
+import com.Backend_project.event.LatexDocumentDeletedEvent;
+import com.Backend_project.event.LocalCachesResetEvent;
+import com.Backend_project.event.ProjectFileCachedEvent;
+import com.Backend_project.event.ProjectFilesClearedEvent;
+import com.Backend_project.event.ProjectFilesInvalidatedEvent;
+import com.Backend_project.model.ChangeStreamCheckpoint;
+import com.Backend_project.repository.ChangeStreamCheckpointRepository;
+import com.Backend_project.service.jobs.JobQueue;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps this node's caches in step with writes made by other nodes. One
+ * change stream over the collections the caches are derived from is turned
+ * into the same events the local write paths publish, so every cache evicts
+ * or updates only what changed. Changes made by this node come back too;
+ * the listeners already skip content they hold at the same sha.
+ *
+ * The stream's resume token is checkpointed per node, so a restarted node
+ * carries on from where it stopped. Only when the stream cannot resume,
+ * because the oplog moved past the token, are all caches dropped.
+ *
+ * Deletes carry no document, only its id. Targeted eviction of deleted files
+ * and documents relies on pre-images, which are enabled on their collections
+ * at startup where the server supports it (MongoDB 6.0 and later). A delete
+ * that arrives without one cannot be traced to a project, so the batch it
+ * falls in drops all caches instead.
+ */
+@Service
+public class ChangeStreamInvalidationService {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamInvalidationService.class);
+
+    static final String PROJECTS = "projects";
+    static final String PROJECT_FILES = "project_files";
+    static final String LATEX_DOCUMENTS = "latex_documents";
+
+    /** The stream cannot resume from the stored token */
+    private static final Set<Integer> HISTORY_LOST_CODES = Set.of(136, 280, 286);
+
+    private static final long MAX_BACKOFF_MS = TimeUnit.MINUTES.toMillis(5);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ChangeStreamCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ProjectStatusCache projectStatusCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JobQueue jobQueue;
+
+    @Value("${invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invalidation.pre-images:true}")
+    private boolean preImages;
+
+    @Value("${invalidation.max-batch:1000}")
+    private int maxBatch;
+
+    @Value("${invalidation.checkpoint-interval-ms:5000}")
+    private long checkpointIntervalMs;
+
+    /** File deletes arrive one per file; they are published per project and batch */
+    private final Map<String, Set<String>> pendingDeletes = new LinkedHashMap<>();
+    private int pendingDeleteCount;
+    /** A delete in the batch had no pre-image */
+    private boolean resetPending;
+
+    private BsonDocument resumeToken;
+    private long checkpointedAt;
+    private volatile boolean running;
+    private Thread listener;
+
+    private final AtomicLong changesApplied = new AtomicLong();
+    private final AtomicLong untargetedDeletes = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "change-stream-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        boolean initialized = false;
+        long backoffMs = 1000;
+        while (running) {
+            try {
+                if (!initialized) {
+                    if (preImages) {
+                        enablePreImages(PROJECT_FILES);
+                        enablePreImages(LATEX_DOCUMENTS);
+                    }
+                    resumeToken = checkpointRepository.findById(jobQueue.getNodeId())
+                            .map(checkpoint -> new BsonDocument("_data", new BsonString(checkpoint.getResumeToken())))
+                            .orElse(null);
+                    initialized = true;
+                }
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                    backoffMs = 1000;
+                    read(cursor);
+                }
+            } catch (MongoException e) {
+                if (!running) {
+                    return;
+                }
+                if (HISTORY_LOST_CODES.contains(e.getCode())) {
+                    logger.warn("Change stream cannot resume ({}), dropping all caches", e.getMessage());
+                    reset();
+                    continue;
+                }
+                logger.warn("Change stream interrupted, reconnecting in {} ms: {}", backoffMs, e.getMessage());
+                reconnects.incrementAndGet();
+                if (!sleep(backoffMs)) {
+                    return;
+                }
+                backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.error("Change stream failed: {}", e.getMessage());
+                if (!sleep(backoffMs)) {
+                    return;
+                }
+                backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+            }
+        }
+    }
+
+    private void read(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        while (running) {
+            ChangeStreamDocument<Document> change = cursor.tryNext();
+            if (change != null) {
+                apply(change);
+                resumeToken = change.getResumeToken();
+                if (pendingDeleteCount >= maxBatch) {
+                    flush();
+                }
+            } else {
+                // Quiet for now: publish the batch and move past the idle stretch
+                flush();
+                if (cursor.getResumeToken() != null) {
+                    resumeToken = cursor.getResumeToken();
+                }
+            }
+            // Never checkpoint past deletes that were not published yet
+            if (pendingDeleteCount == 0) {
+                checkpoint();
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        List<Bson> pipeline = List.of(Aggregates.match(Filters.and(
+                Filters.in("ns.coll", PROJECTS, PROJECT_FILES, LATEX_DOCUMENTS),
+                Filters.in("operationType", "insert", "update", "replace", "delete"),
+                // Reads bump lastAccessed; keep those and their lookups off the stream
+                Filters.or(
+                        Filters.ne("ns.coll", PROJECT_FILES),
+                        Filters.ne("operationType", "update"),
+                        Filters.exists("updateDescription.updatedFields.sha"),
+                        Filters.exists("updateDescription.updatedFields.content")))));
+        var stream = mongoTemplate.getDb().watch(pipeline)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (preImages) {
+            stream = stream.fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE);
+        }
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    private void apply(ChangeStreamDocument<Document> change) {
+        UpdateDescription update = change.getUpdateDescription();
+        Set<String> updatedFields = new HashSet<>();
+        if (update != null) {
+            if (update.getUpdatedFields() != null) {
+                updatedFields.addAll(update.getUpdatedFields().keySet());
+            }
+            if (update.getRemovedFields() != null) {
+                updatedFields.addAll(update.getRemovedFields());
+            }
+        }
+        String operation = change.getOperationType().getValue();
+        Document document = "delete".equals(operation)
+                ? change.getFullDocumentBeforeChange()
+                : change.getFullDocument();
+        apply(change.getNamespace().getCollectionName(), operation, id(change.getDocumentKey()), updatedFields,
+                document);
+    }
+
+    /**
+     * Publish the local events for one change
+     * @param document The document after the change, or before it for a delete; null when unavailable
+     */
+    void apply(String collection, String operation, String id, Set<String> updatedFields, Document document) {
+        boolean deleted = "delete".equals(operation);
+        boolean updated = "update".equals(operation);
+
+        if (deleted && document == null
+                && (PROJECT_FILES.equals(collection) || LATEX_DOCUMENTS.equals(collection))) {
+            untargetedDeletes.incrementAndGet();
+            resetPending = true;
+            pendingDeleteCount++;
+            return;
+        }
+        if (PROJECT_FILES.equals(collection) && deleted) {
+            pendingDeletes.computeIfAbsent(document.getString("projectId"), key -> new LinkedHashSet<>())
+                    .add(document.getString("path"));
+            pendingDeleteCount++;
+            return;
+        }
+
+        // Keep the order of everything else relative to the batched deletes
+        flush();
+        changesApplied.incrementAndGet();
+
+        switch (collection) {
+            case PROJECTS -> {
+                projectStatusCache.evict(id);
+                if (deleted) {
+                    eventPublisher.publishEvent(new ProjectFilesClearedEvent(id, true));
+                } else if (document != null && "PENDING".equals(document.getString("status"))
+                        && (!updated || updatedFields.contains("status"))) {
+                    // A resync started; its files were dropped with it
+                    eventPublisher.publishEvent(new ProjectFilesClearedEvent(id, false));
+                }
+            }
+            case PROJECT_FILES -> {
+                if (document != null && (!updated || updatedFields.contains("sha")
+                        || updatedFields.contains("content"))) {
+                    eventPublisher.publishEvent(new ProjectFileCachedEvent(document.getString("projectId"),
+                            document.getString("path"), document.getString("sha"), document.getString("content")));
+                }
+            }
+            case LATEX_DOCUMENTS -> {
+                if (deleted) {
+                    eventPublisher.publishEvent(new LatexDocumentDeletedEvent(document.getString("projectId"), id));
+                } else if (document != null && (!updated || updatedFields.contains("content")
+                        || updatedFields.contains("title"))) {
+                    eventPublisher.publishEvent(new LatexDocumentChangedEvent(document.getString("projectId"), id,
+                            document.getString("title"), document.getString("content")));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    void flush() {
+        if (pendingDeleteCount == 0) {
+            return;
+        }
+        if (resetPending) {
+            // Dropping everything covers the targeted deletes as well
+            eventPublisher.publishEvent(new LocalCachesResetEvent());
+            resets.incrementAndGet();
+        } else {
+            pendingDeletes.forEach((projectId, paths) ->
+                    eventPublisher.publishEvent(new ProjectFilesInvalidatedEvent(projectId, paths)));
+        }
+        changesApplied.addAndGet(pendingDeleteCount);
+        pendingDeletes.clear();
+        pendingDeleteCount = 0;
+        resetPending = false;
+    }
+
+    private void reset() {
+        pendingDeletes.clear();
+        pendingDeleteCount = 0;
+        resetPending = false;
+        resumeToken = null;
+        checkpointRepository.deleteById(jobQueue.getNodeId());
+        eventPublisher.publishEvent(new LocalCachesResetEvent());
+        resets.incrementAndGet();
+    }
+
+    private void checkpoint() {
+        long now = System.currentTimeMillis();
+        if (resumeToken == null || now - checkpointedAt < checkpointIntervalMs) {
+            return;
+        }
+        ChangeStreamCheckpoint checkpoint = new ChangeStreamCheckpoint();
+        checkpoint.setId(jobQueue.getNodeId());
+        checkpoint.setResumeToken(resumeToken.getString("_data").getValue());
+        checkpoint.setUpdatedAt(new Date(now));
+        checkpointRepository.save(checkpoint);
+        checkpointedAt = now;
+    }
+
+    private void enablePreImages(String collection) {
+        try {
+            mongoTemplate.getDb().runCommand(new Document("collMod", collection)
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (Exception e) {
+            logger.warn("Pre-images unavailable on {}, deletes there are not propagated: {}", collection,
+                    e.getMessage());
+        }
+    }
+
+    private static String id(BsonDocument documentKey) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString()
+                : id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running);
+        stats.put("changesApplied", changesApplied.get());
+        stats.put("untargetedDeletes", untargetedDeletes.get());
+        stats.put("resets", resets.get());
+        stats.put("reconnects", reconnects.get());
+        return stats;
+    }
+}
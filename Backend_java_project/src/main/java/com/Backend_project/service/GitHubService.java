@@ -4,6 +4,8 @@ import com.Backend_project.model.Project;
 import com.Backend_project.model.User;
 import com.Backend_project.repository.UserRepository;
 import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,7 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -38,6 +41,9 @@ public class GitHubService {
 
     private final RestTemplate restTemplate;
     private final UserRepository userRepository;
+
+    @Autowired(required = false)
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
     private final String GITHUB_API_BASE_URL = "https://api.github.com";
 
     @Autowired
@@ -81,7 +87,7 @@ public class GitHubService {
     /**
      * Processes GitHub tree data into our custom JSON structure
      */
-    private Map<String, Object> processGitHubTree(Map<String, Object> treeData) {
+    Map<String, Object> processGitHubTree(Map<String, Object> treeData) {
         Map<String, Object> result = new HashMap<>();
         List<Map<String, Object>> tree = (List<Map<String, Object>>) treeData.get("tree");
 
@@ -104,7 +110,7 @@ public class GitHubService {
     /**
      * Checks if a path should be skipped (typically in .gitignore)
      */
-    private boolean shouldSkipPath(String path) {
+    boolean shouldSkipPath(String path) {
         List<String> skipPatterns = Arrays.asList(
                 "node_modules/", ".git/", "target/", "build/",
                 ".env", ".DS_Store", "*.log", "*.class",
@@ -314,7 +320,7 @@ public class GitHubService {
             "target", "bin", "obj", ".next", ".env", "venv",
             "coverage", ".coverage", ".pytest_cache", ".tox"));
 
-    private boolean shouldIgnorePath(String path) {
+    boolean shouldIgnorePath(String path) {
         // Check if path or any parent directory should be ignored
         String[] parts = path.split("/");
         for (String part : parts) {
@@ -327,7 +333,7 @@ public class GitHubService {
                 path.endsWith(".pyd") || path.endsWith(".DS_Store");
     }
 
-    private Map<String, Object> transformTreeForFrontend(List<Map<String, Object>> items) {
+    Map<String, Object> transformTreeForFrontend(List<Map<String, Object>> items) {
         Map<String, Object> root = new HashMap<>();
         root.put("name", "root");
         root.put("type", "directory");
@@ -421,29 +427,7 @@ public class GitHubService {
             Map<String, Object> object = (Map<String, Object>) refData.get("object");
             String commitSha = (String) object.get("sha");
 
-            // Get the tree using the commit SHA
-            String treeUrl = String.format("%s/repos/%s/%s/git/trees/%s?recursive=1",
-                    GITHUB_API_BASE_URL, owner, repo, commitSha);
-
-            ResponseEntity<Map<String, Object>> treeResponse = restTemplate.exchange(
-                    treeUrl,
-                    HttpMethod.GET,
-                    new HttpEntity<>(headers),
-                    new ParameterizedTypeReference<Map<String, Object>>() {
-                    });
-
-            Map<String, Object> treeData = treeResponse.getBody();
-            List<Map<String, Object>> items = (List<Map<String, Object>>) treeData.get("tree");
-
-            // Transform the flat tree into a hierarchical structure
-            Map<String, Object> hierarchicalTree = transformTreeForFrontend(items);
-
-            // Return both the raw data and the transformed tree
-            Map<String, Object> result = new HashMap<>();
-            result.put("sha", commitSha);
-            result.put("tree", hierarchicalTree);
-
-            return result;
+            return getRepositoryTreeAtCommit(userId, owner, repo, commitSha);
 
         } catch (Exception e) {
             // If reference not found, try getting the default branch
@@ -465,6 +449,51 @@ public class GitHubService {
         }
     }
 
+    /**
+     * Fetch the tree of a specific commit, so a caller that already knows the
+     * sha it synced to does not race a branch that has moved on since
+     */
+    public Map<String, Object> getRepositoryTreeAtCommit(String userId, String owner, String repo, String commitSha)
+            throws Exception {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new Exception("User not found"));
+
+        if (!user.isGithubConnected()) {
+            throw new Exception("GitHub account not connected");
+        }
+
+        HttpHeaders headers = createGitHubHeaders(user.getGithubAccessToken());
+        headers.set("Accept", "application/vnd.github+json");
+        headers.set("X-GitHub-Api-Version", "2022-11-28");
+
+        String treeUrl = String.format("%s/repos/%s/%s/git/trees/%s?recursive=1",
+                GITHUB_API_BASE_URL, owner, repo, commitSha);
+
+        ResponseEntity<Map<String, Object>> treeResponse = restTemplate.exchange(
+                treeUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                new ParameterizedTypeReference<Map<String, Object>>() {
+                });
+
+        Map<String, Object> treeData = treeResponse.getBody();
+        List<Map<String, Object>> items = (List<Map<String, Object>>) treeData.get("tree");
+
+        // Transform the flat tree into a hierarchical structure
+        Map<String, Object> hierarchicalTree = Observation
+                .createNotStarted("github.tree.transform", observationRegistry)
+                .contextualName("build repository tree")
+                .highCardinalityKeyValue("entries", String.valueOf(items.size()))
+                .observe(() -> transformTreeForFrontend(items));
+
+        // Return both the raw data and the transformed tree
+        Map<String, Object> result = new HashMap<>();
+        result.put("sha", commitSha);
+        result.put("tree", hierarchicalTree);
+
+        return result;
+    }
+
     private HttpHeaders createGitHubHeaders(String token) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Bearer " + token);
@@ -732,6 +761,77 @@ public class GitHubService {
         return result;
     }
 
+    /**
+     * Read a branch's head commit with a conditional request; an unchanged ref
+     * answers 304, which GitHub does not count against the rate limit
+     */
+    public BranchHead getBranchHead(String userId, String owner, String repo, String branch, String etag)
+            throws Exception {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new Exception("User not found"));
+
+        if (!user.isGithubConnected()) {
+            throw new Exception("GitHub account not connected");
+        }
+
+        String url = String.format("%s/repos/%s/%s/git/ref/heads/%s", GITHUB_API_BASE_URL, owner, repo, branch);
+        HttpHeaders headers = createGitHubHeaders(user.getGithubAccessToken());
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                new ParameterizedTypeReference<Map<String, Object>>() {
+                });
+
+        HttpHeaders responseHeaders = response.getHeaders();
+        int remaining = (int) parseHeader(responseHeaders.getFirst("X-RateLimit-Remaining"), -1);
+        long reset = parseHeader(responseHeaders.getFirst("X-RateLimit-Reset"), -1);
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return new BranchHead(null, etag, true, remaining, reset);
+        }
+
+        Map<String, Object> object = (Map<String, Object>) response.getBody().get("object");
+        return new BranchHead((String) object.get("sha"), responseHeaders.getETag(), false, remaining, reset);
+    }
+
+    /**
+     * Compare two commits; the result lists at most 300 changed files
+     */
+    public Map<String, Object> compareCommits(String userId, String owner, String repo, String base, String head)
+            throws Exception {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new Exception("User not found"));
+
+        if (!user.isGithubConnected()) {
+            throw new Exception("GitHub account not connected");
+        }
+
+        String url = String.format("%s/repos/%s/%s/compare/%s...%s", GITHUB_API_BASE_URL, owner, repo, base,
+                head);
+        HttpHeaders headers = createGitHubHeaders(user.getGithubAccessToken());
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                new ParameterizedTypeReference<Map<String, Object>>() {
+                });
+
+        return response.getBody();
+    }
+
+    private static long parseHeader(String value, long fallback) {
+        try {
+            return value != null ? Long.parseLong(value) : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
     public Map<String, Object> getFileContent(String userId, String owner, String repo, String path, String branch)
             throws Exception {
         User user = userRepository.findById(userId)
@@ -761,8 +861,27 @@ public class GitHubService {
             result.put("content", response.getBody());
             return result;
         } catch (HttpClientErrorException e) {
-            throw new Exception("Failed to fetch file content: " + e.getMessage());
+            throw new Exception("Failed to fetch file content: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Whether a failed call was turned away by GitHub's primary or secondary
+     * rate limit, rather than refused for the resource itself
+     */
+    public static boolean isRateLimited(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpStatusCodeException statusException) {
+                if (statusException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                    return true;
+                }
+                HttpHeaders headers = statusException.getResponseHeaders();
+                return statusException.getStatusCode().value() == HttpStatus.FORBIDDEN.value() && headers != null
+                        && ("0".equals(headers.getFirst("X-RateLimit-Remaining"))
+                                || headers.getFirst(HttpHeaders.RETRY_AFTER) != null);
+            }
         }
+        return false;
     }
 
     public String refreshGitHubToken(User user) throws Exception {
@@ -0,0 +1,255 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.Project;
+import com.Backend_project.model.WebhookDelivery;
+import com.Backend_project.repository.ProjectRepository;
+import com.Backend_project.security.WebhookSignatureVerifier;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies GitHub webhook deliveries to the projects of the repository they
+ * come from. Deliveries are queued and applied one at a time: a push drops
+ * only the cached files its commits touched (and refetches the tree when
+ * paths were added or removed), a pull request event refetches only that
+ * pull request. Pushes whose file list cannot be trusted fall back to a
+ * full resync.
+ *
+ * GitHub does not retry failed deliveries, so a push can be missed. A push
+ * that does not start from the head the project was last synced to is
+ * therefore applied by comparing that head with the new one, as the poller
+ * does, rather than from its own commit list.
+ *
+ * Accepted delivery ids are recorded in webhook_deliveries, so a redelivery
+ * is ignored even when another node received the original.
+ */
+@Service
+public class GitHubWebhookService {
+    private static final Logger logger = LoggerFactory.getLogger(GitHubWebhookService.class);
+
+    /** GitHub lists at most this many commits in a push payload */
+    static final int MAX_PUSH_COMMITS = 2048;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private RepositoryPollingService repositoryPollingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${github.webhook.secret:}")
+    private String secret;
+
+    @Value("${github.webhook.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor worker;
+
+    /** Carries the delivery's trace onto the worker thread */
+    private final ContextSnapshotFactory snapshotFactory = ContextSnapshotFactory.builder().build();
+
+    private final AtomicLong redeliveriesIgnored = new AtomicLong();
+    private final AtomicLong eventsApplied = new AtomicLong();
+    private final AtomicLong filesInvalidated = new AtomicLong();
+    private final AtomicLong fullResyncs = new AtomicLong();
+    private final AtomicLong missedPushesRecovered = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "github-webhook");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public boolean isSignatureValid(byte[] body, String signatureHeader) {
+        return WebhookSignatureVerifier.verify(secret, body, signatureHeader);
+    }
+
+    /**
+     * Queue a verified delivery
+     * @return false when the queue is full; the delivery is then lost unless
+     *         redelivered by hand, and the next push or poll catches up on it
+     */
+    public boolean enqueue(String event, String deliveryId, byte[] body) {
+        if (deliveryId != null && !recordDelivery(event, deliveryId)) {
+            logger.debug("Ignoring redelivery {}", deliveryId);
+            redeliveriesIgnored.incrementAndGet();
+            return true;
+        }
+        try {
+            worker.execute(snapshotFactory.captureAll().wrap(() -> {
+                try {
+                    apply(event, objectMapper.readValue(body, new TypeReference<Map<String, Object>>() {
+                    }));
+                } catch (Exception e) {
+                    logger.error("Failed to apply {} webhook {}: {}", event, deliveryId, e.getMessage());
+                }
+            }));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // A manual redelivery must not be taken for a duplicate
+            if (deliveryId != null) {
+                forgetDelivery(deliveryId);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Claim a delivery id for this node
+     * @return false when some node already accepted the delivery
+     */
+    private boolean recordDelivery(String event, String deliveryId) {
+        try {
+            mongoTemplate.insert(new WebhookDelivery(deliveryId, event, new Date()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        } catch (DataAccessException e) {
+            // Applying a delivery twice is harmless, losing one is not
+            logger.warn("Failed to record webhook delivery {}: {}", deliveryId, e.getMessage());
+            return true;
+        }
+    }
+
+    private void forgetDelivery(String deliveryId) {
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(deliveryId)), WebhookDelivery.class);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to release webhook delivery {}: {}", deliveryId, e.getMessage());
+        }
+    }
+
+    void apply(String event, Map<String, Object> payload) throws Exception {
+        if (!(payload.get("repository") instanceof Map<?, ?> repository) || repository.get("id") == null) {
+            return;
+        }
+        String repositoryId = String.valueOf(repository.get("id"));
+        for (Project project : projectRepository.findSyncTargetsByRepositoryId(repositoryId)) {
+            // Pending projects are being ingested and will see the change anyway
+            if (!"ACTIVE".equals(project.getStatus())) {
+                continue;
+            }
+            switch (event) {
+                case "push" -> applyPush(project, payload);
+                case "pull_request", "pull_request_review_comment" -> applyPullRequest(project, payload);
+                default -> {
+                    continue;
+                }
+            }
+            eventsApplied.incrementAndGet();
+        }
+    }
+
+    private void applyPush(Project project, Map<String, Object> payload) throws Exception {
+        if (!("refs/heads/" + project.getDefaultBranch()).equals(payload.get("ref"))
+                || Boolean.TRUE.equals(payload.get("deleted"))) {
+            return;
+        }
+
+        // Already applied, for example by the background refresh
+        if (Objects.equals(payload.get("after"), project.getHeadSha())) {
+            return;
+        }
+
+        List<Map<String, Object>> commits = payload.get("commits") instanceof List<?> list
+                ? (List<Map<String, Object>>) list
+                : null;
+        // A force push rewrites history the commit list does not describe
+        if (Boolean.TRUE.equals(payload.get("forced")) || commits == null || commits.size() >= MAX_PUSH_COMMITS) {
+            logger.info("Push to {} cannot be applied incrementally, resyncing project {}",
+                    payload.get("ref"), project.getId());
+            projectService.resyncRepository(project.getUserId(), project.getId());
+            fullResyncs.incrementAndGet();
+            return;
+        }
+
+        // Pushes before this one were missed; their commits are not in this payload
+        if (!Objects.equals(payload.get("before"), project.getHeadSha())) {
+            logger.info("Push to {} starts at {} but project {} is at {}, comparing heads",
+                    payload.get("ref"), payload.get("before"), project.getId(), project.getHeadSha());
+            repositoryPollingService.sync(project, (String) payload.get("after"));
+            missedPushesRecovered.incrementAndGet();
+            return;
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        boolean treeChanged = false;
+        for (Map<String, Object> commit : commits) {
+            treeChanged |= addPaths(changed, commit.get("added"));
+            treeChanged |= addPaths(changed, commit.get("removed"));
+            addPaths(changed, commit.get("modified"));
+        }
+        projectService.applyRepositoryChanges(project.getId(), changed, treeChanged, (String) payload.get("after"));
+        filesInvalidated.addAndGet(changed.size());
+    }
+
+    private void applyPullRequest(Project project, Map<String, Object> payload) throws Exception {
+        if (!(payload.get("pull_request") instanceof Map<?, ?> pullRequest)
+                || !(pullRequest.get("number") instanceof Number number)) {
+            return;
+        }
+        pullRequestService.refreshPullRequest(project.getId(), project.getUserId(), project.getRepositoryOwner(),
+                project.getRepositoryName(), number.intValue());
+    }
+
+    private static boolean addPaths(Set<String> paths, Object list) {
+        if (!(list instanceof List<?> items) || items.isEmpty()) {
+            return false;
+        }
+        for (Object item : items) {
+            paths.add(item.toString());
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queued", worker.getQueue().size());
+        stats.put("redeliveriesIgnored", redeliveriesIgnored.get());
+        stats.put("eventsApplied", eventsApplied.get());
+        stats.put("filesInvalidated", filesInvalidated.get());
+        stats.put("fullResyncs", fullResyncs.get());
+        stats.put("missedPushesRecovered", missedPushesRecovered.get());
+        return stats;
+    }
+}
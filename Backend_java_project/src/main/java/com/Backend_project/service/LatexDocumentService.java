@@ -1,23 +1,96 @@
 package com.Backend_project.service;
 
+import com.Backend_project.dto.LatexDocumentPatchRequest;
+import com.Backend_project.dto.LatexDocumentPatchResult;
+import com.Backend_project.event.LatexDocumentChangedEvent;
+import com.Backend_project.event.LatexDocumentDeletedEvent;
+import com.Backend_project.exceptions.DocumentConflictException;
 import com.Backend_project.model.LatexDocument;
+import com.Backend_project.model.LatexDocumentRevision;
 import com.Backend_project.model.Project;
+import com.Backend_project.model.ProjectStatus;
 import com.Backend_project.repository.LatexDocumentRepository;
 import com.Backend_project.repository.ProjectRepository;
+import com.Backend_project.service.compile.CompileJobTracker;
+import com.Backend_project.service.compile.LatexArtifactStore;
+import com.Backend_project.service.compile.LatexCompileCache;
+import com.Backend_project.service.compile.LatexCompileCoalescer;
+import com.Backend_project.service.compile.LatexCompileJob;
+import com.Backend_project.service.compile.LatexCompileResult;
+import com.Backend_project.service.compile.LatexCompileService;
+import com.Backend_project.service.compile.LatexProjectBuild;
+import com.Backend_project.service.compile.LatexProjectBuildService;
+import com.Backend_project.service.compile.TrackedCompileJob;
+import com.Backend_project.service.outline.LatexOutline;
+import com.Backend_project.service.outline.LatexOutlineService;
+import com.Backend_project.service.outline.LatexSymbolMatch;
+import com.Backend_project.util.ContentHash;
+import com.Backend_project.util.TextEdit;
+import com.Backend_project.util.TextEdits;
+import com.mongodb.client.result.UpdateResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class LatexDocumentService {
 
+    private static final String MAIN_FILE = "main.tex";
+
+    // Part of the compile cache key; bump when the way sources are prepared changes
+    private static final String COMPILE_OPTIONS = "standalone-report:v1";
+
     @Autowired
     private LatexDocumentRepository latexDocumentRepository;
 
     @Autowired
     private ProjectRepository projectRepository;
 
+    @Autowired
+    private LatexCompileService latexCompileService;
+
+    @Autowired
+    private LatexArtifactStore latexArtifactStore;
+
+    @Autowired
+    private LatexCompileCache latexCompileCache;
+
+    @Autowired
+    private LatexProjectBuildService latexProjectBuildService;
+
+    @Autowired
+    private LatexCompileCoalescer latexCompileCoalescer;
+
+    @Autowired
+    private CompileJobTracker compileJobTracker;
+
+    @Autowired
+    private ProjectStatusCache projectStatusCache;
+
+    @Autowired
+    private LatexRevisionService latexRevisionService;
+
+    @Autowired
+    private LatexOutlineService latexOutlineService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     public LatexDocument createDocument(String projectId, String userId, LatexDocument document) throws Exception {
         // Verify project exists and user has access
         Project project = projectRepository.findById(projectId)
@@ -32,9 +105,21 @@ public class LatexDocumentService {
         document.setCreatedAt(new Date());
         document.setUpdatedAt(new Date());
         document.setStatus("draft");
+        document.setContentHash(ContentHash.of(document.getContent()));
         document.setCompiled(false);
+        document.setVersion(null);
+        document.setRevisionCount(0);
+        if (document.getOrder() <= 0) {
+            // Clients that only send a title and type get the next position among their siblings
+            document.setOrder(latexDocumentRepository
+                    .findFirstByProjectIdAndTypeOrderByOrderDesc(projectId, document.getType())
+                    .map(last -> last.getOrder() + 1)
+                    .orElse(1));
+        }
 
-        return latexDocumentRepository.save(document);
+        LatexDocument saved = latexDocumentRepository.save(document);
+        publishChanged(saved);
+        return saved;
     }
 
     public LatexDocument updateDocument(String projectId, String userId, String documentId,
@@ -47,19 +132,160 @@ public class LatexDocumentService {
             throw new Exception("User not authorized to access this project");
         }
 
-        LatexDocument existingDocument = latexDocumentRepository.findById(documentId)
+        LatexDocument existingDocument = latexDocumentRepository.findByIdAndProjectId(documentId, projectId)
                 .orElseThrow(() -> new Exception("Document not found"));
 
+        // The client edited an older version: refuse rather than overwrite
+        if (updatedDocument.getVersion() != null && !updatedDocument.getVersion().equals(existingDocument.getVersion())) {
+            throw new DocumentConflictException("Document changed since it was loaded",
+                    existingDocument.getContentHash());
+        }
+
         // Update fields
         existingDocument.setTitle(updatedDocument.getTitle());
-        existingDocument.setContent(updatedDocument.getContent());
         existingDocument.setType(updatedDocument.getType());
         existingDocument.setOrder(updatedDocument.getOrder());
         existingDocument.setStatus(updatedDocument.getStatus());
-        existingDocument.setUpdatedAt(new Date());
-        existingDocument.setCompiled(false); // Reset compilation status
 
-        return latexDocumentRepository.save(existingDocument);
+        return saveWithContent(existingDocument, updatedDocument.getContent(), userId);
+    }
+
+    /**
+     * Write content edited in a collaboration session. Access was checked
+     * when the editors joined.
+     * @param expectedVersion Version the session last loaded or wrote
+     * @throws DocumentConflictException if the document was written outside the session
+     */
+    public LatexDocument saveCollaborativeContent(String documentId, Long expectedVersion, String content,
+            String userId) throws Exception {
+        LatexDocument document = latexDocumentRepository.findById(documentId)
+                .orElseThrow(() -> new Exception("Document not found"));
+
+        long currentVersion = document.getVersion() != null ? document.getVersion() : 0L;
+        if (currentVersion != (expectedVersion != null ? expectedVersion : 0L)) {
+            throw new DocumentConflictException("Document changed outside the collaboration session",
+                    document.getContentHash());
+        }
+        return saveWithContent(document, content, userId);
+    }
+
+    /**
+     * Save a loaded document with new content. A content change is recorded
+     * in the revision history and invalidates the compiled artifact.
+     * @throws DocumentConflictException if the document was written concurrently
+     */
+    private LatexDocument saveWithContent(LatexDocument document, String content, String userId) {
+        ensureVersioned(document);
+
+        LatexDocument previous = null;
+        String contentHash = ContentHash.of(content);
+        if (!contentHash.equals(document.getContentHash())) {
+            previous = new LatexDocument();
+            previous.setId(document.getId());
+            previous.setProjectId(document.getProjectId());
+            previous.setContent(document.getContent());
+            previous.setVersion(document.getVersion());
+            previous.setRevisionCount(document.getRevisionCount());
+
+            document.setContent(content);
+            document.setContentHash(contentHash);
+            document.setCompiled(false);
+            document.setRevisionCount(document.getRevisionCount() + 1);
+        }
+        document.setUpdatedAt(new Date());
+
+        LatexDocument saved;
+        try {
+            saved = latexDocumentRepository.save(document);
+        } catch (OptimisticLockingFailureException e) {
+            throw new DocumentConflictException("Document changed while saving", null);
+        }
+        if (previous != null) {
+            latexRevisionService.record(previous, content, userId);
+        }
+        publishChanged(saved);
+        return saved;
+    }
+
+    /**
+     * Documents written before versioning have no version field, which the
+     * repository would take for a new document; give them version 0 first
+     */
+    private void ensureVersioned(LatexDocument document) {
+        if (document.getVersion() != null) {
+            return;
+        }
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(document.getId()).and("version").exists(false)),
+                Update.update("version", 0L),
+                LatexDocument.class);
+        document.setVersion(0L);
+    }
+
+    /**
+     * Apply editor edits made against baseContentHash. Only the content fields
+     * are read and written, and the response carries no content, so the
+     * request and reply scale with the edit rather than the document.
+     * @throws DocumentConflictException if the content moved past the base
+     */
+    public LatexDocumentPatchResult patchDocument(String projectId, String userId, String documentId,
+            LatexDocumentPatchRequest patch) throws Exception {
+        // The status cache carries the owner, so the project document is not loaded
+        ProjectStatus project = projectStatusCache.get(projectId);
+        if (!project.getUserId().equals(userId)) {
+            throw new Exception("User not authorized to access this project");
+        }
+
+        Query documentQuery = Query.query(Criteria.where("_id").is(documentId).and("projectId").is(projectId));
+        documentQuery.fields().include("projectId", "content", "contentHash", "version", "revisionCount");
+        LatexDocument current = mongoTemplate.findOne(documentQuery, LatexDocument.class);
+        if (current == null) {
+            throw new Exception("Document not found");
+        }
+
+        String currentHash = current.getContentHash() != null
+                ? current.getContentHash()
+                : ContentHash.of(current.getContent());
+        if (!currentHash.equals(patch.getBaseContentHash())) {
+            throw new DocumentConflictException("Document changed since the edits were made", currentHash);
+        }
+
+        String content;
+        try {
+            content = TextEdits.apply(current.getContent(), patch.getEdits());
+        } catch (IllegalArgumentException e) {
+            throw new Exception("Invalid edit: " + e.getMessage());
+        }
+        String contentHash = ContentHash.of(content);
+        Date updatedAt = new Date();
+
+        if (!contentHash.equals(currentHash)) {
+            // Conditional on the version read so a concurrent writer cannot be overwritten
+            Criteria base = current.getVersion() != null
+                    ? Criteria.where("version").is(current.getVersion())
+                    : Criteria.where("version").exists(false);
+            UpdateResult result = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(documentId)).addCriteria(base),
+                    new Update()
+                            .set("content", content)
+                            .set("contentHash", contentHash)
+                            .set("updatedAt", updatedAt)
+                            .set("isCompiled", false)
+                            .inc("version", 1)
+                            .inc("revisionCount", 1),
+                    LatexDocument.class);
+            if (result.getMatchedCount() == 0) {
+                Query latestQuery = Query.query(Criteria.where("_id").is(documentId));
+                latestQuery.fields().include("contentHash");
+                LatexDocument latest = mongoTemplate.findOne(latestQuery, LatexDocument.class);
+                throw new DocumentConflictException("Document changed since the edits were made",
+                        latest != null ? latest.getContentHash() : null);
+            }
+            latexRevisionService.record(current, content, userId);
+            eventPublisher.publishEvent(new LatexDocumentChangedEvent(projectId, documentId, null, content));
+        }
+
+        return new LatexDocumentPatchResult(documentId, contentHash, content.length(), updatedAt);
     }
 
     public void deleteDocument(String projectId, String userId, String documentId) throws Exception {
@@ -71,10 +297,53 @@ public class LatexDocumentService {
             throw new Exception("User not authorized to access this project");
         }
 
-        LatexDocument document = latexDocumentRepository.findById(documentId)
+        LatexDocument document = latexDocumentRepository.findByIdAndProjectId(documentId, projectId)
                 .orElseThrow(() -> new Exception("Document not found"));
 
         latexDocumentRepository.delete(document);
+        latexCompileCache.release(document.getCompiledArtifactId());
+        latexRevisionService.deleteHistory(documentId);
+        eventPublisher.publishEvent(new LatexDocumentDeletedEvent(projectId, documentId));
+    }
+
+    private void publishChanged(LatexDocument document) {
+        eventPublisher.publishEvent(new LatexDocumentChangedEvent(document.getProjectId(), document.getId(),
+                document.getTitle(), document.getContent()));
+    }
+
+    public List<LatexDocumentRevision> getRevisions(String projectId, String userId, String documentId, Long before,
+            int limit) throws Exception {
+        LatexDocument document = getDocument(projectId, userId, documentId);
+        return latexRevisionService.list(document, before, limit);
+    }
+
+    public String getRevisionContent(String projectId, String userId, String documentId, long sequence)
+            throws Exception {
+        LatexDocument document = getDocument(projectId, userId, documentId);
+        return latexRevisionService.contentAt(document, sequence);
+    }
+
+    /**
+     * Edit turning one revision into another
+     * @param to Target revision, or null for the current content
+     */
+    public TextEdit diffRevisions(String projectId, String userId, String documentId, long from, Long to)
+            throws Exception {
+        LatexDocument document = getDocument(projectId, userId, documentId);
+        String fromContent = latexRevisionService.contentAt(document, from);
+        String toContent = to != null ? latexRevisionService.contentAt(document, to) : document.getContent();
+        return TextEdits.diff(fromContent, toContent);
+    }
+
+    /**
+     * Make an old revision's content current again; the replaced content
+     * becomes a revision itself, so a restore can be undone
+     */
+    public LatexDocument restoreRevision(String projectId, String userId, String documentId, long sequence)
+            throws Exception {
+        LatexDocument document = getDocument(projectId, userId, documentId);
+        String content = latexRevisionService.contentAt(document, sequence);
+        return saveWithContent(document, content, userId);
     }
 
     public List<LatexDocument> getProjectDocuments(String projectId, String userId) throws Exception {
@@ -98,11 +367,79 @@ public class LatexDocumentService {
             throw new Exception("User not authorized to access this project");
         }
 
+        return latexDocumentRepository.findByIdAndProjectId(documentId, projectId)
+                .orElseThrow(() -> new Exception("Document not found"));
+    }
+
+    public LatexOutline getOutline(String projectId, String userId, String documentId) throws Exception {
+        LatexDocument document = getDocument(projectId, userId, documentId);
+        return latexOutlineService.outline(document);
+    }
+
+    /**
+     * Find labels, citations, sections and inputs across a project's
+     * documents by name prefix. Documents whose outline is cached are not
+     * loaded at all.
+     * @param kind "label", "cite", "section", "input", or null for all
+     */
+    public List<LatexSymbolMatch> findSymbols(String projectId, String userId, String prefix, String kind,
+            int limit) throws Exception {
+        ProjectStatus project = projectStatusCache.get(projectId);
+        if (!project.getUserId().equals(userId)) {
+            throw new Exception("User not authorized to access this project");
+        }
+
+        Query headers = Query.query(Criteria.where("projectId").is(projectId));
+        headers.fields().include("title", "contentHash");
+        String needle = prefix != null ? prefix.toLowerCase() : "";
+        List<LatexSymbolMatch> matches = new ArrayList<>();
+
+        for (LatexDocument header : mongoTemplate.find(headers, LatexDocument.class)) {
+            Optional<LatexOutline> cached = header.getContentHash() != null
+                    ? latexOutlineService.cached(header.getContentHash())
+                    : Optional.empty();
+            LatexOutline outline = cached.isPresent()
+                    ? cached.get()
+                    : latexOutlineService.outline(reloadDocument(header.getId()));
+
+            if (kind == null || kind.equals("section")) {
+                outline.sections().stream()
+                        .filter(section -> section.title().toLowerCase().startsWith(needle))
+                        .forEach(section -> matches.add(new LatexSymbolMatch(header.getId(), header.getTitle(),
+                                "section", section.title(), section.offset(), section.line())));
+            }
+            addSymbolMatches(matches, header, "label", outline.labels(), kind, needle);
+            addSymbolMatches(matches, header, "cite", outline.cites(), kind, needle);
+            addSymbolMatches(matches, header, "input", outline.inputs(), kind, needle);
+        }
+
+        matches.sort(Comparator.comparing(LatexSymbolMatch::name).thenComparing(LatexSymbolMatch::line));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    private void addSymbolMatches(List<LatexSymbolMatch> matches, LatexDocument header, String symbolKind,
+            List<LatexOutline.Symbol> symbols, String kind, String needle) {
+        if (kind != null && !kind.equals(symbolKind)) {
+            return;
+        }
+        for (LatexOutline.Symbol symbol : symbols) {
+            if (symbol.name().toLowerCase().startsWith(needle)) {
+                matches.add(new LatexSymbolMatch(header.getId(), header.getTitle(), symbolKind, symbol.name(),
+                        symbol.offset(), symbol.line()));
+            }
+        }
+    }
+
+    private LatexDocument reloadDocument(String documentId) throws Exception {
         return latexDocumentRepository.findById(documentId)
                 .orElseThrow(() -> new Exception("Document not found"));
     }
 
-    public LatexDocument compileDocument(String projectId, String userId, String documentId) throws Exception {
+    /**
+     * Submit a compile of the document and return its job straight away;
+     * progress is followed through CompileJobTracker
+     */
+    public TrackedCompileJob compileDocument(String projectId, String userId, String documentId) throws Exception {
         // Verify project exists and user has access
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new Exception("Project not found"));
@@ -111,16 +448,158 @@ public class LatexDocumentService {
             throw new Exception("User not authorized to access this project");
         }
 
-        LatexDocument document = latexDocumentRepository.findById(documentId)
+        LatexDocument document = latexDocumentRepository.findByIdAndProjectId(documentId, projectId)
                 .orElseThrow(() -> new Exception("Document not found"));
 
-        // TODO: Implement LaTeX compilation logic here
-        // This would involve using a LaTeX compiler service to convert the content
-        // For now, we'll just set a placeholder
-        document.setCompiledContent("Compiled content placeholder");
-        document.setCompiled(true);
-        document.setUpdatedAt(new Date());
+        TrackedCompileJob tracked = compileJobTracker.create(TrackedCompileJob.Type.DOCUMENT, projectId,
+                documentId, userId);
+        LatexCompileJob job = new LatexCompileJob(
+                tracked.getId(),
+                projectId,
+                documentId,
+                userId,
+                MAIN_FILE,
+                Map.of(MAIN_FILE, standaloneSource(document.getContent())))
+                .withPriority(LatexCompileJob.Priority.INTERACTIVE);
+        String compileKey = LatexCompileCache.keyFor(job, latexCompileService.getEngineName(), COMPILE_OPTIONS);
+        job.withCompileKey(compileKey);
+
+        String contentHash = ContentHash.of(document.getContent());
+        if (!contentHash.equals(document.getContentHash())) {
+            document.setContentHash(contentHash);
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(documentId)),
+                    Update.update("contentHash", contentHash), LatexDocument.class);
+        }
+
+        // Identical input has been compiled before: reuse its artifact
+        Optional<LatexCompileCache.CachedCompile> cached = latexCompileCache.lookup(compileKey);
+        if (cached.isPresent()) {
+            if (!compileKey.equals(document.getCompileKey()) || !document.isCompiled()) {
+                recordCompile(documentId, contentHash, compileKey, cached.get().artifactId(), cached.get().log(),
+                        true);
+            }
+            compileJobTracker.complete(tracked, LatexCompileResult.Status.SUCCEEDED, cached.get().artifactId(),
+                    cached.get().log(), true);
+            return tracked;
+        }
 
-        return latexDocumentRepository.save(document);
+        // Requests for the same content share one job; a newer version cancels older jobs
+        long version = document.getVersion() != null ? document.getVersion() : 0;
+        try {
+            latexCompileCoalescer.submit("document:" + documentId, compileKey, version,
+                    () -> latexCompileService.submit(job, compileJobTracker.listenerFor(tracked)))
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            compileJobTracker.fail(tracked, error);
+                            return;
+                        }
+                        try {
+                            if (result.isSuccess()) {
+                                latexCompileCache.put(result.getCompileKey(), result);
+                            }
+                            // A superseded request receives the newer job's result, which that job's own
+                            // request records
+                            if (compileKey.equals(result.getCompileKey())) {
+                                recordCompile(documentId, contentHash, compileKey, result.getArtifactId(),
+                                        result.getLog(), result.isSuccess());
+                            }
+                            compileJobTracker.complete(tracked, result.getStatus(), result.getArtifactId(),
+                                    result.getLog(), false);
+                        } catch (Exception e) {
+                            compileJobTracker.fail(tracked, e);
+                        }
+                    });
+        } catch (Exception e) {
+            compileJobTracker.fail(tracked, e);
+            throw e;
+        }
+        return tracked;
+    }
+
+    /**
+     * Store a compile outcome unless the content changed while it was compiling
+     */
+    private void recordCompile(String documentId, String contentHash, String compileKey, String artifactId,
+            String log, boolean success) {
+        Update update = new Update()
+                .set("isCompiled", success)
+                .set("compileLog", log)
+                .set("compiledAt", new Date());
+        if (success) {
+            update.set("compiledArtifactId", artifactId).set("compileKey", compileKey);
+        }
+        LatexDocument previous = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(documentId).and("contentHash").is(contentHash)),
+                update,
+                LatexDocument.class);
+        if (success && previous != null && previous.getCompiledArtifactId() != null
+                && !previous.getCompiledArtifactId().equals(artifactId)) {
+            latexCompileCache.release(previous.getCompiledArtifactId());
+        }
+    }
+
+    public Path getCompiledPdf(String projectId, String userId, String documentId) throws Exception {
+        LatexDocument document = getDocument(projectId, userId, documentId);
+
+        return latexArtifactStore.find(document.getCompiledArtifactId())
+                .orElseThrow(() -> new Exception("Document has not been compiled"));
+    }
+
+    /**
+     * Submit a build of the whole project and return its job straight away
+     */
+    public TrackedCompileJob buildProject(String projectId, String userId) throws Exception {
+        // Verify project exists and user has access
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new Exception("Project not found"));
+
+        if (!project.getUserId().equals(userId)) {
+            throw new Exception("User not authorized to access this project");
+        }
+
+        TrackedCompileJob tracked = compileJobTracker.create(TrackedCompileJob.Type.PROJECT_BUILD, projectId, null,
+                userId);
+        try {
+            latexProjectBuildService.buildAsync(projectId, userId, compileJobTracker.listenerFor(tracked))
+                    .whenComplete((build, error) -> {
+                        if (error != null) {
+                            compileJobTracker.fail(tracked, error);
+                        } else {
+                            compileJobTracker.complete(tracked, LatexCompileResult.Status.valueOf(build.getStatus()),
+                                    build.getArtifactId(), build.getLog(), !build.isCompiled());
+                        }
+                    });
+        } catch (Exception e) {
+            compileJobTracker.fail(tracked, e);
+            throw e;
+        }
+        return tracked;
+    }
+
+    public Path getProjectBuildPdf(String projectId, String userId) throws Exception {
+        // Verify project exists and user has access
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new Exception("Project not found"));
+
+        if (!project.getUserId().equals(userId)) {
+            throw new Exception("User not authorized to access this project");
+        }
+
+        LatexProjectBuild build = latexProjectBuildService.getLastBuild(projectId)
+                .orElseThrow(() -> new Exception("Project has not been built"));
+        return latexArtifactStore.find(build.getArtifactId())
+                .orElseThrow(() -> new Exception("Project build output is no longer available"));
+    }
+
+    /**
+     * Chapters and sections are stored as fragments; give them a preamble so
+     * they can be compiled on their own
+     */
+    private String standaloneSource(String content) {
+        String body = content != null ? content : "";
+        if (body.contains("\\documentclass")) {
+            return body;
+        }
+        return "\\documentclass{report}\n\\begin{document}\n" + body + "\n\\end{document}\n";
     }
 }
\ No newline at end of file
@@ -0,0 +1,331 @@
+package com.Backend_project.service;
+
+import com.Backend_project.event.ProjectFileCachedEvent;
+import com.Backend_project.event.ProjectFilesClearedEvent;
+import com.Backend_project.event.ProjectFilesInvalidatedEvent;
+import com.Backend_project.model.ProjectFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers ProjectFile upserts and writes them as unordered bulk operations.
+ * A batch is flushed once it reaches the configured size or once the oldest
+ * buffered file has waited for the flush interval. The buffer is bounded, so
+ * producers block in {@link #enqueue} while the database catches up.
+ *
+ * Batches are taken from the buffer and written one at a time, by the
+ * flusher or by a caller of {@link #flush}, so a later write of a path never
+ * lands before an earlier one. A failed batch is retried before the next one
+ * is taken.
+ *
+ * When paths change upstream their buffered writes are discarded, and so is
+ * any later write of them whose content was fetched before the change, so a
+ * slow prefetch never brings back content a push has replaced. Other nodes
+ * do the same when the change stream reports the paths invalidated.
+ */
+@Component
+public class ProjectFileBulkWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectFileBulkWriter.class);
+
+    private static final int REMEMBERED_INVALIDATIONS = 10000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${project-files.bulk.batch-size:500}")
+    private int batchSize;
+
+    @Value("${project-files.bulk.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${project-files.bulk.buffer-capacity:5000}")
+    private int bufferCapacity;
+
+    @Value("${project-files.bulk.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${project-files.bulk.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    private BlockingQueue<ProjectFile> buffer;
+    /** Held from taking a batch off the buffer until it is written */
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final AtomicLong filesWritten = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong batchesRetried = new AtomicLong();
+    private final AtomicLong filesFailed = new AtomicLong();
+    private final AtomicLong filesDiscarded = new AtomicLong();
+
+    // When a path, or a whole project under the null path, was last invalidated; guarded by writeLock
+    private final Map<List<String>, Long> invalidatedAt = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, Long> eldest) {
+            return size() > REMEMBERED_INVALIDATIONS;
+        }
+    };
+
+    @PostConstruct
+    void start() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        running = true;
+        flusher = new Thread(this::runFlusher, "project-file-bulk-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Queue a file for writing, blocking while the buffer is full.
+     */
+    public void enqueue(ProjectFile file) throws InterruptedException {
+        buffer.put(file);
+    }
+
+    /**
+     * Write everything currently buffered from the calling thread.
+     */
+    public void flush() {
+        List<ProjectFile> batch = new ArrayList<>(batchSize);
+        writeLock.lock();
+        try {
+            while (buffer.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Drop buffered writes of paths that changed upstream, and any write of
+     * them fetched before now that is still to come. A batch being written
+     * lands first, so the caller can delete the paths once this returns.
+     * @param paths The changed paths, or null for the whole project
+     */
+    public void discard(String projectId, Collection<String> paths) {
+        long now = System.currentTimeMillis();
+        writeLock.lock();
+        try {
+            if (paths == null) {
+                invalidatedAt.put(Arrays.asList(projectId, null), now);
+            } else {
+                for (String path : paths) {
+                    invalidatedAt.put(List.of(projectId, path), now);
+                }
+            }
+            buffer.removeIf(file -> {
+                boolean stale = isStale(file);
+                if (stale) {
+                    filesDiscarded.incrementAndGet();
+                }
+                return stale;
+            });
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onFilesInvalidated(ProjectFilesInvalidatedEvent event) {
+        discard(event.projectId(), event.paths());
+    }
+
+    @EventListener
+    public void onFilesCleared(ProjectFilesClearedEvent event) {
+        discard(event.projectId(), null);
+    }
+
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    public long getFilesWritten() {
+        return filesWritten.get();
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("buffered", buffer.size());
+        stats.put("filesWritten", filesWritten.get());
+        stats.put("batchesWritten", batchesWritten.get());
+        stats.put("batchesRetried", batchesRetried.get());
+        stats.put("filesFailed", filesFailed.get());
+        stats.put("filesDiscarded", filesDiscarded.get());
+        return stats;
+    }
+
+    private void runFlusher() {
+        List<ProjectFile> batch = new ArrayList<>(batchSize);
+        while (running) {
+            // Held while waiting too: a flush() in between could otherwise write newer files first
+            writeLock.lock();
+            try {
+                ProjectFile first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Keep filling until the batch is full or the oldest file has waited long enough
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    ProjectFile next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+            } catch (InterruptedException e) {
+                // Write the partial batch; whatever is still buffered gets written by stop()
+                write(batch);
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Failed to flush project files: {}", e.getMessage());
+            } finally {
+                batch.clear();
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write a batch, retrying it while attempts remain. Upserts are
+     * idempotent, so the files of a partly applied batch are written again.
+     */
+    private void write(List<ProjectFile> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // The last write of a path in the batch wins, as if they were applied in order
+        Map<List<String>, ProjectFile> newest = new LinkedHashMap<>();
+        for (ProjectFile file : batch) {
+            newest.put(List.of(file.getProjectId(), file.getPath()), file);
+        }
+        newest.values().removeIf(file -> {
+            boolean stale = isStale(file);
+            if (stale) {
+                filesDiscarded.incrementAndGet();
+            }
+            return stale;
+        });
+        Collection<ProjectFile> files = newest.values();
+        if (files.isEmpty()) {
+            return;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                        ProjectFile.class);
+                for (ProjectFile file : files) {
+                    operations.upsert(keyOf(file), upsertOf(file));
+                }
+                operations.execute();
+                break;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    filesFailed.addAndGet(files.size());
+                    logger.error("Bulk write of {} project files failed after {} attempts: {}",
+                            files.size(), attempt, e.getMessage());
+                    return;
+                }
+                batchesRetried.incrementAndGet();
+                logger.warn("Bulk write of {} project files failed, retrying: {}", files.size(), e.getMessage());
+                try {
+                    Thread.sleep(retryBackoffMs * attempt);
+                } catch (InterruptedException ie) {
+                    // Shutting down: use the remaining attempts without waiting
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        filesWritten.addAndGet(files.size());
+        batchesWritten.incrementAndGet();
+        for (ProjectFile file : files) {
+            eventPublisher.publishEvent(new ProjectFileCachedEvent(file.getProjectId(), file.getPath(),
+                    file.getSha(), file.getContent()));
+        }
+    }
+
+    /**
+     * Whether the file's content was fetched before its path, or its project,
+     * was last invalidated. Files carry their fetch time in lastUpdated.
+     */
+    private boolean isStale(ProjectFile file) {
+        if (file.getLastUpdated() == null) {
+            return false;
+        }
+        long fetchedAt = file.getLastUpdated().getTime();
+        Long pathInvalidated = invalidatedAt.get(List.of(file.getProjectId(), file.getPath()));
+        Long projectInvalidated = invalidatedAt.get(Arrays.asList(file.getProjectId(), null));
+        return (pathInvalidated != null && fetchedAt < pathInvalidated)
+                || (projectInvalidated != null && fetchedAt < projectInvalidated);
+    }
+
+    /**
+     * The cached file at the same path, of which there is at most one
+     */
+    static Query keyOf(ProjectFile file) {
+        return new Query(Criteria.where("projectId").is(file.getProjectId()).and("path").is(file.getPath()));
+    }
+
+    static Update upsertOf(ProjectFile file) {
+        return new Update()
+                .set("content", file.getContent())
+                .set("sha", file.getSha())
+                .set("size", file.getSize())
+                .set("lastUpdated", file.getLastUpdated() != null ? file.getLastUpdated() : new Date())
+                .setOnInsert("lastAccessed", file.getLastAccessed());
+    }
+}
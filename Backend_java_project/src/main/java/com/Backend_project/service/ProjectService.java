@@ -1,11 +1,23 @@
 package com.Backend_project.service;
 
+import com.Backend_project.event.ProjectFileCachedEvent;
+import com.Backend_project.event.ProjectFilesClearedEvent;
+import com.Backend_project.event.ProjectFilesInvalidatedEvent;
+import com.Backend_project.exceptions.LeaseLostException;
 import com.Backend_project.model.Project;
+import com.Backend_project.model.ProjectStatus;
 import com.Backend_project.repository.ProjectRepository;
 import com.Backend_project.model.ProjectFile;
 import com.Backend_project.repository.ProjectFileRepository;
+import com.Backend_project.service.jobs.JobLease;
+import com.Backend_project.service.jobs.JobQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +38,33 @@ public class ProjectService {
     @Autowired
     private ProjectFileRepository projectFileRepository;
 
+    @Autowired
+    private ProjectStatusCache projectStatusCache;
+
+    @Autowired
+    private RepositoryPrefetchService repositoryPrefetchService;
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JobQueue jobQueue;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProjectFileBulkWriter projectFileBulkWriter;
+
+    @Autowired(required = false)
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
     public List<Project> getUserProjects(String userId) {
         return projectRepository.findByUserId(userId);
     }
@@ -35,7 +74,9 @@ public class ProjectService {
         project.setUpdatedAt(new Date());
         project.setStatus("ACTIVE");
         project.setAccessible(true);
-        return projectRepository.save(project);
+        Project savedProject = projectRepository.save(project);
+        projectStatusCache.update(savedProject);
+        return savedProject;
     }
 
     public Project createProjectFromRepository(String userId, String repositoryId) throws Exception {
@@ -56,9 +97,10 @@ public class ProjectService {
 
         // Save initial project
         project = projectRepository.save(project);
+        projectStatusCache.update(project);
 
-        // Start async process to fetch repository content
-        processRepositoryContent(project.getId(), userId, repositoryId);
+        // Fetch repository content on whichever node claims the job
+        scheduleIngestion(project.getId(), userId);
 
         return project;
     }
@@ -72,12 +114,17 @@ public class ProjectService {
         }
         project.setUpdatedAt(new Date());
 
-        return projectRepository.save(project);
+        Project savedProject = projectRepository.save(project);
+        projectStatusCache.update(savedProject);
+        return savedProject;
     }
 
     public void deleteProject(String userId, String projectId) throws Exception {
         Project project = getProject(userId, projectId);
         projectRepository.delete(project);
+        projectStatusCache.evict(projectId);
+        pullRequestService.deleteProjectPullRequests(projectId);
+        eventPublisher.publishEvent(new ProjectFilesClearedEvent(projectId, true));
     }
 
     public Project getProject(String userId, String projectId) throws Exception {
@@ -97,8 +144,14 @@ public class ProjectService {
         return project;
     }
 
-    public Project getProjectStatus(String userId, String projectId) throws Exception {
-        return getProject(userId, projectId);
+    public ProjectStatus getProjectStatus(String userId, String projectId) throws Exception {
+        ProjectStatus status = projectStatusCache.get(projectId);
+
+        if (!userId.equals(status.getUserId())) {
+            throw new Exception("Unauthorized access to project");
+        }
+
+        return status;
     }
 
     public Project resyncRepository(String userId, String projectId) throws Exception {
@@ -106,94 +159,173 @@ public class ProjectService {
 
         // Clear cached files when resyncing
         projectFileRepository.deleteByProjectId(projectId);
+        eventPublisher.publishEvent(new ProjectFilesClearedEvent(projectId, false));
 
         project.setStatus("PENDING");
         project.setAccessible(false);
         project.setUpdatedAt(new Date());
         Project savedProject = projectRepository.save(project);
+        projectStatusCache.update(savedProject);
 
-        processRepositoryContent(projectId, userId, project.getRepositoryId());
+        scheduleIngestion(projectId, userId);
 
         return savedProject;
     }
 
-    @Async
-    protected void processRepositoryContent(String projectId, String userId, String repositoryId) {
+    /**
+     * Bring a project up to a new head of its default branch without a full
+     * resync: drop only the cached files that changed, and fetch the tree
+     * again only when paths were added or removed
+     */
+    public void applyRepositoryChanges(String projectId, Set<String> changedPaths, boolean treeChanged,
+            String headSha) throws Exception {
+        if (!changedPaths.isEmpty()) {
+            // A prefetch still holding the old content must not write it back after the delete
+            projectFileBulkWriter.discard(projectId, changedPaths);
+            projectFileRepository.deleteByProjectIdAndPathIn(projectId, changedPaths);
+            eventPublisher.publishEvent(new ProjectFilesInvalidatedEvent(projectId, changedPaths));
+        }
+
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new Exception("Project not found"));
+        if (treeChanged) {
+            // The tree must match the sha the changes were computed against, not wherever the branch is now
+            Map<String, Object> mainContent = headSha != null
+                    ? gitHubService.getRepositoryTreeAtCommit(
+                            project.getUserId(),
+                            project.getRepositoryOwner(),
+                            project.getRepositoryName(),
+                            headSha)
+                    : gitHubService.getRepositoryTree(
+                            project.getUserId(),
+                            project.getRepositoryOwner(),
+                            project.getRepositoryName(),
+                            project.getDefaultBranch());
+
+            Map<String, Object> repoContent = project.getFileTree() != null
+                    ? new HashMap<>(project.getFileTree())
+                    : new HashMap<>();
+            repoContent.put("main", mainContent);
+            project.setFileTree(repoContent);
+        }
+        if (headSha != null) {
+            project.setHeadSha(headSha);
+        }
+        project.setUpdatedAt(new Date());
+        projectStatusCache.update(projectRepository.save(project));
+        logger.info("Applied {} changed files to project {}", changedPaths.size(), projectId);
+    }
+
+    /**
+     * Queue a crawl of the repository; requests for a project whose crawl is
+     * already queued share it
+     */
+    private void scheduleIngestion(String projectId, String userId) {
+        jobQueue.enqueue(RepositoryIngestionJobHandler.TYPE, RepositoryIngestionJobHandler.keyFor(projectId),
+                RepositoryIngestionJobHandler.payload(projectId, userId));
+    }
+
+    /**
+     * Crawl the repository under a job lease. The lease is checked before
+     * each write, so a node that lost the job leaves the project to the node
+     * that took it over.
+     */
+    public void ingestRepository(String projectId, String userId, JobLease lease) {
+        Timer.Sample run = Timer.start(meterRegistry);
+        String outcome = "failed";
         try {
             Project project = projectRepository.findById(projectId)
                     .orElseThrow(() -> new Exception("Project not found"));
 
-            // Get repository content including PRs
+            // Get repository content
             Map<String, Object> repoContent = new HashMap<>();
 
             // Get main branch content
-            Map<String, Object> mainContent = gitHubService.getRepositoryTree(
+            Map<String, Object> mainContent = stage("tree").observeChecked(() -> gitHubService.getRepositoryTree(
                     userId,
                     project.getRepositoryOwner(),
                     project.getRepositoryName(),
-                    project.getDefaultBranch());
+                    project.getDefaultBranch()));
             repoContent.put("main", mainContent);
 
-            // Get pull requests
-            List<Map<String, Object>> pullRequests = gitHubService.getRepositoryPullRequests(
-                    userId,
-                    project.getRepositoryOwner(),
-                    project.getRepositoryName());
-
-            // Process each PR and get its content
-            List<Map<String, Object>> processedPRs = new ArrayList<>();
-            for (Map<String, Object> pr : pullRequests) {
+            // Pull requests are stored apart from the file tree, patches separately again
+            lease.ensureHeld();
+            Set<String> pullRequestPaths = stage("pull_requests").observe(() -> {
                 try {
-                    String prNumber = String.valueOf(pr.get("number"));
-                    Map<String, Object> prContent = gitHubService.getPullRequestContent(
+                    return pullRequestService.syncPullRequests(
+                            projectId,
                             userId,
                             project.getRepositoryOwner(),
-                            project.getRepositoryName(),
-                            prNumber);
-
-                    Map<String, Object> processedPR = new HashMap<>();
-                    processedPR.put("number", prNumber);
-                    processedPR.put("title", pr.get("title"));
-                    processedPR.put("state", pr.get("state"));
-                    processedPR.put("user", pr.get("user"));
-                    processedPR.put("created_at", pr.get("created_at"));
-                    processedPR.put("updated_at", pr.get("updated_at"));
-                    processedPR.put("content", prContent);
-
-                    processedPRs.add(processedPR);
+                            project.getRepositoryName());
                 } catch (Exception e) {
-                    logger.error("Failed to process PR {}: {}", pr.get("number"), e.getMessage());
+                    logger.error("Failed to sync pull requests: {}", e.getMessage());
+                    meterRegistry.counter("ingestion.pull_request_sync.failures").increment();
+                    return Set.<String>of();
                 }
-            }
-            repoContent.put("pull_requests", processedPRs);
+            });
 
             // Update project with content
+            lease.ensureHeld();
             project.setFileTree(repoContent);
+            // The commit the tree was read at; polling and webhooks apply changes from here
+            project.setHeadSha((String) mainContent.get("sha"));
             project.setStatus("ACTIVE");
             project.setAccessible(true);
             project.setUpdatedAt(new Date());
-            projectRepository.save(project);
+            stage("save").observe(() -> projectStatusCache.update(projectRepository.save(project)));
 
             // Clear existing cached files for this project
-            projectFileRepository.deleteByProjectId(projectId);
-
+            stage("clear_cache").observe(() -> {
+                projectFileRepository.deleteByProjectId(projectId);
+                eventPublisher.publishEvent(new ProjectFilesClearedEvent(projectId, false));
+            });
+
+            // Warm the cache with the files most likely to be opened first
+            repositoryPrefetchService.schedulePrefetch(project, userId, repoContent, pullRequestPaths);
+            outcome = "succeeded";
+
+        } catch (LeaseLostException e) {
+            outcome = "lease_lost";
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to process repository content: {}", e.getMessage());
-            try {
-                Project project = projectRepository.findById(projectId).orElse(null);
-                if (project != null) {
-                    project.setStatus("FAILED");
-                    project.setErrorMessage(e.getMessage());
-                    project.setUpdatedAt(new Date());
-                    projectRepository.save(project);
-                }
-            } catch (Exception ex) {
-                logger.error("Failed to update project status: {}", ex.getMessage());
+            markIngestionFailed(projectId, e.getMessage(), lease);
+        } finally {
+            run.stop(meterRegistry.timer("ingestion.runs", "outcome", outcome));
+        }
+    }
+
+    /**
+     * Record a crawl that will not complete, so the project stops showing as pending
+     */
+    public void markIngestionFailed(String projectId, String error, JobLease lease) {
+        try {
+            lease.ensureHeld();
+            Project project = projectRepository.findById(projectId).orElse(null);
+            if (project != null) {
+                project.setStatus("FAILED");
+                project.setErrorMessage(error);
+                project.setUpdatedAt(new Date());
+                projectStatusCache.update(projectRepository.save(project));
             }
+        } catch (LeaseLostException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to update project status: {}", e.getMessage());
         }
     }
 
-    private Map<String, Object> enrichFileTreeWithContent(Map<String, Object> fileTree, String projectId) {
+    /**
+     * A stage of a crawl, timed as ingestion.stage and traced as a span of
+     * the ingestion job
+     */
+    private Observation stage(String stage) {
+        return Observation.createNotStarted("ingestion.stage", observationRegistry)
+                .contextualName("ingestion " + stage)
+                .lowCardinalityKeyValue("stage", stage);
+    }
+
+    Map<String, Object> enrichFileTreeWithContent(Map<String, Object> fileTree, String projectId) {
         if (fileTree == null || !fileTree.containsKey("tree")) {
             return fileTree;
         }
@@ -248,8 +380,8 @@ public class ProjectService {
         if (cachedFile.isPresent()) {
             ProjectFile file = cachedFile.get();
             // Update last accessed time
-            file.setLastAccessed(new Date());
-            projectFileRepository.save(file);
+            projectFileRepository.updateLastAccessedById(file.getId(), new Date());
+            recordCacheLookup("hit", file.getSize());
 
             result.put("content", file.getContent());
             result.put("cached", true);
@@ -280,10 +412,20 @@ public class ProjectService {
             newFile.setSha((String) githubContent.get("sha"));
         }
 
-        projectFileRepository.save(newFile);
+        // Upsert, since a concurrent open or the prefetcher may cache the same path meanwhile
+        mongoTemplate.upsert(ProjectFileBulkWriter.keyOf(newFile), ProjectFileBulkWriter.upsertOf(newFile),
+                ProjectFile.class);
+        eventPublisher.publishEvent(new ProjectFileCachedEvent(projectId, path, newFile.getSha(),
+                newFile.getContent()));
+        recordCacheLookup("miss", newFile.getSize());
 
         result.put("content", githubContent.get("content"));
         result.put("cached", false);
         return result;
     }
-}
\ No newline at end of file
+
+    private void recordCacheLookup(String result, long bytes) {
+        meterRegistry.counter("project_files.cache.requests", "result", result).increment();
+        meterRegistry.summary("project_files.cache.bytes", "result", result).record(bytes);
+    }
+}
@@ -0,0 +1,80 @@
+package com.Backend_project.service;
+
+import com.Backend_project.event.LocalCachesResetEvent;
+import com.Backend_project.model.Project;
+import com.Backend_project.model.ProjectStatus;
+import com.Backend_project.repository.ProjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of project statuses. The ingestion pipeline writes through
+ * it on every status transition, so polls are answered without hitting Mongo.
+ * Only the most recently used projects are kept; the rest are loaded again
+ * on their next poll.
+ */
+@Component
+public class ProjectStatusCache {
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Value("${project-status.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, ProjectStatus> statuses = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProjectStatus> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public ProjectStatus get(String projectId) throws Exception {
+        synchronized (statuses) {
+            ProjectStatus cached = statuses.get(projectId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Cache miss: load the status fields only and remember them
+        ProjectStatus loaded = projectRepository.findStatusById(projectId)
+                .orElseThrow(() -> new Exception("Project not found"));
+        synchronized (statuses) {
+            // A transition written while loading is newer than what was read
+            return statuses.computeIfAbsent(projectId, id -> loaded);
+        }
+    }
+
+    public void update(Project project) {
+        if (project != null && project.getId() != null) {
+            ProjectStatus status = ProjectStatus.from(project);
+            synchronized (statuses) {
+                statuses.put(project.getId(), status);
+            }
+        }
+    }
+
+    public void evict(String projectId) {
+        synchronized (statuses) {
+            statuses.remove(projectId);
+        }
+    }
+
+    public int size() {
+        synchronized (statuses) {
+            return statuses.size();
+        }
+    }
+
+    @EventListener
+    public void onCachesReset(LocalCachesResetEvent event) {
+        synchronized (statuses) {
+            statuses.clear();
+        }
+    }
+}
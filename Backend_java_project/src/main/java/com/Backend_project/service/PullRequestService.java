@@ -0,0 +1,249 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.ProjectStatus;
+import com.Backend_project.model.PullRequest;
+import com.Backend_project.model.PullRequestPatch;
+import com.Backend_project.model.PullRequestSummary;
+import com.Backend_project.repository.PullRequestPatchRepository;
+import com.Backend_project.repository.PullRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Pull requests of a project, stored one document per pull request with the
+ * file patches in a collection of their own. Listing reads a summary
+ * projection, a pull request is read without patches, and a patch is read
+ * only when its diff is opened.
+ */
+@Service
+public class PullRequestService {
+    private static final Logger logger = LoggerFactory.getLogger(PullRequestService.class);
+
+    @Autowired
+    private GitHubService gitHubService;
+
+    @Autowired
+    private PullRequestRepository pullRequestRepository;
+
+    @Autowired
+    private PullRequestPatchRepository pullRequestPatchRepository;
+
+    @Autowired
+    private ProjectStatusCache projectStatusCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Fetch the repository's pull requests and store the ones that are new or
+     * were updated since the last sync; unchanged ones are not fetched again.
+     * Pull requests missing from the listing are kept, since the listing is
+     * only the most recent page.
+     *
+     * @return paths touched by open pull requests
+     */
+    public Set<String> syncPullRequests(String projectId, String userId, String owner, String repo)
+            throws Exception {
+        Map<Integer, PullRequest> stored = new HashMap<>();
+        for (PullRequest pullRequest : pullRequestRepository.findSyncStateByProjectId(projectId)) {
+            stored.put(pullRequest.getNumber(), pullRequest);
+        }
+
+        Set<String> openPaths = new HashSet<>();
+        int fetched = 0;
+        for (Map<String, Object> listed : gitHubService.getRepositoryPullRequests(userId, owner, repo)) {
+            if (!(listed.get("number") instanceof Number number)) {
+                continue;
+            }
+            PullRequest existing = stored.get(number.intValue());
+            if (existing != null && Objects.equals(existing.getUpdatedAt(), listed.get("updated_at"))) {
+                if ("open".equals(existing.getState())) {
+                    addPaths(openPaths, existing);
+                }
+                meterRegistry.counter("pull_requests.synced", "outcome", "unchanged").increment();
+                continue;
+            }
+
+            try {
+                PullRequest pullRequest = fetch(projectId, userId, owner, repo, listed,
+                        existing != null ? existing.getId() : null);
+                if ("open".equals(pullRequest.getState())) {
+                    addPaths(openPaths, pullRequest);
+                }
+                fetched++;
+                meterRegistry.counter("pull_requests.synced", "outcome", "fetched").increment();
+            } catch (Exception e) {
+                logger.error("Failed to process PR {}: {}", number, e.getMessage());
+                meterRegistry.counter("pull_requests.synced", "outcome", "failed").increment();
+            }
+        }
+        logger.info("Synced pull requests of project {}: {} fetched, {} already stored", projectId, fetched,
+                stored.size());
+        return openPaths;
+    }
+
+    /**
+     * Fetch and store one pull request again, for a webhook event about it
+     */
+    public void refreshPullRequest(String projectId, String userId, String owner, String repo, int number)
+            throws Exception {
+        String existingId = pullRequestRepository.findByProjectIdAndNumber(projectId, number)
+                .map(PullRequest::getId)
+                .orElse(null);
+        fetch(projectId, userId, owner, repo, Map.of("number", number), existingId);
+    }
+
+    public List<PullRequestSummary> getPullRequests(String userId, String projectId) throws Exception {
+        checkAccess(userId, projectId);
+        return pullRequestRepository.findSummariesByProjectId(projectId);
+    }
+
+    public PullRequest getPullRequest(String userId, String projectId, int number) throws Exception {
+        checkAccess(userId, projectId);
+        return pullRequestRepository.findByProjectIdAndNumber(projectId, number)
+                .orElseThrow(() -> new Exception("Pull request not found"));
+    }
+
+    /**
+     * Patches of a pull request, or of one of its files when a path is given
+     */
+    public List<PullRequestPatch> getPatches(String userId, String projectId, int number, String path)
+            throws Exception {
+        checkAccess(userId, projectId);
+        if (path == null) {
+            return pullRequestPatchRepository.findByProjectIdAndNumber(projectId, number);
+        }
+        PullRequestPatch patch = pullRequestPatchRepository.findByProjectIdAndNumberAndFilename(projectId, number,
+                path).orElseThrow(() -> new Exception("Patch not found"));
+        return List.of(patch);
+    }
+
+    public void deleteProjectPullRequests(String projectId) {
+        pullRequestRepository.deleteByProjectId(projectId);
+        pullRequestPatchRepository.deleteByProjectId(projectId);
+    }
+
+    private PullRequest fetch(String projectId, String userId, String owner, String repo, Map<String, Object> listed,
+            String existingId) throws Exception {
+        int number = ((Number) listed.get("number")).intValue();
+        Map<String, Object> content = gitHubService.getPullRequestContent(userId, owner, repo,
+                String.valueOf(number));
+        PullRequest pullRequest = toPullRequest(projectId, listed, content);
+        pullRequest.setId(existingId);
+
+        // Readers follow the pull request's file list to its patches, so patches are written before the list
+        // names them and removed only once it no longer does; a listed patch is never missing
+        Map<String, String> stalePatchIds = new HashMap<>();
+        for (PullRequestPatch stored : pullRequestPatchRepository.findKeysByProjectIdAndNumber(projectId, number)) {
+            stalePatchIds.put(stored.getFilename(), stored.getId());
+        }
+        List<PullRequestPatch> patches = toPatches(projectId, number, content);
+        for (PullRequestPatch patch : patches) {
+            patch.setId(stalePatchIds.remove(patch.getFilename()));
+        }
+        pullRequestPatchRepository.saveAll(patches);
+        pullRequestRepository.save(pullRequest);
+        if (!stalePatchIds.isEmpty()) {
+            pullRequestPatchRepository.deleteAllById(stalePatchIds.values());
+        }
+        return pullRequest;
+    }
+
+    private void checkAccess(String userId, String projectId) throws Exception {
+        ProjectStatus project = projectStatusCache.get(projectId);
+        if (!userId.equals(project.getUserId())) {
+            throw new Exception("Unauthorized access to project");
+        }
+    }
+
+    private static void addPaths(Set<String> paths, PullRequest pullRequest) {
+        if (pullRequest.getFiles() != null) {
+            for (PullRequest.FileChange file : pullRequest.getFiles()) {
+                paths.add(file.filename());
+            }
+        }
+    }
+
+    static PullRequest toPullRequest(String projectId, Map<String, Object> listed, Map<String, Object> content) {
+        Map<String, Object> details = content.get("details") instanceof Map<?, ?> map
+                ? (Map<String, Object>) map
+                : listed;
+
+        PullRequest pullRequest = new PullRequest();
+        pullRequest.setProjectId(projectId);
+        pullRequest.setNumber(((Number) listed.get("number")).intValue());
+        pullRequest.setTitle((String) details.get("title"));
+        pullRequest.setState((String) details.get("state"));
+        pullRequest.setDraft(Boolean.TRUE.equals(details.get("draft")));
+        pullRequest.setBody((String) details.get("body"));
+        pullRequest.setCreatedAt((String) details.get("created_at"));
+        // The listing's timestamp is the one compared on the next sync
+        pullRequest.setUpdatedAt((String) (listed.containsKey("updated_at") ? listed : details).get("updated_at"));
+        pullRequest.setMergedAt((String) details.get("merged_at"));
+        pullRequest.setAdditions(intValue(details.get("additions")));
+        pullRequest.setDeletions(intValue(details.get("deletions")));
+        pullRequest.setChangedFiles(intValue(details.get("changed_files")));
+        if (details.get("user") instanceof Map<?, ?> user) {
+            pullRequest.setAuthor((String) user.get("login"));
+        }
+        if (details.get("head") instanceof Map<?, ?> head) {
+            pullRequest.setHeadRef((String) head.get("ref"));
+            pullRequest.setHeadSha((String) head.get("sha"));
+        }
+        if (details.get("base") instanceof Map<?, ?> base) {
+            pullRequest.setBaseRef((String) base.get("ref"));
+        }
+
+        List<PullRequest.FileChange> files = new ArrayList<>();
+        if (content.get("files") instanceof List<?> fileList) {
+            for (Object item : fileList) {
+                Map<String, Object> file = (Map<String, Object>) item;
+                files.add(new PullRequest.FileChange(
+                        (String) file.get("filename"),
+                        (String) file.get("status"),
+                        intValue(file.get("additions")),
+                        intValue(file.get("deletions")),
+                        intValue(file.get("changes")),
+                        (String) file.get("previous_filename"),
+                        file.get("patch") != null));
+            }
+        }
+        pullRequest.setFiles(files);
+
+        List<Map<String, Object>> comments = content.get("comments") instanceof List<?> commentList
+                ? (List<Map<String, Object>>) commentList
+                : List.of();
+        pullRequest.setComments(comments);
+        pullRequest.setCommentCount(comments.size());
+        return pullRequest;
+    }
+
+    static List<PullRequestPatch> toPatches(String projectId, int number, Map<String, Object> content) {
+        List<PullRequestPatch> patches = new ArrayList<>();
+        if (!(content.get("files") instanceof List<?> fileList)) {
+            return patches;
+        }
+        for (Object item : fileList) {
+            Map<String, Object> file = (Map<String, Object>) item;
+            if (file.get("patch") == null || file.get("filename") == null) {
+                continue;
+            }
+            PullRequestPatch patch = new PullRequestPatch();
+            patch.setProjectId(projectId);
+            patch.setNumber(number);
+            patch.setFilename((String) file.get("filename"));
+            patch.setPatch((String) file.get("patch"));
+            patches.add(patch);
+        }
+        return patches;
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.CoordinatedJob;
+import com.Backend_project.service.jobs.JobHandler;
+import com.Backend_project.service.jobs.JobLease;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Crawls a project's repository on whichever node claims the job, so a
+ * resync requested on several nodes at once is fetched from GitHub only once
+ */
+@Component
+public class RepositoryIngestionJobHandler implements JobHandler {
+    static final String TYPE = "INGESTION";
+
+    @Autowired
+    private ProjectService projectService;
+
+    static String keyFor(String projectId) {
+        return "ingest:" + projectId;
+    }
+
+    static Map<String, String> payload(String projectId, String userId) {
+        return Map.of("projectId", projectId, "userId", userId);
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public void run(CoordinatedJob job, JobLease lease) {
+        projectService.ingestRepository(job.getPayload().get("projectId"), job.getPayload().get("userId"), lease);
+    }
+
+    @Override
+    public void abandon(CoordinatedJob job, JobLease lease, String reason) {
+        projectService.markIngestionFailed(job.getPayload().get("projectId"), reason, lease);
+    }
+}
@@ -0,0 +1,283 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.Project;
+import com.Backend_project.repository.ProjectRepository;
+import com.Backend_project.service.jobs.JobLease;
+import com.Backend_project.service.jobs.JobQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps active projects current for repositories without a webhook. Each
+ * repository branch is checked with a conditional ref request; a branch whose
+ * head moved is checked again soon, one that did not is checked half as
+ * often each time, up to the maximum interval. When the head moved, the
+ * commits are compared and only the changed files are dropped from the cache.
+ *
+ * All checks share one request budget per hour, and a user whose GitHub rate
+ * limit runs low is left alone until it resets. Only the node holding the
+ * polling lease checks anything, so running more nodes does not multiply the
+ * requests; another node takes over once that lease runs out.
+ */
+@Service
+public class RepositoryPollingService {
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryPollingService.class);
+
+    /** GitHub lists at most this many files in a comparison */
+    static final int MAX_COMPARE_FILES = 300;
+
+    private static final Set<String> TREE_CHANGING_STATUSES = Set.of("added", "removed", "renamed");
+
+    private static final String LEADER_JOB = "POLLING";
+    private static final String LEADER_KEY = "repository-polling";
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private GitHubService gitHubService;
+
+    @Autowired
+    private JobQueue jobQueue;
+
+    @Value("${polling.enabled:true}")
+    private boolean enabled;
+
+    @Value("${polling.tick-ms:30000}")
+    private long tickMs;
+
+    @Value("${polling.min-interval-ms:60000}")
+    private long minIntervalMs;
+
+    @Value("${polling.max-interval-ms:3600000}")
+    private long maxIntervalMs;
+
+    @Value("${polling.requests-per-hour:1000}")
+    private int requestsPerHour;
+
+    @Value("${polling.min-rate-limit-remaining:500}")
+    private int minRateLimitRemaining;
+
+    /**
+     * Poll state of one repository branch, shared by every project on it
+     */
+    static final class BranchPoll {
+        String etag;
+        long intervalMs;
+        long nextCheckAt;
+    }
+
+    private final Map<String, BranchPoll> polls = new ConcurrentHashMap<>();
+    private final Map<String, Long> rateLimitedUntil = new HashMap<>();
+    private double budget;
+    private long budgetUpdatedAt;
+    private JobLease leadership;
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong headsMoved = new AtomicLong();
+    private final AtomicLong incrementalSyncs = new AtomicLong();
+    private final AtomicLong fullResyncs = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "repository-poller");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (holdsLeadership()) {
+                    tick(System.currentTimeMillis());
+                }
+            } catch (Exception e) {
+                logger.error("Repository polling failed: {}", e.getMessage());
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private boolean holdsLeadership() {
+        if (leadership == null || !leadership.isHeld()) {
+            leadership = jobQueue.acquire(LEADER_JOB, LEADER_KEY).orElse(null);
+            if (leadership != null) {
+                // Whatever was known from an earlier turn as leader is stale by now
+                polls.clear();
+                logger.info("Polling repositories from node {}", jobQueue.getNodeId());
+            }
+        }
+        return leadership != null;
+    }
+
+    /**
+     * Check the branches that are due, earliest first, while the budget lasts
+     */
+    void tick(long now) {
+        Map<String, List<Project>> branches = new HashMap<>();
+        for (Project project : projectRepository.findActiveSyncTargets()) {
+            if (project.getRepositoryId() != null && project.getDefaultBranch() != null) {
+                branches.computeIfAbsent(project.getRepositoryId() + ":" + project.getDefaultBranch(),
+                        key -> new ArrayList<>()).add(project);
+            }
+        }
+        polls.keySet().retainAll(branches.keySet());
+
+        List<Map.Entry<String, BranchPoll>> due = new ArrayList<>();
+        for (String key : branches.keySet()) {
+            BranchPoll poll = polls.computeIfAbsent(key, k -> {
+                BranchPoll created = new BranchPoll();
+                created.intervalMs = minIntervalMs;
+                // Spread the first checks instead of firing them all at once
+                created.nextCheckAt = now + 1 + ThreadLocalRandom.current().nextLong(Math.max(1, minIntervalMs));
+                return created;
+            });
+            if (poll.nextCheckAt <= now) {
+                due.add(Map.entry(key, poll));
+            }
+        }
+        due.sort(Comparator.comparingLong(entry -> entry.getValue().nextCheckAt));
+
+        refillBudget(now);
+        for (Map.Entry<String, BranchPoll> entry : due) {
+            if (budget < 1) {
+                budgetExhausted.incrementAndGet();
+                break;
+            }
+            check(entry.getValue(), branches.get(entry.getKey()), now);
+        }
+    }
+
+    private void check(BranchPoll poll, List<Project> projects, long now) {
+        Project lead = projects.stream()
+                .filter(project -> rateLimitedUntil.getOrDefault(project.getUserId(), 0L) <= now)
+                .findFirst()
+                .orElse(null);
+        if (lead == null) {
+            return;
+        }
+
+        boolean moved = false;
+        try {
+            budget--;
+            checks.incrementAndGet();
+            BranchHead head = gitHubService.getBranchHead(lead.getUserId(), lead.getRepositoryOwner(),
+                    lead.getRepositoryName(), lead.getDefaultBranch(), poll.etag);
+            if (head.rateLimitRemaining() >= 0 && head.rateLimitRemaining() < minRateLimitRemaining) {
+                rateLimitedUntil.put(lead.getUserId(), head.rateLimitResetEpochSeconds() > 0
+                        ? TimeUnit.SECONDS.toMillis(head.rateLimitResetEpochSeconds())
+                        : now + maxIntervalMs);
+            }
+            if (!head.notModified()) {
+                poll.etag = head.etag();
+                for (Project project : projects) {
+                    if (!head.sha().equals(project.getHeadSha())) {
+                        moved = true;
+                        sync(project, head.sha());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to check {}/{}: {}", lead.getRepositoryOwner(), lead.getRepositoryName(),
+                    e.getMessage());
+        }
+
+        poll.intervalMs = moved ? minIntervalMs : Math.min(maxIntervalMs, poll.intervalMs * 2);
+        // Jitter keeps branches that were checked together from staying in step
+        long jitter = ThreadLocalRandom.current().nextLong(poll.intervalMs / 10 + 1);
+        poll.nextCheckAt = now + poll.intervalMs + jitter;
+    }
+
+    /**
+     * Bring a project from the head it was last synced to up to headSha,
+     * dropping only the files changed in between
+     */
+    void sync(Project project, String headSha) throws Exception {
+        headsMoved.incrementAndGet();
+        if (project.getHeadSha() == null) {
+            // Ingested before heads were recorded; there is nothing to compare against
+            fullResync(project);
+            return;
+        }
+
+        Map<String, Object> comparison = gitHubService.compareCommits(project.getUserId(),
+                project.getRepositoryOwner(), project.getRepositoryName(), project.getHeadSha(), headSha);
+        List<Map<String, Object>> files = comparison.get("files") instanceof List<?> list
+                ? (List<Map<String, Object>>) list
+                : List.of();
+        // Diverged or behind means history was rewritten; a full file list is capped
+        if (!"ahead".equals(comparison.get("status")) || files.size() >= MAX_COMPARE_FILES) {
+            fullResync(project);
+            return;
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        boolean treeChanged = false;
+        for (Map<String, Object> file : files) {
+            changed.add((String) file.get("filename"));
+            if (file.get("previous_filename") != null) {
+                changed.add((String) file.get("previous_filename"));
+            }
+            treeChanged |= TREE_CHANGING_STATUSES.contains(file.get("status"));
+        }
+        projectService.applyRepositoryChanges(project.getId(), changed, treeChanged, headSha);
+        incrementalSyncs.incrementAndGet();
+    }
+
+    private void fullResync(Project project) throws Exception {
+        logger.info("Head of project {} cannot be applied incrementally, resyncing", project.getId());
+        projectService.resyncRepository(project.getUserId(), project.getId());
+        fullResyncs.incrementAndGet();
+    }
+
+    private void refillBudget(long now) {
+        // Allow a burst of up to a minute's worth of requests
+        double capacity = Math.max(1, requestsPerHour / 60.0);
+        if (budgetUpdatedAt == 0) {
+            budget = capacity;
+        } else {
+            budget = Math.min(capacity,
+                    budget + (now - budgetUpdatedAt) * requestsPerHour / (double) TimeUnit.HOURS.toMillis(1));
+        }
+        budgetUpdatedAt = now;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedBranches", polls.size());
+        stats.put("checks", checks.get());
+        stats.put("headsMoved", headsMoved.get());
+        stats.put("incrementalSyncs", incrementalSyncs.get());
+        stats.put("fullResyncs", fullResyncs.get());
+        stats.put("budgetExhausted", budgetExhausted.get());
+        return stats;
+    }
+}
@@ -0,0 +1,284 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.Project;
+import com.Backend_project.model.ProjectFile;
+import com.Backend_project.repository.ProjectFileRepository;
+import com.Backend_project.service.symbols.SymbolExtractor;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms the file cache after ingestion with the files a user is most likely
+ * to open first: READMEs, LaTeX sources, build files, entry points and files
+ * touched by open pull requests. Runs on a single low-priority thread, paced
+ * to a request budget and capped in file count and total bytes.
+ *
+ * The rest of the repository's text files follow under a separate indexing
+ * budget: Java, Python and TS/JS sources first, then everything else, each
+ * shallowest first. Every file cached here is chunked into the context index
+ * and has its symbols extracted as it is written, so queries and symbol
+ * lookups see more than the files someone happened to open; files beyond the
+ * budget are indexed once opened.
+ */
+@Service
+public class RepositoryPrefetchService {
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryPrefetchService.class);
+
+    private static final Set<String> LATEX_EXTENSIONS = Set.of("tex", "bib", "cls", "sty", "bst");
+
+    private static final Set<String> BUILD_FILES = Set.of(
+            "pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "package.json",
+            "pyproject.toml", "setup.py", "requirements.txt", "cargo.toml", "go.mod",
+            "makefile", "cmakelists.txt", "dockerfile", "latexmkrc", ".latexmkrc");
+
+    private static final Set<String> ENTRY_POINT_NAMES = Set.of(
+            "main", "index", "app", "server", "__main__", "application", "cli");
+
+    private static final Set<String> BINARY_EXTENSIONS = Set.of(
+            "png", "jpg", "jpeg", "gif", "bmp", "ico", "pdf", "zip", "gz", "tar", "jar",
+            "war", "class", "so", "dll", "exe", "woff", "woff2", "ttf", "eot", "mp4", "mp3");
+
+    @Autowired
+    private GitHubService gitHubService;
+
+    @Autowired
+    private ProjectFileRepository projectFileRepository;
+
+    @Autowired
+    private ProjectFileBulkWriter projectFileBulkWriter;
+
+    @Value("${prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${prefetch.max-files:200}")
+    private int maxFiles;
+
+    @Value("${prefetch.max-bytes:5242880}")
+    private long maxBytes;
+
+    @Value("${prefetch.max-file-bytes:524288}")
+    private long maxFileBytes;
+
+    @Value("${prefetch.index.max-files:500}")
+    private int indexMaxFiles;
+
+    @Value("${prefetch.index.max-bytes:10485760}")
+    private long indexMaxBytes;
+
+    @Value("${prefetch.requests-per-second:2}")
+    private double requestsPerSecond;
+
+    private final ExecutorService executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "repository-prefetch");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+
+    /** Carries the caller's trace onto the prefetch thread */
+    private final ContextSnapshotFactory snapshotFactory = ContextSnapshotFactory.builder().build();
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a prefetch of the most valuable files of a freshly ingested project
+     */
+    public void schedulePrefetch(Project project, String userId, Map<String, Object> repoContent,
+            Set<String> pullRequestPaths) {
+        if (!enabled || repoContent == null) {
+            return;
+        }
+
+        List<PrefetchCandidate> candidates = selectCandidates(repoContent, pullRequestPaths);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        logger.debug("Scheduling prefetch of {} files for project {}", candidates.size(), project.getId());
+        // Keep the fetches in the trace of the ingestion that scheduled them
+        executor.submit(snapshotFactory.captureAll().wrap(() -> prefetch(project, userId, candidates)));
+    }
+
+    List<PrefetchCandidate> selectCandidates(Map<String, Object> repoContent, Set<String> pullRequestPaths) {
+        List<PrefetchCandidate> scored = new ArrayList<>();
+        List<PrefetchCandidate> indexable = new ArrayList<>();
+        Object main = repoContent.get("main");
+        if (main instanceof Map<?, ?> mainContent && mainContent.get("tree") instanceof Map<?, ?> tree) {
+            collectCandidates((Map<String, Object>) tree, pullRequestPaths, scored, indexable);
+        }
+
+        scored.sort(Comparator.comparingInt(PrefetchCandidate::score).reversed()
+                .thenComparing(PrefetchCandidate::path));
+        // Source the symbol extractor understands goes first, so symbol lookups cover the code
+        indexable.sort(Comparator.comparing((PrefetchCandidate candidate) ->
+                        SymbolExtractor.language(candidate.path()) == null)
+                .thenComparingLong(candidate -> depth(candidate.path()))
+                .thenComparing(PrefetchCandidate::path));
+
+        // Apply the count and size caps in priority order
+        List<PrefetchCandidate> selected = new ArrayList<>();
+        applyCaps(scored, maxFiles, maxBytes, selected);
+        applyCaps(indexable, indexMaxFiles, indexMaxBytes, selected);
+        return selected;
+    }
+
+    private void applyCaps(List<PrefetchCandidate> candidates, int fileCap, long byteCap,
+            List<PrefetchCandidate> selected) {
+        int files = 0;
+        long totalBytes = 0;
+        for (PrefetchCandidate candidate : candidates) {
+            if (files >= fileCap) {
+                break;
+            }
+            if (totalBytes + candidate.size() > byteCap) {
+                continue;
+            }
+            selected.add(candidate);
+            files++;
+            totalBytes += candidate.size();
+        }
+    }
+
+    private void collectCandidates(Map<String, Object> node, Set<String> pullRequestPaths,
+            List<PrefetchCandidate> scored, List<PrefetchCandidate> indexable) {
+        Object children = node.get("children");
+        if (!(children instanceof List<?> childList)) {
+            return;
+        }
+
+        for (Object child : childList) {
+            Map<String, Object> childNode = (Map<String, Object>) child;
+            if ("blob".equals(childNode.get("type"))) {
+                String path = (String) childNode.get("path");
+                long size = childNode.get("size") instanceof Number number ? number.longValue() : 0L;
+                if (path == null || size > maxFileBytes) {
+                    continue;
+                }
+                int score = score(path, pullRequestPaths.contains(path));
+                if (score > 0) {
+                    scored.add(new PrefetchCandidate(path, (String) childNode.get("sha"), size, score));
+                } else if (!BINARY_EXTENSIONS.contains(extension(path))) {
+                    indexable.add(new PrefetchCandidate(path, (String) childNode.get("sha"), size, 0));
+                }
+            } else {
+                collectCandidates(childNode, pullRequestPaths, scored, indexable);
+            }
+        }
+    }
+
+    private static String extension(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1).toLowerCase();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : "";
+    }
+
+    private static long depth(String path) {
+        return path.chars().filter(c -> c == '/').count();
+    }
+
+    /**
+     * Rank a path by how likely it is to be opened first; 0 means never prefetch
+     */
+    static int score(String path, boolean touchedByPullRequest) {
+        String name = path.substring(path.lastIndexOf('/') + 1).toLowerCase();
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot + 1) : "";
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        int depth = (int) path.chars().filter(c -> c == '/').count();
+
+        if (BINARY_EXTENSIONS.contains(extension)) {
+            return 0;
+        }
+
+        int score = 0;
+        if (baseName.equals("readme")) {
+            score = depth == 0 ? 100 : 60;
+        } else if (LATEX_EXTENSIONS.contains(extension)) {
+            score = 90;
+        } else if (BUILD_FILES.contains(name)) {
+            score = depth == 0 ? 80 : 50;
+        } else if (ENTRY_POINT_NAMES.contains(baseName) || baseName.endsWith("application")) {
+            score = 70;
+        }
+
+        if (touchedByPullRequest) {
+            score = Math.max(score, 30) + 50;
+        }
+
+        return score > 0 ? Math.max(1, score - depth * 2) : 0;
+    }
+
+    void prefetch(Project project, String userId, List<PrefetchCandidate> candidates) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(requestsPerSecond, 0.01));
+        long nextRequest = System.nanoTime();
+        int fetched = 0;
+
+        try {
+            for (PrefetchCandidate candidate : candidates) {
+                if (projectFileRepository.existsByProjectIdAndPath(project.getId(), candidate.path())) {
+                    continue;
+                }
+
+                // Stay within the request budget
+                long wait = nextRequest - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                nextRequest = System.nanoTime() + intervalNanos;
+
+                // Taken before the fetch, so a change that lands meanwhile makes this content stale
+                Date fetchedAt = new Date();
+                Map<String, Object> githubContent;
+                try {
+                    githubContent = gitHubService.getFileContent(
+                            userId,
+                            project.getRepositoryOwner(),
+                            project.getRepositoryName(),
+                            candidate.path(),
+                            project.getDefaultBranch());
+                } catch (Exception e) {
+                    if (GitHubService.isRateLimited(e)) {
+                        logger.warn("Stopping prefetch for project {}: GitHub rate limit reached", project.getId());
+                        break;
+                    }
+                    logger.debug("Failed to prefetch {}: {}", candidate.path(), e.getMessage());
+                    continue;
+                }
+
+                ProjectFile file = new ProjectFile();
+                file.setProjectId(project.getId());
+                file.setPath(candidate.path());
+                file.setContent((String) githubContent.get("content"));
+                file.setSha(candidate.sha());
+                file.setSize(candidate.size());
+                file.setLastUpdated(fetchedAt);
+                projectFileBulkWriter.enqueue(file);
+                fetched++;
+            }
+            projectFileBulkWriter.flush();
+            logger.info("Prefetched {} files for project {}", fetched, project.getId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Prefetch failed for project {}: {}", project.getId(), e.getMessage());
+        }
+    }
+
+    record PrefetchCandidate(String path, String sha, long size, int score) {
+    }
+}
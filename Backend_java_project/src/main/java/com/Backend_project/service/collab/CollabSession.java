@@ -0,0 +1,56 @@
+package com.Backend_project.service.collab;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory state of one document being edited together: the current
+ * content, its revision number, the recent operations needed to transform
+ * late client operations, and the connected editors. Guarded by its own
+ * monitor.
+ */
+class CollabSession {
+    final String documentId;
+    final String projectId;
+
+    String content;
+    long revision;
+    // Operations taking historyStart -> historyStart + 1, ... -> revision
+    final Deque<TextOperation> history = new ArrayDeque<>();
+    long historyStart;
+
+    Long persistedVersion;
+    long persistedRevision;
+    String lastEditor;
+
+    final Map<String, WebSocketSession> connections = new LinkedHashMap<>();
+    final Map<String, String> connectionUsers = new LinkedHashMap<>();
+    long lastActivity = System.currentTimeMillis();
+
+    CollabSession(String documentId, String projectId, String content, Long persistedVersion) {
+        this.documentId = documentId;
+        this.projectId = projectId;
+        this.content = content != null ? content : "";
+        this.persistedVersion = persistedVersion;
+    }
+
+    boolean isDirty() {
+        return revision != persistedRevision;
+    }
+
+    /**
+     * Start over from content loaded elsewhere; clients must resync
+     */
+    void reset(String content, Long version) {
+        this.content = content != null ? content : "";
+        revision++;
+        history.clear();
+        historyStart = revision;
+        persistedVersion = version;
+        persistedRevision = revision;
+    }
+}
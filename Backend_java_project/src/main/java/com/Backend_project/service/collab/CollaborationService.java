@@ -0,0 +1,342 @@
+package com.Backend_project.service.collab;
+
+import com.Backend_project.exceptions.DocumentConflictException;
+import com.Backend_project.model.LatexDocument;
+import com.Backend_project.repository.LatexDocumentRepository;
+import com.Backend_project.service.LatexDocumentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server side of real-time collaborative editing. Each document being edited
+ * has one authoritative in-memory session; clients send operations against
+ * the revision they last saw, the server transforms them past everything
+ * that happened since, applies them, acknowledges the sender and broadcasts
+ * to the other editors.
+ *
+ * Content is written back to Mongo in batches every persist interval, through
+ * the regular versioned save so each batch becomes one revision. Sessions
+ * without editors are dropped once idle.
+ *
+ * Client messages: {"type":"op","baseRevision":n,"op":[...]} and
+ * {"type":"cursor","position":n}. Server messages: "init", "ack", "op",
+ * "cursor", "join", "leave", "resync" and "error".
+ */
+@Service
+public class CollaborationService {
+    private static final Logger logger = LoggerFactory.getLogger(CollaborationService.class);
+
+    @Autowired
+    private LatexDocumentRepository latexDocumentRepository;
+
+    @Autowired
+    private LatexDocumentService latexDocumentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${latex.collab.persist-interval-ms:2000}")
+    private long persistIntervalMs;
+
+    @Value("${latex.collab.idle-evict-ms:60000}")
+    private long idleEvictMs;
+
+    @Value("${latex.collab.max-history:1000}")
+    private int maxHistory;
+
+    private final Map<String, CollabSession> sessions = new ConcurrentHashMap<>();
+    private ScheduledExecutorService persister;
+
+    @PostConstruct
+    void start() {
+        persister = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "latex-collab-persist");
+            thread.setDaemon(true);
+            return thread;
+        });
+        persister.scheduleWithFixedDelay(this::persistAndEvict, persistIntervalMs, persistIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        persister.shutdownNow();
+        sessions.values().forEach(this::persist);
+    }
+
+    /**
+     * Attach an editor to a document, loading the document if nobody is editing it yet
+     */
+    public void join(String projectId, String documentId, String userId, WebSocketSession connection)
+            throws Exception {
+        CollabSession session = sessions.computeIfAbsent(documentId, this::load);
+        if (session == null) {
+            throw new Exception("Document not found");
+        }
+        if (!session.projectId.equals(projectId)) {
+            throw new Exception("Document does not belong to this project");
+        }
+
+        synchronized (session) {
+            if (sessions.get(documentId) != session) {
+                // Evicted while we were looking it up
+                join(projectId, documentId, userId, connection);
+                return;
+            }
+            session.connections.put(connection.getId(), connection);
+            session.connectionUsers.put(connection.getId(), userId);
+            session.lastActivity = System.currentTimeMillis();
+
+            Map<String, Object> init = message("init");
+            init.put("revision", session.revision);
+            init.put("content", session.content);
+            init.put("users", new ArrayList<>(session.connectionUsers.values()));
+            send(connection, init);
+
+            Map<String, Object> joined = message("join");
+            joined.put("userId", userId);
+            broadcast(session, joined, connection.getId());
+        }
+    }
+
+    public void leave(String documentId, WebSocketSession connection) {
+        CollabSession session = sessions.get(documentId);
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            String userId = session.connectionUsers.remove(connection.getId());
+            session.connections.remove(connection.getId());
+            session.lastActivity = System.currentTimeMillis();
+            if (userId != null) {
+                Map<String, Object> left = message("leave");
+                left.put("userId", userId);
+                broadcast(session, left, null);
+            }
+        }
+    }
+
+    public void receive(String documentId, String userId, WebSocketSession connection, Map<String, Object> payload) {
+        CollabSession session = sessions.get(documentId);
+        if (session == null) {
+            sendError(connection, "Session expired, reconnect");
+            return;
+        }
+
+        String type = String.valueOf(payload.get("type"));
+        synchronized (session) {
+            session.lastActivity = System.currentTimeMillis();
+            if ("op".equals(type)) {
+                applyOperation(session, userId, connection, payload);
+            } else if ("cursor".equals(type)) {
+                Map<String, Object> cursor = message("cursor");
+                cursor.put("userId", userId);
+                cursor.put("revision", session.revision);
+                cursor.put("position", payload.get("position"));
+                broadcast(session, cursor, connection.getId());
+            } else {
+                sendError(connection, "Unknown message type: " + type);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("activeDocuments", sessions.size());
+        stats.put("connections", sessions.values().stream().mapToInt(session -> {
+            synchronized (session) {
+                return session.connections.size();
+            }
+        }).sum());
+        return stats;
+    }
+
+    private void applyOperation(CollabSession session, String userId, WebSocketSession connection,
+            Map<String, Object> payload) {
+        long baseRevision;
+        TextOperation operation;
+        try {
+            baseRevision = ((Number) payload.get("baseRevision")).longValue();
+            operation = TextOperation.fromJson((List<?>) payload.get("op"));
+        } catch (RuntimeException e) {
+            sendError(connection, "Malformed operation");
+            return;
+        }
+
+        if (baseRevision < session.historyStart || baseRevision > session.revision) {
+            // Too far behind to transform: the client has to start over
+            Map<String, Object> resync = message("resync");
+            resync.put("revision", session.revision);
+            resync.put("content", session.content);
+            send(connection, resync);
+            return;
+        }
+
+        try {
+            long skip = baseRevision - session.historyStart;
+            for (TextOperation concurrent : session.history) {
+                if (skip-- > 0) {
+                    continue;
+                }
+                operation = TextOperation.transform(operation, concurrent)[0];
+            }
+            session.content = operation.apply(session.content);
+        } catch (IllegalArgumentException e) {
+            sendError(connection, "Operation does not match revision " + baseRevision);
+            return;
+        }
+
+        session.history.addLast(operation);
+        session.revision++;
+        session.lastEditor = userId;
+        while (session.history.size() > maxHistory) {
+            session.history.removeFirst();
+            session.historyStart++;
+        }
+
+        Map<String, Object> ack = message("ack");
+        ack.put("revision", session.revision);
+        send(connection, ack);
+
+        Map<String, Object> broadcastOp = message("op");
+        broadcastOp.put("revision", session.revision);
+        broadcastOp.put("userId", userId);
+        broadcastOp.put("op", operation.toJson());
+        broadcast(session, broadcastOp, connection.getId());
+    }
+
+    private CollabSession load(String documentId) {
+        return latexDocumentRepository.findById(documentId)
+                .map(document -> new CollabSession(document.getId(), document.getProjectId(), document.getContent(),
+                        document.getVersion()))
+                .orElse(null);
+    }
+
+    private void persistAndEvict() {
+        long now = System.currentTimeMillis();
+        for (String documentId : new ArrayList<>(sessions.keySet())) {
+            CollabSession session = sessions.get(documentId);
+            if (session == null) {
+                continue;
+            }
+            try {
+                persist(session);
+            } catch (RuntimeException e) {
+                logger.error("Failed to persist collaborative edits of {}: {}", documentId, e.getMessage());
+            }
+            sessions.computeIfPresent(documentId, (id, current) -> {
+                synchronized (current) {
+                    boolean idle = current.connections.isEmpty() && !current.isDirty()
+                            && now - current.lastActivity > idleEvictMs;
+                    return idle ? null : current;
+                }
+            });
+        }
+    }
+
+    /**
+     * Write the session's content back if it changed since the last write
+     */
+    private void persist(CollabSession session) {
+        String content;
+        long revision;
+        Long version;
+        String editor;
+        synchronized (session) {
+            if (!session.isDirty()) {
+                return;
+            }
+            content = session.content;
+            revision = session.revision;
+            version = session.persistedVersion;
+            editor = session.lastEditor;
+        }
+
+        try {
+            LatexDocument saved = latexDocumentService.saveCollaborativeContent(session.documentId, version, content,
+                    editor);
+            synchronized (session) {
+                session.persistedVersion = saved.getVersion();
+                session.persistedRevision = revision;
+            }
+        } catch (DocumentConflictException e) {
+            // Written outside the session (plain PUT/PATCH): take the stored content and resync everyone
+            LatexDocument latest = latexDocumentRepository.findById(session.documentId).orElse(null);
+            synchronized (session) {
+                logger.warn("Document {} changed outside collaborative editing, resyncing {} editors",
+                        session.documentId, session.connections.size());
+                session.reset(latest != null ? latest.getContent() : session.content,
+                        latest != null ? latest.getVersion() : session.persistedVersion);
+                Map<String, Object> resync = message("resync");
+                resync.put("revision", session.revision);
+                resync.put("content", session.content);
+                broadcast(session, resync, null);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to persist collaborative edits of {}: {}", session.documentId, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> message(String type) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", type);
+        return message;
+    }
+
+    private void sendError(WebSocketSession connection, String error) {
+        Map<String, Object> message = message("error");
+        message.put("message", error);
+        send(connection, message);
+    }
+
+    private void broadcast(CollabSession session, Map<String, Object> message, String exceptConnectionId) {
+        TextMessage text = toText(message);
+        for (WebSocketSession connection : session.connections.values()) {
+            if (!connection.getId().equals(exceptConnectionId)) {
+                send(connection, text);
+            }
+        }
+    }
+
+    private void send(WebSocketSession connection, Map<String, Object> message) {
+        send(connection, toText(message));
+    }
+
+    private void send(WebSocketSession connection, TextMessage text) {
+        try {
+            if (connection.isOpen()) {
+                connection.sendMessage(text);
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Failed to send to collaboration connection {}: {}", connection.getId(), e.getMessage());
+        }
+    }
+
+    private TextMessage toText(Map<String, Object> message) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unserializable collaboration message", e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.Backend_project.service.collab;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An operational-transformation text operation: a sequence of retains,
+ * inserts and deletes that spans the whole document. The wire format is the
+ * one used by ot.js, so browser editors can speak it directly: a positive
+ * number retains that many characters, a negative number deletes that many,
+ * and a string is inserted. Lengths count UTF-16 code units.
+ */
+public final class TextOperation {
+
+    private final List<Object> components = new ArrayList<>();
+    private int baseLength;
+    private int targetLength;
+
+    public TextOperation retain(int count) {
+        if (count <= 0) {
+            return this;
+        }
+        baseLength += count;
+        targetLength += count;
+        int last = components.size() - 1;
+        if (last >= 0 && isRetain(components.get(last))) {
+            components.set(last, (Integer) components.get(last) + count);
+        } else {
+            components.add(count);
+        }
+        return this;
+    }
+
+    public TextOperation insert(String text) {
+        if (text == null || text.isEmpty()) {
+            return this;
+        }
+        targetLength += text.length();
+        int last = components.size() - 1;
+        if (last >= 0 && isInsert(components.get(last))) {
+            components.set(last, components.get(last) + text);
+        } else if (last >= 0 && isDelete(components.get(last))) {
+            // Keep inserts ahead of deletes so equal operations look the same
+            if (last > 0 && isInsert(components.get(last - 1))) {
+                components.set(last - 1, components.get(last - 1) + text);
+            } else {
+                components.add(last, text);
+            }
+        } else {
+            components.add(text);
+        }
+        return this;
+    }
+
+    public TextOperation delete(int count) {
+        if (count <= 0) {
+            return this;
+        }
+        baseLength += count;
+        int last = components.size() - 1;
+        if (last >= 0 && isDelete(components.get(last))) {
+            components.set(last, (Integer) components.get(last) - count);
+        } else {
+            components.add(-count);
+        }
+        return this;
+    }
+
+    public int getBaseLength() {
+        return baseLength;
+    }
+
+    public int getTargetLength() {
+        return targetLength;
+    }
+
+    public boolean isNoop() {
+        return components.isEmpty() || (components.size() == 1 && isRetain(components.get(0)));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the operation does not span the text
+     */
+    public String apply(String text) {
+        if (text.length() != baseLength) {
+            throw new IllegalArgumentException("Operation spans " + baseLength + " characters, text has "
+                    + text.length());
+        }
+        StringBuilder result = new StringBuilder(targetLength);
+        int index = 0;
+        for (Object component : components) {
+            if (isRetain(component)) {
+                int count = (Integer) component;
+                result.append(text, index, index + count);
+                index += count;
+            } else if (isInsert(component)) {
+                result.append((String) component);
+            } else {
+                index -= (Integer) component;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Transform two concurrent operations on the same text into a pair that
+     * can be applied after each other: apply(apply(s, a), result[1]) equals
+     * apply(apply(s, b), result[0]). When both insert at the same place, a's
+     * text goes first.
+     */
+    public static TextOperation[] transform(TextOperation a, TextOperation b) {
+        if (a.baseLength != b.baseLength) {
+            throw new IllegalArgumentException("Concurrent operations must span the same text");
+        }
+        TextOperation aPrime = new TextOperation();
+        TextOperation bPrime = new TextOperation();
+        List<Object> as = a.components;
+        List<Object> bs = b.components;
+        int ai = 0;
+        int bi = 0;
+        Object ac = ai < as.size() ? as.get(ai++) : null;
+        Object bc = bi < bs.size() ? bs.get(bi++) : null;
+
+        while (ac != null || bc != null) {
+            if (ac != null && isInsert(ac)) {
+                aPrime.insert((String) ac);
+                bPrime.retain(((String) ac).length());
+                ac = ai < as.size() ? as.get(ai++) : null;
+                continue;
+            }
+            if (bc != null && isInsert(bc)) {
+                aPrime.retain(((String) bc).length());
+                bPrime.insert((String) bc);
+                bc = bi < bs.size() ? bs.get(bi++) : null;
+                continue;
+            }
+            if (ac == null || bc == null) {
+                throw new IllegalArgumentException("Concurrent operations must span the same text");
+            }
+
+            int aLength = Math.abs((Integer) ac);
+            int bLength = Math.abs((Integer) bc);
+            int length = Math.min(aLength, bLength);
+
+            if (isRetain(ac) && isRetain(bc)) {
+                aPrime.retain(length);
+                bPrime.retain(length);
+            } else if (isDelete(ac) && isRetain(bc)) {
+                aPrime.delete(length);
+            } else if (isRetain(ac) && isDelete(bc)) {
+                bPrime.delete(length);
+            }
+            // Both deleting the same range: nothing left to do on either side
+
+            ac = aLength > length ? shrink(ac, length) : (ai < as.size() ? as.get(ai++) : null);
+            bc = bLength > length ? shrink(bc, length) : (bi < bs.size() ? bs.get(bi++) : null);
+        }
+        return new TextOperation[] { aPrime, bPrime };
+    }
+
+    /**
+     * Parse the ot.js wire format
+     * @throws IllegalArgumentException on anything else
+     */
+    public static TextOperation fromJson(List<?> json) {
+        TextOperation operation = new TextOperation();
+        for (Object component : json) {
+            if (component instanceof String text) {
+                operation.insert(text);
+            } else if (component instanceof Number number && number.doubleValue() == number.intValue()) {
+                int count = number.intValue();
+                if (count > 0) {
+                    operation.retain(count);
+                } else if (count < 0) {
+                    operation.delete(-count);
+                } else {
+                    throw new IllegalArgumentException("Zero-length operation component");
+                }
+            } else {
+                throw new IllegalArgumentException("Invalid operation component: " + component);
+            }
+        }
+        return operation;
+    }
+
+    public List<Object> toJson() {
+        return new ArrayList<>(components);
+    }
+
+    private static Object shrink(Object component, int consumed) {
+        int count = (Integer) component;
+        return count > 0 ? count - consumed : count + consumed;
+    }
+
+    private static boolean isRetain(Object component) {
+        return component instanceof Integer count && count > 0;
+    }
+
+    private static boolean isDelete(Object component) {
+        return component instanceof Integer count && count < 0;
+    }
+
+    private static boolean isInsert(Object component) {
+        return component instanceof String;
+    }
+}
@@ -0,0 +1,335 @@
+package com.Backend_project.service.compile;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of submitted compile jobs so the request thread can return a
+ * job id straight away. Status changes and log lines are pushed to any SSE
+ * subscribers; late subscribers get the buffered log replayed first. Finished
+ * jobs are forgotten after the retention period.
+ *
+ * Events are queued per subscriber while the job is locked and sent from a
+ * small sender pool, so a slow client never holds up the thread reading the
+ * compiler's output. A subscriber that falls too far behind is dropped.
+ *
+ * Events: "status" carries the job, "log" carries one log line.
+ */
+@Component
+public class CompileJobTracker {
+    private static final Logger logger = LoggerFactory.getLogger(CompileJobTracker.class);
+
+    private static final int MAX_LOG_LINES = 2000;
+
+    private final Map<String, TrackedCompileJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${latex.compile.job-retention-minutes:10}")
+    private long retentionMinutes;
+
+    @Value("${latex.compile.sse-timeout-ms:300000}")
+    private long sseTimeoutMillis;
+
+    @Value("${latex.compile.sse-buffer-events:4096}")
+    private int sseBufferEvents;
+
+    @Value("${latex.compile.sse-senders:2}")
+    private int sseSenders;
+
+    private ExecutorService sender;
+
+    private final AtomicLong droppedSubscribers = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        sender = Executors.newFixedThreadPool(sseSenders, runnable -> {
+            Thread thread = new Thread(runnable, "compile-sse-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+    }
+
+    public TrackedCompileJob create(TrackedCompileJob.Type type, String projectId, String documentId,
+            String userId) {
+        purgeExpired();
+        TrackedCompileJob job = new TrackedCompileJob(UUID.randomUUID().toString(), type, projectId, documentId,
+                userId);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * Look up a job owned by userId
+     */
+    public Optional<TrackedCompileJob> find(String jobId, String userId) {
+        TrackedCompileJob job = jobs.get(jobId);
+        if (job == null || !job.getUserId().equals(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * Listener that feeds the worker's progress into the tracked job
+     */
+    public LatexCompileListener listenerFor(TrackedCompileJob job) {
+        return new LatexCompileListener() {
+            @Override
+            public void onStarted(String jobId) {
+                markRunning(job);
+            }
+
+            @Override
+            public void onLog(String line) {
+                appendLog(job, line, true);
+            }
+        };
+    }
+
+    public void markRunning(TrackedCompileJob job) {
+        synchronized (job) {
+            if (job.getStatus() != TrackedCompileJob.Status.QUEUED) {
+                return;
+            }
+            job.setStatus(TrackedCompileJob.Status.RUNNING);
+            job.setStartedAt(new Date());
+            broadcast(job, "status", job);
+        }
+    }
+
+    public void complete(TrackedCompileJob job, LatexCompileResult.Status status, String artifactId, String log,
+            boolean cached) {
+        synchronized (job) {
+            // Joined and cached jobs never saw the live output
+            if (!job.receivedLiveLog && log != null && !log.isEmpty()) {
+                for (String line : log.split("\n")) {
+                    appendLog(job, line, false);
+                }
+            }
+            job.setArtifactId(artifactId);
+            job.setCached(cached);
+            finish(job, TrackedCompileJob.Status.valueOf(status.name()));
+        }
+    }
+
+    public void fail(TrackedCompileJob job, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            cancel(job);
+            return;
+        }
+        synchronized (job) {
+            job.setError(cause.getMessage());
+            finish(job, TrackedCompileJob.Status.FAILED);
+        }
+    }
+
+    public void cancel(TrackedCompileJob job) {
+        synchronized (job) {
+            finish(job, TrackedCompileJob.Status.CANCELLED);
+        }
+    }
+
+    /**
+     * Stream a job's progress. The current status and buffered log are sent
+     * first; the stream closes once the job finishes.
+     */
+    public SseEmitter subscribe(TrackedCompileJob job) {
+        return subscribe(job, new SseEmitter(sseTimeoutMillis));
+    }
+
+    SseEmitter subscribe(TrackedCompileJob job, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(job.getId(), emitter);
+        synchronized (job) {
+            subscriber.offer(SseEmitter.event().name("status").data(job));
+            for (String line : job.logLines) {
+                subscriber.offer(SseEmitter.event().name("log").data(line));
+            }
+
+            if (job.getStatus().isFinished()) {
+                subscriber.completeWhenSent();
+            } else {
+                job.subscribers.add(subscriber);
+                emitter.onCompletion(() -> removeSubscriber(job, subscriber));
+                emitter.onTimeout(() -> removeSubscriber(job, subscriber));
+            }
+        }
+        return emitter;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long active = jobs.values().stream().filter(job -> !job.getStatus().isFinished()).count();
+        stats.put("trackedJobs", jobs.size());
+        stats.put("activeJobs", active);
+        stats.put("droppedSubscribers", droppedSubscribers.get());
+        return stats;
+    }
+
+    private void appendLog(TrackedCompileJob job, String line, boolean live) {
+        synchronized (job) {
+            job.receivedLiveLog |= live;
+            job.logLines.addLast(line);
+            if (job.logLines.size() > MAX_LOG_LINES) {
+                job.logLines.removeFirst();
+            }
+            broadcast(job, "log", line);
+        }
+    }
+
+    private void finish(TrackedCompileJob job, TrackedCompileJob.Status status) {
+        if (job.getStatus().isFinished()) {
+            return;
+        }
+        job.setStatus(status);
+        job.setFinishedAt(new Date());
+        broadcast(job, "status", job);
+
+        for (Subscriber subscriber : job.subscribers) {
+            subscriber.completeWhenSent();
+        }
+        job.subscribers.clear();
+    }
+
+    /**
+     * Queue an event for every subscriber; the caller holds the job's lock
+     */
+    private void broadcast(TrackedCompileJob job, String event, Object data) {
+        Iterator<Subscriber> iterator = job.subscribers.iterator();
+        while (iterator.hasNext()) {
+            Subscriber subscriber = iterator.next();
+            if (!subscriber.offer(SseEmitter.event().name(event).data(data))) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void removeSubscriber(TrackedCompileJob job, Subscriber subscriber) {
+        synchronized (job) {
+            job.subscribers.remove(subscriber);
+        }
+    }
+
+    private void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().getTime() < cutoff);
+    }
+
+    /**
+     * One SSE client and the events waiting to be sent to it. At most one
+     * sender thread drains it at a time, so events arrive in order.
+     */
+    final class Subscriber implements Runnable {
+        private final String jobId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean completeWhenSent;
+        private boolean closed;
+
+        Subscriber(String jobId, SseEmitter emitter) {
+            this.jobId = jobId;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queue an event without blocking
+         * @return false once the subscriber is gone, including when it fell too far behind
+         */
+        synchronized boolean offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return false;
+            }
+            if (pending.size() >= sseBufferEvents) {
+                logger.debug("Dropped slow SSE subscriber of compile job {}", jobId);
+                droppedSubscribers.incrementAndGet();
+                close();
+                emitter.complete();
+                return false;
+            }
+            pending.addLast(event);
+            schedule();
+            return true;
+        }
+
+        synchronized void completeWhenSent() {
+            completeWhenSent = true;
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = pending.pollFirst();
+                    if (event == null || closed) {
+                        scheduled = false;
+                        if (completeWhenSent && !closed) {
+                            close();
+                            emitter.complete();
+                        }
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away
+                    logger.debug("Dropped SSE subscriber of compile job {}: {}", jobId, e.getMessage());
+                    synchronized (this) {
+                        close();
+                        scheduled = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void schedule() {
+            if (scheduled || closed) {
+                return;
+            }
+            scheduled = true;
+            try {
+                sender.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                close();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.Backend_project.service.compile;
+
+import java.time.Duration;
+
+/**
+ * Resource limits applied to a single compile job.
+ */
+public record CompileLimits(Duration timeout, long memoryLimitMb) {
+}
@@ -0,0 +1,148 @@
+package com.Backend_project.service.compile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded scheduling queue for compile workers. The next job is chosen by
+ * priority class first, so interactive previews overtake project builds.
+ * Within a class, the user with the fewest running jobs goes first, then the
+ * oldest submission. Users at their running quota are skipped until one of
+ * their jobs finishes, and each user may only hold a limited number of
+ * queued jobs.
+ */
+class CompileQueue<T> {
+
+    static final class Entry<T> {
+        final T task;
+        final String userId;
+        final LatexCompileJob.Priority priority;
+        final long sequence;
+
+        Entry(T task, String userId, LatexCompileJob.Priority priority, long sequence) {
+            this.task = task;
+            this.userId = userId;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final List<Entry<T>> queued = new ArrayList<>();
+    private final Map<String, Integer> runningByUser = new HashMap<>();
+    private final Map<String, Integer> queuedByUser = new HashMap<>();
+    private final int capacity;
+    private final int maxQueuedPerUser;
+    private final int maxRunningPerUser;
+    private long nextSequence;
+
+    CompileQueue(int capacity, int maxQueuedPerUser, int maxRunningPerUser) {
+        this.capacity = capacity;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+        this.maxRunningPerUser = maxRunningPerUser;
+    }
+
+    /**
+     * @return false when the queue or the user's share of it is full
+     */
+    boolean offer(T task, String userId, LatexCompileJob.Priority priority) {
+        lock.lock();
+        try {
+            if (queued.size() >= capacity || queuedByUser.getOrDefault(userId, 0) >= maxQueuedPerUser) {
+                return false;
+            }
+            queued.add(new Entry<>(task, userId, priority, nextSequence++));
+            queuedByUser.merge(userId, 1, Integer::sum);
+            available.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for the next eligible job and count it as running for its user
+     */
+    Entry<T> take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                Entry<T> next = selectNext();
+                if (next != null) {
+                    queued.remove(next);
+                    queuedByUser.merge(next.userId, -1, Integer::sum);
+                    queuedByUser.remove(next.userId, 0);
+                    runningByUser.merge(next.userId, 1, Integer::sum);
+                    return next;
+                }
+                available.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void finished(Entry<T> entry) {
+        lock.lock();
+        try {
+            runningByUser.merge(entry.userId, -1, Integer::sum);
+            runningByUser.remove(entry.userId, 0);
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop a job that has not started yet
+     */
+    boolean remove(T task) {
+        lock.lock();
+        try {
+            for (Entry<T> entry : queued) {
+                if (entry.task == task) {
+                    queued.remove(entry);
+                    queuedByUser.merge(entry.userId, -1, Integer::sum);
+                    queuedByUser.remove(entry.userId, 0);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return queued.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry<T> selectNext() {
+        Entry<T> best = null;
+        int bestRunning = 0;
+        for (Entry<T> entry : queued) {
+            int running = runningByUser.getOrDefault(entry.userId, 0);
+            if (running >= maxRunningPerUser) {
+                continue;
+            }
+            if (best == null
+                    || entry.priority.ordinal() < best.priority.ordinal()
+                    || (entry.priority == best.priority && running < bestRunning)
+                    || (entry.priority == best.priority && running == bestRunning && entry.sequence < best.sequence)) {
+                best = entry;
+                bestRunning = running;
+            }
+        }
+        return best;
+    }
+}
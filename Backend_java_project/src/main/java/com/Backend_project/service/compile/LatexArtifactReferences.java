@@ -0,0 +1,86 @@
+package com.Backend_project.service.compile;
+
+import com.Backend_project.model.LatexDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Finds the artifacts that documents and project build manifests point at.
+ * The compile cache keeps these on disk even once it no longer indexes them,
+ * and rebuilds its index from them at startup.
+ */
+@Component
+public class LatexArtifactReferences {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${latex.build.dir:${java.io.tmpdir}/latex-builds}")
+    private String buildRoot;
+
+    public boolean isReferenced(String artifactId) {
+        if (artifactId == null) {
+            return false;
+        }
+        if (mongoTemplate.exists(Query.query(Criteria.where("compiledArtifactId").is(artifactId)),
+                LatexDocument.class)) {
+            return true;
+        }
+        return manifests().anyMatch(build -> artifactId.equals(build.getArtifactId()));
+    }
+
+    /**
+     * Every successful compile still referenced, with the key it was built from
+     */
+    public List<Reference> findAll() {
+        List<Reference> references = new ArrayList<>();
+        Query query = Query.query(Criteria.where("compiledArtifactId").ne(null).and("compileKey").ne(null));
+        query.fields().include("compiledArtifactId", "compileKey", "compileLog");
+        for (LatexDocument document : mongoTemplate.find(query, LatexDocument.class)) {
+            references.add(new Reference(document.getCompileKey(), document.getCompiledArtifactId(),
+                    document.getCompileLog()));
+        }
+        manifests()
+                .filter(build -> LatexCompileResult.Status.SUCCEEDED.name().equals(build.getStatus()))
+                .filter(build -> build.getArtifactId() != null && build.getCompileKey() != null)
+                .forEach(build -> references.add(new Reference(build.getCompileKey(), build.getArtifactId(),
+                        build.getLog())));
+        return references;
+    }
+
+    private Stream<LatexProjectBuild> manifests() {
+        Path root = Paths.get(buildRoot);
+        if (!Files.isDirectory(root)) {
+            return Stream.empty();
+        }
+        try (Stream<Path> buildDirs = Files.list(root)) {
+            return buildDirs
+                    .map(buildDir -> LatexProjectBuildService.readManifest(objectMapper, buildDir))
+                    .filter(Objects::nonNull)
+                    .toList()
+                    .stream();
+        } catch (IOException e) {
+            return Stream.empty();
+        }
+    }
+
+    public record Reference(String compileKey, String artifactId, String log) {
+    }
+}
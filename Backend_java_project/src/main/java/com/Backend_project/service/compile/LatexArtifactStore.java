@@ -0,0 +1,104 @@
+package com.Backend_project.service.compile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Stores compiled PDFs on disk. Documents only keep the artifact id.
+ */
+@Component
+public class LatexArtifactStore {
+    private static final Logger logger = LoggerFactory.getLogger(LatexArtifactStore.class);
+
+    private final Path root;
+
+    public LatexArtifactStore(@Value("${latex.compile.artifact-dir:${java.io.tmpdir}/latex-artifacts}") String root) {
+        this.root = Paths.get(root);
+    }
+
+    public String store(Path pdf) throws IOException {
+        Files.createDirectories(root);
+        String artifactId = UUID.randomUUID().toString();
+        Files.copy(pdf, resolve(artifactId), StandardCopyOption.REPLACE_EXISTING);
+        return artifactId;
+    }
+
+    public Optional<Path> find(String artifactId) {
+        if (artifactId == null || !isValidId(artifactId)) {
+            return Optional.empty();
+        }
+        Path artifact = resolve(artifactId);
+        return Files.exists(artifact) ? Optional.of(artifact) : Optional.empty();
+    }
+
+    public long size(String artifactId) {
+        return find(artifactId).map(path -> {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                return 0L;
+            }
+        }).orElse(0L);
+    }
+
+    /**
+     * Ids of the artifacts stored before the given time
+     */
+    public List<String> list(Instant storedBefore) {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> artifacts = Files.list(root)) {
+            return artifacts
+                    .filter(path -> path.getFileName().toString().endsWith(".pdf"))
+                    .filter(path -> isStoredBefore(path, storedBefore))
+                    .map(path -> path.getFileName().toString())
+                    .map(name -> name.substring(0, name.length() - ".pdf".length()))
+                    .filter(this::isValidId)
+                    .toList();
+        } catch (IOException e) {
+            logger.warn("Failed to list artifacts in {}: {}", root, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private boolean isStoredBefore(Path artifact, Instant time) {
+        try {
+            return Files.getLastModifiedTime(artifact).toInstant().isBefore(time);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public void delete(String artifactId) {
+        if (artifactId == null || !isValidId(artifactId)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(resolve(artifactId));
+        } catch (IOException e) {
+            logger.warn("Failed to delete artifact {}: {}", artifactId, e.getMessage());
+        }
+    }
+
+    private Path resolve(String artifactId) {
+        return root.resolve(artifactId + ".pdf");
+    }
+
+    private boolean isValidId(String artifactId) {
+        return artifactId.matches("[a-zA-Z0-9-]+");
+    }
+}
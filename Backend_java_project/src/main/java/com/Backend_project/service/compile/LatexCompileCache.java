@@ -0,0 +1,283 @@
+package com.Backend_project.service.compile;
+
+import com.Backend_project.util.ContentHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of compiled artifacts. The key covers every source
+ * file, the engine and the compile options, so identical input compiled by
+ * anyone is served straight from the artifact store. Entries are evicted in
+ * least-recently-used order once the cache exceeds its size budget, and
+ * whenever they grow older than the configured age. The cache owns the
+ * artifacts it holds and deletes them on eviction, except those a document
+ * or project build still points at: these stay on disk until their owner
+ * releases them.
+ *
+ * Whether anything still refers to an artifact is a database and manifest
+ * lookup, so it is never made under the cache's lock: dropped artifacts are
+ * collected under the lock, checked outside it, and deleted under it again
+ * only if the cache has not indexed them meanwhile.
+ *
+ * The index lives in memory only, so it is rebuilt from those references at
+ * startup, and artifacts nothing refers to any more are removed then.
+ */
+@Component
+public class LatexCompileCache {
+    private static final Logger logger = LoggerFactory.getLogger(LatexCompileCache.class);
+
+    private final LatexArtifactStore artifactStore;
+    private final LatexArtifactReferences references;
+    private final long maxBytes;
+    private final Duration maxAge;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    /** Artifacts dropped from the index, to delete unless still referenced */
+    private final List<String> released = new ArrayList<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong retained = new AtomicLong();
+
+    @Autowired
+    public LatexCompileCache(
+            LatexArtifactStore artifactStore,
+            LatexArtifactReferences references,
+            @Value("${latex.compile.cache.max-bytes:536870912}") long maxBytes,
+            @Value("${latex.compile.cache.max-age-hours:168}") long maxAgeHours) {
+        this.artifactStore = artifactStore;
+        this.references = references;
+        this.maxBytes = maxBytes;
+        this.maxAge = Duration.ofHours(maxAgeHours);
+    }
+
+    /**
+     * Cache key for a job compiled with the given engine and options
+     */
+    public static String keyFor(LatexCompileJob job, String engine, String options) {
+        MessageDigest digest = ContentHash.newDigest();
+        ContentHash.update(digest, engine);
+        ContentHash.update(digest, options);
+        ContentHash.update(digest, job.getMainFile());
+        new TreeMap<>(job.getSources()).forEach((path, content) -> {
+            ContentHash.update(digest, path);
+            ContentHash.update(digest, content);
+        });
+        return ContentHash.hex(digest);
+    }
+
+    /**
+     * Cached compile for a key, if a fresh artifact is still on disk
+     */
+    public Optional<CachedCompile> lookup(String key) {
+        Optional<CachedCompile> cached = find(key);
+        deleteReleased();
+        return cached;
+    }
+
+    private synchronized Optional<CachedCompile> find(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        if (isExpired(entry) || artifactStore.find(entry.artifactId).isEmpty()) {
+            remove(key);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        hits.incrementAndGet();
+        return Optional.of(new CachedCompile(entry.artifactId, entry.log));
+    }
+
+    /**
+     * Remember a successful compile under its key
+     */
+    public void put(String key, LatexCompileResult result) {
+        if (!result.isSuccess()) {
+            return;
+        }
+        index(key, result);
+        deleteReleased();
+    }
+
+    private synchronized void index(String key, LatexCompileResult result) {
+        Entry previous = entries.get(key);
+        if (previous != null && previous.artifactId.equals(result.getArtifactId())) {
+            return;
+        }
+        if (previous != null) {
+            remove(key);
+        }
+
+        long size = artifactStore.size(result.getArtifactId());
+        entries.put(key, new Entry(result.getArtifactId(), result.getLog(), size, System.currentTimeMillis()));
+        totalBytes += size;
+        evict();
+    }
+
+    /**
+     * Delete an artifact its owner no longer points at, unless the cache
+     * still holds it or something else refers to it
+     */
+    public void release(String artifactId) {
+        if (artifactId == null) {
+            return;
+        }
+        synchronized (this) {
+            released.add(artifactId);
+        }
+        deleteReleased();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Failed to rebuild the compile cache: {}", e.getMessage());
+            }
+        }, "latex-compile-cache-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Index the artifacts documents and builds point at, then remove the
+     * ones stored before the rebuild that nothing refers to
+     */
+    public void rebuild() {
+        Instant startedAt = Instant.now();
+        List<LatexArtifactReferences.Reference> found = references.findAll();
+
+        synchronized (this) {
+            Set<String> referenced = new HashSet<>();
+            for (LatexArtifactReferences.Reference reference : found) {
+                referenced.add(reference.artifactId());
+                if (entries.containsKey(reference.compileKey())
+                        || artifactStore.find(reference.artifactId()).isEmpty()) {
+                    continue;
+                }
+                long size = artifactStore.size(reference.artifactId());
+                entries.put(reference.compileKey(),
+                        new Entry(reference.artifactId(), reference.log(), size, System.currentTimeMillis()));
+                totalBytes += size;
+            }
+            evict();
+
+            int removed = 0;
+            for (String artifactId : artifactStore.list(startedAt)) {
+                if (!referenced.contains(artifactId) && !isIndexed(artifactId)) {
+                    artifactStore.delete(artifactId);
+                    removed++;
+                }
+            }
+            logger.info("Compile cache rebuilt with {} entries, removed {} unreferenced artifacts",
+                    entries.size(), removed);
+        }
+        deleteReleased();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("bytes", totalBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("retained", retained.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        return stats;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (totalBytes <= maxBytes && !isExpired(eldest.getValue())) {
+                // Access order: everything after this one was used more recently
+                break;
+            }
+            iterator.remove();
+            discard(eldest.getValue());
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            discard(entry);
+        }
+    }
+
+    private void discard(Entry entry) {
+        totalBytes -= entry.size;
+        evictions.incrementAndGet();
+        released.add(entry.artifactId);
+    }
+
+    /**
+     * Delete the released artifacts that nothing refers to. Documents and
+     * builds serve their PDF straight from the store, so those they point at
+     * stay, as do any the cache indexed again while they were checked.
+     */
+    private void deleteReleased() {
+        List<String> candidates;
+        synchronized (this) {
+            if (released.isEmpty()) {
+                return;
+            }
+            candidates = new ArrayList<>(released);
+            released.clear();
+        }
+
+        Set<String> unreferenced = new HashSet<>();
+        for (String artifactId : candidates) {
+            if (!references.isReferenced(artifactId)) {
+                unreferenced.add(artifactId);
+            }
+        }
+
+        synchronized (this) {
+            for (String artifactId : candidates) {
+                if (unreferenced.contains(artifactId) && !isIndexed(artifactId)) {
+                    artifactStore.delete(artifactId);
+                } else {
+                    retained.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private boolean isIndexed(String artifactId) {
+        return entries.values().stream().anyMatch(entry -> entry.artifactId.equals(artifactId));
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.createdAt > maxAge.toMillis();
+    }
+
+    public record CachedCompile(String artifactId, String log) {
+    }
+
+    private record Entry(String artifactId, String log, long size, long createdAt) {
+    }
+}
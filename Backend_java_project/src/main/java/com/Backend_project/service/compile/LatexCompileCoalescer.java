@@ -0,0 +1,107 @@
+package com.Backend_project.service.compile;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-flight front for compile jobs. At most one job runs per scope (a
+ * document, say). A request for the content already being compiled attaches
+ * to the running job. A request for a newer version cancels the running job,
+ * and the superseded callers wait for the new job instead; a request for an
+ * older version, one that lost a race with a later edit, waits for the
+ * running job rather than stopping it.
+ */
+@Component
+public class LatexCompileCoalescer {
+
+    private final Map<String, InFlight> inFlight = new HashMap<>();
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+
+    /**
+     * Share or start the compile of compileKey within scope
+     * @param version Version of the content being compiled, such as the document version
+     * @param starter Submits the job when nothing equivalent is running
+     * @return A future private to this caller; cancelling it does not affect others
+     */
+    public synchronized CompletableFuture<LatexCompileResult> submit(String scope, String compileKey, long version,
+            Callable<CompletableFuture<LatexCompileResult>> starter) throws Exception {
+        CompletableFuture<LatexCompileResult> waiter = new CompletableFuture<>();
+        InFlight current = inFlight.get(scope);
+
+        if (current != null && (current.compileKey.equals(compileKey) || version <= current.version)) {
+            current.waiters.add(waiter);
+            joined.incrementAndGet();
+            return waiter;
+        }
+
+        InFlight next = new InFlight(compileKey, version, starter.call());
+        next.waiters.add(waiter);
+        inFlight.put(scope, next);
+        started.incrementAndGet();
+
+        if (current != null) {
+            // The running job compiles stale content: hand its callers over and stop it
+            next.waiters.addAll(current.waiters);
+            current.waiters.clear();
+            current.job.cancel(true);
+            superseded.incrementAndGet();
+        }
+
+        next.job.whenComplete((result, error) -> finish(scope, next, result, error));
+        return waiter;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("started", started.get());
+        stats.put("joined", joined.get());
+        stats.put("superseded", superseded.get());
+        synchronized (this) {
+            stats.put("inFlight", inFlight.size());
+        }
+        return stats;
+    }
+
+    private void finish(String scope, InFlight entry, LatexCompileResult result, Throwable error) {
+        List<CompletableFuture<LatexCompileResult>> waiters;
+        synchronized (this) {
+            if (inFlight.get(scope) != entry) {
+                // Superseded: its callers were moved to the newer job
+                return;
+            }
+            inFlight.remove(scope);
+            waiters = new ArrayList<>(entry.waiters);
+        }
+
+        for (CompletableFuture<LatexCompileResult> waiter : waiters) {
+            if (error != null) {
+                waiter.completeExceptionally(error);
+            } else {
+                waiter.complete(result);
+            }
+        }
+    }
+
+    private static class InFlight {
+        final String compileKey;
+        final long version;
+        final CompletableFuture<LatexCompileResult> job;
+        final List<CompletableFuture<LatexCompileResult>> waiters = new ArrayList<>();
+
+        InFlight(String compileKey, long version, CompletableFuture<LatexCompileResult> job) {
+            this.compileKey = compileKey;
+            this.version = version;
+            this.job = job;
+        }
+    }
+}
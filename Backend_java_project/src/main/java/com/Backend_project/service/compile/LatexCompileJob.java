@@ -0,0 +1,113 @@
+package com.Backend_project.service.compile;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything needed to compile one LaTeX source set.
+ */
+public class LatexCompileJob {
+
+    /**
+     * Scheduling class, most urgent first
+     */
+    public enum Priority {
+        INTERACTIVE,
+        PROJECT_BUILD
+    }
+
+    private final String id;
+    private final String projectId;
+    private final String documentId;
+    private final String userId;
+    private final String mainFile;
+    private final Map<String, String> sources;
+    private Path workDir;
+    private int maxPasses = 1;
+    private String compileKey;
+    private Priority priority = Priority.INTERACTIVE;
+
+    public LatexCompileJob(String id, String projectId, String documentId, String userId,
+            String mainFile, Map<String, String> sources) {
+        this.id = id;
+        this.projectId = projectId;
+        this.documentId = documentId;
+        this.userId = userId;
+        this.mainFile = mainFile;
+        this.sources = new LinkedHashMap<>(sources);
+    }
+
+    /**
+     * Compile inside a persistent directory instead of a scratch one, so aux
+     * files from earlier runs are reused. The directory is left in place.
+     */
+    public LatexCompileJob withWorkDir(Path workDir) {
+        this.workDir = workDir;
+        return this;
+    }
+
+    /**
+     * Compile cache key of this job's input, carried through to the result
+     */
+    public LatexCompileJob withCompileKey(String compileKey) {
+        this.compileKey = compileKey;
+        return this;
+    }
+
+    /**
+     * Rerun the engine, up to this many times, while aux files keep changing
+     */
+    public LatexCompileJob withMaxPasses(int maxPasses) {
+        this.maxPasses = Math.max(1, maxPasses);
+        return this;
+    }
+
+    public LatexCompileJob withPriority(Priority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getMainFile() {
+        return mainFile;
+    }
+
+    /**
+     * Source files keyed by their path relative to the job directory
+     */
+    public Map<String, String> getSources() {
+        return sources;
+    }
+
+    public Path getWorkDir() {
+        return workDir;
+    }
+
+    public int getMaxPasses() {
+        return maxPasses;
+    }
+
+    public String getCompileKey() {
+        return compileKey;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+}
@@ -0,0 +1,13 @@
+package com.Backend_project.service.compile;
+
+/**
+ * Progress callbacks for a compile job, invoked on the worker thread.
+ */
+@FunctionalInterface
+public interface LatexCompileListener {
+
+    default void onStarted(String jobId) {
+    }
+
+    void onLog(String line);
+}
@@ -0,0 +1,72 @@
+package com.Backend_project.service.compile;
+
+/**
+ * Outcome of a compile job once its PDF, if any, has been stored.
+ */
+public class LatexCompileResult {
+    public enum Status {
+        SUCCEEDED, FAILED, TIMED_OUT
+    }
+
+    private final String jobId;
+    private final Status status;
+    private final String artifactId;
+    private final String log;
+    private final String engine;
+    private final long durationMillis;
+    private final int passes;
+    private final String compileKey;
+
+    public LatexCompileResult(String jobId, Status status, String artifactId, String log, String engine,
+            long durationMillis) {
+        this(jobId, status, artifactId, log, engine, durationMillis, 1, null);
+    }
+
+    public LatexCompileResult(String jobId, Status status, String artifactId, String log, String engine,
+            long durationMillis, int passes, String compileKey) {
+        this.jobId = jobId;
+        this.status = status;
+        this.artifactId = artifactId;
+        this.log = log;
+        this.engine = engine;
+        this.durationMillis = durationMillis;
+        this.passes = passes;
+        this.compileKey = compileKey;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCEEDED;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getLog() {
+        return log;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int getPasses() {
+        return passes;
+    }
+
+    public String getCompileKey() {
+        return compileKey;
+    }
+}
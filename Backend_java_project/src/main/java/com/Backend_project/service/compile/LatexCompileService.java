@@ -0,0 +1,322 @@
+package com.Backend_project.service.compile;
+
+import com.Backend_project.util.ContentHash;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Runs compile jobs on a fixed pool of workers fed by a bounded scheduling
+ * queue that favours interactive previews and shares workers fairly between
+ * users. Every job compiles in its own scratch directory under the configured
+ * limits; the resulting PDF is moved to the artifact store and the directory
+ * removed.
+ */
+@Service
+public class LatexCompileService {
+    private static final Logger logger = LoggerFactory.getLogger(LatexCompileService.class);
+
+    private static final int MAX_LOG_CHARS = 64 * 1024;
+
+    private final LatexEngine engine;
+    private final LatexArtifactStore artifactStore;
+    private final CompileLimits limits;
+    private final Path workRoot;
+    private final CompileQueue<QueuedJob> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger activeJobs = new AtomicInteger();
+    private volatile boolean running = true;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalQueueMillis = new AtomicLong();
+    private final AtomicLong totalRunMillis = new AtomicLong();
+    private final AtomicLong maxRunMillis = new AtomicLong();
+
+    @Autowired
+    public LatexCompileService(
+            List<LatexEngine> engines,
+            LatexArtifactStore artifactStore,
+            @Value("${latex.compile.engine:pdflatex}") String engineName,
+            @Value("${latex.compile.workers:2}") int workers,
+            @Value("${latex.compile.queue-capacity:50}") int queueCapacity,
+            @Value("${latex.compile.max-queued-per-user:10}") int maxQueuedPerUser,
+            @Value("${latex.compile.max-running-per-user:1}") int maxRunningPerUser,
+            @Value("${latex.compile.timeout-seconds:60}") long timeoutSeconds,
+            @Value("${latex.compile.memory-limit-mb:1024}") long memoryLimitMb,
+            @Value("${latex.compile.work-dir:${java.io.tmpdir}/latex-work}") String workDir) {
+        this.engine = engines.stream()
+                .filter(candidate -> candidate.getName().equals(engineName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown LaTeX engine: " + engineName));
+        this.artifactStore = artifactStore;
+        this.limits = new CompileLimits(Duration.ofSeconds(timeoutSeconds), memoryLimitMb);
+        this.workRoot = Paths.get(workDir);
+        this.queue = new CompileQueue<>(queueCapacity, maxQueuedPerUser, maxRunningPerUser);
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::workerLoop, "latex-compile-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            this.workers.add(thread);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    public String getEngineName() {
+        return engine.getName();
+    }
+
+    /**
+     * Queue a job. Cancelling the returned future drops it from the queue, or
+     * interrupts the worker and kills the compiler process once it runs.
+     * @throws Exception if the queue, or the user's share of it, is full
+     */
+    public CompletableFuture<LatexCompileResult> submit(LatexCompileJob job, LatexCompileListener listener)
+            throws Exception {
+        QueuedJob task = new QueuedJob(job, listener);
+        if (!queue.offer(task, job.getUserId() != null ? job.getUserId() : "", job.getPriority())) {
+            rejected.incrementAndGet();
+            throw new Exception("Compile queue is full, try again later");
+        }
+        submitted.incrementAndGet();
+
+        task.result.whenComplete((value, error) -> {
+            if (task.result.isCancelled() && !queue.remove(task)) {
+                task.interrupt();
+            }
+        });
+        return task.result;
+    }
+
+    public Map<String, Object> getStats() {
+        long completed = succeeded.get() + failed.get() + timedOut.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("engine", engine.getName());
+        stats.put("queueDepth", queue.size());
+        stats.put("activeJobs", activeJobs.get());
+        stats.put("submitted", submitted.get());
+        stats.put("succeeded", succeeded.get());
+        stats.put("failed", failed.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("rejected", rejected.get());
+        stats.put("averageQueueMillis", completed == 0 ? 0 : totalQueueMillis.get() / completed);
+        stats.put("averageRunMillis", completed == 0 ? 0 : totalRunMillis.get() / completed);
+        stats.put("maxRunMillis", maxRunMillis.get());
+        return stats;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void workerLoop() {
+        while (running) {
+            CompileQueue.Entry<QueuedJob> entry;
+            try {
+                entry = queue.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+
+            QueuedJob task = entry.task;
+            activeJobs.incrementAndGet();
+            try {
+                task.attach(Thread.currentThread());
+                run(task.job, task.listener, task.result, task.queuedAt);
+            } finally {
+                task.detach();
+                // A cancel racing the end of the job must not hit the next one
+                Thread.interrupted();
+                activeJobs.decrementAndGet();
+                queue.finished(entry);
+            }
+        }
+    }
+
+    private void run(LatexCompileJob job, LatexCompileListener listener,
+            CompletableFuture<LatexCompileResult> result, long queuedAt) {
+        if (result.isDone()) {
+            return;
+        }
+        listener.onStarted(job.getId());
+
+        long startedAt = System.nanoTime();
+        totalQueueMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(startedAt - queuedAt));
+        StringBuilder log = new StringBuilder();
+        Path scratchDir = null;
+        LatexCompileResult outcome = null;
+        Exception failure = null;
+        boolean cancelled = false;
+
+        try {
+            Path jobDir = job.getWorkDir();
+            if (jobDir == null) {
+                Files.createDirectories(workRoot);
+                scratchDir = Files.createTempDirectory(workRoot, "job-");
+                jobDir = scratchDir;
+            }
+            writeSources(jobDir, job.getSources());
+
+            // Rerun while cross-references are still settling
+            LatexEngineResult engineResult;
+            int passes = 0;
+            String auxBefore;
+            do {
+                auxBefore = auxDigest(jobDir);
+                engineResult = engine.compile(jobDir, job.getMainFile(), limits, line -> {
+                    appendLog(log, line);
+                    listener.onLog(line);
+                });
+                passes++;
+            } while (engineResult.success() && passes < job.getMaxPasses() && !auxBefore.equals(auxDigest(jobDir)));
+
+            long runMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            totalRunMillis.addAndGet(runMillis);
+            maxRunMillis.accumulateAndGet(runMillis, Math::max);
+
+            LatexCompileResult.Status status;
+            String artifactId = null;
+            if (engineResult.success()) {
+                artifactId = artifactStore.store(engineResult.pdf());
+                status = LatexCompileResult.Status.SUCCEEDED;
+                succeeded.incrementAndGet();
+            } else if (engineResult.timedOut()) {
+                appendLog(log, "Compilation exceeded " + limits.timeout().toSeconds() + "s and was stopped");
+                status = LatexCompileResult.Status.TIMED_OUT;
+                timedOut.incrementAndGet();
+            } else {
+                status = LatexCompileResult.Status.FAILED;
+                failed.incrementAndGet();
+            }
+
+            logger.debug("Compile job {} finished as {} in {} ms ({} passes)", job.getId(), status, runMillis, passes);
+            outcome = new LatexCompileResult(job.getId(), status, artifactId, readLog(log),
+                    engine.getName(), runMillis, passes, job.getCompileKey());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        } catch (Exception e) {
+            logger.error("Compile job {} failed: {}", job.getId(), e.getMessage());
+            failed.incrementAndGet();
+            failure = e;
+        } finally {
+            deleteRecursively(scratchDir);
+        }
+
+        // Only report back once the scratch directory is gone
+        if (cancelled) {
+            result.cancel(false);
+        } else if (failure != null) {
+            result.completeExceptionally(failure);
+        } else {
+            result.complete(outcome);
+        }
+    }
+
+    /**
+     * Digest of every .aux file under the job directory
+     */
+    private String auxDigest(Path jobDir) throws IOException {
+        MessageDigest digest = ContentHash.newDigest();
+        try (Stream<Path> paths = Files.walk(jobDir)) {
+            for (Path aux : paths.filter(path -> path.toString().endsWith(".aux")).sorted().toList()) {
+                ContentHash.update(digest, jobDir.relativize(aux).toString());
+                digest.update(Files.readAllBytes(aux));
+            }
+        }
+        return ContentHash.hex(digest);
+    }
+
+    private void writeSources(Path jobDir, Map<String, String> sources) throws IOException {
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path target = jobDir.resolve(source.getKey()).normalize();
+            if (!target.startsWith(jobDir)) {
+                throw new IOException("Source path escapes the job directory: " + source.getKey());
+            }
+            Files.createDirectories(target.getParent());
+            Files.writeString(target, source.getValue() != null ? source.getValue() : "", StandardCharsets.UTF_8);
+        }
+    }
+
+    private void appendLog(StringBuilder log, String line) {
+        synchronized (log) {
+            log.append(line).append('\n');
+            if (log.length() > MAX_LOG_CHARS) {
+                log.delete(0, log.length() - MAX_LOG_CHARS);
+            }
+        }
+    }
+
+    private String readLog(StringBuilder log) {
+        synchronized (log) {
+            return log.toString();
+        }
+    }
+
+    private void deleteRecursively(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Failed to clean up {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static class QueuedJob {
+        final LatexCompileJob job;
+        final LatexCompileListener listener;
+        final CompletableFuture<LatexCompileResult> result = new CompletableFuture<>();
+        final long queuedAt = System.nanoTime();
+        private Thread worker;
+
+        QueuedJob(LatexCompileJob job, LatexCompileListener listener) {
+            this.job = job;
+            this.listener = listener;
+        }
+
+        synchronized void attach(Thread thread) {
+            worker = thread;
+        }
+
+        synchronized void detach() {
+            worker = null;
+        }
+
+        synchronized void interrupt() {
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+    }
+}
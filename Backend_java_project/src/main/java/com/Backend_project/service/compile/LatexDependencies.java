@@ -0,0 +1,63 @@
+package com.Backend_project.service.compile;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the files a LaTeX source pulls in: \input/\include targets,
+ * bibliographies and figures. Comments are ignored.
+ */
+public final class LatexDependencies {
+
+    private static final Pattern INPUT = Pattern.compile("\\\\(?:input|include|subfile)\\s*\\{([^}]+)}");
+    private static final Pattern BIBLIOGRAPHY = Pattern.compile("\\\\(?:bibliography|addbibresource)\\s*(?:\\[[^]]*])?\\s*\\{([^}]+)}");
+    private static final Pattern GRAPHICS = Pattern.compile("\\\\includegraphics\\s*(?:\\[[^]]*])?\\s*\\{([^}]+)}");
+    private static final Pattern COMMENT = Pattern.compile("(?<!\\\\)%.*");
+
+    private LatexDependencies() {
+    }
+
+    public record Dependencies(Set<String> inputs, Set<String> bibliographies, Set<String> graphics) {
+
+        public Set<String> all() {
+            Set<String> all = new LinkedHashSet<>(inputs);
+            all.addAll(bibliographies);
+            all.addAll(graphics);
+            return all;
+        }
+    }
+
+    public static Dependencies scan(String source) {
+        String text = COMMENT.matcher(source != null ? source : "").replaceAll("");
+
+        Set<String> inputs = new LinkedHashSet<>();
+        for (String target : matches(INPUT, text)) {
+            inputs.add(target.endsWith(".tex") ? target : target + ".tex");
+        }
+
+        Set<String> bibliographies = new LinkedHashSet<>();
+        for (String list : matches(BIBLIOGRAPHY, text)) {
+            for (String target : list.split(",")) {
+                String trimmed = target.trim();
+                if (!trimmed.isEmpty()) {
+                    bibliographies.add(trimmed.endsWith(".bib") ? trimmed : trimmed + ".bib");
+                }
+            }
+        }
+
+        Set<String> graphics = new LinkedHashSet<>(matches(GRAPHICS, text));
+
+        return new Dependencies(inputs, bibliographies, graphics);
+    }
+
+    private static Set<String> matches(Pattern pattern, String text) {
+        Set<String> targets = new LinkedHashSet<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            targets.add(matcher.group(1).trim());
+        }
+        return targets;
+    }
+}
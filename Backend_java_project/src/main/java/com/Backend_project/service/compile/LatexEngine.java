@@ -0,0 +1,27 @@
+package com.Backend_project.service.compile;
+
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * A LaTeX compiler that turns a prepared working directory into a PDF.
+ */
+public interface LatexEngine {
+
+    /**
+     * Name used to select the engine through latex.compile.engine
+     */
+    String getName();
+
+    /**
+     * Compile mainFile inside workDir. Implementations must stop promptly
+     * and release their process when the calling thread is interrupted.
+     * @param workDir Directory holding every source file of the job
+     * @param mainFile Root file, relative to workDir
+     * @param limits Time and memory limits for this job
+     * @param logSink Receives each log line as it is produced
+     * @return The outcome, with the produced PDF if any
+     */
+    LatexEngineResult compile(Path workDir, String mainFile, CompileLimits limits, Consumer<String> logSink)
+            throws Exception;
+}
@@ -0,0 +1,21 @@
+package com.Backend_project.service.compile;
+
+import java.nio.file.Path;
+
+/**
+ * Raw outcome of running an engine once.
+ */
+public record LatexEngineResult(boolean success, boolean timedOut, int exitCode, Path pdf) {
+
+    public static LatexEngineResult succeeded(Path pdf) {
+        return new LatexEngineResult(true, false, 0, pdf);
+    }
+
+    public static LatexEngineResult failed(int exitCode) {
+        return new LatexEngineResult(false, false, exitCode, null);
+    }
+
+    public static LatexEngineResult timeout() {
+        return new LatexEngineResult(false, true, -1, null);
+    }
+}
@@ -0,0 +1,132 @@
+package com.Backend_project.service.compile;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State of a project's last build, persisted next to its build directory
+ * so the next build knows what changed.
+ */
+public class LatexProjectBuild {
+    private String projectId;
+    private String status;
+    private String artifactId;
+    private String compileKey;
+    private String log;
+    private boolean compiled; // false when the previous artifact was reused
+    private int passes;
+    private long durationMillis;
+    private Date builtAt;
+    private Map<String, String> fileHashes = new LinkedHashMap<>();
+    private Map<String, List<String>> dependencies = new LinkedHashMap<>();
+    private List<String> changedFiles = new ArrayList<>();
+    private List<String> missingDependencies = new ArrayList<>();
+
+    // Getters and Setters
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public void setArtifactId(String artifactId) {
+        this.artifactId = artifactId;
+    }
+
+    public String getCompileKey() {
+        return compileKey;
+    }
+
+    public void setCompileKey(String compileKey) {
+        this.compileKey = compileKey;
+    }
+
+    public String getLog() {
+        return log;
+    }
+
+    public void setLog(String log) {
+        this.log = log;
+    }
+
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    public void setCompiled(boolean compiled) {
+        this.compiled = compiled;
+    }
+
+    public int getPasses() {
+        return passes;
+    }
+
+    public void setPasses(int passes) {
+        this.passes = passes;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public Date getBuiltAt() {
+        return builtAt;
+    }
+
+    public void setBuiltAt(Date builtAt) {
+        this.builtAt = builtAt;
+    }
+
+    public Map<String, String> getFileHashes() {
+        return fileHashes;
+    }
+
+    public void setFileHashes(Map<String, String> fileHashes) {
+        this.fileHashes = fileHashes;
+    }
+
+    public Map<String, List<String>> getDependencies() {
+        return dependencies;
+    }
+
+    public void setDependencies(Map<String, List<String>> dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    public List<String> getChangedFiles() {
+        return changedFiles;
+    }
+
+    public void setChangedFiles(List<String> changedFiles) {
+        this.changedFiles = changedFiles;
+    }
+
+    public List<String> getMissingDependencies() {
+        return missingDependencies;
+    }
+
+    public void setMissingDependencies(List<String> missingDependencies) {
+        this.missingDependencies = missingDependencies;
+    }
+}
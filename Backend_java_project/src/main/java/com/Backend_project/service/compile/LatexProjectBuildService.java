@@ -0,0 +1,399 @@
+package com.Backend_project.service.compile;
+
+import com.Backend_project.model.LatexDocument;
+import com.Backend_project.model.ProjectFile;
+import com.Backend_project.repository.LatexDocumentRepository;
+import com.Backend_project.repository.ProjectFileRepository;
+import com.Backend_project.service.jobs.JobLease;
+import com.Backend_project.service.jobs.JobQueue;
+import com.Backend_project.util.ContentHash;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Builds a whole project from its LaTeX documents. Documents are assembled in
+ * order as \include'd chapters of a generated main.tex, and the files they
+ * pull in are resolved from the cached repository files.
+ *
+ * Repository files are cached as text, so binary figures cannot be written
+ * out faithfully; a build reports them as missing instead of handing the
+ * engine a corrupted copy.
+ *
+ * Every project keeps a persistent build directory, so aux files carry over
+ * between runs and a build normally settles in a single pass. A manifest of
+ * file hashes and the dependency graph is kept with it. Only changed files
+ * are rewritten, and a build whose inputs are unchanged reuses the previous
+ * artifact without running the engine at all.
+ *
+ * A build holds a lease on its project for as long as it runs, so only one
+ * node builds a given project at a time; a build on another node waits for
+ * it to finish.
+ */
+@Service
+public class LatexProjectBuildService {
+    private static final Logger logger = LoggerFactory.getLogger(LatexProjectBuildService.class);
+
+    static final String MAIN_FILE = "main.tex";
+    private static final String CHAPTER_DIR = "chapters";
+    private static final String MANIFEST_FILE = ".build.json";
+    private static final String DEFAULT_PREAMBLE = "\\documentclass{report}\n";
+    private static final String BUILD_OPTIONS = "project-build:v1";
+    private static final String BUILD_JOB = "PROJECT_BUILD";
+    /** Tried in this order for \includegraphics targets given without one, as pdflatex does */
+    private static final List<String> GRAPHICS_EXTENSIONS = List.of(".pdf", ".png", ".jpg", ".jpeg", ".eps");
+    private static final Set<String> BINARY_GRAPHICS = Set.of("pdf", "png", "jpg", "jpeg", "gif", "bmp");
+
+    @Autowired
+    private LatexDocumentRepository latexDocumentRepository;
+
+    @Autowired
+    private ProjectFileRepository projectFileRepository;
+
+    @Autowired
+    private LatexCompileService latexCompileService;
+
+    @Autowired
+    private LatexCompileCache latexCompileCache;
+
+    @Autowired
+    private LatexArtifactStore latexArtifactStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JobQueue jobQueue;
+
+    @Value("${latex.build.dir:${java.io.tmpdir}/latex-builds}")
+    private String buildRoot;
+
+    @Value("${latex.build.max-passes:3}")
+    private int maxPasses;
+
+    @Value("${latex.build.lease-wait-ms:120000}")
+    private long leaseWaitMs;
+
+    private final Map<String, ReentrantLock> projectLocks = new ConcurrentHashMap<>();
+
+    // Builds wait on their compile job, so they get their own threads rather than the request's
+    private final ThreadPoolExecutor buildExecutor;
+
+    public LatexProjectBuildService(
+            @Value("${latex.build.workers:2}") int workers,
+            @Value("${latex.build.queue-capacity:20}") int queueCapacity) {
+        this.buildExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "latex-project-build");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        buildExecutor.shutdownNow();
+    }
+
+    public LatexProjectBuild build(String projectId, String userId, LatexCompileListener listener)
+            throws Exception {
+        ReentrantLock lock = projectLocks.computeIfAbsent(projectId, id -> new ReentrantLock());
+        lock.lockInterruptibly();
+        try {
+            JobLease lease = jobQueue.acquire(BUILD_JOB, "build:" + projectId, leaseWaitMs)
+                    .orElseThrow(() -> new Exception("Project is being built on another node, try again later"));
+            try {
+                return buildLocked(projectId, userId, listener);
+            } finally {
+                jobQueue.complete(lease);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run a build in the background
+     * @throws Exception if too many builds are already waiting
+     */
+    public CompletableFuture<LatexProjectBuild> buildAsync(String projectId, String userId,
+            LatexCompileListener listener) throws Exception {
+        CompletableFuture<LatexProjectBuild> result = new CompletableFuture<>();
+        try {
+            buildExecutor.execute(() -> {
+                try {
+                    result.complete(build(projectId, userId, listener));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new Exception("Too many project builds queued, try again later");
+        }
+        return result;
+    }
+
+    public Optional<LatexProjectBuild> getLastBuild(String projectId) {
+        return Optional.ofNullable(readManifest(objectMapper, buildDir(projectId)));
+    }
+
+    private LatexProjectBuild buildLocked(String projectId, String userId, LatexCompileListener listener)
+            throws Exception {
+        long startedAt = System.currentTimeMillis();
+        Path buildDir = buildDir(projectId);
+        LatexProjectBuild previous = readManifest(objectMapper, buildDir);
+
+        List<LatexDocument> documents = latexDocumentRepository.findByProjectIdOrderByOrderAsc(projectId);
+        if (documents.isEmpty()) {
+            throw new Exception("Project has no LaTeX documents to build");
+        }
+
+        LatexProjectBuild build = new LatexProjectBuild();
+        build.setProjectId(projectId);
+        Map<String, String> files = assemble(projectId, documents, build);
+
+        Map<String, String> hashes = new LinkedHashMap<>();
+        files.forEach((path, content) -> hashes.put(path, ContentHash.of(content)));
+        build.setFileHashes(hashes);
+
+        Map<String, String> previousHashes = previous != null ? previous.getFileHashes() : Map.of();
+        List<String> changed = new ArrayList<>();
+        hashes.forEach((path, hash) -> {
+            if (!hash.equals(previousHashes.get(path))) {
+                changed.add(path);
+            }
+        });
+        List<String> removed = new ArrayList<>(previousHashes.keySet());
+        removed.removeAll(hashes.keySet());
+        build.setChangedFiles(changed);
+
+        LatexCompileJob keyJob = new LatexCompileJob(null, projectId, null, userId, MAIN_FILE, files);
+        String compileKey = LatexCompileCache.keyFor(keyJob, latexCompileService.getEngineName(), BUILD_OPTIONS);
+        build.setCompileKey(compileKey);
+
+        // Nothing changed since the last good build
+        if (previous != null && compileKey.equals(previous.getCompileKey())
+                && LatexCompileResult.Status.SUCCEEDED.name().equals(previous.getStatus())
+                && latexArtifactStore.find(previous.getArtifactId()).isPresent()) {
+            previous.setCompiled(false);
+            previous.setChangedFiles(List.of());
+            return previous;
+        }
+
+        syncBuildDir(buildDir, files, changed, removed,
+                previous == null || !LatexCompileResult.Status.SUCCEEDED.name().equals(previous.getStatus()));
+
+        Optional<LatexCompileCache.CachedCompile> cached = latexCompileCache.lookup(compileKey);
+        if (cached.isPresent()) {
+            build.setStatus(LatexCompileResult.Status.SUCCEEDED.name());
+            build.setArtifactId(cached.get().artifactId());
+            build.setLog(cached.get().log());
+            build.setCompiled(false);
+        } else {
+            LatexCompileJob job = new LatexCompileJob(UUID.randomUUID().toString(), projectId, null, userId,
+                    MAIN_FILE, Map.of())
+                    .withWorkDir(buildDir)
+                    .withMaxPasses(maxPasses)
+                    .withPriority(LatexCompileJob.Priority.PROJECT_BUILD);
+            CompletableFuture<LatexCompileResult> compile = latexCompileService.submit(job, listener);
+            LatexCompileResult result;
+            try {
+                result = compile.get();
+            } catch (InterruptedException e) {
+                compile.cancel(true);
+                throw e;
+            }
+            latexCompileCache.put(compileKey, result);
+
+            build.setStatus(result.getStatus().name());
+            build.setArtifactId(result.getArtifactId());
+            build.setLog(result.getLog());
+            build.setPasses(result.getPasses());
+            build.setCompiled(true);
+        }
+
+        build.setBuiltAt(new Date());
+        build.setDurationMillis(System.currentTimeMillis() - startedAt);
+        writeManifest(buildDir, build);
+        if (previous != null && !Objects.equals(previous.getArtifactId(), build.getArtifactId())) {
+            latexCompileCache.release(previous.getArtifactId());
+        }
+        logger.info("Built project {} ({} changed files, {} passes) in {} ms",
+                projectId, changed.size(), build.getPasses(), build.getDurationMillis());
+        return build;
+    }
+
+    /**
+     * Lay out documents as chapters of a generated main file and pull in the
+     * repository files they depend on
+     */
+    private Map<String, String> assemble(String projectId, List<LatexDocument> documents, LatexProjectBuild build) {
+        Map<String, String> files = new LinkedHashMap<>();
+        String preamble = null;
+        StringBuilder includes = new StringBuilder();
+
+        for (LatexDocument document : documents) {
+            String content = document.getContent() != null ? document.getContent() : "";
+            int begin = content.indexOf("\\begin{document}");
+            if (begin >= 0) {
+                // A full document: its preamble becomes the project's if none was seen yet
+                if (preamble == null) {
+                    preamble = content.substring(0, begin);
+                }
+                int end = content.indexOf("\\end{document}", begin);
+                content = content.substring(begin + "\\begin{document}".length(), end >= 0 ? end : content.length());
+            }
+
+            String chapter = CHAPTER_DIR + "/" + document.getId();
+            files.put(chapter + ".tex", content);
+            includes.append("\\include{").append(chapter).append("}\n");
+        }
+
+        files.put(MAIN_FILE, (preamble != null ? preamble : DEFAULT_PREAMBLE)
+                + "\\begin{document}\n" + includes + "\\end{document}\n");
+
+        Deque<String> pending = new ArrayDeque<>(files.keySet());
+        while (!pending.isEmpty()) {
+            String file = pending.pop();
+            LatexDependencies.Dependencies dependencies = LatexDependencies.scan(files.get(file));
+            build.getDependencies().put(file, new ArrayList<>(dependencies.all()));
+
+            for (String dependency : dependencies.all()) {
+                if (files.containsKey(dependency) || !isSafePath(dependency)) {
+                    continue;
+                }
+                String missing = dependencies.graphics().contains(dependency)
+                        ? resolveGraphic(projectId, dependency, files)
+                        : resolve(projectId, dependency, files);
+                if (missing == null) {
+                    if (dependencies.inputs().contains(dependency)) {
+                        pending.push(dependency);
+                    }
+                } else if (!build.getMissingDependencies().contains(missing)) {
+                    build.getMissingDependencies().add(missing);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Add a cached text file to the build
+     * @return null once added, or what to report as missing
+     */
+    private String resolve(String projectId, String path, Map<String, String> files) {
+        Optional<ProjectFile> cached = projectFileRepository.findByProjectIdAndPath(projectId, path);
+        if (cached.isEmpty() || cached.get().getContent() == null) {
+            return path;
+        }
+        files.put(path, cached.get().getContent());
+        return null;
+    }
+
+    /**
+     * Add the file an \includegraphics target names, trying the usual
+     * extensions when it has none
+     * @return null once added, or what to report as missing
+     */
+    private String resolveGraphic(String projectId, String target, Map<String, String> files) {
+        List<String> candidates = extension(target).isEmpty()
+                ? GRAPHICS_EXTENSIONS.stream().map(extension -> target + extension).toList()
+                : List.of(target);
+        for (String candidate : candidates) {
+            if (files.containsKey(candidate)) {
+                return null;
+            }
+            if (BINARY_GRAPHICS.contains(extension(candidate))) {
+                if (projectFileRepository.findByProjectIdAndPath(projectId, candidate).isPresent()) {
+                    return candidate + " (binary figures are not available to project builds)";
+                }
+            } else if (resolve(projectId, candidate, files) == null) {
+                return null;
+            }
+        }
+        return target;
+    }
+
+    private static String extension(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(dot + 1).toLowerCase() : "";
+    }
+
+    private void syncBuildDir(Path buildDir, Map<String, String> files, List<String> changed, List<String> removed,
+            boolean clearAux) throws IOException {
+        Files.createDirectories(buildDir);
+
+        // A failed run can leave aux files the engine chokes on
+        if (clearAux) {
+            try (Stream<Path> paths = Files.walk(buildDir)) {
+                for (Path aux : paths.filter(path -> path.toString().endsWith(".aux")).toList()) {
+                    Files.deleteIfExists(aux);
+                }
+            }
+        }
+
+        for (String path : removed) {
+            Path target = buildDir.resolve(path).normalize();
+            if (target.startsWith(buildDir)) {
+                Files.deleteIfExists(target);
+                Files.deleteIfExists(Paths.get(target.toString().replaceAll("\\.tex$", ".aux")));
+            }
+        }
+
+        for (String path : changed) {
+            Path target = buildDir.resolve(path).normalize();
+            if (!target.startsWith(buildDir)) {
+                continue;
+            }
+            Files.createDirectories(target.getParent());
+            Files.writeString(target, files.get(path), StandardCharsets.UTF_8);
+        }
+    }
+
+    static boolean isSafePath(String path) {
+        return !path.isEmpty() && !path.startsWith("/") && !path.startsWith("\\") && !path.contains("..")
+                && !path.contains(":");
+    }
+
+    private Path buildDir(String projectId) {
+        return Paths.get(buildRoot).resolve(projectId.replaceAll("[^a-zA-Z0-9_-]", "_"));
+    }
+
+    static LatexProjectBuild readManifest(ObjectMapper objectMapper, Path buildDir) {
+        Path manifest = buildDir.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifest)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(manifest.toFile(), LatexProjectBuild.class);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable build manifest {}: {}", manifest, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeManifest(Path buildDir, LatexProjectBuild build) throws IOException {
+        Files.createDirectories(buildDir);
+        objectMapper.writeValue(buildDir.resolve(MANIFEST_FILE).toFile(), build);
+    }
+}
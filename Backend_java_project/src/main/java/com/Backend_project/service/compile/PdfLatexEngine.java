@@ -0,0 +1,24 @@
+package com.Backend_project.service.compile;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class PdfLatexEngine extends ProcessLatexEngine {
+
+    @Override
+    public String getName() {
+        return "pdflatex";
+    }
+
+    @Override
+    protected List<String> command(String mainFile) {
+        return List.of(
+                "-interaction=nonstopmode",
+                "-halt-on-error",
+                "-file-line-error",
+                "-no-shell-escape",
+                mainFile);
+    }
+}
@@ -0,0 +1,104 @@
+package com.Backend_project.service.compile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Base class for engines backed by a local compiler binary. Each run gets a
+ * scrubbed environment confined to the job directory, a virtual memory cap
+ * applied through ulimit and a hard wall-clock timeout.
+ */
+public abstract class ProcessLatexEngine implements LatexEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ProcessLatexEngine.class);
+
+    /**
+     * Command line that compiles mainFile from within the job directory
+     */
+    protected abstract List<String> command(String mainFile);
+
+    @Override
+    public LatexEngineResult compile(Path workDir, String mainFile, CompileLimits limits, Consumer<String> logSink)
+            throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("/bin/sh");
+        command.add("-c");
+        command.add("ulimit -v " + limits.memoryLimitMb() * 1024 + " && exec \"$@\"");
+        command.add("latex-sandbox");
+        command.add(getName());
+        command.addAll(command(mainFile));
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true);
+
+        // Only pass what the compiler needs; TeX may read and write inside the job directory only
+        Map<String, String> environment = builder.environment();
+        String path = environment.getOrDefault("PATH", "/usr/local/bin:/usr/bin:/bin");
+        environment.clear();
+        environment.put("PATH", path);
+        environment.put("HOME", workDir.toString());
+        environment.put("TMPDIR", workDir.toString());
+        environment.put("openout_any", "p");
+        environment.put("openin_any", "p");
+
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            throw new Exception("LaTeX engine '" + getName() + "' is not available: " + e.getMessage());
+        }
+
+        Thread reader = new Thread(() -> pipeLog(process, logSink), "latex-log-" + process.pid());
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            if (!process.waitFor(limits.timeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+                return LatexEngineResult.timeout();
+            }
+            reader.join(1000);
+        } catch (InterruptedException e) {
+            // Cancelled: take the compiler down with us
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+            throw e;
+        }
+
+        Path pdf = workDir.resolve(pdfName(mainFile));
+        if (process.exitValue() == 0 && Files.exists(pdf)) {
+            return LatexEngineResult.succeeded(pdf);
+        }
+        return LatexEngineResult.failed(process.exitValue());
+    }
+
+    protected String pdfName(String mainFile) {
+        int dot = mainFile.lastIndexOf('.');
+        return (dot > 0 ? mainFile.substring(0, dot) : mainFile) + ".pdf";
+    }
+
+    private void pipeLog(Process process, Consumer<String> logSink) {
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                logSink.accept(line);
+            }
+        } catch (IOException e) {
+            logger.debug("Stopped reading {} output: {}", getName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.Backend_project.service.compile;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class TectonicEngine extends ProcessLatexEngine {
+
+    @Override
+    public String getName() {
+        return "tectonic";
+    }
+
+    @Override
+    protected List<String> command(String mainFile) {
+        return List.of(
+                "--untrusted",
+                "--keep-logs",
+                "--chatter", "minimal",
+                mainFile);
+    }
+}
@@ -0,0 +1,136 @@
+package com.Backend_project.service.compile;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Client-facing state of a submitted compile or project build, with the
+ * recent log lines and the SSE streams following it.
+ */
+public class TrackedCompileJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        TIMED_OUT,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    public enum Type {
+        DOCUMENT,
+        PROJECT_BUILD
+    }
+
+    private final String id;
+    private final Type type;
+    private final String projectId;
+    private final String documentId;
+    private final String userId;
+    private final Date submittedAt = new Date();
+    private volatile Status status = Status.QUEUED;
+    private volatile String artifactId;
+    private volatile String error;
+    private volatile Date startedAt;
+    private volatile Date finishedAt;
+    private volatile boolean cached;
+
+    final Deque<String> logLines = new ArrayDeque<>();
+    final List<CompileJobTracker.Subscriber> subscribers = new ArrayList<>();
+    boolean receivedLiveLog;
+
+    TrackedCompileJob(String id, Type type, String projectId, String documentId, String userId) {
+        this.id = id;
+        this.type = type;
+        this.projectId = projectId;
+        this.documentId = documentId;
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    @JsonIgnore
+    public String getUserId() {
+        return userId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    void setArtifactId(String artifactId) {
+        this.artifactId = artifactId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+
+    public Date getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    void setStartedAt(Date startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    void setFinishedAt(Date finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    /**
+     * True when the result came from the compile cache without running the engine
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    void setCached(boolean cached) {
+        this.cached = cached;
+    }
+}
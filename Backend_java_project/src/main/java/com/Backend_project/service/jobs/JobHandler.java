@@ -0,0 +1,25 @@
+package com.Backend_project.service.jobs;
+
+import com.Backend_project.model.CoordinatedJob;
+
+/**
+ * Runs the queued jobs of one type on whichever node claims them
+ */
+public interface JobHandler {
+
+    String getType();
+
+    /**
+     * Run a claimed job. Call lease.ensureHeld() before writes that must not
+     * happen once another node has taken the job over.
+     */
+    void run(CoordinatedJob job, JobLease lease) throws Exception;
+
+    /**
+     * Called instead of run once the job has been claimed too many times, so
+     * whatever it was working on can be marked as failed rather than left
+     * waiting for a job that will never finish.
+     */
+    default void abandon(CoordinatedJob job, JobLease lease, String reason) throws Exception {
+    }
+}
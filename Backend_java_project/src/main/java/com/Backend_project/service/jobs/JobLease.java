@@ -0,0 +1,62 @@
+package com.Backend_project.service.jobs;
+
+import com.Backend_project.exceptions.LeaseLostException;
+import com.Backend_project.model.CoordinatedJob;
+
+/**
+ * This node's hold on a coordinated job, valid for one fencing token. The
+ * queue renews it in the background until it is completed or released.
+ */
+public class JobLease {
+    private final JobQueue queue;
+    private final CoordinatedJob job;
+    private final long fencingToken;
+    /** Claimed from the queue rather than acquired for local work */
+    private final boolean queued;
+    private volatile boolean lost;
+
+    JobLease(JobQueue queue, CoordinatedJob job, boolean queued) {
+        this.queue = queue;
+        this.job = job;
+        this.fencingToken = job.getFencingToken();
+        this.queued = queued;
+    }
+
+    public CoordinatedJob getJob() {
+        return job;
+    }
+
+    public String getKey() {
+        return job.getKey();
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    boolean isQueued() {
+        return queued;
+    }
+
+    /**
+     * Whether the last renewal succeeded; cheap, but may be up to one
+     * heartbeat out of date
+     */
+    public boolean isHeld() {
+        return !lost;
+    }
+
+    /**
+     * Renew the lease now, failing if another node has taken the job over
+     * @throws LeaseLostException if the lease is gone
+     */
+    public void ensureHeld() {
+        if (lost || !queue.renew(this)) {
+            throw new LeaseLostException("Lease on " + job.getKey() + " was lost", job.getKey());
+        }
+    }
+
+    void markLost() {
+        lost = true;
+    }
+}
@@ -0,0 +1,399 @@
+package com.Backend_project.service.jobs;
+
+import com.Backend_project.model.CoordinatedJob;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mongo-backed queue and lease table shared by every backend node.
+ *
+ * Jobs are claimed with a single findAndModify that hands the job to this
+ * node for one lease period and increments its fencing token. Leases held
+ * here are renewed on a heartbeat; when a node dies its leases run out and
+ * the next claim picks the job up again. Completing or failing a job only
+ * succeeds with the current fencing token, so a node that stalled past its
+ * lease cannot overwrite the work of the node that took over.
+ *
+ * Besides queued jobs, acquire() takes a lease on a key for work that must
+ * run on the calling node, such as a project build.
+ */
+@Service
+public class JobQueue {
+    private static final Logger logger = LoggerFactory.getLogger(JobQueue.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired(required = false)
+    private Tracer tracer = Tracer.NOOP;
+
+    @Autowired(required = false)
+    private Propagator propagator = Propagator.NOOP;
+
+    @Value("${jobs.node-id:}")
+    private String nodeId;
+
+    @Value("${jobs.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${jobs.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    /** Leases this node holds, renewed on every heartbeat */
+    private final Set<JobLease> held = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong reclaimed = new AtomicLong();
+    private final AtomicLong leasesLost = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    void start() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Three renewals per lease period leave room for a slow or failed one
+        long period = Math.max(1, leaseMs / 3);
+        heartbeat.scheduleWithFixedDelay(this::renewAll, period, period, TimeUnit.MILLISECONDS);
+        logger.info("Coordinating jobs as node {}", nodeId);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        releaseAll();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Queue a job unless one with the same key is already active. A job
+     * that is running when asked again runs once more after it finishes,
+     * so changes made while it ran are not missed. The job carries the
+     * caller's trace, so the run shows up in it on whichever node runs it.
+     * @return Whether a new job was queued
+     */
+    public boolean enqueue(String type, String key, Map<String, String> payload) {
+        Date now = new Date();
+        Map<String, String> traceContext = currentTraceContext();
+        UpdateResult running = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("key").is(key).and("active").is(true)
+                        .and("status").is(CoordinatedJob.Status.RUNNING)),
+                new Update().set("rerunRequested", true).set("payload", payload)
+                        .set("traceContext", traceContext).set("updatedAt", now),
+                CoordinatedJob.class);
+        if (running.getMatchedCount() > 0) {
+            coalesced.incrementAndGet();
+            return false;
+        }
+
+        try {
+            // Key and active come from the query when the job is inserted
+            UpdateResult result = mongoTemplate.upsert(
+                    Query.query(Criteria.where("key").is(key).and("active").is(true)),
+                    new Update()
+                            .setOnInsert("type", type)
+                            .setOnInsert("status", CoordinatedJob.Status.QUEUED)
+                            .setOnInsert("payload", payload)
+                            .setOnInsert("traceContext", traceContext)
+                            .setOnInsert("fencingToken", 0L)
+                            .setOnInsert("attempts", 0)
+                            .setOnInsert("rerunRequested", false)
+                            .setOnInsert("createdAt", now)
+                            .setOnInsert("updatedAt", now),
+                    CoordinatedJob.class);
+            if (result.getUpsertedId() != null) {
+                enqueued.incrementAndGet();
+                return true;
+            }
+        } catch (DuplicateKeyException e) {
+            // Another node queued it between the two statements
+        }
+        coalesced.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Trace headers for the span current on this thread, if any
+     */
+    private Map<String, String> currentTraceContext() {
+        TraceContext context = tracer.currentTraceContext().context();
+        if (context == null) {
+            return null;
+        }
+        Map<String, String> headers = new HashMap<>();
+        propagator.inject(context, headers, Map::put);
+        return headers;
+    }
+
+    /**
+     * Claim the oldest queued job of the given types, or one whose owner
+     * stopped renewing its lease
+     */
+    public Optional<JobLease> claim(Collection<String> types) {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("active").is(true).and("type").in(types)
+                        .orOperator(
+                                Criteria.where("status").is(CoordinatedJob.Status.QUEUED),
+                                Criteria.where("status").is(CoordinatedJob.Status.RUNNING)
+                                        .and("leaseUntil").lt(now)))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        CoordinatedJob job = mongoTemplate.findAndModify(query, takeOver(now),
+                FindAndModifyOptions.options().returnNew(true), CoordinatedJob.class);
+        if (job == null) {
+            return Optional.empty();
+        }
+
+        claimed.incrementAndGet();
+        if (job.getAttempts() > 1) {
+            reclaimed.incrementAndGet();
+            logger.info("Reclaimed job {} on attempt {}", job.getKey(), job.getAttempts());
+        }
+        return Optional.of(hold(job, true));
+    }
+
+    /**
+     * Lease a key for work that runs on this node, unless another node holds it
+     */
+    public Optional<JobLease> acquire(String type, String key) {
+        Date now = new Date();
+        // A lease left behind by a node that died is taken over
+        CoordinatedJob job = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("key").is(key).and("active").is(true).and("leaseUntil").lt(now)),
+                takeOver(now),
+                FindAndModifyOptions.options().returnNew(true),
+                CoordinatedJob.class);
+
+        if (job == null) {
+            job = new CoordinatedJob();
+            job.setType(type);
+            job.setKey(key);
+            job.setStatus(CoordinatedJob.Status.RUNNING);
+            job.setActive(true);
+            job.setOwner(nodeId);
+            job.setFencingToken(1);
+            job.setAttempts(1);
+            job.setLeaseUntil(new Date(now.getTime() + leaseMs));
+            job.setCreatedAt(now);
+            job.setUpdatedAt(now);
+            try {
+                job = mongoTemplate.insert(job);
+            } catch (DuplicateKeyException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(hold(job, false));
+    }
+
+    /**
+     * Lease a key, waiting up to waitMs for another node to release it
+     */
+    public Optional<JobLease> acquire(String type, String key, long waitMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + waitMs;
+        while (true) {
+            Optional<JobLease> lease = acquire(type, key);
+            if (lease.isPresent() || System.currentTimeMillis() >= deadline) {
+                return lease;
+            }
+            Thread.sleep(Math.min(pollIntervalMs, Math.max(1, deadline - System.currentTimeMillis())));
+        }
+    }
+
+    /**
+     * Extend a lease by one period
+     * @return false if the job has moved on to another fencing token
+     */
+    boolean renew(JobLease lease) {
+        Date now = new Date();
+        UpdateResult result = mongoTemplate.updateFirst(
+                fenced(lease).addCriteria(Criteria.where("active").is(true)),
+                new Update().set("leaseUntil", new Date(now.getTime() + leaseMs)).set("updatedAt", now),
+                CoordinatedJob.class);
+        if (result.getMatchedCount() == 0) {
+            lose(lease);
+            return false;
+        }
+        return true;
+    }
+
+    public void complete(JobLease lease) {
+        finish(lease, CoordinatedJob.Status.SUCCEEDED, null);
+    }
+
+    public void fail(JobLease lease, String error) {
+        finish(lease, CoordinatedJob.Status.FAILED, error);
+    }
+
+    /**
+     * Put every job this node claimed back in the queue, and give up the
+     * other leases, so the remaining nodes carry on without waiting for them
+     * to expire
+     */
+    public void releaseAll() {
+        for (JobLease lease : List.copyOf(held)) {
+            held.remove(lease);
+            lease.markLost();
+            try {
+                if (lease.isQueued()) {
+                    mongoTemplate.updateFirst(fenced(lease), requeue(), CoordinatedJob.class);
+                } else {
+                    mongoTemplate.updateFirst(fenced(lease), done(CoordinatedJob.Status.SUCCEEDED, null),
+                            CoordinatedJob.class);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to release job {}: {}", lease.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void finish(JobLease lease, CoordinatedJob.Status status, String error) {
+        if (!held.remove(lease)) {
+            // Already released or lost; the job belongs to someone else now
+            return;
+        }
+        lease.markLost();
+
+        // Asked to run again while running: back to the queue instead
+        UpdateResult rerun = mongoTemplate.updateFirst(
+                fenced(lease).addCriteria(Criteria.where("rerunRequested").is(true)),
+                requeue().set("rerunRequested", false).set("attempts", 0),
+                CoordinatedJob.class);
+        if (rerun.getMatchedCount() > 0) {
+            return;
+        }
+
+        UpdateResult result = mongoTemplate.updateFirst(fenced(lease), done(status, error), CoordinatedJob.class);
+        if (result.getMatchedCount() == 0) {
+            leasesLost.incrementAndGet();
+            logger.warn("Job {} was taken over before it finished", lease.getKey());
+        } else if (status == CoordinatedJob.Status.SUCCEEDED) {
+            completed.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    private void renewAll() {
+        for (JobLease lease : held) {
+            try {
+                renew(lease);
+            } catch (Exception e) {
+                // The lease may still be valid; try again on the next heartbeat
+                logger.warn("Failed to renew lease on {}: {}", lease.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private JobLease hold(CoordinatedJob job, boolean queued) {
+        JobLease lease = new JobLease(this, job, queued);
+        held.add(lease);
+        return lease;
+    }
+
+    private void lose(JobLease lease) {
+        if (held.remove(lease)) {
+            leasesLost.incrementAndGet();
+            logger.warn("Lost lease on job {}", lease.getKey());
+        }
+        lease.markLost();
+    }
+
+    private Update takeOver(Date now) {
+        return new Update()
+                .set("status", CoordinatedJob.Status.RUNNING)
+                .set("owner", nodeId)
+                .set("leaseUntil", new Date(now.getTime() + leaseMs))
+                .set("updatedAt", now)
+                .inc("fencingToken", 1)
+                .inc("attempts", 1);
+    }
+
+    private static Update requeue() {
+        // A new token, so the previous holder is fenced off even before the job is claimed again
+        return new Update()
+                .inc("fencingToken", 1)
+                .set("status", CoordinatedJob.Status.QUEUED)
+                .unset("owner")
+                .unset("leaseUntil")
+                .set("updatedAt", new Date());
+    }
+
+    private static Update done(CoordinatedJob.Status status, String error) {
+        Date now = new Date();
+        Update update = new Update()
+                .set("status", status)
+                .unset("active")
+                .unset("leaseUntil")
+                .set("finishedAt", now)
+                .set("updatedAt", now);
+        if (error != null) {
+            update.set("error", error);
+        }
+        return update;
+    }
+
+    private static Query fenced(JobLease lease) {
+        return Query.query(Criteria.where("_id").is(lease.getJob().getId())
+                .and("fencingToken").is(lease.getFencingToken()));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("heldLeases", held.size());
+        stats.put("enqueued", enqueued.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("claimed", claimed.get());
+        stats.put("reclaimed", reclaimed.get());
+        stats.put("leasesLost", leasesLost.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+}
@@ -0,0 +1,161 @@
+package com.Backend_project.service.jobs;
+
+import com.Backend_project.exceptions.LeaseLostException;
+import com.Backend_project.model.CoordinatedJob;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.ReceiverContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claims queued jobs for the handlers on this node, never running more at
+ * once than it has worker threads, so a busy node leaves work for the others.
+ */
+@Component
+public class JobWorker {
+    private static final Logger logger = LoggerFactory.getLogger(JobWorker.class);
+
+    @Autowired
+    private JobQueue jobQueue;
+
+    @Autowired(required = false)
+    private List<JobHandler> handlers = List.of();
+
+    @Autowired(required = false)
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    @Value("${jobs.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${jobs.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    private final Map<String, JobHandler> handlersByType = new HashMap<>();
+    private Semaphore slots;
+    private ScheduledExecutorService poller;
+    private ExecutorService workers;
+
+    @PostConstruct
+    void start() {
+        for (JobHandler handler : handlers) {
+            handlersByType.put(handler.getType(), handler);
+        }
+        if (handlersByType.isEmpty()) {
+            return;
+        }
+
+        slots = new Semaphore(workerThreads);
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "job-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (Exception e) {
+                logger.error("Job polling failed: {}", e.getMessage());
+            }
+        }, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (poller == null) {
+            return;
+        }
+        poller.shutdownNow();
+        // Hand running jobs back before interrupting them, so they are not recorded as failed
+        jobQueue.releaseAll();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Claim jobs while a worker thread is free
+     */
+    void poll() {
+        while (slots.tryAcquire()) {
+            Optional<JobLease> lease;
+            try {
+                lease = jobQueue.claim(handlersByType.keySet());
+            } catch (RuntimeException e) {
+                slots.release();
+                throw e;
+            }
+            if (lease.isEmpty()) {
+                slots.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    run(lease.get());
+                } finally {
+                    slots.release();
+                }
+            });
+        }
+    }
+
+    void run(JobLease lease) {
+        CoordinatedJob job = lease.getJob();
+        if (job.getAttempts() > maxAttempts) {
+            // Every node that took it died or lost it; stop passing it around
+            logger.error("Giving up on job {} after {} attempts", job.getKey(), maxAttempts);
+            String reason = "Abandoned after " + maxAttempts + " attempts";
+            try {
+                handlersByType.get(job.getType()).abandon(job, lease, reason);
+            } catch (LeaseLostException e) {
+                logger.warn("Stopped abandoning job {}: {}", job.getKey(), e.getMessage());
+                return;
+            } catch (Exception e) {
+                logger.error("Failed to abandon job {}: {}", job.getKey(), e.getMessage());
+            }
+            jobQueue.fail(lease, reason);
+            return;
+        }
+
+        try {
+            observation(job).observeChecked(() -> handlersByType.get(job.getType()).run(job, lease));
+            jobQueue.complete(lease);
+        } catch (LeaseLostException e) {
+            logger.warn("Stopped job {}: {}", job.getKey(), e.getMessage());
+        } catch (Exception e) {
+            logger.error("Job {} failed: {}", job.getKey(), e.getMessage());
+            jobQueue.fail(lease, e.getMessage());
+        }
+    }
+
+    /**
+     * Continue the trace of the request that queued the job
+     */
+    private Observation observation(CoordinatedJob job) {
+        ReceiverContext<Map<String, String>> context = new ReceiverContext<>(Map::get);
+        context.setCarrier(job.getTraceContext() == null ? Map.of() : job.getTraceContext());
+        return Observation.createNotStarted("jobs.run", () -> context, observationRegistry)
+                .contextualName("job " + job.getType().toLowerCase())
+                .lowCardinalityKeyValue("type", job.getType())
+                .highCardinalityKeyValue("key", job.getKey())
+                .highCardinalityKeyValue("attempt", String.valueOf(job.getAttempts()));
+    }
+}
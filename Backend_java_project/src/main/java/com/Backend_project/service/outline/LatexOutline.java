@@ -0,0 +1,33 @@
+package com.Backend_project.service.outline;
+
+import java.util.List;
+
+/**
+ * Structure of one LaTeX document: its sectioning commands in order and the
+ * labels, references, citations and inputs found in it. Offsets are character
+ * positions in the content, lines are 1-based. Symbols carry the index of the
+ * section they appear in, or -1 before the first one.
+ */
+public record LatexOutline(
+        String contentHash,
+        List<Section> sections,
+        List<Symbol> labels,
+        List<Symbol> refs,
+        List<Symbol> cites,
+        List<Symbol> inputs,
+        List<String> unresolvedRefs) {
+
+    public record Section(String command, int level, boolean starred, String title, int offset, int line) {
+
+        Section shift(int offsetDelta, int lineDelta) {
+            return new Section(command, level, starred, title, offset + offsetDelta, line + lineDelta);
+        }
+    }
+
+    public record Symbol(String name, String command, int offset, int line, int section) {
+
+        Symbol shift(int offsetDelta, int lineDelta, int sectionIndex) {
+            return new Symbol(name, command, offset + offsetDelta, line + lineDelta, sectionIndex);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.Backend_project.service.outline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hand-written scanner for the structural parts of LaTeX: sectioning
+ * commands, \label, the \ref and \cite families and \input/\include. It does
+ * not expand macros; comments and verbatim-like environments are skipped.
+ *
+ * Documents are first cut into chunks at blank lines (never inside a
+ * verbatim environment). Chunks parse independently, which lets callers
+ * cache them and reparse only the chunks an edit touched.
+ */
+public final class LatexOutlineParser {
+
+    static final Map<String, Integer> SECTION_LEVELS = Map.of(
+            "part", -1,
+            "chapter", 0,
+            "section", 1,
+            "subsection", 2,
+            "subsubsection", 3,
+            "paragraph", 4,
+            "subparagraph", 5);
+
+    private static final Set<String> REF_COMMANDS = Set.of(
+            "ref", "eqref", "pageref", "autoref", "nameref", "cref", "Cref", "vref");
+
+    private static final Set<String> CITE_COMMANDS = Set.of(
+            "cite", "citep", "citet", "citealp", "citeauthor", "citeyear", "nocite",
+            "parencite", "textcite", "autocite", "footcite", "smartcite");
+
+    private static final Set<String> INPUT_COMMANDS = Set.of("input", "include", "subfile");
+
+    private static final Set<String> VERBATIM_ENVIRONMENTS = Set.of(
+            "verbatim", "verbatim*", "lstlisting", "minted", "comment", "Verbatim");
+
+    private LatexOutlineParser() {
+    }
+
+    public record Chunk(int offset, int line, String text) {
+    }
+
+    /**
+     * Outline of one chunk with offsets and lines relative to the chunk
+     */
+    public record ChunkOutline(
+            List<LatexOutline.Section> sections,
+            List<LatexOutline.Symbol> labels,
+            List<LatexOutline.Symbol> refs,
+            List<LatexOutline.Symbol> cites,
+            List<LatexOutline.Symbol> inputs) {
+    }
+
+    /**
+     * Cut content at blank lines; the blank line stays with the chunk before it
+     */
+    public static List<Chunk> chunk(String content) {
+        String text = content != null ? content : "";
+        List<Chunk> chunks = new ArrayList<>();
+        int start = 0;
+        int startLine = 1;
+        int line = 1;
+        String verbatim = null;
+        int i = 0;
+
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '%' && verbatim == null && !isEscaped(text, i)) {
+                int end = text.indexOf('\n', i);
+                i = end < 0 ? text.length() : end;
+                continue;
+            }
+            if (c == '\\') {
+                if (verbatim == null) {
+                    String environment = environmentAt(text, i, "\\begin{");
+                    if (environment != null && VERBATIM_ENVIRONMENTS.contains(environment)) {
+                        verbatim = environment;
+                    }
+                } else if (text.startsWith("\\end{" + verbatim + "}", i)) {
+                    verbatim = null;
+                }
+            }
+            if (c == '\n') {
+                line++;
+                int next = i + 1;
+                while (next < text.length() && (text.charAt(next) == ' ' || text.charAt(next) == '\t')) {
+                    next++;
+                }
+                if (verbatim == null && next < text.length() && text.charAt(next) == '\n') {
+                    chunks.add(new Chunk(start, startLine, text.substring(start, next + 1)));
+                    start = next + 1;
+                    line++;
+                    startLine = line;
+                    i = next + 1;
+                    continue;
+                }
+            }
+            i++;
+        }
+        if (start < text.length() || chunks.isEmpty()) {
+            chunks.add(new Chunk(start, startLine, text.substring(start)));
+        }
+        return chunks;
+    }
+
+    public static ChunkOutline parseChunk(String text) {
+        List<LatexOutline.Section> sections = new ArrayList<>();
+        List<LatexOutline.Symbol> labels = new ArrayList<>();
+        List<LatexOutline.Symbol> refs = new ArrayList<>();
+        List<LatexOutline.Symbol> cites = new ArrayList<>();
+        List<LatexOutline.Symbol> inputs = new ArrayList<>();
+
+        int line = 0;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+                continue;
+            }
+            if (c == '%') {
+                int end = text.indexOf('\n', i);
+                i = end < 0 ? text.length() : end;
+                continue;
+            }
+            if (c != '\\') {
+                i++;
+                continue;
+            }
+
+            int commandStart = i;
+            int nameEnd = i + 1;
+            while (nameEnd < text.length() && Character.isLetter(text.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            if (nameEnd == i + 1) {
+                // Control symbol such as \% or \\: skip the escaped character
+                i = Math.min(text.length(), i + 2);
+                continue;
+            }
+            String name = text.substring(i + 1, nameEnd);
+            i = nameEnd;
+
+            if (name.equals("begin")) {
+                String environment = environmentAt(text, commandStart, "\\begin{");
+                if (environment != null && VERBATIM_ENVIRONMENTS.contains(environment)) {
+                    int end = text.indexOf("\\end{" + environment + "}", i);
+                    int skipTo = end < 0 ? text.length() : end;
+                    line += countLines(text, i, skipTo);
+                    i = skipTo;
+                }
+                continue;
+            }
+
+            boolean section = SECTION_LEVELS.containsKey(name);
+            boolean symbol = name.equals("label") || REF_COMMANDS.contains(name) || CITE_COMMANDS.contains(name)
+                    || INPUT_COMMANDS.contains(name);
+            if (!section && !symbol) {
+                continue;
+            }
+
+            int cursor = i;
+            boolean starred = cursor < text.length() && text.charAt(cursor) == '*';
+            if (starred) {
+                cursor++;
+            }
+            // Optional arguments: short titles, citation notes
+            for (int optional = 0; optional < 2; optional++) {
+                int next = skipSpaces(text, cursor);
+                if (next < text.length() && text.charAt(next) == '[') {
+                    int close = matching(text, next, '[', ']');
+                    if (close < 0) {
+                        break;
+                    }
+                    cursor = close + 1;
+                } else {
+                    break;
+                }
+            }
+            int open = skipSpaces(text, cursor);
+            if (open >= text.length() || text.charAt(open) != '{') {
+                continue;
+            }
+            int close = matching(text, open, '{', '}');
+            if (close < 0) {
+                continue;
+            }
+            String argument = text.substring(open + 1, close);
+            int commandLine = line;
+            line += countLines(text, i, close + 1);
+            i = close + 1;
+
+            if (section) {
+                sections.add(new LatexOutline.Section(name, SECTION_LEVELS.get(name), starred, clean(argument),
+                        commandStart, commandLine));
+            } else if (name.equals("label")) {
+                labels.add(new LatexOutline.Symbol(argument.trim(), name, commandStart, commandLine, -1));
+            } else if (INPUT_COMMANDS.contains(name)) {
+                inputs.add(new LatexOutline.Symbol(argument.trim(), name, commandStart, commandLine, -1));
+            } else {
+                List<LatexOutline.Symbol> target = REF_COMMANDS.contains(name) ? refs : cites;
+                for (String key : argument.split(",")) {
+                    if (!key.isBlank()) {
+                        target.add(new LatexOutline.Symbol(key.trim(), name, commandStart, commandLine, -1));
+                    }
+                }
+            }
+        }
+        return new ChunkOutline(sections, labels, refs, cites, inputs);
+    }
+
+    private static String environmentAt(String text, int index, String prefix) {
+        if (!text.startsWith(prefix, index)) {
+            return null;
+        }
+        int close = text.indexOf('}', index + prefix.length());
+        return close < 0 ? null : text.substring(index + prefix.length(), close);
+    }
+
+    private static int matching(String text, int open, char opening, char closing) {
+        int depth = 0;
+        for (int i = open; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == opening) {
+                depth++;
+            } else if (c == closing && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(String text, int index) {
+        while (index < text.length() && Character.isWhitespace(text.charAt(index)) && text.charAt(index) != '\n') {
+            index++;
+        }
+        return index;
+    }
+
+    private static int countLines(String text, int from, int to) {
+        int lines = 0;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static boolean isEscaped(String text, int index) {
+        int backslashes = 0;
+        for (int i = index - 1; i >= 0 && text.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    private static String clean(String title) {
+        return title.replaceAll("\\s+", " ").trim();
+    }
+}
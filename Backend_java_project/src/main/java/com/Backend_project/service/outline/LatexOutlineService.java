@@ -0,0 +1,157 @@
+package com.Backend_project.service.outline;
+
+import com.Backend_project.model.LatexDocument;
+import com.Backend_project.util.ContentHash;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outlines of LaTeX documents, cached at two levels. Whole outlines are kept
+ * per content hash, so repeated requests for unchanged content cost a map
+ * lookup. Below that, parsed chunks are kept per chunk hash: after an edit,
+ * only the chunks whose text changed are parsed again and the rest of the
+ * outline is stitched together from cache.
+ */
+@Service
+public class LatexOutlineService {
+
+    private final Map<String, LatexOutline> outlines;
+    private final Map<String, LatexOutlineParser.ChunkOutline> chunks;
+
+    private final AtomicLong outlineHits = new AtomicLong();
+    private final AtomicLong chunkHits = new AtomicLong();
+    private final AtomicLong chunksParsed = new AtomicLong();
+
+    public LatexOutlineService(
+            @Value("${latex.outline.cache-size:500}") int outlineCacheSize,
+            @Value("${latex.outline.chunk-cache-size:20000}") int chunkCacheSize) {
+        this.outlines = lruMap(outlineCacheSize);
+        this.chunks = lruMap(chunkCacheSize);
+    }
+
+    public LatexOutline outline(LatexDocument document) {
+        String contentHash = document.getContentHash() != null
+                ? document.getContentHash()
+                : ContentHash.of(document.getContent());
+        return outline(contentHash, document.getContent());
+    }
+
+    /**
+     * Outline for content already seen, without needing the content itself
+     */
+    public Optional<LatexOutline> cached(String contentHash) {
+        synchronized (outlines) {
+            return Optional.ofNullable(outlines.get(contentHash));
+        }
+    }
+
+    public LatexOutline outline(String contentHash, String content) {
+        synchronized (outlines) {
+            LatexOutline cached = outlines.get(contentHash);
+            if (cached != null) {
+                outlineHits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        List<LatexOutline.Section> sections = new ArrayList<>();
+        List<LatexOutline.Symbol> labels = new ArrayList<>();
+        List<LatexOutline.Symbol> refs = new ArrayList<>();
+        List<LatexOutline.Symbol> cites = new ArrayList<>();
+        List<LatexOutline.Symbol> inputs = new ArrayList<>();
+
+        for (LatexOutlineParser.Chunk chunk : LatexOutlineParser.chunk(content)) {
+            LatexOutlineParser.ChunkOutline parsed = parsedChunk(chunk.text());
+            int lineDelta = chunk.line();
+
+            // A chunk's symbols belong to its last section, or to the one before the chunk
+            List<Integer> sectionIndexes = new ArrayList<>();
+            for (LatexOutline.Section section : parsed.sections()) {
+                sectionIndexes.add(sections.size());
+                sections.add(section.shift(chunk.offset(), lineDelta));
+            }
+            int before = sections.size() - parsed.sections().size() - 1;
+            shiftInto(labels, parsed.labels(), parsed.sections(), sectionIndexes, before, chunk, lineDelta);
+            shiftInto(refs, parsed.refs(), parsed.sections(), sectionIndexes, before, chunk, lineDelta);
+            shiftInto(cites, parsed.cites(), parsed.sections(), sectionIndexes, before, chunk, lineDelta);
+            shiftInto(inputs, parsed.inputs(), parsed.sections(), sectionIndexes, before, chunk, lineDelta);
+        }
+
+        Set<String> labelNames = new HashSet<>();
+        labels.forEach(label -> labelNames.add(label.name()));
+        Set<String> unresolved = new LinkedHashSet<>();
+        refs.stream().map(LatexOutline.Symbol::name).filter(name -> !labelNames.contains(name))
+                .forEach(unresolved::add);
+
+        LatexOutline outline = new LatexOutline(contentHash, sections, labels, refs, cites, inputs,
+                new ArrayList<>(unresolved));
+        synchronized (outlines) {
+            outlines.put(contentHash, outline);
+        }
+        return outline;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("outlineHits", outlineHits.get());
+        stats.put("chunkHits", chunkHits.get());
+        stats.put("chunksParsed", chunksParsed.get());
+        synchronized (outlines) {
+            stats.put("cachedOutlines", outlines.size());
+        }
+        synchronized (chunks) {
+            stats.put("cachedChunks", chunks.size());
+        }
+        return stats;
+    }
+
+    private LatexOutlineParser.ChunkOutline parsedChunk(String text) {
+        String key = ContentHash.of(text);
+        synchronized (chunks) {
+            LatexOutlineParser.ChunkOutline cached = chunks.get(key);
+            if (cached != null) {
+                chunkHits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        LatexOutlineParser.ChunkOutline parsed = LatexOutlineParser.parseChunk(text);
+        chunksParsed.incrementAndGet();
+        synchronized (chunks) {
+            chunks.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    private void shiftInto(List<LatexOutline.Symbol> target, List<LatexOutline.Symbol> symbols,
+            List<LatexOutline.Section> chunkSections, List<Integer> sectionIndexes, int sectionBefore,
+            LatexOutlineParser.Chunk chunk, int lineDelta) {
+        for (LatexOutline.Symbol symbol : symbols) {
+            int section = sectionBefore;
+            for (int i = 0; i < chunkSections.size() && chunkSections.get(i).offset() <= symbol.offset(); i++) {
+                section = sectionIndexes.get(i);
+            }
+            target.add(symbol.shift(chunk.offset(), lineDelta, section));
+        }
+    }
+
+    private static <V> Map<String, V> lruMap(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+}
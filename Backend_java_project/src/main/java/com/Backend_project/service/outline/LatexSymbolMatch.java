@@ -0,0 +1,13 @@
+package com.Backend_project.service.outline;
+
+/**
+ * A symbol found by a project-wide lookup, with the document it lives in.
+ */
+public record LatexSymbolMatch(
+        String documentId,
+        String documentTitle,
+        String kind,
+        String name,
+        int offset,
+        int line) {
+}
@@ -0,0 +1,239 @@
+package com.Backend_project.service.retrieval;
+
+import com.Backend_project.service.search.SearchTokenizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BM25 index over the chunks of one project's files. A chunk's terms come
+ * from its text plus its path and symbol, so a query naming a file or a
+ * class ranks that chunk up. Files are replaced as a whole, and skipped
+ * when their blob sha has not changed.
+ */
+class Bm25ChunkIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private record IndexedChunk(ContentChunk chunk, int length, Set<String> terms) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<IndexedChunk> chunks = new ArrayList<>();
+    private final Map<String, int[]> chunksByPath = new HashMap<>();
+    private final Map<String, String> shaByPath = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private long totalLength;
+    private int liveChunks;
+
+    /**
+     * Whether the file is indexed at this blob sha already
+     */
+    boolean isCurrent(String path, String sha) {
+        lock.readLock().lock();
+        try {
+            return sha != null && sha.equals(shaByPath.get(path));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void put(String path, String sha, List<ContentChunk> fileChunks) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(path);
+            int[] ids = new int[fileChunks.size()];
+            for (int i = 0; i < fileChunks.size(); i++) {
+                ContentChunk chunk = fileChunks.get(i);
+                List<String> terms = SearchTokenizer.termList(chunk.text());
+                terms.addAll(SearchTokenizer.termList(chunk.path()));
+                if (chunk.symbol() != null) {
+                    terms.addAll(SearchTokenizer.termList(chunk.symbol()));
+                }
+                Map<String, Integer> frequencies = new HashMap<>();
+                terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+                int id = chunks.size();
+                chunks.add(new IndexedChunk(chunk, terms.size(), new LinkedHashSet<>(frequencies.keySet())));
+                frequencies.forEach((term, count) ->
+                        postings.computeIfAbsent(term, t -> new Postings()).add(id, count));
+                totalLength += terms.size();
+                liveChunks++;
+                ids[i] = id;
+            }
+            chunksByPath.put(path, ids);
+            if (sha != null) {
+                shaByPath.put(path, sha);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String path) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int files() {
+        lock.readLock().lock();
+        try {
+            return chunksByPath.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int chunks() {
+        lock.readLock().lock();
+        try {
+            return liveChunks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank chunks against the query and pack the best ones into the budget.
+     * At most {@code maxChunksPerFile} come from one file, so a single long
+     * file cannot crowd out the rest of the repository.
+     */
+    ContextPack pack(String query, int maxTokens, int maxChunksPerFile) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = score(query);
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            List<ContextPack.PackedChunk> packed = new ArrayList<>();
+            Map<String, Integer> perFile = new HashMap<>();
+            int used = 0;
+            for (Map.Entry<Integer, Double> entry : ranked) {
+                ContentChunk chunk = chunks.get(entry.getKey()).chunk();
+                int tokens = chunk.tokens();
+                if (used + tokens > maxTokens || perFile.getOrDefault(chunk.path(), 0) >= maxChunksPerFile) {
+                    continue;
+                }
+                perFile.merge(chunk.path(), 1, Integer::sum);
+                used += tokens;
+                packed.add(new ContextPack.PackedChunk(chunk.path(), chunk.startLine(), chunk.endLine(),
+                        chunk.symbol(), Math.round(entry.getValue() * 1000) / 1000.0, tokens, chunk.text()));
+                if (maxTokens - used < 16) {
+                    break;
+                }
+            }
+            return new ContextPack(query, maxTokens, used, ranked.size(), packed);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Double> score(String query) {
+        Map<Integer, Double> scores = new HashMap<>();
+        if (liveChunks == 0) {
+            return scores;
+        }
+        double averageLength = (double) totalLength / liveChunks;
+        for (String term : new LinkedHashSet<>(SearchTokenizer.termList(query))) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (liveChunks - list.size + 0.5) / (list.size + 0.5));
+            for (int i = 0; i < list.size; i++) {
+                int id = list.ids[i];
+                double tf = list.frequencies[i];
+                double norm = K1 * (1 - B + B * chunks.get(id).length() / averageLength);
+                scores.merge(id, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+            }
+        }
+        return scores;
+    }
+
+    private void removeLocked(String path) {
+        shaByPath.remove(path);
+        int[] ids = chunksByPath.remove(path);
+        if (ids == null) {
+            return;
+        }
+        for (int id : ids) {
+            IndexedChunk chunk = chunks.set(id, null);
+            for (String term : chunk.terms()) {
+                Postings list = postings.get(term);
+                list.remove(id);
+                if (list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= chunk.length();
+            liveChunks--;
+        }
+        if (chunks.size() > 4096 && liveChunks < chunks.size() / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumber live chunks once removals dominate the chunk list. Renumbering
+     * keeps the relative order, so postings stay sorted.
+     */
+    private void compact() {
+        int[] remap = new int[chunks.size()];
+        List<IndexedChunk> live = new ArrayList<>();
+        for (int id = 0; id < chunks.size(); id++) {
+            remap[id] = chunks.get(id) != null ? live.size() : -1;
+            if (chunks.get(id) != null) {
+                live.add(chunks.get(id));
+            }
+        }
+        chunks.clear();
+        chunks.addAll(live);
+        chunksByPath.replaceAll((path, ids) -> Arrays.stream(ids).map(id -> remap[id]).toArray());
+        for (Postings list : postings.values()) {
+            for (int i = 0; i < list.size; i++) {
+                list.ids[i] = remap[list.ids[i]];
+            }
+        }
+    }
+
+    /**
+     * Chunk ids of one term, ascending, with the term's frequency in each
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void add(int id, int frequency) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ids[size] = id;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.Backend_project.service.retrieval;
+
+/**
+ * A contiguous range of lines of a repository file, 1-based and inclusive.
+ * {@code symbol} names the declaration or heading the chunk belongs to, if any.
+ */
+public record ContentChunk(String path, int startLine, int endLine, String symbol, String text) {
+
+    public int tokens() {
+        return TokenEstimator.estimate(text);
+    }
+}
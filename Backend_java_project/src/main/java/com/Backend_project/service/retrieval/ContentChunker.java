@@ -0,0 +1,179 @@
+package com.Backend_project.service.retrieval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits repository files into retrieval chunks. Source files are cut at
+ * top-level declarations, keeping the doc comments and annotations above
+ * them; prose is cut at headings and then packed paragraph by paragraph.
+ * Chunks that are still too long are split at blank lines, and small
+ * neighbouring declarations are merged so fields and one-line methods do
+ * not each become a chunk of their own.
+ */
+public final class ContentChunker {
+
+    private static final Set<String> CODE_EXTENSIONS = Set.of("java", "kt", "scala", "groovy", "py", "js", "jsx",
+            "ts", "tsx", "mjs", "cjs", "go", "rs", "c", "h", "cc", "cpp", "hpp", "cs", "rb", "php", "swift");
+
+    private static final Pattern DECLARATION = Pattern.compile(
+            "^(?:[ ]{0,4}|\\t?)(?:export\\s+)?(?:default\\s+)?"
+                    + "(?:(?:public|private|protected|internal|static|final|abstract|sealed|open|data|async|pub)\\s+)*"
+                    + "(?:class|interface|enum|record|object|trait|struct|impl|def|fun|fn|func|function|module)"
+                    + "\\s+([A-Za-z_$][\\w$]*)");
+    private static final Pattern METHOD = Pattern.compile(
+            "^(?:[ ]{0,4}|\\t?)(?:(?:public|private|protected|static|final|abstract|synchronized|override)\\s+)+"
+                    + "[\\w<>\\[\\],.? ]+?\\s+([A-Za-z_$][\\w$]*)\\s*\\(");
+    private static final Pattern ARROW = Pattern.compile(
+            "^(?:export\\s+)?(?:const|let|var)\\s+([A-Za-z_$][\\w$]*)\\s*=\\s*(?:async\\s*)?(?:\\([^)]*\\)|\\w+)\\s*=>");
+    private static final Pattern PREAMBLE = Pattern.compile("^\\s*(?:@|//|/\\*|\\*|#\\[|///)");
+    private static final Pattern MARKDOWN_HEADING = Pattern.compile("^#{1,6}\\s+(.+?)\\s*#*\\s*$");
+    private static final Pattern LATEX_HEADING = Pattern.compile(
+            "^\\s*\\\\(?:part|chapter|section|subsection|subsubsection|paragraph)\\*?\\s*(?:\\[[^]]*])?\\s*\\{([^}]*)}");
+
+    private ContentChunker() {
+    }
+
+    /**
+     * @param maxLines longest chunk in lines
+     * @param targetTokens size that prose chunks are packed up to and small code chunks merged up to
+     */
+    public static List<ContentChunk> chunk(String path, String content, int maxLines, int targetTokens) {
+        String[] lines = content.split("\n", -1);
+        boolean code = CODE_EXTENSIONS.contains(extension(path));
+
+        // Sections start at declarations or headings
+        List<Integer> sections = new ArrayList<>();
+        List<String> symbols = new ArrayList<>();
+        sections.add(0);
+        symbols.add(null);
+        for (int i = 0; i < lines.length; i++) {
+            String symbol = code ? declaredName(lines[i]) : heading(lines[i]);
+            if (symbol == null) {
+                continue;
+            }
+            int start = i;
+            while (code && start > 0 && PREAMBLE.matcher(lines[start - 1]).find()) {
+                start--;
+            }
+            int previousStart = sections.get(sections.size() - 1);
+            if (start <= previousStart) {
+                // Nothing but preamble since the last section start: the symbol names that section
+                symbols.set(symbols.size() - 1, symbol);
+                continue;
+            }
+            sections.add(start);
+            symbols.add(symbol);
+        }
+
+        List<ContentChunk> pieces = new ArrayList<>();
+        for (int s = 0; s < sections.size(); s++) {
+            int start = sections.get(s);
+            int end = s + 1 < sections.size() ? sections.get(s + 1) : lines.length;
+            split(path, lines, start, end, symbols.get(s), code, maxLines, targetTokens, pieces);
+        }
+        return code ? mergeSmall(pieces, lines, maxLines, targetTokens) : pieces;
+    }
+
+    /**
+     * Cut lines [start, end) into chunks at blank lines, within the line
+     * limit and, for prose, near the token target
+     */
+    private static void split(String path, String[] lines, int start, int end, String symbol, boolean code,
+            int maxLines, int targetTokens, List<ContentChunk> out) {
+        int pieceStart = start;
+        int lastBlank = -1;
+        int chars = 0;
+        for (int i = start; i < end; i++) {
+            chars += lines[i].length() + 1;
+            boolean blank = lines[i].isBlank();
+            boolean tooLong = i - pieceStart + 1 >= maxLines;
+            boolean enoughProse = !code && blank && chars / 4 >= targetTokens;
+            if (blank && !enoughProse && !tooLong) {
+                lastBlank = i;
+                continue;
+            }
+            if (tooLong || enoughProse) {
+                int cut = tooLong && lastBlank > pieceStart + maxLines / 2 ? lastBlank : i;
+                emit(path, lines, pieceStart, cut + 1, symbol, targetTokens, out);
+                pieceStart = cut + 1;
+                lastBlank = -1;
+                chars = 0;
+                for (int j = pieceStart; j <= i; j++) {
+                    chars += lines[j].length() + 1;
+                }
+            }
+        }
+        emit(path, lines, pieceStart, end, symbol, targetTokens, out);
+    }
+
+    private static void emit(String path, String[] lines, int start, int end, String symbol, int targetTokens,
+            List<ContentChunk> out) {
+        while (start < end && lines[start].isBlank()) {
+            start++;
+        }
+        while (end > start && lines[end - 1].isBlank()) {
+            end--;
+        }
+        if (start >= end) {
+            return;
+        }
+        String text = String.join("\n", Arrays.asList(lines).subList(start, end));
+
+        // Minified or generated lines: hard-split by characters, keeping the line range
+        int maxChars = targetTokens * 4 * 4;
+        for (int offset = 0; offset < text.length(); offset += maxChars) {
+            out.add(new ContentChunk(path, start + 1, end, symbol,
+                    text.substring(offset, Math.min(text.length(), offset + maxChars))));
+        }
+    }
+
+    private static List<ContentChunk> mergeSmall(List<ContentChunk> pieces, String[] lines, int maxLines,
+            int targetTokens) {
+        List<ContentChunk> merged = new ArrayList<>();
+        for (ContentChunk piece : pieces) {
+            ContentChunk last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && last.endLine() < piece.startLine()
+                    && last.tokens() + piece.tokens() <= targetTokens
+                    && piece.endLine() - last.startLine() < maxLines) {
+                String text = String.join("\n",
+                        Arrays.asList(lines).subList(last.startLine() - 1, piece.endLine()));
+                String symbol = last.symbol() != null ? last.symbol() : piece.symbol();
+                merged.set(merged.size() - 1, new ContentChunk(last.path(), last.startLine(), piece.endLine(),
+                        symbol, text));
+            } else {
+                merged.add(piece);
+            }
+        }
+        return merged;
+    }
+
+    static String declaredName(String line) {
+        for (Pattern pattern : List.of(DECLARATION, METHOD, ARROW)) {
+            Matcher matcher = pattern.matcher(line);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
+    static String heading(String line) {
+        Matcher markdown = MARKDOWN_HEADING.matcher(line);
+        if (markdown.find()) {
+            return markdown.group(1);
+        }
+        Matcher latex = LATEX_HEADING.matcher(line);
+        return latex.find() ? latex.group(1).trim() : null;
+    }
+
+    private static String extension(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot < 0 ? "" : path.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
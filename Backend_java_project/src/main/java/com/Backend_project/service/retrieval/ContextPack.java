@@ -0,0 +1,15 @@
+package com.Backend_project.service.retrieval;
+
+import java.util.List;
+
+/**
+ * The best-ranked chunks for a query that fit the token budget, highest
+ * score first. {@code matchedChunks} counts every chunk that scored at all.
+ */
+public record ContextPack(String query, int maxTokens, int usedTokens, int matchedChunks,
+        List<PackedChunk> chunks) {
+
+    public record PackedChunk(String path, int startLine, int endLine, String symbol, double score, int tokens,
+            String text) {
+    }
+}
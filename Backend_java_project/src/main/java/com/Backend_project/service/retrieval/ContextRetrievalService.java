@@ -0,0 +1,227 @@
+package com.Backend_project.service.retrieval;
+
+import com.Backend_project.event.LocalCachesResetEvent;
+import com.Backend_project.event.ProjectFileCachedEvent;
+import com.Backend_project.event.ProjectFilesClearedEvent;
+import com.Backend_project.event.ProjectFilesInvalidatedEvent;
+import com.Backend_project.model.ProjectFile;
+import com.Backend_project.model.ProjectStatus;
+import com.Backend_project.repository.ProjectFileRepository;
+import com.Backend_project.service.ProjectStatusCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Ranked context for the writing agent: a project's cached files are split
+ * into chunks and indexed for BM25, and a query returns the best chunks
+ * that fit a token budget in one call.
+ *
+ * Indexes are built during ingestion. When a project's file cache is
+ * cleared for a (re)sync an empty index is started, and every file cached
+ * afterwards is chunked into it as it is written: the prefetch that follows
+ * ingestion fetches the repository's text files up to its indexing budget
+ * (prefetch.index.*), and files past that budget join once opened. Projects
+ * whose index was evicted or never built are loaded from the file cache on
+ * their first query. Updates run on one indexer thread, after the Mongo
+ * write they describe.
+ */
+@Service
+public class ContextRetrievalService {
+    private static final Logger logger = LoggerFactory.getLogger(ContextRetrievalService.class);
+
+    @Autowired
+    private ProjectFileRepository projectFileRepository;
+
+    @Autowired
+    private ProjectStatusCache projectStatusCache;
+
+    @Value("${retrieval.max-projects:20}")
+    private int maxProjects;
+
+    @Value("${retrieval.max-file-chars:524288}")
+    private int maxFileChars;
+
+    @Value("${retrieval.chunk-max-lines:80}")
+    private int chunkMaxLines;
+
+    @Value("${retrieval.chunk-target-tokens:300}")
+    private int chunkTargetTokens;
+
+    @Value("${retrieval.max-tokens:32000}")
+    private int maxTokensLimit;
+
+    @Value("${retrieval.max-chunks-per-file:3}")
+    private int maxChunksPerFile;
+
+    private final Map<String, Bm25ChunkIndex> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bm25ChunkIndex> eldest) {
+            return size() > maxProjects;
+        }
+    };
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "context-indexer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private final AtomicLong filesChunked = new AtomicLong();
+    private final AtomicLong filesUnchanged = new AtomicLong();
+    private final AtomicLong indexLoads = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+
+    @PreDestroy
+    void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    public ContextPack retrieve(String projectId, String userId, String query, int maxTokens) throws Exception {
+        ProjectStatus project = projectStatusCache.get(projectId);
+        if (!userId.equals(project.getUserId())) {
+            throw new Exception("Unauthorized access to project");
+        }
+        if (query == null || query.isBlank()) {
+            throw new Exception("Query must not be empty");
+        }
+
+        Bm25ChunkIndex index = index(projectId);
+        queries.incrementAndGet();
+        return index.pack(query, Math.max(1, Math.min(maxTokens, maxTokensLimit)), maxChunksPerFile);
+    }
+
+    @EventListener
+    public void onFileCached(ProjectFileCachedEvent event) {
+        indexer.execute(() -> {
+            Bm25ChunkIndex index;
+            synchronized (indexes) {
+                index = indexes.get(event.projectId());
+            }
+            if (index != null) {
+                indexFile(index, event.path(), event.sha(), event.content());
+            }
+        });
+    }
+
+    @EventListener
+    public void onFilesCleared(ProjectFilesClearedEvent event) {
+        indexer.execute(() -> {
+            synchronized (indexes) {
+                if (event.projectDeleted()) {
+                    indexes.remove(event.projectId());
+                } else {
+                    // The cache is empty now, so an empty index is complete and ingestion fills it
+                    indexes.put(event.projectId(), new Bm25ChunkIndex());
+                }
+            }
+        });
+    }
+
+    @EventListener
+    public void onFilesInvalidated(ProjectFilesInvalidatedEvent event) {
+        indexer.execute(() -> {
+            Bm25ChunkIndex index;
+            synchronized (indexes) {
+                index = indexes.get(event.projectId());
+            }
+            if (index != null) {
+                event.paths().forEach(index::remove);
+            }
+        });
+    }
+
+    @EventListener
+    public void onCachesReset(LocalCachesResetEvent event) {
+        indexer.execute(() -> {
+            synchronized (indexes) {
+                indexes.clear();
+            }
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        int files = 0;
+        int chunks = 0;
+        synchronized (indexes) {
+            stats.put("loadedProjects", indexes.size());
+            for (Bm25ChunkIndex index : indexes.values()) {
+                files += index.files();
+                chunks += index.chunks();
+            }
+        }
+        stats.put("indexedFiles", files);
+        stats.put("indexedChunks", chunks);
+        stats.put("filesChunked", filesChunked.get());
+        stats.put("filesUnchanged", filesUnchanged.get());
+        stats.put("indexLoads", indexLoads.get());
+        stats.put("queries", queries.get());
+        return stats;
+    }
+
+    private Bm25ChunkIndex index(String projectId) throws Exception {
+        synchronized (indexes) {
+            Bm25ChunkIndex index = indexes.get(projectId);
+            if (index != null) {
+                return index;
+            }
+        }
+
+        Future<Bm25ChunkIndex> loading = indexer.submit(() -> {
+            synchronized (indexes) {
+                Bm25ChunkIndex index = indexes.get(projectId);
+                if (index != null) {
+                    return index;
+                }
+            }
+            Bm25ChunkIndex index = new Bm25ChunkIndex();
+            try (Stream<ProjectFile> files = projectFileRepository.findByProjectId(projectId)) {
+                files.forEach(file -> indexFile(index, file.getPath(), file.getSha(), file.getContent()));
+            }
+            indexLoads.incrementAndGet();
+            synchronized (indexes) {
+                indexes.put(projectId, index);
+            }
+            return index;
+        });
+        try {
+            return loading.get();
+        } catch (ExecutionException e) {
+            logger.error("Failed to load context index for project {}: {}", projectId, e.getCause().getMessage());
+            throw new Exception("Context index unavailable");
+        }
+    }
+
+    private void indexFile(Bm25ChunkIndex index, String path, String sha, String content) {
+        if (content == null || content.length() > maxFileChars || content.indexOf('\0') >= 0) {
+            index.remove(path);
+            return;
+        }
+        if (index.isCurrent(path, sha)) {
+            filesUnchanged.incrementAndGet();
+            return;
+        }
+        try {
+            index.put(path, sha, ContentChunker.chunk(path, content, chunkMaxLines, chunkTargetTokens));
+            filesChunked.incrementAndGet();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to chunk {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.Backend_project.service.retrieval;
+
+/**
+ * Model-agnostic token estimate. Four characters per token is close for
+ * English prose and slightly pessimistic for code, which keeps packs under
+ * budget for the tokenizers the agent uses.
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+}
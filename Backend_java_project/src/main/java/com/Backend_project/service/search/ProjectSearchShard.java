@@ -0,0 +1,432 @@
+package com.Backend_project.service.search;
+
+import com.Backend_project.util.ContentHash;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index over the repository files and LaTeX documents of one
+ * project. Each indexed entry gets an increasing doc id, so posting lists
+ * stay sorted by appending and can be intersected with a linear merge.
+ * Contents are kept next to the postings so phrase and regex candidates can
+ * be verified without going back to Mongo. Regex candidates are narrowed by
+ * the project's {@link TrigramIndex} first.
+ */
+class ProjectSearchShard {
+
+    static final String FILE = "file";
+    static final String LATEX = "latex";
+
+    private static final int MAX_COUNTED_MATCHES = 1000;
+    private static final int MAX_SNIPPET_LENGTH = 200;
+    private static final String NON_WORD = "[^\\p{L}\\p{N}]+";
+
+    private record Entry(String type, String key, String title, String content, String blobKey,
+            Set<String> terms) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final TrigramIndex trigrams;
+    private int removed;
+    private long contentChars;
+
+    ProjectSearchShard() {
+        this(new TrigramIndex(null));
+    }
+
+    ProjectSearchShard(TrigramIndex trigrams) {
+        this.trigrams = trigrams;
+    }
+
+    void put(String type, String key, String title, String content) {
+        put(type, key, title, content, null);
+    }
+
+    /**
+     * Index a file by path or a LaTeX document by id, replacing what was there.
+     * A null title keeps the current one; a null blob key is derived from the content.
+     */
+    void put(String type, String key, String title, String content, String blobKey) {
+        if (blobKey == null) {
+            blobKey = ContentHash.of(content);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer previous = ids.get(type + ":" + key);
+            if (title == null && previous != null) {
+                title = entries.get(previous).title();
+            }
+            removeLocked(type, key);
+
+            Set<String> terms = SearchTokenizer.terms(content);
+            terms.addAll(SearchTokenizer.terms(FILE.equals(type) ? key : title));
+            int id = entries.size();
+            entries.add(new Entry(type, key, title, content, blobKey, terms));
+            trigrams.add(blobKey, content);
+            ids.put(type + ":" + key, id);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new Postings()).add(id);
+            }
+            contentChars += content.length();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String type, String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(type, key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int[] trigramBlobs() {
+        lock.readLock().lock();
+        try {
+            return new int[] { trigrams.segmentBlobs(), trigrams.deltaBlobs() };
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Persist the trigram delta, dropping blobs no entry refers to any more
+     */
+    void flushTrigrams() throws IOException {
+        lock.writeLock().lock();
+        try {
+            Set<String> live = new HashSet<>();
+            for (Entry entry : entries) {
+                if (entry != null) {
+                    live.add(entry.blobKey());
+                }
+            }
+            trigrams.flush(live);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void deleteTrigrams() {
+        lock.writeLock().lock();
+        try {
+            trigrams.delete();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long contentChars() {
+        lock.readLock().lock();
+        try {
+            return contentChars;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run a query, checking candidates in index order until {@code limit} hits
+     * are found or the deadline passes.
+     * @param type {@link #FILE}, {@link #LATEX} or null for both
+     */
+    SearchResults search(SearchMode mode, String query, String type, int limit, long deadlineNanos) {
+        long started = System.nanoTime();
+        Pattern pattern = pattern(mode, query);
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(mode, query);
+            List<SearchHit> hits = new ArrayList<>();
+            boolean complete = true;
+
+            for (int i = 0; i < candidates.length; i++) {
+                Entry entry = entries.get(candidates[i]);
+                if (type != null && !type.equals(entry.type())) {
+                    continue;
+                }
+                if (hits.size() >= limit || System.nanoTime() > deadlineNanos) {
+                    complete = false;
+                    break;
+                }
+
+                SearchHit hit;
+                try {
+                    hit = verify(entry, pattern, mode == SearchMode.TERMS, deadlineNanos);
+                } catch (DeadlineExceededException e) {
+                    complete = false;
+                    break;
+                }
+                if (hit != null) {
+                    hits.add(hit);
+                }
+            }
+
+            long tookMillis = (System.nanoTime() - started) / 1_000_000;
+            return new SearchResults(hits, candidates.length, complete, tookMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Doc ids that can match, ascending. Terms and phrases are narrowed by
+     * their words' postings, regexes by the trigrams their literals imply.
+     */
+    int[] candidates(SearchMode mode, String query) {
+        if (mode == SearchMode.REGEX) {
+            List<int[]> required = Trigrams.query(query);
+            if (required == null) {
+                return liveIds();
+            }
+            Set<String> blobs = trigrams.candidates(required);
+            return Arrays.stream(liveIds()).filter(id -> blobs.contains(entries.get(id).blobKey())).toArray();
+        }
+
+        List<String> words = SearchTokenizer.words(query).stream()
+                .map(SearchTokenizer::normalize)
+                .distinct()
+                .collect(Collectors.toList());
+        if (words.isEmpty()) {
+            return new int[0];
+        }
+
+        List<Postings> lists = new ArrayList<>();
+        for (String word : words) {
+            Postings list = postings.get(word);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        // Start from the rarest word so every merge step shrinks the set quickly
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private int[] liveIds() {
+        int[] live = new int[ids.size()];
+        int count = 0;
+        for (int id = 0; id < entries.size(); id++) {
+            if (entries.get(id) != null) {
+                live[count++] = id;
+            }
+        }
+        return Arrays.copyOf(live, count);
+    }
+
+    private static int[] intersect(int[] left, Postings right) {
+        int[] result = new int[Math.min(left.length, right.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.size) {
+            if (left[i] == right.ids[j]) {
+                result[count++] = left[i];
+                i++;
+                j++;
+            } else if (left[i] < right.ids[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    static Pattern pattern(SearchMode mode, String query) {
+        if (mode == SearchMode.REGEX) {
+            return Pattern.compile(query, Pattern.MULTILINE);
+        }
+        List<String> words = SearchTokenizer.words(query);
+        String joined = mode == SearchMode.PHRASE
+                ? "(?<![\\p{L}\\p{N}])" + words.stream().map(Pattern::quote).collect(Collectors.joining(NON_WORD))
+                        + "(?![\\p{L}\\p{N}])"
+                : words.stream().map(Pattern::quote).collect(Collectors.joining("|"));
+        return Pattern.compile(joined, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    /**
+     * Find the first match and count matches. Index hits for term queries are
+     * kept even without a content match, since the path or title matched.
+     */
+    private SearchHit verify(Entry entry, Pattern pattern, boolean indexMatchIsEnough, long deadlineNanos) {
+        Matcher matcher = pattern.matcher(new DeadlineCharSequence(entry.content(), deadlineNanos));
+        int matches = 0;
+        int firstStart = -1;
+        while (matches < MAX_COUNTED_MATCHES && matcher.find()) {
+            if (firstStart < 0) {
+                firstStart = matcher.start();
+            }
+            matches++;
+        }
+        if (matches == 0 && !indexMatchIsEnough) {
+            return null;
+        }
+
+        int line = 0;
+        String snippet = null;
+        if (firstStart >= 0) {
+            line = lineOf(entry.content(), firstStart);
+            snippet = lineText(entry.content(), firstStart);
+        }
+        boolean file = FILE.equals(entry.type());
+        return new SearchHit(entry.type(), file ? entry.key() : null, file ? null : entry.key(), entry.title(),
+                line, snippet, matches);
+    }
+
+    private static int lineOf(String content, int offset) {
+        int line = 1;
+        for (int i = 0; i < offset; i++) {
+            if (content.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    private static String lineText(String content, int offset) {
+        int start = content.lastIndexOf('\n', offset - 1) + 1;
+        int end = content.indexOf('\n', offset);
+        String text = content.substring(start, end < 0 ? content.length() : end).strip();
+        return text.length() > MAX_SNIPPET_LENGTH ? text.substring(0, MAX_SNIPPET_LENGTH) : text;
+    }
+
+    private void removeLocked(String type, String key) {
+        Integer id = ids.remove(type + ":" + key);
+        if (id == null) {
+            return;
+        }
+        Entry entry = entries.set(id, null);
+        for (String term : entry.terms()) {
+            Postings list = postings.get(term);
+            list.remove(id);
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        contentChars -= entry.content().length();
+        removed++;
+        if (removed > 1024 && removed > ids.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumber the live entries once removals dominate, so the entry list
+     * does not grow without bound under constant rewrites
+     */
+    private void compact() {
+        List<Entry> live = entries.stream().filter(entry -> entry != null).collect(Collectors.toList());
+        entries.clear();
+        ids.clear();
+        postings.clear();
+        removed = 0;
+        for (Entry entry : live) {
+            int id = entries.size();
+            entries.add(entry);
+            ids.put(entry.type() + ":" + entry.key(), id);
+            for (String term : entry.terms()) {
+                postings.computeIfAbsent(term, t -> new Postings()).add(id);
+            }
+        }
+    }
+
+    /**
+     * Sorted doc ids of one term
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+
+    static final class DeadlineExceededException extends RuntimeException {
+        DeadlineExceededException() {
+            super("Search time budget exceeded", null, false, false);
+        }
+    }
+
+    /**
+     * Content view that gives up once the deadline passes, so a pathological
+     * regex cannot hold a search thread indefinitely
+     */
+    static final class DeadlineCharSequence implements CharSequence {
+        private final CharSequence text;
+        private final long deadlineNanos;
+        private int reads;
+
+        DeadlineCharSequence(CharSequence text, long deadlineNanos) {
+            this.text = text;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if ((++reads & 0xFFF) == 0 && System.nanoTime() > deadlineNanos) {
+                throw new DeadlineExceededException();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(text.subSequence(start, end), deadlineNanos);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
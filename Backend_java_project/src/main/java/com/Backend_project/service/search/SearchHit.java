@@ -0,0 +1,11 @@
+package com.Backend_project.service.search;
+
+/**
+ * One matching repository file or LaTeX document. For files {@code path} is
+ * set, for LaTeX documents {@code documentId} and {@code title}. The line and
+ * snippet are those of the first match; line is 0 when only the path or
+ * title matched.
+ */
+public record SearchHit(String type, String path, String documentId, String title, int line, String snippet,
+        int matches) {
+}
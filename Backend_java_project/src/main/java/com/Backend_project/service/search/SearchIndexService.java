@@ -0,0 +1,322 @@
+package com.Backend_project.service.search;
+
+import com.Backend_project.event.LatexDocumentChangedEvent;
+import com.Backend_project.event.LatexDocumentDeletedEvent;
+import com.Backend_project.event.LocalCachesResetEvent;
+import com.Backend_project.event.ProjectFileCachedEvent;
+import com.Backend_project.event.ProjectFilesClearedEvent;
+import com.Backend_project.event.ProjectFilesInvalidatedEvent;
+import com.Backend_project.model.LatexDocument;
+import com.Backend_project.model.ProjectFile;
+import com.Backend_project.model.ProjectStatus;
+import com.Backend_project.repository.LatexDocumentRepository;
+import com.Backend_project.repository.ProjectFileRepository;
+import com.Backend_project.service.ProjectStatusCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over a project's cached repository files and LaTeX
+ * documents. Each project has its own in-memory shard, loaded from Mongo on
+ * the first query and kept current afterwards from the file cache and
+ * document edit events. Shards of projects nobody searched lately are
+ * dropped to bound memory.
+ *
+ * Each shard persists its regex trigram index under search.trigram.dir, so
+ * after a restart or resync only blobs with new shas are tokenized again.
+ *
+ * All shard mutations, including loading, run on one indexer thread. An
+ * event is published after its Mongo write, so it is either applied to a
+ * loaded shard or already visible to a later load; nothing is lost in
+ * between.
+ */
+@Service
+public class SearchIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    @Autowired
+    private ProjectFileRepository projectFileRepository;
+
+    @Autowired
+    private LatexDocumentRepository latexDocumentRepository;
+
+    @Autowired
+    private ProjectStatusCache projectStatusCache;
+
+    @Value("${search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.max-shards:50}")
+    private int maxShards;
+
+    @Value("${search.max-indexed-chars:1048576}")
+    private int maxIndexedChars;
+
+    @Value("${search.max-results:200}")
+    private int maxResults;
+
+    @Value("${search.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${search.trigram.dir:${java.io.tmpdir}/search-trigrams}")
+    private String trigramDir;
+
+    @Value("${search.trigram.flush-blobs:1000}")
+    private int trigramFlushBlobs;
+
+    private final Map<String, ProjectSearchShard> shards = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProjectSearchShard> eldest) {
+            if (size() <= maxShards) {
+                return false;
+            }
+            flushTrigrams(eldest.getKey(), eldest.getValue());
+            return true;
+        }
+    };
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong shardLoads = new AtomicLong();
+    private final AtomicLong updatesApplied = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        indexer.shutdown();
+        if (!indexer.awaitTermination(5, TimeUnit.SECONDS)) {
+            indexer.shutdownNow();
+            return;
+        }
+        synchronized (shards) {
+            shards.forEach(this::flushTrigrams);
+        }
+    }
+
+    public SearchResults search(String projectId, String userId, String query, SearchMode mode, String type,
+            int limit) throws Exception {
+        ProjectStatus project = projectStatusCache.get(projectId);
+        if (!userId.equals(project.getUserId())) {
+            throw new Exception("Unauthorized access to project");
+        }
+        if (!enabled) {
+            throw new Exception("Search is disabled");
+        }
+        if (query == null || query.isBlank()) {
+            throw new Exception("Query must not be empty");
+        }
+        if (type != null && !ProjectSearchShard.FILE.equals(type) && !ProjectSearchShard.LATEX.equals(type)) {
+            throw new Exception("Unknown result type: " + type);
+        }
+
+        ProjectSearchShard shard = shard(projectId);
+        queries.incrementAndGet();
+        try {
+            return shard.search(mode, query, type, Math.max(1, Math.min(limit, maxResults)),
+                    System.nanoTime() + timeoutMs * 1_000_000);
+        } catch (PatternSyntaxException e) {
+            throw new Exception("Invalid regular expression: " + e.getDescription());
+        }
+    }
+
+    @EventListener
+    public void onFileCached(ProjectFileCachedEvent event) {
+        applyIfLoaded(event.projectId(), shard -> {
+            if (indexable(event.content())) {
+                shard.put(ProjectSearchShard.FILE, event.path(), null, event.content(), event.sha());
+            } else {
+                shard.remove(ProjectSearchShard.FILE, event.path());
+            }
+        });
+    }
+
+    @EventListener
+    public void onFilesCleared(ProjectFilesClearedEvent event) {
+        // Dropping the whole shard is cheaper than tracking which files survive;
+        // the next query reloads whatever is cached by then. Trigrams are kept
+        // across a resync, since most blob shas come back unchanged.
+        indexer.execute(() -> {
+            ProjectSearchShard shard;
+            synchronized (shards) {
+                shard = shards.remove(event.projectId());
+            }
+            if (event.projectDeleted()) {
+                (shard != null ? shard : newShard(event.projectId())).deleteTrigrams();
+            } else if (shard != null) {
+                flushTrigrams(event.projectId(), shard);
+            }
+        });
+    }
+
+    @EventListener
+    public void onFilesInvalidated(ProjectFilesInvalidatedEvent event) {
+        applyIfLoaded(event.projectId(), shard -> event.paths()
+                .forEach(path -> shard.remove(ProjectSearchShard.FILE, path)));
+    }
+
+    @EventListener
+    public void onDocumentChanged(LatexDocumentChangedEvent event) {
+        applyIfLoaded(event.projectId(), shard -> {
+            if (indexable(event.content())) {
+                shard.put(ProjectSearchShard.LATEX, event.documentId(), event.title(), event.content());
+            } else {
+                shard.remove(ProjectSearchShard.LATEX, event.documentId());
+            }
+        });
+    }
+
+    @EventListener
+    public void onDocumentDeleted(LatexDocumentDeletedEvent event) {
+        applyIfLoaded(event.projectId(), shard -> shard.remove(ProjectSearchShard.LATEX, event.documentId()));
+    }
+
+    @EventListener
+    public void onCachesReset(LocalCachesResetEvent event) {
+        indexer.execute(() -> {
+            synchronized (shards) {
+                shards.forEach(this::flushTrigrams);
+                shards.clear();
+            }
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long indexedChars = 0;
+        int indexedEntries = 0;
+        int segmentBlobs = 0;
+        int deltaBlobs = 0;
+        synchronized (shards) {
+            stats.put("loadedShards", shards.size());
+            for (ProjectSearchShard shard : shards.values()) {
+                indexedEntries += shard.size();
+                indexedChars += shard.contentChars();
+                int[] trigramBlobs = shard.trigramBlobs();
+                segmentBlobs += trigramBlobs[0];
+                deltaBlobs += trigramBlobs[1];
+            }
+        }
+        stats.put("trigramSegmentBlobs", segmentBlobs);
+        stats.put("trigramDeltaBlobs", deltaBlobs);
+        stats.put("indexedEntries", indexedEntries);
+        stats.put("indexedChars", indexedChars);
+        stats.put("shardLoads", shardLoads.get());
+        stats.put("updatesApplied", updatesApplied.get());
+        stats.put("queries", queries.get());
+        return stats;
+    }
+
+    private ProjectSearchShard shard(String projectId) throws Exception {
+        synchronized (shards) {
+            ProjectSearchShard shard = shards.get(projectId);
+            if (shard != null) {
+                return shard;
+            }
+        }
+
+        Future<ProjectSearchShard> loading = indexer.submit(() -> {
+            synchronized (shards) {
+                ProjectSearchShard shard = shards.get(projectId);
+                if (shard != null) {
+                    return shard;
+                }
+            }
+            ProjectSearchShard shard = load(projectId);
+            flushTrigrams(projectId, shard);
+            synchronized (shards) {
+                shards.put(projectId, shard);
+            }
+            return shard;
+        });
+        try {
+            return loading.get();
+        } catch (ExecutionException e) {
+            logger.error("Failed to load search index for project {}: {}", projectId, e.getCause().getMessage());
+            throw new Exception("Search index unavailable");
+        }
+    }
+
+    private ProjectSearchShard load(String projectId) {
+        long started = System.currentTimeMillis();
+        ProjectSearchShard shard = newShard(projectId);
+        try (Stream<ProjectFile> files = projectFileRepository.findByProjectId(projectId)) {
+            files.filter(file -> indexable(file.getContent()))
+                    .forEach(file -> shard.put(ProjectSearchShard.FILE, file.getPath(), null, file.getContent(),
+                            file.getSha()));
+        }
+        for (LatexDocument document : latexDocumentRepository.findByProjectId(projectId)) {
+            if (indexable(document.getContent())) {
+                shard.put(ProjectSearchShard.LATEX, document.getId(), document.getTitle(), document.getContent(),
+                        document.getContentHash());
+            }
+        }
+        shardLoads.incrementAndGet();
+        logger.debug("Loaded search index for project {}: {} entries in {} ms", projectId, shard.size(),
+                System.currentTimeMillis() - started);
+        return shard;
+    }
+
+    private void applyIfLoaded(String projectId, Consumer<ProjectSearchShard> update) {
+        if (!enabled) {
+            return;
+        }
+        indexer.execute(() -> {
+            ProjectSearchShard shard;
+            synchronized (shards) {
+                shard = shards.get(projectId);
+            }
+            if (shard == null) {
+                return;
+            }
+            try {
+                update.accept(shard);
+                updatesApplied.incrementAndGet();
+                if (shard.trigramBlobs()[1] >= trigramFlushBlobs) {
+                    flushTrigrams(projectId, shard);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to update search index for project {}: {}", projectId, e.getMessage());
+            }
+        });
+    }
+
+    private ProjectSearchShard newShard(String projectId) {
+        return new ProjectSearchShard(new TrigramIndex(Path.of(trigramDir, projectId + ".tri")));
+    }
+
+    private void flushTrigrams(String projectId, ProjectSearchShard shard) {
+        try {
+            shard.flushTrigrams();
+        } catch (IOException e) {
+            logger.warn("Failed to persist trigram index of project {}: {}", projectId, e.getMessage());
+        }
+    }
+
+    private boolean indexable(String content) {
+        return content != null && content.length() <= maxIndexedChars && content.indexOf('\0') < 0;
+    }
+}
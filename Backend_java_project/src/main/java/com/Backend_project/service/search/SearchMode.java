@@ -0,0 +1,10 @@
+package com.Backend_project.service.search;
+
+public enum SearchMode {
+    /** Every word must occur somewhere in the file */
+    TERMS,
+    /** The words must occur next to each other, in order */
+    PHRASE,
+    /** A Java regular expression matched against file contents */
+    REGEX
+}
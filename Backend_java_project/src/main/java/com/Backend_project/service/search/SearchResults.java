@@ -0,0 +1,10 @@
+package com.Backend_project.service.search;
+
+import java.util.List;
+
+/**
+ * Hits of a query. {@code complete} is false when the limit or the time budget
+ * stopped the search before every candidate was checked.
+ */
+public record SearchResults(List<SearchHit> hits, int candidates, boolean complete, long tookMillis) {
+}
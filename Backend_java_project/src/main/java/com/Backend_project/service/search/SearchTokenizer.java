@@ -0,0 +1,93 @@
+package com.Backend_project.service.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lowercase index terms. Words are runs of letters and
+ * digits; identifiers written in camelCase or with digits also contribute
+ * their parts, so "parseFileTree" can be found by "file" as well as by the
+ * whole name.
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Words of a text as written, in order, with duplicates
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            boolean wordChar = Character.isLetterOrDigit(codePoint);
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            words.add(text.substring(start));
+        }
+        return words;
+    }
+
+    /**
+     * Distinct index terms of a text: each word lowercased, plus its parts
+     */
+    public static Set<String> terms(String text) {
+        return new LinkedHashSet<>(termList(text));
+    }
+
+    /**
+     * Index terms of a text in order, with duplicates, for term frequencies
+     */
+    public static List<String> termList(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(text)) {
+            terms.add(normalize(word));
+            List<String> parts = parts(word);
+            if (parts.size() > 1) {
+                parts.forEach(part -> terms.add(normalize(part)));
+            }
+        }
+        return terms;
+    }
+
+    public static String normalize(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parts of a word at lower-to-upper, acronym-to-word and letter/digit boundaries
+     */
+    static List<String> parts(String word) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i < word.length(); i++) {
+            char previous = word.charAt(i - 1);
+            char current = word.charAt(i);
+            boolean boundary = (Character.isLowerCase(previous) && Character.isUpperCase(current))
+                    || (Character.isLetter(previous) != Character.isLetter(current))
+                    || (Character.isUpperCase(previous) && Character.isUpperCase(current)
+                            && i + 1 < word.length() && Character.isLowerCase(word.charAt(i + 1)));
+            if (boundary) {
+                parts.add(word.substring(start, i));
+                start = i;
+            }
+        }
+        parts.add(word.substring(start));
+        return parts;
+    }
+}
@@ -0,0 +1,357 @@
+package com.Backend_project.service.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Trigram postings of a project's blobs, keyed by blob sha so a blob shared
+ * by several paths, or unchanged across resyncs, is indexed once.
+ *
+ * Flushed blobs live in an immutable segment file that is memory-mapped, so
+ * it survives restarts and its postings are paged in only when a query
+ * touches them. Blobs added since the last flush sit in a small in-memory
+ * delta. A flush merges segment and delta into a new file, dropping blobs
+ * that are no longer referenced.
+ *
+ * Not thread-safe; {@link ProjectSearchShard} guards it with its lock.
+ */
+class TrigramIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TrigramIndex.class);
+
+    private static final int MAGIC = 0x54524931;
+
+    private final Path file;
+
+    // Segment: blob keys by ordinal and a sorted (trigram, offset, count) table
+    private String[] segmentBlobs = new String[0];
+    private final Map<String, Integer> segmentOrdinals = new HashMap<>();
+    private MappedByteBuffer segment;
+    private int trigramCount;
+    private int tableOffset;
+    private long postingsOffset;
+
+    private final Map<String, int[]> delta = new LinkedHashMap<>();
+
+    /**
+     * @param file segment location, or null for an index that is never persisted
+     */
+    TrigramIndex(Path file) {
+        this.file = file;
+        if (file != null && Files.exists(file)) {
+            try {
+                map();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Discarding unreadable trigram segment {}: {}", file, e.getMessage());
+                clearSegment();
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    boolean contains(String blobKey) {
+        return segmentOrdinals.containsKey(blobKey) || delta.containsKey(blobKey);
+    }
+
+    void add(String blobKey, String content) {
+        if (!contains(blobKey)) {
+            delta.put(blobKey, Trigrams.of(content));
+        }
+    }
+
+    int segmentBlobs() {
+        return segmentBlobs.length;
+    }
+
+    int deltaBlobs() {
+        return delta.size();
+    }
+
+    /**
+     * Blob keys that contain every trigram of at least one alternative
+     */
+    Set<String> candidates(List<int[]> alternatives) {
+        Set<String> result = new HashSet<>();
+        for (int[] required : alternatives) {
+            int[] ordinals = segmentCandidates(required);
+            for (int ordinal : ordinals) {
+                result.add(segmentBlobs[ordinal]);
+            }
+            for (Map.Entry<String, int[]> entry : delta.entrySet()) {
+                if (containsAll(entry.getValue(), required)) {
+                    result.add(entry.getKey());
+                }
+            }
+        }
+        return result;
+    }
+
+    private int[] segmentCandidates(int[] required) {
+        if (segment == null) {
+            return new int[0];
+        }
+        List<int[]> lists = new ArrayList<>();
+        for (int trigram : required) {
+            int[] postings = postings(trigram);
+            if (postings.length == 0) {
+                return postings;
+            }
+            lists.add(postings);
+        }
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private int[] postings(int trigram) {
+        int low = 0;
+        int high = trigramCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = tableOffset + mid * 12;
+            int value = segment.getInt(entry);
+            if (value < trigram) {
+                low = mid + 1;
+            } else if (value > trigram) {
+                high = mid - 1;
+            } else {
+                return postingsAt(mid);
+            }
+        }
+        return new int[0];
+    }
+
+    private int[] postingsAt(int index) {
+        int entry = tableOffset + index * 12;
+        long offset = postingsOffset + 4L * segment.getInt(entry + 4);
+        int[] postings = new int[segment.getInt(entry + 8)];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = segment.getInt((int) (offset + 4L * i));
+        }
+        return postings;
+    }
+
+    /**
+     * Merge segment and delta into a new segment holding only the live blobs
+     */
+    void flush(Collection<String> liveBlobs) throws IOException {
+        if (file == null) {
+            return;
+        }
+        Set<String> live = new HashSet<>(liveBlobs);
+        if (delta.isEmpty() && live.containsAll(segmentOrdinals.keySet())) {
+            return;
+        }
+
+        // New ordinals: surviving segment blobs in their old order, then the delta
+        List<String> blobs = new ArrayList<>();
+        int[] remap = new int[segmentBlobs.length];
+        for (int ordinal = 0; ordinal < segmentBlobs.length; ordinal++) {
+            remap[ordinal] = live.contains(segmentBlobs[ordinal]) ? blobs.size() : -1;
+            if (remap[ordinal] >= 0) {
+                blobs.add(segmentBlobs[ordinal]);
+            }
+        }
+        TreeMap<Integer, IntList> deltaPostings = new TreeMap<>();
+        for (Map.Entry<String, int[]> entry : delta.entrySet()) {
+            if (!live.contains(entry.getKey())) {
+                continue;
+            }
+            int ordinal = blobs.size();
+            blobs.add(entry.getKey());
+            for (int trigram : entry.getValue()) {
+                deltaPostings.computeIfAbsent(trigram, t -> new IntList()).add(ordinal);
+            }
+        }
+
+        Files.createDirectories(file.getParent());
+        Path postingsFile = Files.createTempFile(file.getParent(), "postings", ".tmp");
+        Path segmentFile = Files.createTempFile(file.getParent(), "segment", ".tmp");
+        try {
+            IntList table = new IntList();
+            int written = 0;
+            try (DataOutputStream out = output(postingsFile)) {
+                int next = 0;
+                Integer nextDelta = deltaPostings.isEmpty() ? null : deltaPostings.firstKey();
+                while (next < trigramCount || nextDelta != null) {
+                    int segmentTrigram = next < trigramCount
+                            ? segment.getInt(tableOffset + next * 12)
+                            : Integer.MAX_VALUE;
+                    int trigram = nextDelta != null ? Math.min(segmentTrigram, nextDelta) : segmentTrigram;
+                    int count = 0;
+                    if (segmentTrigram == trigram) {
+                        // Remapping keeps the order, so surviving postings stay sorted
+                        for (int ordinal : postingsAt(next)) {
+                            if (remap[ordinal] >= 0) {
+                                out.writeInt(remap[ordinal]);
+                                count++;
+                            }
+                        }
+                        next++;
+                    }
+                    if (nextDelta != null && nextDelta == trigram) {
+                        IntList ordinals = deltaPostings.get(trigram);
+                        for (int i = 0; i < ordinals.size; i++) {
+                            out.writeInt(ordinals.values[i]);
+                        }
+                        count += ordinals.size;
+                        nextDelta = deltaPostings.higherKey(trigram);
+                    }
+                    if (count > 0) {
+                        table.add(trigram);
+                        table.add(written);
+                        table.add(count);
+                        written += count;
+                    }
+                }
+            }
+
+            try (DataOutputStream out = output(segmentFile)) {
+                out.writeInt(MAGIC);
+                out.writeInt(blobs.size());
+                out.writeInt(table.size / 3);
+                for (String blob : blobs) {
+                    byte[] bytes = blob.getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(bytes.length);
+                    out.write(bytes);
+                }
+                for (int i = 0; i < table.size; i++) {
+                    out.writeInt(table.values[i]);
+                }
+                Files.copy(postingsFile, out);
+            }
+            if (Files.size(segmentFile) > Integer.MAX_VALUE) {
+                throw new IOException("Trigram segment exceeds 2 GB");
+            }
+            Files.move(segmentFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteQuietly(postingsFile);
+            deleteQuietly(segmentFile);
+        }
+
+        delta.clear();
+        map();
+    }
+
+    void delete() {
+        clearSegment();
+        delta.clear();
+        if (file != null) {
+            deleteQuietly(file);
+        }
+    }
+
+    private void map() throws IOException {
+        clearSegment();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a trigram segment");
+            }
+            int blobCount = buffer.getInt(4);
+            int trigrams = buffer.getInt(8);
+            String[] blobs = new String[blobCount];
+            int position = 12;
+            for (int i = 0; i < blobCount; i++) {
+                int length = buffer.getShort(position) & 0xFFFF;
+                byte[] bytes = new byte[length];
+                buffer.get(position + 2, bytes);
+                blobs[i] = new String(bytes, StandardCharsets.UTF_8);
+                position += 2 + length;
+            }
+
+            segment = buffer;
+            segmentBlobs = blobs;
+            for (int i = 0; i < blobs.length; i++) {
+                segmentOrdinals.put(blobs[i], i);
+            }
+            trigramCount = trigrams;
+            tableOffset = position;
+            postingsOffset = position + 12L * trigrams;
+        }
+    }
+
+    private void clearSegment() {
+        segment = null;
+        segmentBlobs = new String[0];
+        segmentOrdinals.clear();
+        trigramCount = 0;
+    }
+
+    private static DataOutputStream output(Path path) throws IOException {
+        OutputStream stream = Files.newOutputStream(path, StandardOpenOption.TRUNCATE_EXISTING);
+        return new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static boolean containsAll(int[] sorted, int[] required) {
+        for (int trigram : required) {
+            if (Arrays.binarySearch(sorted, trigram) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                result[count++] = left[i];
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
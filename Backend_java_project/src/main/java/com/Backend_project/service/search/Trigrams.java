@@ -0,0 +1,326 @@
+package com.Backend_project.service.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Trigrams of case-folded UTF-8 text, packed into the low 24 bits of an int,
+ * and the trigram queries a regex implies. Folding makes the index a
+ * superset for both case-sensitive and case-insensitive patterns; the regex
+ * itself decides the final match.
+ */
+final class Trigrams {
+
+    private static final Pattern COMMENTS_FLAG = Pattern.compile("\\(\\?[a-zA-Z-]*x");
+
+    private Trigrams() {
+    }
+
+    /**
+     * Distinct trigrams of a text, ascending
+     */
+    static int[] of(String text) {
+        byte[] bytes = fold(text).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < 3) {
+            return new int[0];
+        }
+        int[] trigrams = new int[bytes.length - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * Simple case folding: every code point that matches another case-insensitively
+     * folds to the same one
+     */
+    static String fold(String text) {
+        StringBuilder folded = new StringBuilder(text.length());
+        text.codePoints().forEach(c -> folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(c))));
+        return folded.toString();
+    }
+
+    /**
+     * Trigrams a file must contain to possibly match the regex, as alternatives
+     * of trigram sets: a file can match only if it contains every trigram of at
+     * least one set. Returns null when the regex gives nothing to narrow by.
+     * The extraction is conservative: anything it does not fully understand,
+     * such as groups, classes and escapes, only ends a literal run.
+     */
+    static List<int[]> query(String regex) {
+        if (COMMENTS_FLAG.matcher(regex).find()) {
+            return null;
+        }
+        List<int[]> alternatives = new ArrayList<>();
+        for (String branch : splitTopLevel(regex)) {
+            int[] required = new int[0];
+            for (String literal : literals(branch)) {
+                required = union(required, of(literal));
+            }
+            if (required.length == 0) {
+                return null;
+            }
+            alternatives.add(required);
+        }
+        return alternatives;
+    }
+
+    /**
+     * Literal runs every match of a regex branch without top-level alternation contains
+     */
+    static List<String> literals(String branch) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < branch.length()) {
+            char c = branch.charAt(i);
+            String atom = null;
+            if (c == '\\' && i + 1 < branch.length()) {
+                char next = branch.charAt(i + 1);
+                if (next == 'Q') {
+                    int end = branch.indexOf("\\E", i + 2);
+                    String quoted = branch.substring(i + 2, end < 0 ? branch.length() : end);
+                    i = end < 0 ? branch.length() : end + 2;
+                    if (quoted.isEmpty()) {
+                        continue;
+                    }
+                    // A quantifier after \E applies to the last quoted char only
+                    run.append(quoted, 0, quoted.length() - 1);
+                    atom = quoted.substring(quoted.length() - 1);
+                } else if (Character.isLetterOrDigit(next)) {
+                    flush(run, literals);
+                    i = skipEscape(branch, i);
+                    i = skipQuantifier(branch, i);
+                    continue;
+                } else {
+                    atom = String.valueOf(next);
+                    i += 2;
+                }
+            } else if (c == '[') {
+                flush(run, literals);
+                i = skipQuantifier(branch, skipClass(branch, i));
+                continue;
+            } else if (c == '(') {
+                flush(run, literals);
+                i = skipQuantifier(branch, skipGroup(branch, i));
+                continue;
+            } else if (".^$?*+{}|)]".indexOf(c) >= 0) {
+                flush(run, literals);
+                i = skipQuantifier(branch, i + 1);
+                continue;
+            } else {
+                int length = Character.charCount(branch.codePointAt(i));
+                atom = branch.substring(i, i + length);
+                i += length;
+            }
+
+            int min = minRepeats(branch, i);
+            if (min == 0) {
+                flush(run, literals);
+            } else {
+                run.append(atom);
+                if (min > 1 || (i < branch.length() && "*+?{".indexOf(branch.charAt(i)) >= 0)) {
+                    flush(run, literals);
+                }
+            }
+            i = skipQuantifier(branch, i);
+        }
+        flush(run, literals);
+        return literals;
+    }
+
+    private static void flush(StringBuilder run, List<String> literals) {
+        if (run.length() > 0) {
+            literals.add(run.toString());
+            run.setLength(0);
+        }
+    }
+
+    /**
+     * Minimum repeat count of the quantifier at {@code i}, 1 when there is none
+     */
+    private static int minRepeats(String regex, int i) {
+        if (i >= regex.length()) {
+            return 1;
+        }
+        char c = regex.charAt(i);
+        if (c == '?' || c == '*') {
+            return 0;
+        }
+        if (c == '{') {
+            int end = i + 1;
+            while (end < regex.length() && Character.isDigit(regex.charAt(end))) {
+                end++;
+            }
+            if (end == i + 1) {
+                return 0;
+            }
+            try {
+                return Integer.parseInt(regex.substring(i + 1, end)) > 0 ? 2 : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 1;
+    }
+
+    private static int skipQuantifier(String regex, int i) {
+        if (i >= regex.length()) {
+            return i;
+        }
+        char c = regex.charAt(i);
+        if (c == '{') {
+            int end = regex.indexOf('}', i);
+            i = end < 0 ? regex.length() : end + 1;
+        } else if (c == '?' || c == '*' || c == '+') {
+            i++;
+        } else {
+            return i;
+        }
+        // Lazy and possessive markers
+        if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Skip an escape starting with a letter or digit, including its arguments
+     */
+    private static int skipEscape(String regex, int i) {
+        char kind = regex.charAt(i + 1);
+        i += 2;
+        if (i < regex.length() && regex.charAt(i) == '{' && "pPxN".indexOf(kind) >= 0) {
+            int end = regex.indexOf('}', i);
+            return end < 0 ? regex.length() : end + 1;
+        }
+        if (kind == 'k' && i < regex.length() && regex.charAt(i) == '<') {
+            int end = regex.indexOf('>', i);
+            return end < 0 ? regex.length() : end + 1;
+        }
+        int arguments = switch (kind) {
+            case 'x' -> 2;
+            case 'u' -> 4;
+            case 'c', 'p', 'P' -> 1;
+            case '0' -> 3;
+            default -> Character.isDigit(kind) ? Integer.MAX_VALUE : 0;
+        };
+        while (arguments-- > 0 && i < regex.length() && Character.isLetterOrDigit(regex.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipClass(String regex, int i) {
+        int depth = 0;
+        int j = i;
+        while (j < regex.length()) {
+            char c = regex.charAt(j);
+            if (c == '\\') {
+                j += 2;
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                // A ']' right after the opening bracket (or its negation) is a literal
+                if (j + 1 < regex.length() && regex.charAt(j + 1) == '^') {
+                    j++;
+                }
+                if (j + 1 < regex.length() && regex.charAt(j + 1) == ']') {
+                    j++;
+                }
+            } else if (c == ']' && --depth == 0) {
+                return j + 1;
+            }
+            j++;
+        }
+        return regex.length();
+    }
+
+    private static int skipGroup(String regex, int i) {
+        int depth = 0;
+        int j = i;
+        while (j < regex.length()) {
+            char c = regex.charAt(j);
+            if (c == '\\') {
+                if (j + 1 < regex.length() && regex.charAt(j + 1) == 'Q') {
+                    int end = regex.indexOf("\\E", j + 2);
+                    j = end < 0 ? regex.length() : end + 2;
+                } else {
+                    j += 2;
+                }
+                continue;
+            }
+            if (c == '[') {
+                j = skipClass(regex, j);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return j + 1;
+            }
+            j++;
+        }
+        return regex.length();
+    }
+
+    static List<String> splitTopLevel(String regex) {
+        List<String> branches = new ArrayList<>();
+        int start = 0;
+        int j = 0;
+        while (j < regex.length()) {
+            char c = regex.charAt(j);
+            if (c == '\\') {
+                if (j + 1 < regex.length() && regex.charAt(j + 1) == 'Q') {
+                    int end = regex.indexOf("\\E", j + 2);
+                    j = end < 0 ? regex.length() : end + 2;
+                } else {
+                    j += 2;
+                }
+            } else if (c == '[') {
+                j = skipClass(regex, j);
+            } else if (c == '(') {
+                j = skipGroup(regex, j);
+            } else if (c == '|') {
+                branches.add(regex.substring(start, j));
+                start = ++j;
+            } else {
+                j++;
+            }
+        }
+        branches.add(regex.substring(Math.min(start, regex.length())));
+        return branches;
+    }
+
+    static int[] union(int[] left, int[] right) {
+        int[] result = new int[left.length + right.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length || j < right.length) {
+            int next;
+            if (j >= right.length || (i < left.length && left[i] < right[j])) {
+                next = left[i++];
+            } else if (i >= left.length || right[j] < left[i]) {
+                next = right[j++];
+            } else {
+                next = left[i++];
+                j++;
+            }
+            result[count++] = next;
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,7 @@
+package com.Backend_project.service.symbols;
+
+/**
+ * A line of a project file that uses a name
+ */
+public record CodeReference(String path, int line) {
+}
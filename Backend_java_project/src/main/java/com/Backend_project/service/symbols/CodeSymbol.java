@@ -0,0 +1,7 @@
+package com.Backend_project.service.symbols;
+
+/**
+ * A declaration found in a project's source files
+ */
+public record CodeSymbol(String name, String kind, String path, int line, String container) {
+}
@@ -0,0 +1,173 @@
+package com.Backend_project.service.symbols;
+
+import com.Backend_project.model.BlobSymbols;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Symbol table and cross-reference index of one project. Definitions are
+ * kept in a map sorted by lowercase name, so exact and prefix lookups are a
+ * single range scan; references are grouped by exact name. Both are
+ * maintained per file, from the blob symbols of the file's current sha.
+ */
+class ProjectSymbolTable {
+
+    /**
+     * What a file contributed, to take it out again when the file changes
+     */
+    private record FileSymbols(String blobKey, Set<String> definitionKeys, Set<String> referenceNames,
+            int definitionCount) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, FileSymbols> files = new HashMap<>();
+    private final NavigableMap<String, List<CodeSymbol>> definitions = new TreeMap<>();
+    private final Map<String, List<CodeReference>> references = new HashMap<>();
+    private int definitionCount;
+
+    boolean isCurrent(String path, String blobKey) {
+        lock.readLock().lock();
+        try {
+            FileSymbols file = files.get(path);
+            return file != null && file.blobKey().equals(blobKey);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void put(String path, BlobSymbols symbols) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(path);
+            // Paths are shared by every entry of the file
+            String sharedPath = path.intern();
+            Set<String> definitionKeys = new HashSet<>();
+            Set<String> referenceNames = new HashSet<>();
+            for (BlobSymbols.Definition definition : symbols.getDefinitions()) {
+                String key = definition.name().toLowerCase(Locale.ROOT);
+                definitionKeys.add(key);
+                definitions.computeIfAbsent(key, n -> new ArrayList<>(1))
+                        .add(new CodeSymbol(definition.name(), definition.kind(), sharedPath, definition.line(),
+                                definition.container()));
+                definitionCount++;
+            }
+            for (BlobSymbols.Reference reference : symbols.getReferences()) {
+                referenceNames.add(reference.name());
+                references.computeIfAbsent(reference.name(), n -> new ArrayList<>(1))
+                        .add(new CodeReference(sharedPath, reference.line()));
+            }
+            files.put(sharedPath, new FileSymbols(symbols.getId(), definitionKeys, referenceNames,
+                    symbols.getDefinitions().size()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String path) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int files() {
+        lock.readLock().lock();
+        try {
+            return files.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int definitions() {
+        lock.readLock().lock();
+        try {
+            return definitionCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Definitions whose name equals, or starts with, the query, ignoring case.
+     * Exact-case matches come first, then shorter names.
+     */
+    List<CodeSymbol> find(String query, boolean prefix, String kind, int limit) {
+        String key = query.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            Map<String, List<CodeSymbol>> range = prefix
+                    ? definitions.subMap(key, true, key + Character.MAX_VALUE, false)
+                    : definitions.containsKey(key) ? Map.of(key, definitions.get(key)) : Map.of();
+
+            List<CodeSymbol> matches = new ArrayList<>();
+            // Scan a bounded number so a one-letter prefix stays cheap on huge projects
+            int scanLimit = Math.max(limit * 20, 1000);
+            for (List<CodeSymbol> symbols : range.values()) {
+                for (CodeSymbol symbol : symbols) {
+                    if (kind == null || kind.equals(symbol.kind())) {
+                        matches.add(symbol);
+                    }
+                }
+                if (matches.size() >= scanLimit) {
+                    break;
+                }
+            }
+            matches.sort(Comparator.comparing((CodeSymbol symbol) -> !symbol.name().startsWith(query))
+                    .thenComparingInt(symbol -> symbol.name().length())
+                    .thenComparing(CodeSymbol::name)
+                    .thenComparing(CodeSymbol::path)
+                    .thenComparingInt(CodeSymbol::line));
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<CodeReference> references(String name, int limit) {
+        lock.readLock().lock();
+        try {
+            List<CodeReference> uses = references.getOrDefault(name, List.of());
+            List<CodeReference> sorted = new ArrayList<>(uses);
+            sorted.sort(Comparator.comparing(CodeReference::path).thenComparingInt(CodeReference::line));
+            return sorted.size() > limit ? new ArrayList<>(sorted.subList(0, limit)) : sorted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(String path) {
+        FileSymbols file = files.remove(path);
+        if (file == null) {
+            return;
+        }
+        for (String key : file.definitionKeys()) {
+            List<CodeSymbol> symbols = definitions.get(key);
+            symbols.removeIf(symbol -> symbol.path().equals(path));
+            if (symbols.isEmpty()) {
+                definitions.remove(key);
+            }
+        }
+        definitionCount -= file.definitionCount();
+        for (String name : file.referenceNames()) {
+            List<CodeReference> uses = references.get(name);
+            uses.removeIf(use -> use.path().equals(path));
+            if (uses.isEmpty()) {
+                references.remove(name);
+            }
+        }
+    }
+}
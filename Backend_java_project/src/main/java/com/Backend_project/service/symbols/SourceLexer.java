@@ -0,0 +1,162 @@
+package com.Backend_project.service.symbols;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal lexer for symbol extraction: identifiers and single-character
+ * punctuation with their line, everything inside comments, strings and
+ * number literals skipped. It is deliberately forgiving; unterminated
+ * literals run to the end of the file rather than failing.
+ */
+final class SourceLexer {
+
+    /**
+     * @param indent leading whitespace width of the token's line, tabs counting 8
+     */
+    record Token(String text, int line, int indent, boolean identifier) {
+
+        boolean is(String value) {
+            return text.equals(value);
+        }
+    }
+
+    private final String source;
+    private final boolean python;
+    private final boolean templates;
+    private final List<Token> tokens = new ArrayList<>();
+    private int position;
+    private int line = 1;
+    private int lineIndent;
+
+    private SourceLexer(String source, boolean python, boolean templates) {
+        this.source = source;
+        this.python = python;
+        this.templates = templates;
+    }
+
+    static List<Token> cLike(String source, boolean templates) {
+        return new SourceLexer(source, false, templates).run();
+    }
+
+    static List<Token> python(String source) {
+        return new SourceLexer(source, true, false).run();
+    }
+
+    private List<Token> run() {
+        lineIndent = indentAt(0);
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == '\n') {
+                newLine();
+            } else if (Character.isWhitespace(c)) {
+                position++;
+            } else if (python && c == '#') {
+                skipTo("\n", false);
+            } else if (!python && c == '/' && peek(1) == '/') {
+                skipTo("\n", false);
+            } else if (!python && c == '/' && peek(1) == '*') {
+                position += 2;
+                skipTo("*/", true);
+            } else if (c == '"' || c == '\'' || (templates && c == '`')) {
+                skipString();
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = position;
+                while (position < source.length() && Character.isJavaIdentifierPart(source.charAt(position))) {
+                    position++;
+                }
+                String identifier = source.substring(start, position);
+                if (python && position < source.length() && isStringPrefix(identifier)
+                        && (source.charAt(position) == '"' || source.charAt(position) == '\'')) {
+                    skipString();
+                } else {
+                    tokens.add(new Token(identifier, line, lineIndent, true));
+                }
+            } else if (Character.isDigit(c)) {
+                while (position < source.length()
+                        && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_'
+                                || source.charAt(position) == '.')) {
+                    position++;
+                }
+            } else {
+                tokens.add(new Token(String.valueOf(c), line, lineIndent, false));
+                position++;
+            }
+        }
+        return tokens;
+    }
+
+    private void skipString() {
+        char quote = source.charAt(position);
+        boolean triple = peek(1) == quote && peek(2) == quote && (python || quote == '"');
+        position += triple ? 3 : 1;
+        String end = triple ? String.valueOf(quote).repeat(3) : String.valueOf(quote);
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == '\\') {
+                if (peek(1) == '\n') {
+                    position++;
+                    newLine();
+                } else {
+                    position += 2;
+                }
+            } else if (source.startsWith(end, position)) {
+                position += end.length();
+                return;
+            } else if (c == '\n') {
+                if (!triple && quote != '`') {
+                    // Unterminated single-line literal: resume lexing on the next line
+                    return;
+                }
+                newLine();
+            } else {
+                position++;
+            }
+        }
+    }
+
+    private void skipTo(String end, boolean consume) {
+        while (position < source.length() && !source.startsWith(end, position)) {
+            if (source.charAt(position) == '\n') {
+                if (!consume) {
+                    return;
+                }
+                newLine();
+            } else {
+                position++;
+            }
+        }
+        if (consume) {
+            position = Math.min(source.length(), position + end.length());
+        }
+    }
+
+    private void newLine() {
+        position++;
+        line++;
+        lineIndent = indentAt(position);
+    }
+
+    private int indentAt(int index) {
+        int width = 0;
+        for (int i = index; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == ' ') {
+                width++;
+            } else if (c == '\t') {
+                width += 8 - width % 8;
+            } else {
+                break;
+            }
+        }
+        return width;
+    }
+
+    private char peek(int offset) {
+        return position + offset < source.length() ? source.charAt(position + offset) : '\0';
+    }
+
+    private static boolean isStringPrefix(String identifier) {
+        return identifier.length() <= 2 && identifier.chars().allMatch(c -> "rRbBfFuU".indexOf(c) >= 0);
+    }
+}
@@ -0,0 +1,313 @@
+package com.Backend_project.service.symbols;
+
+import com.Backend_project.model.BlobSymbols;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Extracts declarations and identifier references from Java, Python and
+ * TypeScript/JavaScript sources. It works on tokens and brace or indent
+ * structure rather than a full grammar, which is enough to find classes,
+ * functions and methods with their containers and stays fast on large
+ * repositories.
+ */
+public final class SymbolExtractor {
+
+    /** Bump when extraction changes, so stored results are redone */
+    public static final int VERSION = 1;
+
+    static final int MAX_REFERENCES = 5000;
+
+    private static final Set<String> JAVA_KEYWORDS = Set.of("abstract", "assert", "boolean", "break", "byte",
+            "case", "catch", "char", "class", "const", "continue", "default", "do", "double", "else", "enum",
+            "extends", "final", "finally", "float", "for", "goto", "if", "implements", "import", "instanceof", "int",
+            "interface", "long", "native", "new", "package", "private", "protected", "public", "return", "short",
+            "static", "strictfp", "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try",
+            "void", "volatile", "while", "var", "record", "yield", "sealed", "permits", "true", "false", "null");
+
+    private static final Set<String> TS_KEYWORDS = Set.of("abstract", "any", "as", "async", "await", "boolean",
+            "break", "case", "catch", "class", "const", "constructor", "continue", "declare", "default", "delete",
+            "do", "else", "enum", "export", "extends", "false", "finally", "for", "from", "function", "get", "if",
+            "implements", "import", "in", "instanceof", "interface", "let", "new", "null", "number", "of", "private",
+            "protected", "public", "readonly", "return", "set", "static", "string", "super", "switch", "this",
+            "throw", "true", "try", "type", "typeof", "undefined", "var", "void", "while", "yield", "module",
+            "namespace", "keyof", "never", "unknown");
+
+    private static final Set<String> PYTHON_KEYWORDS = Set.of("False", "None", "True", "and", "as", "assert",
+            "async", "await", "break", "class", "continue", "def", "del", "elif", "else", "except", "finally", "for",
+            "from", "global", "if", "import", "in", "is", "lambda", "nonlocal", "not", "or", "pass", "raise",
+            "return", "try", "while", "with", "yield", "self", "cls");
+
+    private record Container(String name, String kind, int depth) {
+    }
+
+    private SymbolExtractor() {
+    }
+
+    /**
+     * Language of a path by extension, or null when it is not supported
+     */
+    public static String language(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".java")) {
+            return "java";
+        }
+        if (lower.endsWith(".py") || lower.endsWith(".pyi")) {
+            return "python";
+        }
+        for (String extension : List.of(".ts", ".tsx", ".js", ".jsx", ".mjs", ".cjs")) {
+            if (lower.endsWith(extension)) {
+                return "typescript";
+            }
+        }
+        return null;
+    }
+
+    public static BlobSymbols extract(String blobKey, String language, String content) {
+        List<BlobSymbols.Definition> definitions = new ArrayList<>();
+        List<BlobSymbols.Reference> references = new ArrayList<>();
+        switch (language) {
+            case "java" -> extractCLike(SourceLexer.cLike(content, false), JAVA_KEYWORDS, false, definitions,
+                    references);
+            case "typescript" -> extractCLike(SourceLexer.cLike(content, true), TS_KEYWORDS, true, definitions,
+                    references);
+            case "python" -> extractPython(SourceLexer.python(content), definitions, references);
+            default -> throw new IllegalArgumentException("Unsupported language: " + language);
+        }
+
+        BlobSymbols symbols = new BlobSymbols();
+        symbols.setId(blobKey);
+        symbols.setLanguage(language);
+        symbols.setExtractorVersion(VERSION);
+        symbols.setDefinitions(definitions);
+        symbols.setReferences(references);
+        return symbols;
+    }
+
+    private static void extractCLike(List<SourceLexer.Token> tokens, Set<String> keywords, boolean typescript,
+            List<BlobSymbols.Definition> definitions, List<BlobSymbols.Reference> references) {
+        Deque<Container> containers = new ArrayDeque<>();
+        Container pendingType = null;
+        int depth = 0;
+
+        for (int k = 0; k < tokens.size(); k++) {
+            SourceLexer.Token token = tokens.get(k);
+            if (token.is("{")) {
+                depth++;
+                if (pendingType != null) {
+                    containers.push(new Container(pendingType.name(), pendingType.kind(), depth));
+                    pendingType = null;
+                }
+                continue;
+            }
+            if (token.is("}")) {
+                if (!containers.isEmpty() && containers.peek().depth() == depth) {
+                    containers.pop();
+                }
+                depth = Math.max(0, depth - 1);
+                continue;
+            }
+            if (token.is(";")) {
+                // Declarations without a body, such as "class A;" in d.ts files
+                pendingType = null;
+                continue;
+            }
+            if (!token.identifier()) {
+                continue;
+            }
+
+            String container = containers.isEmpty() ? null : containers.peek().name();
+            SourceLexer.Token next = k + 1 < tokens.size() ? tokens.get(k + 1) : null;
+            SourceLexer.Token previous = k > 0 ? tokens.get(k - 1) : null;
+            boolean afterDot = previous != null && previous.is(".");
+
+            String typeKind = typeKind(token.text(), typescript);
+            if (typeKind != null && !afterDot && next != null && next.identifier()
+                    && !keywords.contains(next.text())) {
+                definitions.add(new BlobSymbols.Definition(next.text(), typeKind, next.line(), container));
+                if (!typeKind.equals("type")) {
+                    pendingType = new Container(next.text(), typeKind, 0);
+                }
+                k++;
+                continue;
+            }
+
+            if (typescript && token.is("function") && next != null && next.identifier()) {
+                definitions.add(new BlobSymbols.Definition(next.text(), "function", next.line(), container));
+                k++;
+                continue;
+            }
+
+            if (typescript && (token.is("const") || token.is("let") || token.is("var")) && next != null
+                    && next.identifier() && isFunctionValue(tokens, k + 2)) {
+                definitions.add(new BlobSymbols.Definition(next.text(), "function", next.line(), container));
+                k++;
+                continue;
+            }
+
+            boolean inTypeBody = !containers.isEmpty() && containers.peek().depth() == depth;
+            if (inTypeBody && !afterDot && next != null && next.is("(")
+                    && (!keywords.contains(token.text()) || token.is("constructor"))) {
+                int close = matching(tokens, k + 1, "(", ")");
+                SourceLexer.Token after = close + 1 < tokens.size() ? tokens.get(close + 1) : null;
+                boolean declaration = after != null && (after.is("{") || after.is("throws")
+                        || (typescript && after.is(":")) || (!typescript && after.is(";")));
+                // "new Foo(...) {" and calls inside field initializers are not declarations
+                if (declaration && declarationPrefix(previous)) {
+                    String kind = token.is("constructor") || token.text().equals(container) ? "constructor"
+                            : "method";
+                    definitions.add(new BlobSymbols.Definition(token.text(), kind, token.line(), container));
+                    continue;
+                }
+            }
+
+            if (!keywords.contains(token.text())) {
+                addReference(references, token);
+            }
+        }
+    }
+
+    /**
+     * Tokens that can precede a method name: a return type, a modifier, an
+     * annotation or the end of the previous member
+     */
+    private static boolean declarationPrefix(SourceLexer.Token previous) {
+        if (previous == null) {
+            return true;
+        }
+        if (previous.identifier()) {
+            return !previous.is("new") && !previous.is("return") && !previous.is("throw")
+                    && !previous.is("await") && !previous.is("yield");
+        }
+        return "};{>])*".contains(previous.text());
+    }
+
+    private static String typeKind(String keyword, boolean typescript) {
+        return switch (keyword) {
+            case "class" -> "class";
+            case "interface" -> "interface";
+            case "enum" -> "enum";
+            case "record" -> typescript ? null : "record";
+            case "type" -> typescript ? "type" : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Whether the tokens after "const name" assign a function: "= function",
+     * "= (...) =>" or "= x =>", optionally async or typed
+     */
+    private static boolean isFunctionValue(List<SourceLexer.Token> tokens, int k) {
+        if (k < tokens.size() && tokens.get(k).is(":")) {
+            // Typed declaration: skip the type up to the assignment on the same line
+            int line = tokens.get(k).line();
+            while (k < tokens.size() && !tokens.get(k).is("=") && tokens.get(k).line() == line) {
+                k++;
+            }
+        }
+        if (k >= tokens.size() || !tokens.get(k).is("=")) {
+            return false;
+        }
+        k++;
+        if (k < tokens.size() && tokens.get(k).is("async")) {
+            k++;
+        }
+        if (k >= tokens.size()) {
+            return false;
+        }
+        if (tokens.get(k).is("function")) {
+            return true;
+        }
+        if (tokens.get(k).is("(")) {
+            k = matching(tokens, k, "(", ")") + 1;
+        } else if (tokens.get(k).identifier()) {
+            k++;
+        } else {
+            return false;
+        }
+        if (k < tokens.size() && tokens.get(k).is(":")) {
+            // Return type annotation before the arrow
+            int line = tokens.get(k).line();
+            while (k < tokens.size() && !tokens.get(k).is("=") && tokens.get(k).line() == line) {
+                k++;
+            }
+        }
+        return k + 1 < tokens.size() && tokens.get(k).is("=") && tokens.get(k + 1).is(">");
+    }
+
+    private static int matching(List<SourceLexer.Token> tokens, int open, String openText, String closeText) {
+        int depth = 0;
+        for (int k = open; k < tokens.size(); k++) {
+            if (tokens.get(k).is(openText)) {
+                depth++;
+            } else if (tokens.get(k).is(closeText) && --depth == 0) {
+                return k;
+            }
+        }
+        return tokens.size() - 1;
+    }
+
+    private static void extractPython(List<SourceLexer.Token> tokens, List<BlobSymbols.Definition> definitions,
+            List<BlobSymbols.Reference> references) {
+        Deque<Container> containers = new ArrayDeque<>();
+        int brackets = 0;
+        int previousLine = 0;
+
+        for (int k = 0; k < tokens.size(); k++) {
+            SourceLexer.Token token = tokens.get(k);
+            boolean lineStart = token.line() != previousLine;
+            previousLine = token.line();
+
+            // A statement at or left of a block's indent closes that block
+            if (lineStart && brackets == 0) {
+                while (!containers.isEmpty() && containers.peek().depth() >= token.indent()) {
+                    containers.pop();
+                }
+            }
+            if (token.is("(") || token.is("[") || token.is("{")) {
+                brackets++;
+                continue;
+            }
+            if (token.is(")") || token.is("]") || token.is("}")) {
+                brackets = Math.max(0, brackets - 1);
+                continue;
+            }
+            if (!token.identifier()) {
+                continue;
+            }
+
+            SourceLexer.Token next = k + 1 < tokens.size() ? tokens.get(k + 1) : null;
+            if ((token.is("class") || token.is("def")) && next != null && next.identifier()) {
+                Container parent = containers.peek();
+                String kind = token.is("class") ? "class"
+                        : parent != null && parent.kind().equals("class") ? "method" : "function";
+                definitions.add(new BlobSymbols.Definition(next.text(), kind, next.line(),
+                        parent != null ? parent.name() : null));
+                containers.push(new Container(next.text(), kind, token.indent()));
+                k++;
+                continue;
+            }
+            if (!PYTHON_KEYWORDS.contains(token.text())) {
+                addReference(references, token);
+            }
+        }
+    }
+
+    private static void addReference(List<BlobSymbols.Reference> references, SourceLexer.Token token) {
+        if (references.size() >= MAX_REFERENCES) {
+            return;
+        }
+        // Tokens arrive in line order, so a duplicate on the same line is among the last few
+        for (int i = references.size() - 1; i >= 0 && references.get(i).line() == token.line(); i--) {
+            if (references.get(i).name().equals(token.text())) {
+                return;
+            }
+        }
+        references.add(new BlobSymbols.Reference(token.text(), token.line()));
+    }
+}
@@ -0,0 +1,316 @@
+package com.Backend_project.service.symbols;
+
+import com.Backend_project.event.LocalCachesResetEvent;
+import com.Backend_project.event.ProjectFileCachedEvent;
+import com.Backend_project.event.ProjectFilesClearedEvent;
+import com.Backend_project.event.ProjectFilesInvalidatedEvent;
+import com.Backend_project.model.BlobSymbols;
+import com.Backend_project.model.ProjectFile;
+import com.Backend_project.model.ProjectStatus;
+import com.Backend_project.repository.BlobSymbolsRepository;
+import com.Backend_project.repository.ProjectFileRepository;
+import com.Backend_project.service.ProjectStatusCache;
+import com.Backend_project.util.ContentHash;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Symbol extraction stage of the ingestion pipeline, and the per-project
+ * symbol tables it feeds. Every Java, Python or TS/JS file written to the
+ * file cache has its symbols extracted once per blob sha and stored in
+ * blob_symbols, so files unchanged across a resync, or shared between
+ * projects, are never tokenized again.
+ *
+ * Like the context index, a project's table is started empty when its file
+ * cache is cleared for a (re)sync and filled as files are cached. The
+ * prefetch that follows ingestion fetches the repository's sources first
+ * within its indexing budget (prefetch.index.*); sources past that budget
+ * are only covered once opened. Evicted tables are rebuilt from the file
+ * cache and the stored blob symbols on their next lookup.
+ */
+@Service
+public class SymbolIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(SymbolIndexService.class);
+
+    private static final int LOAD_BATCH_SIZE = 200;
+
+    @Autowired
+    private ProjectFileRepository projectFileRepository;
+
+    @Autowired
+    private BlobSymbolsRepository blobSymbolsRepository;
+
+    @Autowired
+    private ProjectStatusCache projectStatusCache;
+
+    @Value("${symbols.max-projects:50}")
+    private int maxProjects;
+
+    @Value("${symbols.max-file-chars:1048576}")
+    private int maxFileChars;
+
+    @Value("${symbols.max-results:500}")
+    private int maxResults;
+
+    private final Map<String, ProjectSymbolTable> tables = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProjectSymbolTable> eldest) {
+            return size() > maxProjects;
+        }
+    };
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "symbol-indexer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private final AtomicLong blobsExtracted = new AtomicLong();
+    private final AtomicLong blobsReused = new AtomicLong();
+    private final AtomicLong tableLoads = new AtomicLong();
+
+    @PreDestroy
+    void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    public List<CodeSymbol> findSymbols(String projectId, String userId, String query, boolean prefix, String kind,
+            int limit) throws Exception {
+        if (query == null || query.isBlank()) {
+            throw new Exception("Query must not be empty");
+        }
+        return table(projectId, userId).find(query.trim(), prefix, kind, Math.max(1, Math.min(limit, maxResults)));
+    }
+
+    public List<CodeReference> findReferences(String projectId, String userId, String name, int limit)
+            throws Exception {
+        if (name == null || name.isBlank()) {
+            throw new Exception("Name must not be empty");
+        }
+        return table(projectId, userId).references(name.trim(), Math.max(1, Math.min(limit, maxResults)));
+    }
+
+    @EventListener
+    public void onFileCached(ProjectFileCachedEvent event) {
+        String language = SymbolExtractor.language(event.path());
+        if (language == null) {
+            return;
+        }
+        indexer.execute(() -> {
+            ProjectSymbolTable table;
+            synchronized (tables) {
+                table = tables.get(event.projectId());
+            }
+            String blobKey = blobKey(event.sha(), event.content());
+            if (table != null && table.isCurrent(event.path(), blobKey)) {
+                return;
+            }
+            try {
+                BlobSymbols symbols = stored(blobKey);
+                if (symbols == null) {
+                    symbols = extractAndStore(blobKey, language, event.content());
+                }
+                if (table != null) {
+                    if (symbols != null) {
+                        table.put(event.path(), symbols);
+                    } else {
+                        table.remove(event.path());
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Symbol extraction failed for {}: {}", event.path(), e.getMessage());
+            }
+        });
+    }
+
+    @EventListener
+    public void onFilesCleared(ProjectFilesClearedEvent event) {
+        indexer.execute(() -> {
+            synchronized (tables) {
+                if (event.projectDeleted()) {
+                    tables.remove(event.projectId());
+                } else {
+                    tables.put(event.projectId(), new ProjectSymbolTable());
+                }
+            }
+        });
+    }
+
+    @EventListener
+    public void onFilesInvalidated(ProjectFilesInvalidatedEvent event) {
+        indexer.execute(() -> {
+            ProjectSymbolTable table;
+            synchronized (tables) {
+                table = tables.get(event.projectId());
+            }
+            if (table != null) {
+                event.paths().forEach(table::remove);
+            }
+        });
+    }
+
+    @EventListener
+    public void onCachesReset(LocalCachesResetEvent event) {
+        indexer.execute(() -> {
+            synchronized (tables) {
+                tables.clear();
+            }
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        int files = 0;
+        int definitions = 0;
+        synchronized (tables) {
+            stats.put("loadedProjects", tables.size());
+            for (ProjectSymbolTable table : tables.values()) {
+                files += table.files();
+                definitions += table.definitions();
+            }
+        }
+        stats.put("indexedFiles", files);
+        stats.put("definitions", definitions);
+        stats.put("blobsExtracted", blobsExtracted.get());
+        stats.put("blobsReused", blobsReused.get());
+        stats.put("tableLoads", tableLoads.get());
+        return stats;
+    }
+
+    private ProjectSymbolTable table(String projectId, String userId) throws Exception {
+        ProjectStatus project = projectStatusCache.get(projectId);
+        if (!userId.equals(project.getUserId())) {
+            throw new Exception("Unauthorized access to project");
+        }
+        synchronized (tables) {
+            ProjectSymbolTable table = tables.get(projectId);
+            if (table != null) {
+                return table;
+            }
+        }
+
+        Future<ProjectSymbolTable> loading = indexer.submit(() -> {
+            synchronized (tables) {
+                ProjectSymbolTable table = tables.get(projectId);
+                if (table != null) {
+                    return table;
+                }
+            }
+            ProjectSymbolTable table = load(projectId);
+            synchronized (tables) {
+                tables.put(projectId, table);
+            }
+            return table;
+        });
+        try {
+            return loading.get();
+        } catch (ExecutionException e) {
+            logger.error("Failed to load symbol table for project {}: {}", projectId, e.getCause().getMessage());
+            throw new Exception("Symbol index unavailable");
+        }
+    }
+
+    /**
+     * Build a table from the file cache, fetching stored blob symbols a batch
+     * at a time and extracting only blobs that have none yet
+     */
+    private ProjectSymbolTable load(String projectId) {
+        ProjectSymbolTable table = new ProjectSymbolTable();
+        List<ProjectFile> batch = new ArrayList<>();
+        try (Stream<ProjectFile> files = projectFileRepository.findByProjectId(projectId)) {
+            Iterator<ProjectFile> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                ProjectFile file = iterator.next();
+                if (SymbolExtractor.language(file.getPath()) == null || file.getContent() == null) {
+                    continue;
+                }
+                batch.add(file);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    loadBatch(table, batch);
+                    batch.clear();
+                }
+            }
+        }
+        loadBatch(table, batch);
+        tableLoads.incrementAndGet();
+        return table;
+    }
+
+    private void loadBatch(ProjectSymbolTable table, List<ProjectFile> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, String> keys = new HashMap<>();
+        for (ProjectFile file : batch) {
+            keys.put(file.getPath(), blobKey(file.getSha(), file.getContent()));
+        }
+        Map<String, BlobSymbols> stored = new HashMap<>();
+        for (BlobSymbols symbols : blobSymbolsRepository.findAllById(keys.values())) {
+            if (symbols.getExtractorVersion() == SymbolExtractor.VERSION) {
+                stored.put(symbols.getId(), symbols);
+            }
+        }
+        for (ProjectFile file : batch) {
+            String blobKey = keys.get(file.getPath());
+            BlobSymbols symbols = stored.get(blobKey);
+            if (symbols != null) {
+                blobsReused.incrementAndGet();
+            } else {
+                symbols = extractAndStore(blobKey, SymbolExtractor.language(file.getPath()), file.getContent());
+                if (symbols != null) {
+                    stored.put(blobKey, symbols);
+                }
+            }
+            if (symbols != null) {
+                table.put(file.getPath(), symbols);
+            }
+        }
+    }
+
+    private BlobSymbols stored(String blobKey) {
+        BlobSymbols symbols = blobSymbolsRepository.findById(blobKey).orElse(null);
+        if (symbols == null || symbols.getExtractorVersion() != SymbolExtractor.VERSION) {
+            return null;
+        }
+        blobsReused.incrementAndGet();
+        return symbols;
+    }
+
+    private BlobSymbols extractAndStore(String blobKey, String language, String content) {
+        if (content == null || content.length() > maxFileChars) {
+            return null;
+        }
+        BlobSymbols symbols = SymbolExtractor.extract(blobKey, language, content);
+        blobsExtracted.incrementAndGet();
+        try {
+            blobSymbolsRepository.save(symbols);
+        } catch (Exception e) {
+            // The table still gets the symbols; only reuse on a later resync is lost
+            logger.warn("Failed to store symbols of blob {}: {}", blobKey, e.getMessage());
+        }
+        return symbols;
+    }
+
+    private static String blobKey(String sha, String content) {
+        return sha != null ? sha : ContentHash.of(content);
+    }
+}
@@ -0,0 +1,16 @@
+package com.Backend_project.util;
+
+/**
+ * Replace deleteCount characters at offset with insert. Offsets count UTF-16
+ * code units, the same as JavaScript string indices in the editor.
+ */
+public record TextEdit(int offset, int deleteCount, String insert) {
+
+    public TextEdit {
+        insert = insert != null ? insert : "";
+    }
+
+    public boolean isNoop() {
+        return deleteCount == 0 && insert.isEmpty();
+    }
+}
@@ -0,0 +1,59 @@
+package com.Backend_project.util;
+
+import java.util.List;
+
+/**
+ * Applying and computing edits between two versions of a text.
+ */
+public final class TextEdits {
+
+    private TextEdits() {
+    }
+
+    /**
+     * Apply edits in order; each offset refers to the text as left by the
+     * edits before it
+     * @throws IllegalArgumentException if an edit falls outside the text
+     */
+    public static String apply(String text, List<TextEdit> edits) {
+        StringBuilder result = new StringBuilder(text != null ? text : "");
+        for (TextEdit edit : edits) {
+            if (edit.offset() < 0 || edit.deleteCount() < 0 || edit.offset() + edit.deleteCount() > result.length()) {
+                throw new IllegalArgumentException("Edit at " + edit.offset() + " deleting " + edit.deleteCount()
+                        + " is outside a text of length " + result.length());
+            }
+            result.replace(edit.offset(), edit.offset() + edit.deleteCount(), edit.insert());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Smallest single edit turning from into to, found by trimming their
+     * common prefix and suffix
+     */
+    public static TextEdit diff(String from, String to) {
+        String a = from != null ? from : "";
+        String b = to != null ? to : "";
+        int max = Math.min(a.length(), b.length());
+
+        int prefix = 0;
+        while (prefix < max && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        // Never split a surrogate pair
+        if (prefix > 0 && Character.isHighSurrogate(a.charAt(prefix - 1))) {
+            prefix--;
+        }
+
+        int suffix = 0;
+        while (suffix < max - prefix
+                && a.charAt(a.length() - 1 - suffix) == b.charAt(b.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(a.charAt(a.length() - suffix))) {
+            suffix--;
+        }
+
+        return new TextEdit(prefix, a.length() - prefix - suffix, b.substring(prefix, b.length() - suffix));
+    }
+}
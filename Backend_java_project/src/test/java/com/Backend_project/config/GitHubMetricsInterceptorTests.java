@@ -0,0 +1,59 @@
+package com.Backend_project.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class GitHubMetricsInterceptorTests {
+
+    @Test
+    void mapsPathsToEndpointTemplates() {
+        assertEquals("/repos/{owner}/{repo}/git/trees/{sha}",
+                GitHubMetricsInterceptor.endpoint("/repos/octo-org/thesis/git/trees/0d1a26e6"));
+        assertEquals("/repos/{owner}/{repo}/git/ref/heads/{branch}",
+                GitHubMetricsInterceptor.endpoint("/repos/octo-org/thesis/git/ref/heads/feature/tables"));
+        assertEquals("/repos/{owner}/{repo}/contents/{path}",
+                GitHubMetricsInterceptor.endpoint("/repos/octo-org/thesis/contents/chapters/intro.tex"));
+        assertEquals("/repos/{owner}/{repo}/pulls/{number}/files",
+                GitHubMetricsInterceptor.endpoint("/repos/octo-org/thesis/pulls/42/files"));
+        assertEquals("/repos/{owner}/{repo}/pulls", GitHubMetricsInterceptor.endpoint("/repos/octo-org/thesis/pulls"));
+        assertEquals("/repos/{owner}/{repo}/compare/{basehead}",
+                GitHubMetricsInterceptor.endpoint("/repos/octo-org/thesis/compare/aaa...bbb"));
+        assertEquals("/repositories/{id}", GitHubMetricsInterceptor.endpoint("/repositories/123456789"));
+        assertEquals("/user/repos", GitHubMetricsInterceptor.endpoint("/user/repos"));
+    }
+
+    @Test
+    void timesCallsByEndpointAndStatusAndTracksTheRateLimit() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new GitHubMetricsInterceptor(registry));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo("https://api.github.com/repos/a/b/pulls/1"))
+                .andRespond(withSuccess().header("X-RateLimit-Remaining", "4321"));
+        server.expect(requestTo("https://api.github.com/repos/c/d/pulls/2"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        restTemplate.exchange("https://api.github.com/repos/a/b/pulls/1", HttpMethod.GET, null, String.class);
+        assertThrows(HttpClientErrorException.class, () -> restTemplate.exchange(
+                "https://api.github.com/repos/c/d/pulls/2", HttpMethod.GET, null, String.class));
+
+        Timer ok = registry.get("github.requests")
+                .tags("endpoint", "/repos/{owner}/{repo}/pulls/{number}", "status", "200").timer();
+        Timer missing = registry.get("github.requests")
+                .tags("endpoint", "/repos/{owner}/{repo}/pulls/{number}", "status", "404").timer();
+        assertEquals(1, ok.count());
+        assertEquals(1, missing.count());
+        assertEquals(4321, registry.get("github.rate_limit.remaining").gauge().value());
+    }
+}
@@ -0,0 +1,24 @@
+package com.Backend_project.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsConfigTests {
+
+    @Test
+    void gitHubClientRequestsAreLeftToTheInterceptor() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MetricsConfig().gitHubClientRequestsFilter());
+
+        Timer.builder("http.client.requests").tag("client.name", "api.github.com")
+                .tag("uri", "/repos/octo-org/thesis/git/trees/0d1a26e6").register(registry);
+        Timer.builder("http.client.requests").tag("client.name", "github.com")
+                .tag("uri", "/login/oauth/access_token").register(registry);
+
+        assertNull(registry.find("http.client.requests").tag("client.name", "api.github.com").timer());
+        assertNotNull(registry.find("http.client.requests").tag("client.name", "github.com").timer());
+    }
+}
@@ -0,0 +1,135 @@
+package com.Backend_project.repository;
+
+import com.Backend_project.config.MongoIndexConfig;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Explains the queries behind the hot finder methods and fails as soon as one
+ * of them falls back to a collection scan or an in-memory sort.
+ */
+@DataMongoTest
+@Import(MongoIndexConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryQueryPlanTests {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexConfig mongoIndexConfig;
+
+    @BeforeEach
+    void createIndexes() {
+        mongoIndexConfig.ensureIndexes();
+    }
+
+    @Test
+    void findProjectFileByProjectIdAndPathUsesIndex() {
+        assertIndexed("project_files",
+                new Document("projectId", "p1").append("path", "src/Main.java"), null);
+    }
+
+    @Test
+    void findProjectsByUserIdUsesIndex() {
+        assertIndexed("projects", new Document("userId", "u1"), null);
+    }
+
+    @Test
+    void findLatexDocumentsByProjectIdOrderedUsesIndex() {
+        assertIndexed("latex_documents",
+                new Document("projectId", "p1"), new Document("order", 1));
+    }
+
+    @Test
+    void findLastLatexDocumentByProjectIdAndTypeUsesIndex() {
+        assertIndexed("latex_documents",
+                new Document("projectId", "p1").append("type", "chapter"), new Document("order", -1));
+    }
+
+    @Test
+    void findLatexDocumentByCompiledArtifactIdUsesIndex() {
+        assertIndexed("latex_documents", new Document("compiledArtifactId", "a1"), null);
+    }
+
+    @Test
+    void findRevisionRangeUsesIndex() {
+        assertIndexed("latex_document_revisions",
+                new Document("documentId", "d1").append("sequence", new Document("$gte", 10).append("$lt", 20)),
+                new Document("sequence", -1));
+    }
+
+    @Test
+    void findUserByEmailUsesIndex() {
+        assertIndexed("users", new Document("email", "someone@example.com"), null);
+    }
+
+    @Test
+    void findUserByGithubIdUsesIndex() {
+        assertIndexed("users", new Document("githubId", "12345"), null);
+    }
+
+    @Test
+    void findPullRequestSummariesByProjectIdUsesIndex() {
+        assertIndexed("pull_requests", new Document("projectId", "p1"), new Document("number", -1));
+    }
+
+    @Test
+    void findPullRequestPatchUsesIndex() {
+        assertIndexed("pull_request_patches",
+                new Document("projectId", "p1").append("number", 7).append("filename", "src/Main.java"), null);
+    }
+
+    private void assertIndexed(String collection, Document filter, Document sort) {
+        Document find = new Document("find", collection).append("filter", filter);
+        if (sort != null) {
+            find.append("sort", sort);
+        }
+        Document explain = mongoTemplate.getDb().runCommand(
+                new Document("explain", find).append("verbosity", "queryPlanner"));
+
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+
+        assertTrue(stages.contains("IXSCAN"), collection + " query does not use an index: " + stages);
+        assertFalse(stages.contains("COLLSCAN"), collection + " query scans the collection: " + stages);
+        assertFalse(stages.contains("SORT"), collection + " query sorts in memory: " + stages);
+    }
+
+    private void collectStages(Document plan, List<String> stages) {
+        if (plan == null) {
+            return;
+        }
+        if (plan.containsKey("stage")) {
+            stages.add(plan.getString("stage"));
+        }
+        // Slot-based engine explains nest the classic plan one level deeper
+        collectStages(plan.get("queryPlan", Document.class), stages);
+        collectStages(plan.get("inputStage", Document.class), stages);
+        if (plan.containsKey("inputStages")) {
+            for (Document input : plan.getList("inputStages", Document.class)) {
+                collectStages(input, stages);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.Backend_project.service;
+
+import com.Backend_project.event.LatexDocumentChangedEvent;
+import com.Backend_project.event.LatexDocumentDeletedEvent;
+import com.Backend_project.event.LocalCachesResetEvent;
+import com.Backend_project.event.ProjectFileCachedEvent;
+import com.Backend_project.event.ProjectFilesClearedEvent;
+import com.Backend_project.event.ProjectFilesInvalidatedEvent;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChangeStreamInvalidationServiceTests {
+
+    private final List<Object> published = new ArrayList<>();
+    private ProjectStatusCache projectStatusCache;
+    private ChangeStreamInvalidationService service;
+
+    @BeforeEach
+    void setUp() {
+        projectStatusCache = mock(ProjectStatusCache.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        doAnswer(invocation -> published.add(invocation.getArgument(0)))
+                .when(eventPublisher).publishEvent(any(Object.class));
+
+        service = new ChangeStreamInvalidationService();
+        ReflectionTestUtils.setField(service, "projectStatusCache", projectStatusCache);
+        ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+    }
+
+    @Test
+    void fileDeletesArePublishedPerProjectInOrder() {
+        service.apply("project_files", "delete", "f1", Set.of(), file("p1", "a.tex"));
+        service.apply("project_files", "delete", "f2", Set.of(), file("p1", "b.tex"));
+        service.apply("project_files", "delete", "f3", Set.of(), file("p2", "c.tex"));
+        assertTrue(published.isEmpty(), "deletes wait for the batch to end");
+
+        // A later write is published after the deletes that preceded it
+        service.apply("project_files", "insert", "f4", Set.of(), file("p1", "a.tex").append("sha", "s2")
+                .append("content", "new"));
+
+        assertEquals(List.of(
+                new ProjectFilesInvalidatedEvent("p1", Set.of("a.tex", "b.tex")),
+                new ProjectFilesInvalidatedEvent("p2", Set.of("c.tex")),
+                new ProjectFileCachedEvent("p1", "a.tex", "s2", "new")), published);
+    }
+
+    @Test
+    void deletesWithoutPreImageResetAllCachesOncePerBatch() {
+        service.apply("project_files", "delete", "f1", Set.of(), file("p1", "a.tex"));
+        service.apply("project_files", "delete", "f2", Set.of(), null);
+        service.apply("latex_documents", "delete", "d1", Set.of(), null);
+        assertTrue(published.isEmpty(), "deletes wait for the batch to end");
+
+        service.flush();
+        service.flush();
+
+        assertEquals(List.of(new LocalCachesResetEvent()), published);
+        assertEquals(2L, service.getStats().get("untargetedDeletes"));
+        assertEquals(1L, service.getStats().get("resets"));
+    }
+
+    @Test
+    void projectChangesEvictTheStatusAndClearFilesOnResync() {
+        service.apply("projects", "update", "p1", Set.of("headSha", "updatedAt"),
+                new Document("status", "ACTIVE"));
+        service.apply("projects", "update", "p1", Set.of("status", "updatedAt"),
+                new Document("status", "PENDING"));
+        service.apply("projects", "delete", "p2", Set.of(), null);
+
+        verify(projectStatusCache, times(2)).evict("p1");
+        verify(projectStatusCache).evict("p2");
+        assertEquals(List.of(
+                new ProjectFilesClearedEvent("p1", false),
+                new ProjectFilesClearedEvent("p2", true)), published);
+    }
+
+    @Test
+    void documentEditsArePublishedButCompileBookkeepingIsNot() {
+        Document document = new Document("projectId", "p1").append("title", "Intro").append("content", "text");
+
+        service.apply("latex_documents", "update", "d1", Set.of("isCompiled", "compileLog"), document);
+        service.apply("latex_documents", "update", "d1", Set.of("content", "contentHash", "version"), document);
+        service.apply("latex_documents", "delete", "d1", Set.of(), document);
+
+        assertEquals(List.of(
+                new LatexDocumentChangedEvent("p1", "d1", "Intro", "text"),
+                new LatexDocumentDeletedEvent("p1", "d1")), published);
+    }
+
+    @Test
+    void readsThatOnlyTouchLastAccessedAreIgnored() {
+        service.apply("project_files", "update", "f1", Set.of("lastAccessed"),
+                file("p1", "a.tex").append("sha", "s1").append("content", "x"));
+
+        assertTrue(published.isEmpty());
+    }
+
+    private static Document file(String projectId, String path) {
+        return new Document("projectId", projectId).append("path", path);
+    }
+}
@@ -0,0 +1,202 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.Project;
+import com.Backend_project.model.WebhookDelivery;
+import com.Backend_project.repository.ProjectRepository;
+import com.Backend_project.security.WebhookSignatureVerifier;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GitHubWebhookServiceTests {
+
+    private static final String SECRET = "It's a Secret to Everybody";
+
+    private ProjectRepository projectRepository;
+    private ProjectService projectService;
+    private PullRequestService pullRequestService;
+    private MongoTemplate mongoTemplate;
+    private GitHubService gitHubService;
+    private GitHubWebhookService service;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        projectService = mock(ProjectService.class);
+        pullRequestService = mock(PullRequestService.class);
+
+        gitHubService = mock(GitHubService.class);
+        RepositoryPollingService pollingService = new RepositoryPollingService();
+        ReflectionTestUtils.setField(pollingService, "projectService", projectService);
+        ReflectionTestUtils.setField(pollingService, "gitHubService", gitHubService);
+
+        service = new GitHubWebhookService();
+        ReflectionTestUtils.setField(service, "repositoryPollingService", pollingService);
+        ReflectionTestUtils.setField(service, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(service, "projectService", projectService);
+        ReflectionTestUtils.setField(service, "pullRequestService", pullRequestService);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        mongoTemplate = mock(MongoTemplate.class);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+
+        when(projectRepository.findSyncTargetsByRepositoryId("123456789")).thenReturn(List.of(project("ACTIVE")));
+    }
+
+    @Test
+    void verifiesSignatureOfRawBody() throws IOException {
+        byte[] body = payload("push.json");
+
+        assertTrue(service.isSignatureValid(body, WebhookSignatureVerifier.sign(SECRET, body)));
+        assertFalse(service.isSignatureValid(body, WebhookSignatureVerifier.sign("other secret", body)));
+        assertFalse(service.isSignatureValid(body, null));
+        assertFalse(service.isSignatureValid(body, "sha256=not-hex"));
+        assertFalse(service.isSignatureValid((new String(body, StandardCharsets.UTF_8) + " ").getBytes(
+                StandardCharsets.UTF_8), WebhookSignatureVerifier.sign(SECRET, body)));
+        // GitHub's documented test vector
+        assertEquals("sha256=757107ea0eb2509fc211221cce984b8a37570b6d7586c22c46f4379c8b043e17",
+                WebhookSignatureVerifier.sign(SECRET, "Hello, World!".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void redeliveryAcceptedByAnyNodeIsIgnored() throws Exception {
+        service.start();
+        try {
+            when(mongoTemplate.insert(any(WebhookDelivery.class)))
+                    .thenAnswer(invocation -> invocation.getArgument(0))
+                    .thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+            assertTrue(service.enqueue("ping", "delivery-1", "{}".getBytes(StandardCharsets.UTF_8)));
+            assertTrue(service.enqueue("ping", "delivery-1", "{}".getBytes(StandardCharsets.UTF_8)));
+
+            assertEquals(1L, service.getStats().get("redeliveriesIgnored"));
+            ArgumentCaptor<WebhookDelivery> delivery = ArgumentCaptor.forClass(WebhookDelivery.class);
+            verify(mongoTemplate, times(2)).insert(delivery.capture());
+            assertEquals("delivery-1", delivery.getValue().getId());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void pushInvalidatesOnlyTouchedPaths() throws Exception {
+        service.apply("push", parse("push.json"));
+
+        Set<String> expected = Set.of("chapters/introduction.tex", "README.md", "chapters/related-work.tex",
+                "chapters/old-notes.tex", "main.tex");
+        // Paths were added and removed, so the tree is refetched, but nothing is resynced
+        verify(projectService).applyRepositoryChanges("p1", expected, true,
+                "0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c");
+        verify(projectService, never()).resyncRepository(anyString(), anyString());
+    }
+
+    @Test
+    void pushAfterAMissedDeliveryComparesFromTheSyncedHead() throws Exception {
+        Project project = project("ACTIVE");
+        project.setHeadSha("a5e1f1bc0b7d6e5c9f2e3d4c5b6a79808f7e6d5c");
+        when(projectRepository.findSyncTargetsByRepositoryId("123456789")).thenReturn(List.of(project));
+        when(gitHubService.compareCommits("u1", "octo-org", "thesis", "a5e1f1bc0b7d6e5c9f2e3d4c5b6a79808f7e6d5c",
+                "0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c")).thenReturn(Map.of(
+                "status", "ahead",
+                "files", List.of(
+                        Map.of("filename", "chapters/introduction.tex", "status", "modified"),
+                        Map.of("filename", "chapters/method.tex", "status", "modified"))));
+
+        service.apply("push", parse("push.json"));
+
+        // The missed push's chapters/method.tex is dropped along with this push's own change
+        verify(projectService).applyRepositoryChanges("p1",
+                Set.of("chapters/introduction.tex", "chapters/method.tex"), false,
+                "0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c");
+        verify(projectService, never()).resyncRepository(anyString(), anyString());
+    }
+
+    @Test
+    void pushAlreadyAppliedIsIgnored() throws Exception {
+        Project project = project("ACTIVE");
+        project.setHeadSha("0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c");
+        when(projectRepository.findSyncTargetsByRepositoryId("123456789")).thenReturn(List.of(project));
+
+        service.apply("push", parse("push.json"));
+
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    void pushToOtherBranchIsIgnored() throws Exception {
+        Map<String, Object> payload = parse("push.json");
+        payload.put("ref", "refs/heads/draft");
+
+        service.apply("push", payload);
+
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    void forcedPushFallsBackToResync() throws Exception {
+        service.apply("push", parse("push-forced.json"));
+
+        verify(projectService).resyncRepository("u1", "p1");
+        verify(projectService, never()).applyRepositoryChanges(anyString(), anySet(), anyBoolean(), any());
+    }
+
+    @Test
+    void pullRequestEventRefreshesOnlyThatPullRequest() throws Exception {
+        service.apply("pull_request", parse("pull_request.json"));
+
+        verify(pullRequestService).refreshPullRequest("p1", "u1", "octo-org", "thesis", 42);
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    void pendingProjectsAreSkipped() throws Exception {
+        when(projectRepository.findSyncTargetsByRepositoryId("123456789")).thenReturn(List.of(project("PENDING")));
+
+        service.apply("push", parse("push.json"));
+
+        verifyNoInteractions(projectService);
+    }
+
+    private static Project project(String status) {
+        Project project = new Project();
+        project.setId("p1");
+        project.setUserId("u1");
+        project.setRepositoryId("123456789");
+        project.setRepositoryOwner("octo-org");
+        project.setRepositoryName("thesis");
+        project.setDefaultBranch("main");
+        project.setStatus(status);
+        // The "before" of the recorded pushes
+        project.setHeadSha("6113728f27ae82c7b1a177c8d03f9e96e0adf246");
+        return project;
+    }
+
+    private static Map<String, Object> parse(String name) throws IOException {
+        return new ObjectMapper().readValue(payload(name), new TypeReference<Map<String, Object>>() {
+        });
+    }
+
+    private static byte[] payload(String name) throws IOException {
+        try (InputStream in = GitHubWebhookServiceTests.class.getResourceAsStream("/github/webhooks/" + name)) {
+            assertNotNull(in, name);
+            return in.readAllBytes();
+        }
+    }
+}
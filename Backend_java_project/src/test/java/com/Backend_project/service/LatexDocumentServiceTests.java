@@ -0,0 +1,100 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.LatexDocument;
+import com.Backend_project.model.Project;
+import com.Backend_project.repository.LatexDocumentRepository;
+import com.Backend_project.repository.ProjectRepository;
+import com.Backend_project.service.compile.LatexArtifactStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LatexDocumentServiceTests {
+
+    private LatexDocumentRepository latexDocumentRepository;
+    private LatexDocumentService service;
+
+    @BeforeEach
+    void setUp() {
+        latexDocumentRepository = mock(LatexDocumentRepository.class);
+        when(latexDocumentRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ProjectRepository projectRepository = mock(ProjectRepository.class);
+        Project project = new Project();
+        project.setId("p1");
+        project.setUserId("u1");
+        when(projectRepository.findById("p1")).thenReturn(Optional.of(project));
+        Project otherProject = new Project();
+        otherProject.setId("p2");
+        otherProject.setUserId("u2");
+        when(projectRepository.findById("p2")).thenReturn(Optional.of(otherProject));
+
+        service = new LatexDocumentService();
+        ReflectionTestUtils.setField(service, "latexDocumentRepository", latexDocumentRepository);
+        ReflectionTestUtils.setField(service, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void documentWithoutOrderGoesAfterItsSiblings() throws Exception {
+        LatexDocument last = new LatexDocument();
+        last.setOrder(3);
+        when(latexDocumentRepository.findFirstByProjectIdAndTypeOrderByOrderDesc("p1", "chapter"))
+                .thenReturn(Optional.of(last));
+
+        assertEquals(4, service.createDocument("p1", "u1", document("chapter", 0)).getOrder());
+    }
+
+    @Test
+    void firstDocumentOfATypeStartsAtOne() throws Exception {
+        when(latexDocumentRepository.findFirstByProjectIdAndTypeOrderByOrderDesc("p1", "section"))
+                .thenReturn(Optional.empty());
+
+        assertEquals(1, service.createDocument("p1", "u1", document("section", 0)).getOrder());
+    }
+
+    @Test
+    void explicitOrderIsKept() throws Exception {
+        assertEquals(7, service.createDocument("p1", "u1", document("chapter", 7)).getOrder());
+        verify(latexDocumentRepository, never()).findFirstByProjectIdAndTypeOrderByOrderDesc(any(), any());
+    }
+
+    @Test
+    void documentsAreOnlyReachableThroughTheirOwnProject() {
+        LatexDocument document = document("chapter", 1);
+        document.setId("d1");
+        document.setProjectId("p1");
+        document.setCompiledArtifactId("artifact");
+        when(latexDocumentRepository.findById("d1")).thenReturn(Optional.of(document));
+        when(latexDocumentRepository.findByIdAndProjectId("d1", "p1")).thenReturn(Optional.of(document));
+        LatexRevisionService revisionService = mock(LatexRevisionService.class);
+        LatexArtifactStore artifactStore = mock(LatexArtifactStore.class);
+        ReflectionTestUtils.setField(service, "latexRevisionService", revisionService);
+        ReflectionTestUtils.setField(service, "latexArtifactStore", artifactStore);
+
+        // The owner of p2 names their own project and someone else's document
+        Exception restore = assertThrows(Exception.class, () -> service.restoreRevision("p2", "u2", "d1", 1));
+        Exception download = assertThrows(Exception.class, () -> service.getCompiledPdf("p2", "u2", "d1"));
+
+        assertEquals("Document not found", restore.getMessage());
+        assertEquals("Document not found", download.getMessage());
+        verifyNoInteractions(revisionService, artifactStore);
+        verify(latexDocumentRepository, never()).save(any());
+    }
+
+    private static LatexDocument document(String type, int order) {
+        LatexDocument document = new LatexDocument();
+        document.setTitle("Introduction");
+        document.setType(type);
+        document.setOrder(order);
+        document.setContent("\\chapter{Introduction}");
+        return document;
+    }
+}
@@ -0,0 +1,129 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.LatexDocument;
+import com.Backend_project.model.LatexDocumentRevision;
+import com.Backend_project.repository.LatexDocumentRevisionRepository;
+import com.Backend_project.util.ContentHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LatexRevisionServiceTests {
+
+    private static final int SNAPSHOT_INTERVAL = 10;
+
+    private final List<LatexDocumentRevision> stored = new ArrayList<>();
+    private final List<Integer> replayLengths = new ArrayList<>();
+    private LatexRevisionService service;
+    private LatexDocument document;
+
+    @BeforeEach
+    void setUp() {
+        LatexDocumentRevisionRepository repository = mock(LatexDocumentRevisionRepository.class);
+        when(repository.insert(any(LatexDocumentRevision.class))).thenAnswer(invocation -> {
+            stored.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(repository.findByDocumentIdAndSequence(anyString(), anyLong())).thenAnswer(invocation ->
+                stored.stream().filter(revision -> revision.getSequence() == (long) invocation.getArgument(1))
+                        .findFirst());
+        when(repository.findSnapshotsFrom(anyString(), anyLong(), any(Pageable.class))).thenAnswer(invocation ->
+                stored.stream()
+                        .filter(revision -> revision.isSnapshot()
+                                && revision.getSequence() >= (long) invocation.getArgument(1))
+                        .sorted(Comparator.comparingLong(LatexDocumentRevision::getSequence))
+                        .limit(1)
+                        .toList());
+        when(repository.findRange(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            List<LatexDocumentRevision> range = stored.stream()
+                    .filter(revision -> revision.getSequence() >= (long) invocation.getArgument(1)
+                            && revision.getSequence() < (long) invocation.getArgument(2))
+                    .sorted(Comparator.comparingLong(LatexDocumentRevision::getSequence).reversed())
+                    .toList();
+            replayLengths.add(range.size());
+            return range;
+        });
+
+        service = new LatexRevisionService();
+        ReflectionTestUtils.setField(service, "revisionRepository", repository);
+        ReflectionTestUtils.setField(service, "snapshotInterval", SNAPSHOT_INTERVAL);
+        ReflectionTestUtils.setField(service, "maxPageSize", 100);
+
+        document = new LatexDocument();
+        document.setId("doc");
+        document.setProjectId("project");
+        document.setContent("");
+        document.setVersion(0L);
+    }
+
+    private void write(String content) {
+        service.record(document, content, "user");
+        document.setContent(content);
+        document.setContentHash(ContentHash.of(content));
+        document.setVersion(document.getVersion() + 1);
+        document.setRevisionCount(document.getRevisionCount() + 1);
+    }
+
+    @Test
+    void everyRevisionIsReconstructedExactly() throws Exception {
+        List<String> history = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 35; i++) {
+            history.add(document.getContent());
+            if (i % 3 == 2) {
+                content.delete(0, Math.min(5, content.length()));
+            } else {
+                content.insert(content.length() / 2, "\\section{" + i + "}\n");
+            }
+            write(content.toString());
+        }
+
+        for (int sequence = 0; sequence < history.size(); sequence++) {
+            assertEquals(history.get(sequence), service.contentAt(document, sequence), "revision " + sequence);
+        }
+    }
+
+    @Test
+    void reconstructionReplaysAtMostOneSnapshotInterval() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            write("line " + i + "\n" + document.getContent());
+        }
+
+        for (long sequence = 0; sequence < 200; sequence += 7) {
+            service.contentAt(document, sequence);
+        }
+        assertTrue(replayLengths.stream().allMatch(length -> length < SNAPSHOT_INTERVAL));
+        assertEquals(200 / SNAPSHOT_INTERVAL, stored.stream().filter(LatexDocumentRevision::isSnapshot).count());
+    }
+
+    @Test
+    void deltasStayProportionalToTheEdit() {
+        write("x".repeat(100_000));
+        write("x".repeat(50_000) + "edit" + "x".repeat(50_000));
+
+        LatexDocumentRevision latest = stored.get(1);
+        assertNull(latest.getSnapshot());
+        assertEquals(4, latest.getReverseDelta().deleteCount());
+        assertEquals("", latest.getReverseDelta().insert());
+    }
+
+    @Test
+    void missingRevisionIsReported() {
+        write("one");
+        write("two");
+        write("three");
+        stored.removeIf(revision -> revision.getSequence() == 2);
+
+        Exception error = assertThrows(Exception.class, () -> service.contentAt(document, 1));
+        assertTrue(error.getMessage().contains("incomplete"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.Backend_project.service;
+
+import com.Backend_project.config.MongoIndexConfig;
+import com.Backend_project.model.ProjectFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Caches a large project through the bulk writer against a real Mongo and
+ * checks that the files land in a few bulk writes rather than one round trip
+ * each, and that rewriting them upserts in place.
+ */
+@DataMongoTest
+@Import({ MongoIndexConfig.class, ProjectFileBulkWriter.class })
+@Testcontainers(disabledWithoutDocker = true)
+class ProjectFileBulkWriterIntegrationTests {
+
+    private static final int FILE_COUNT = 5000;
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexConfig mongoIndexConfig;
+
+    @Autowired
+    private ProjectFileBulkWriter bulkWriter;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(ProjectFile.class);
+        mongoIndexConfig.ensureIndexes();
+    }
+
+    @Test
+    void largeProjectIsWrittenInFewBatches() throws Exception {
+        for (int i = 0; i < FILE_COUNT; i++) {
+            bulkWriter.enqueue(createFile("bulk", i));
+        }
+        bulkWriter.flush();
+        awaitCount("bulk", FILE_COUNT);
+
+        assertEquals(FILE_COUNT, countFiles("bulk"));
+        // Full batches are 500 files; allow for partial ones cut by the flush interval
+        long batches = bulkWriter.getBatchesWritten();
+        assertTrue(batches <= FILE_COUNT / 50, "wrote " + FILE_COUNT + " files in " + batches + " batches");
+    }
+
+    @Test
+    void rewrittenFilesAreUpsertedInPlace() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            bulkWriter.enqueue(createFile("bulk", i));
+        }
+        bulkWriter.flush();
+        for (int i = 0; i < 100; i++) {
+            ProjectFile file = createFile("bulk", i);
+            file.setSha("rewritten");
+            bulkWriter.enqueue(file);
+        }
+        bulkWriter.flush();
+
+        assertEquals(100, countFiles("bulk"));
+        assertEquals(100, mongoTemplate.count(new Query(Criteria.where("projectId").is("bulk")
+                .and("sha").is("rewritten")), ProjectFile.class));
+    }
+
+    private ProjectFile createFile(String projectId, int index) {
+        ProjectFile file = new ProjectFile();
+        file.setProjectId(projectId);
+        file.setPath("src/module" + (index % 50) + "/File" + index + ".java");
+        file.setContent("class File" + index + " {\n    // generated\n}\n".repeat(20));
+        file.setSha(Integer.toHexString(index));
+        file.setSize(file.getContent().length());
+        file.setLastUpdated(new Date());
+        return file;
+    }
+
+    private long countFiles(String projectId) {
+        return mongoTemplate.count(new Query(Criteria.where("projectId").is(projectId)), ProjectFile.class);
+    }
+
+    private void awaitCount(String projectId, long expected) throws InterruptedException {
+        // The flusher thread may still be writing its last batch
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (countFiles(projectId) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
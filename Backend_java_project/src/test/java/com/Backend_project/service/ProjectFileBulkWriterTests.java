@@ -0,0 +1,140 @@
+package com.Backend_project.service;
+
+import com.Backend_project.event.ProjectFileCachedEvent;
+import com.Backend_project.event.ProjectFilesClearedEvent;
+import com.Backend_project.model.ProjectFile;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProjectFileBulkWriterTests {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations operations;
+    private ApplicationEventPublisher eventPublisher;
+    private ProjectFileBulkWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        operations = mock(BulkOperations.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProjectFile.class)).thenReturn(operations);
+
+        writer = new ProjectFileBulkWriter();
+        ReflectionTestUtils.setField(writer, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(writer, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(writer, "batchSize", 100);
+        ReflectionTestUtils.setField(writer, "maxAttempts", 3);
+        ReflectionTestUtils.setField(writer, "retryBackoffMs", 1L);
+        // No flusher thread: flush() does the writing
+        ReflectionTestUtils.setField(writer, "buffer", new ArrayBlockingQueue<ProjectFile>(100));
+    }
+
+    @Test
+    void newestWriteOfAPathWins() throws Exception {
+        writer.enqueue(file("main.tex", "old"));
+        writer.enqueue(file("refs.bib", "refs"));
+        writer.enqueue(file("main.tex", "new"));
+
+        writer.flush();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(operations, times(2)).upsert(any(Query.class), updates.capture());
+        assertEquals("new", updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class)
+                .get("content"));
+        verify(eventPublisher, times(2)).publishEvent(any(ProjectFileCachedEvent.class));
+    }
+
+    @Test
+    void failedBatchIsRetried() throws Exception {
+        when(operations.execute())
+                .thenThrow(new DataAccessResourceFailureException("primary stepped down"))
+                .thenReturn(null);
+        writer.enqueue(file("main.tex", "content"));
+
+        writer.flush();
+
+        verify(operations, times(2)).execute();
+        assertEquals(1L, writer.getStats().get("batchesRetried"));
+        assertEquals(1L, writer.getFilesWritten());
+        verify(eventPublisher).publishEvent(any(ProjectFileCachedEvent.class));
+    }
+
+    @Test
+    void batchFailingEveryAttemptIsCounted() throws Exception {
+        when(operations.execute()).thenThrow(new DataAccessResourceFailureException("unreachable"));
+        writer.enqueue(file("main.tex", "content"));
+
+        writer.flush();
+
+        verify(operations, times(3)).execute();
+        assertEquals(1L, writer.getStats().get("filesFailed"));
+        assertEquals(0L, writer.getFilesWritten());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void writesFetchedBeforeAnInvalidationAreDiscarded() throws Exception {
+        Date beforeChange = new Date(System.currentTimeMillis() - 1_000);
+        writer.enqueue(file("main.tex", "buffered", beforeChange));
+        writer.enqueue(file("refs.bib", "untouched", beforeChange));
+
+        writer.discard("p1", Set.of("main.tex"));
+        // Still in flight when the push arrived
+        writer.enqueue(file("main.tex", "late", beforeChange));
+        writer.flush();
+        // Fetched after the push
+        writer.enqueue(file("main.tex", "fresh", new Date(System.currentTimeMillis() + 1_000)));
+        writer.flush();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(operations, times(2)).upsert(any(Query.class), updates.capture());
+        assertEquals(List.of("untouched", "fresh"), updates.getAllValues().stream()
+                .map(update -> update.getUpdateObject().get("$set", Document.class).get("content"))
+                .toList());
+        assertEquals(2L, writer.getStats().get("filesDiscarded"));
+    }
+
+    @Test
+    void clearingAProjectDiscardsAllItsBufferedWrites() throws Exception {
+        writer.enqueue(file("main.tex", "content", new Date(System.currentTimeMillis() - 1_000)));
+
+        writer.onFilesCleared(new ProjectFilesClearedEvent("p1", false));
+        writer.flush();
+
+        verify(operations, never()).execute();
+        assertEquals(0, writer.getBufferedCount());
+    }
+
+    private static ProjectFile file(String path, String content, Date fetchedAt) {
+        ProjectFile file = file(path, content);
+        file.setLastUpdated(fetchedAt);
+        return file;
+    }
+
+    private static ProjectFile file(String path, String content) {
+        ProjectFile file = new ProjectFile();
+        file.setProjectId("p1");
+        file.setPath(path);
+        file.setContent(content);
+        return file;
+    }
+}
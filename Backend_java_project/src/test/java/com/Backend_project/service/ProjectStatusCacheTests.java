@@ -0,0 +1,96 @@
+package com.Backend_project.service;
+
+import com.Backend_project.event.LocalCachesResetEvent;
+import com.Backend_project.model.Project;
+import com.Backend_project.model.ProjectStatus;
+import com.Backend_project.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProjectStatusCacheTests {
+
+    private ProjectRepository projectRepository;
+    private ProjectStatusCache cache;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        cache = new ProjectStatusCache();
+        ReflectionTestUtils.setField(cache, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+    }
+
+    @Test
+    void missFallsBackToTheStatusProjectionOnce() throws Exception {
+        when(projectRepository.findStatusById("p1")).thenReturn(Optional.of(status("p1", "PENDING")));
+
+        assertEquals("PENDING", cache.get("p1").getStatus());
+        assertEquals("PENDING", cache.get("p1").getStatus());
+
+        verify(projectRepository, times(1)).findStatusById("p1");
+        verify(projectRepository, never()).findById(any());
+    }
+
+    @Test
+    void missingProjectIsReported() {
+        when(projectRepository.findStatusById("gone")).thenReturn(Optional.empty());
+
+        Exception e = assertThrows(Exception.class, () -> cache.get("gone"));
+        assertEquals("Project not found", e.getMessage());
+    }
+
+    @Test
+    void statusTransitionsAreServedWithoutReloading() throws Exception {
+        when(projectRepository.findStatusById("p1")).thenReturn(Optional.of(status("p1", "PENDING")));
+        cache.get("p1");
+
+        cache.update(project("p1", "ACTIVE"));
+        assertEquals("ACTIVE", cache.get("p1").getStatus());
+
+        cache.update(project("p1", "FAILED"));
+        assertEquals("FAILED", cache.get("p1").getStatus());
+        verify(projectRepository, times(1)).findStatusById("p1");
+    }
+
+    @Test
+    void leastRecentlyUsedProjectIsDropped() throws Exception {
+        cache.update(project("p1", "ACTIVE"));
+        cache.update(project("p2", "ACTIVE"));
+        cache.get("p1");
+        cache.update(project("p3", "ACTIVE"));
+
+        assertEquals(2, cache.size());
+        when(projectRepository.findStatusById("p2")).thenReturn(Optional.of(status("p2", "ACTIVE")));
+        cache.get("p1");
+        cache.get("p2");
+        verify(projectRepository, never()).findStatusById("p1");
+        verify(projectRepository).findStatusById("p2");
+    }
+
+    @Test
+    void resetForgetsEverything() throws Exception {
+        cache.update(project("p1", "ACTIVE"));
+        cache.onCachesReset(new LocalCachesResetEvent());
+
+        when(projectRepository.findStatusById("p1")).thenReturn(Optional.of(status("p1", "FAILED")));
+        assertEquals("FAILED", cache.get("p1").getStatus());
+    }
+
+    private static Project project(String id, String status) {
+        Project project = new Project();
+        project.setId(id);
+        project.setUserId("u1");
+        project.setStatus(status);
+        return project;
+    }
+
+    private static ProjectStatus status(String id, String status) {
+        return ProjectStatus.from(project(id, status));
+    }
+}
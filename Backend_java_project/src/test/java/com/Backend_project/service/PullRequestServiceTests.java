@@ -0,0 +1,168 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.PullRequest;
+import com.Backend_project.model.PullRequestPatch;
+import com.Backend_project.repository.PullRequestPatchRepository;
+import com.Backend_project.repository.PullRequestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PullRequestServiceTests {
+
+    private final List<PullRequest> savedPullRequests = new ArrayList<>();
+    private final List<PullRequestPatch> savedPatches = new ArrayList<>();
+    private GitHubService gitHubService;
+    private PullRequestRepository pullRequestRepository;
+    private PullRequestPatchRepository patchRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private PullRequestService service;
+
+    @BeforeEach
+    void setUp() {
+        gitHubService = mock(GitHubService.class);
+        pullRequestRepository = mock(PullRequestRepository.class);
+        patchRepository = mock(PullRequestPatchRepository.class);
+        when(pullRequestRepository.save(any(PullRequest.class))).thenAnswer(invocation -> {
+            savedPullRequests.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(patchRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            ((Iterable<PullRequestPatch>) invocation.getArgument(0)).forEach(savedPatches::add);
+            return invocation.getArgument(0);
+        });
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new PullRequestService();
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "gitHubService", gitHubService);
+        ReflectionTestUtils.setField(service, "pullRequestRepository", pullRequestRepository);
+        ReflectionTestUtils.setField(service, "pullRequestPatchRepository", patchRepository);
+    }
+
+    @Test
+    void storesPatchesApartFromThePullRequest() throws Exception {
+        when(pullRequestRepository.findSyncStateByProjectId("p1")).thenReturn(List.of());
+        when(gitHubService.getRepositoryPullRequests("u1", "owner", "repo"))
+                .thenReturn(List.of(listed(7, "open", "2024-05-01T10:00:00Z")));
+        when(gitHubService.getPullRequestContent("u1", "owner", "repo", "7")).thenReturn(content(7, "open"));
+
+        Set<String> openPaths = service.syncPullRequests("p1", "u1", "owner", "repo");
+
+        assertEquals(Set.of("src/Main.java", "docs/logo.png"), openPaths);
+        PullRequest pullRequest = savedPullRequests.get(0);
+        assertEquals(7, pullRequest.getNumber());
+        assertEquals("alice", pullRequest.getAuthor());
+        assertEquals("feature", pullRequest.getHeadRef());
+        assertEquals("main", pullRequest.getBaseRef());
+        assertEquals(1, pullRequest.getCommentCount());
+        assertEquals(List.of(
+                new PullRequest.FileChange("src/Main.java", "modified", 3, 1, 4, null, true),
+                new PullRequest.FileChange("docs/logo.png", "added", 0, 0, 0, null, false)),
+                pullRequest.getFiles());
+
+        assertEquals(1, savedPatches.size());
+        assertEquals("src/Main.java", savedPatches.get(0).getFilename());
+        assertEquals("@@ -1 +1 @@\n-old\n+new", savedPatches.get(0).getPatch());
+        verify(patchRepository, never()).deleteByProjectIdAndNumber(anyString(), anyInt());
+    }
+
+    @Test
+    void replacesPatchesInPlaceAndDropsStaleOnesAfterThePullRequest() throws Exception {
+        when(pullRequestRepository.findSyncStateByProjectId("p1")).thenReturn(List.of());
+        when(gitHubService.getRepositoryPullRequests("u1", "owner", "repo"))
+                .thenReturn(List.of(listed(7, "open", "2024-05-01T10:00:00Z")));
+        when(gitHubService.getPullRequestContent("u1", "owner", "repo", "7")).thenReturn(content(7, "open"));
+        when(patchRepository.findKeysByProjectIdAndNumber("p1", 7))
+                .thenReturn(List.of(patchKey("patch-main", "src/Main.java"), patchKey("patch-old", "src/Old.java")));
+
+        service.syncPullRequests("p1", "u1", "owner", "repo");
+
+        // The surviving file keeps its document, so it is replaced rather than deleted and inserted
+        assertEquals("patch-main", savedPatches.get(0).getId());
+        InOrder order = inOrder(patchRepository, pullRequestRepository);
+        order.verify(patchRepository).saveAll(anyIterable());
+        order.verify(pullRequestRepository).save(any(PullRequest.class));
+        order.verify(patchRepository).deleteAllById(argThat(ids -> List.of("patch-old").equals(toList(ids))));
+    }
+
+    @Test
+    void skipsPullRequestsUnchangedSinceTheLastSync() throws Exception {
+        PullRequest unchanged = syncState("id-7", 7, "open", "2024-05-01T10:00:00Z");
+        PullRequest updated = syncState("id-8", 8, "closed", "2024-05-01T10:00:00Z");
+        when(pullRequestRepository.findSyncStateByProjectId("p1")).thenReturn(List.of(unchanged, updated));
+        when(gitHubService.getRepositoryPullRequests("u1", "owner", "repo")).thenReturn(List.of(
+                listed(7, "open", "2024-05-01T10:00:00Z"),
+                listed(8, "closed", "2024-06-01T10:00:00Z")));
+        when(gitHubService.getPullRequestContent("u1", "owner", "repo", "8")).thenReturn(content(8, "closed"));
+        unchanged.setFiles(List.of(new PullRequest.FileChange("README.md", null, 0, 0, 0, null, false)));
+
+        Set<String> openPaths = service.syncPullRequests("p1", "u1", "owner", "repo");
+
+        verify(gitHubService, never()).getPullRequestContent(anyString(), anyString(), anyString(), eq("7"));
+        // The sync state carries the file names, so unchanged pull requests are not read again
+        verify(pullRequestRepository, never()).findByProjectIdAndNumber(anyString(), anyInt());
+        assertEquals(Set.of("README.md"), openPaths);
+        assertEquals(1, savedPullRequests.size());
+        assertEquals("id-8", savedPullRequests.get(0).getId());
+        assertEquals("2024-06-01T10:00:00Z", savedPullRequests.get(0).getUpdatedAt());
+        assertEquals(1, meterRegistry.counter("pull_requests.synced", "outcome", "unchanged").count());
+        assertEquals(1, meterRegistry.counter("pull_requests.synced", "outcome", "fetched").count());
+    }
+
+    private static Map<String, Object> listed(int number, String state, String updatedAt) {
+        return Map.of("number", number, "state", state, "updated_at", updatedAt, "title", "PR " + number);
+    }
+
+    private static Map<String, Object> content(int number, String state) {
+        Map<String, Object> details = Map.of(
+                "number", number,
+                "title", "PR " + number,
+                "state", state,
+                "user", Map.of("login", "alice"),
+                "head", Map.of("ref", "feature", "sha", "abc"),
+                "base", Map.of("ref", "main"),
+                "additions", 3,
+                "deletions", 1,
+                "changed_files", 2);
+        List<Map<String, Object>> files = List.of(
+                Map.of("filename", "src/Main.java", "status", "modified", "additions", 3, "deletions", 1,
+                        "changes", 4, "patch", "@@ -1 +1 @@\n-old\n+new"),
+                Map.of("filename", "docs/logo.png", "status", "added", "additions", 0, "deletions", 0,
+                        "changes", 0));
+        return Map.of("details", details, "files", files, "comments", List.of(Map.of("body", "Looks good")));
+    }
+
+    private static PullRequestPatch patchKey(String id, String filename) {
+        PullRequestPatch patch = new PullRequestPatch();
+        patch.setId(id);
+        patch.setFilename(filename);
+        return patch;
+    }
+
+    private static List<String> toList(Iterable<? extends String> ids) {
+        List<String> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+
+    private static PullRequest syncState(String id, int number, String state, String updatedAt) {
+        PullRequest pullRequest = new PullRequest();
+        pullRequest.setId(id);
+        pullRequest.setNumber(number);
+        pullRequest.setState(state);
+        pullRequest.setUpdatedAt(updatedAt);
+        return pullRequest;
+    }
+}
@@ -0,0 +1,219 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.Project;
+import com.Backend_project.repository.ProjectFileRepository;
+import com.Backend_project.repository.ProjectRepository;
+import com.Backend_project.service.jobs.JobLease;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RepositoryPollingServiceTests {
+
+    private static final long MINUTE = 60_000;
+    private static final long HOUR = 60 * MINUTE;
+
+    private ProjectRepository projectRepository;
+    private ProjectService projectService;
+    private GitHubService gitHubService;
+    private RepositoryPollingService service;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        projectService = mock(ProjectService.class);
+        gitHubService = mock(GitHubService.class);
+
+        service = new RepositoryPollingService();
+        ReflectionTestUtils.setField(service, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(service, "projectService", projectService);
+        ReflectionTestUtils.setField(service, "gitHubService", gitHubService);
+        ReflectionTestUtils.setField(service, "minIntervalMs", MINUTE);
+        ReflectionTestUtils.setField(service, "maxIntervalMs", HOUR);
+        ReflectionTestUtils.setField(service, "requestsPerHour", 1000);
+        ReflectionTestUtils.setField(service, "minRateLimitRemaining", 100);
+    }
+
+    @Test
+    void unchangedHeadBacksOffUntilTheMaximumInterval() throws Exception {
+        when(projectRepository.findActiveSyncTargets()).thenReturn(List.of(project("p1", "r1", "aaa")));
+        when(gitHubService.getBranchHead(eq("u1"), eq("owner"), eq("r1"), eq("main"), any()))
+                .thenReturn(new BranchHead("aaa", "\"etag-1\"", false, 4000, 0))
+                .thenReturn(new BranchHead(null, "\"etag-1\"", true, 4000, 0));
+
+        service.tick(0);
+        List<Long> intervals = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            service.tick(poll("r1").nextCheckAt);
+            intervals.add(poll("r1").intervalMs);
+        }
+
+        assertEquals(List.of(2 * MINUTE, 4 * MINUTE, 8 * MINUTE, 16 * MINUTE, 32 * MINUTE, HOUR, HOUR, HOUR),
+                intervals);
+        // Later checks are conditional on the ETag of the first response
+        verify(gitHubService, times(7)).getBranchHead(eq("u1"), eq("owner"), eq("r1"), eq("main"),
+                eq("\"etag-1\""));
+        verify(gitHubService, never()).compareCommits(any(), any(), any(), any(), any());
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    void movedHeadSyncsOnlyChangedFilesAndPollsSoonAgain() throws Exception {
+        when(projectRepository.findActiveSyncTargets()).thenReturn(List.of(project("p1", "r1", "aaa")));
+        when(gitHubService.getBranchHead(any(), any(), any(), any(), any()))
+                .thenReturn(new BranchHead("bbb", "\"etag-2\"", false, 4000, 0));
+        when(gitHubService.compareCommits("u1", "owner", "r1", "aaa", "bbb")).thenReturn(Map.of(
+                "status", "ahead",
+                "files", List.of(
+                        Map.of("filename", "main.tex", "status", "modified"),
+                        Map.of("filename", "chapters/new.tex", "status", "renamed",
+                                "previous_filename", "chapters/old.tex"))));
+
+        service.tick(0);
+        service.tick(poll("r1").nextCheckAt);
+
+        verify(projectService).applyRepositoryChanges("p1", Set.of("main.tex", "chapters/new.tex",
+                "chapters/old.tex"), true, "bbb");
+        verify(projectService, never()).resyncRepository(any(), any());
+        assertEquals(MINUTE, poll("r1").intervalMs);
+    }
+
+    @Test
+    void freshlyIngestedProjectIsNotResyncedOnTheFirstPoll() throws Exception {
+        ProjectRepository ingestionRepository = mock(ProjectRepository.class);
+        GitHubService ingestionGitHub = mock(GitHubService.class);
+        ProjectService ingestion = new ProjectService();
+        ReflectionTestUtils.setField(ingestion, "projectRepository", ingestionRepository);
+        ReflectionTestUtils.setField(ingestion, "gitHubService", ingestionGitHub);
+        ReflectionTestUtils.setField(ingestion, "projectFileRepository", mock(ProjectFileRepository.class));
+        ReflectionTestUtils.setField(ingestion, "projectStatusCache", mock(ProjectStatusCache.class));
+        ReflectionTestUtils.setField(ingestion, "repositoryPrefetchService", mock(RepositoryPrefetchService.class));
+        ReflectionTestUtils.setField(ingestion, "pullRequestService", mock(PullRequestService.class));
+        ReflectionTestUtils.setField(ingestion, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(ingestion, "meterRegistry", new SimpleMeterRegistry());
+
+        Project project = project("p1", "r1", null);
+        project.setStatus("PENDING");
+        when(ingestionRepository.findById("p1")).thenReturn(Optional.of(project));
+        when(ingestionRepository.save(any(Project.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ingestionGitHub.getRepositoryTree("u1", "owner", "r1", "main"))
+                .thenReturn(Map.of("sha", "aaa", "tree", Map.of("children", List.of())));
+
+        ingestion.ingestRepository("p1", "u1", mock(JobLease.class));
+
+        // The first poll after ingestion, or after a restart, sees the head the tree was read at
+        assertEquals("ACTIVE", project.getStatus());
+        when(projectRepository.findActiveSyncTargets()).thenReturn(List.of(project));
+        when(gitHubService.getBranchHead(any(), any(), any(), any(), any()))
+                .thenReturn(new BranchHead("aaa", "\"etag-1\"", false, 4000, 0));
+
+        service.tick(0);
+        service.tick(poll("r1").nextCheckAt);
+
+        verifyNoInteractions(projectService);
+        verify(gitHubService, never()).compareCommits(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void changedTreeIsReadAtTheSyncedCommit() throws Exception {
+        ProjectRepository syncRepository = mock(ProjectRepository.class);
+        GitHubService syncGitHub = mock(GitHubService.class);
+        ProjectService sync = new ProjectService();
+        ReflectionTestUtils.setField(sync, "projectRepository", syncRepository);
+        ReflectionTestUtils.setField(sync, "gitHubService", syncGitHub);
+        ReflectionTestUtils.setField(sync, "projectFileRepository", mock(ProjectFileRepository.class));
+        ReflectionTestUtils.setField(sync, "projectFileBulkWriter", mock(ProjectFileBulkWriter.class));
+        ReflectionTestUtils.setField(sync, "projectStatusCache", mock(ProjectStatusCache.class));
+        ReflectionTestUtils.setField(sync, "eventPublisher", mock(ApplicationEventPublisher.class));
+
+        Project project = project("p1", "r1", "aaa");
+        when(syncRepository.findById("p1")).thenReturn(Optional.of(project));
+        when(syncRepository.save(any(Project.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(syncGitHub.getRepositoryTreeAtCommit("u1", "owner", "r1", "bbb"))
+                .thenReturn(Map.of("sha", "bbb", "tree", Map.of("children", List.of())));
+
+        sync.applyRepositoryChanges("p1", Set.of("chapters/new.tex"), true, "bbb");
+
+        // The branch may have moved past bbb already; the next poll compares from bbb and picks that up
+        verify(syncGitHub, never()).getRepositoryTree(any(), any(), any(), any());
+        assertEquals("bbb", project.getHeadSha());
+        assertEquals("bbb", ((Map<String, Object>) project.getFileTree().get("main")).get("sha"));
+    }
+
+    @Test
+    void rewrittenHistoryFallsBackToResync() throws Exception {
+        when(projectRepository.findActiveSyncTargets()).thenReturn(List.of(project("p1", "r1", "aaa")));
+        when(gitHubService.getBranchHead(any(), any(), any(), any(), any()))
+                .thenReturn(new BranchHead("ccc", "\"etag-3\"", false, 4000, 0));
+        when(gitHubService.compareCommits("u1", "owner", "r1", "aaa", "ccc"))
+                .thenReturn(Map.of("status", "diverged", "files", List.of()));
+
+        service.tick(0);
+        service.tick(poll("r1").nextCheckAt);
+
+        verify(projectService).resyncRepository("u1", "p1");
+        verify(projectService, never()).applyRepositoryChanges(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void checksStopWhenTheBudgetIsSpent() throws Exception {
+        ReflectionTestUtils.setField(service, "requestsPerHour", 300);
+        List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            projects.add(project("p" + i, "r" + i, "aaa"));
+        }
+        when(projectRepository.findActiveSyncTargets()).thenReturn(projects);
+        when(gitHubService.getBranchHead(any(), any(), any(), any(), any()))
+                .thenReturn(new BranchHead(null, null, true, 4000, 0));
+
+        service.tick(0);
+        service.tick(MINUTE);
+
+        // 300 an hour allows a burst of five
+        verify(gitHubService, times(5)).getBranchHead(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void lowRateLimitPausesTheUser() throws Exception {
+        when(projectRepository.findActiveSyncTargets()).thenReturn(List.of(project("p1", "r1", "aaa")));
+        when(gitHubService.getBranchHead(any(), any(), any(), any(), any()))
+                .thenReturn(new BranchHead(null, null, true, 50, 7200));
+
+        service.tick(0);
+        service.tick(poll("r1").nextCheckAt);
+        service.tick(poll("r1").nextCheckAt);
+
+        verify(gitHubService, times(1)).getBranchHead(any(), any(), any(), any(), any());
+    }
+
+    private RepositoryPollingService.BranchPoll poll(String repositoryId) {
+        Map<String, RepositoryPollingService.BranchPoll> polls =
+                (Map<String, RepositoryPollingService.BranchPoll>) ReflectionTestUtils.getField(service, "polls");
+        return polls.get(repositoryId + ":main");
+    }
+
+    private static Project project(String id, String repositoryId, String headSha) {
+        Project project = new Project();
+        project.setId(id);
+        project.setUserId("u1");
+        project.setRepositoryId(repositoryId);
+        project.setRepositoryOwner("owner");
+        project.setRepositoryName(repositoryId);
+        project.setDefaultBranch("main");
+        project.setHeadSha(headSha);
+        project.setStatus("ACTIVE");
+        return project;
+    }
+}
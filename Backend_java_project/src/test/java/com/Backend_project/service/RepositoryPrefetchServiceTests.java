@@ -0,0 +1,173 @@
+package com.Backend_project.service;
+
+import com.Backend_project.model.Project;
+import com.Backend_project.model.ProjectFile;
+import com.Backend_project.repository.ProjectFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RepositoryPrefetchServiceTests {
+
+    private GitHubService gitHubService;
+    private ProjectFileRepository projectFileRepository;
+    private ProjectFileBulkWriter bulkWriter;
+    private RepositoryPrefetchService service;
+
+    @BeforeEach
+    void setUp() {
+        gitHubService = mock(GitHubService.class);
+        projectFileRepository = mock(ProjectFileRepository.class);
+        bulkWriter = mock(ProjectFileBulkWriter.class);
+
+        service = new RepositoryPrefetchService();
+        ReflectionTestUtils.setField(service, "gitHubService", gitHubService);
+        ReflectionTestUtils.setField(service, "projectFileRepository", projectFileRepository);
+        ReflectionTestUtils.setField(service, "projectFileBulkWriter", bulkWriter);
+        ReflectionTestUtils.setField(service, "maxFiles", 10);
+        ReflectionTestUtils.setField(service, "maxBytes", 10_000L);
+        ReflectionTestUtils.setField(service, "maxFileBytes", 5_000L);
+        ReflectionTestUtils.setField(service, "requestsPerSecond", 1000.0);
+    }
+
+    @Test
+    void likelyFirstOpensScoreHighestAndBinariesNever() {
+        assertTrue(RepositoryPrefetchService.score("README.md", false)
+                > RepositoryPrefetchService.score("thesis/main.tex", false));
+        assertTrue(RepositoryPrefetchService.score("thesis/main.tex", false)
+                > RepositoryPrefetchService.score("pom.xml", false));
+        assertTrue(RepositoryPrefetchService.score("docs/README.md", false)
+                < RepositoryPrefetchService.score("README.md", false));
+        assertEquals(0, RepositoryPrefetchService.score("src/util/strings.java", false));
+        assertTrue(RepositoryPrefetchService.score("src/util/strings.java", true) > 0);
+        assertEquals(0, RepositoryPrefetchService.score("figures/plot.png", true));
+    }
+
+    @Test
+    void candidatesComeInScoreOrder() {
+        List<RepositoryPrefetchService.PrefetchCandidate> selected = service.selectCandidates(
+                repo(blob("pom.xml", 100), blob("README.md", 100), blob("chapters/intro.tex", 100),
+                        blob("src/util/strings.java", 100)),
+                Set.of("src/util/strings.java"));
+
+        assertEquals(List.of("README.md", "chapters/intro.tex", "pom.xml", "src/util/strings.java"),
+                selected.stream().map(RepositoryPrefetchService.PrefetchCandidate::path).toList());
+    }
+
+    @Test
+    void remainingTextFilesFollowWithinTheIndexingBudget() {
+        ReflectionTestUtils.setField(service, "indexMaxFiles", 3);
+        ReflectionTestUtils.setField(service, "indexMaxBytes", 10_000L);
+
+        List<RepositoryPrefetchService.PrefetchCandidate> selected = service.selectCandidates(
+                repo(blob("README.md", 100), blob("src/deep/util.py", 100), blob("notes.txt", 100),
+                        blob("logo.png", 100), blob("src/a.js", 100), blob("src/b.js", 100)),
+                Set.of());
+
+        // Prefetch picks come first, then sources and the shallowest text files up to the indexing cap
+        assertEquals(List.of("README.md", "src/a.js", "src/b.js", "src/deep/util.py"),
+                selected.stream().map(RepositoryPrefetchService.PrefetchCandidate::path).toList());
+    }
+
+    @Test
+    void countAndByteCapsAreApplied() {
+        ReflectionTestUtils.setField(service, "maxFiles", 2);
+        List<RepositoryPrefetchService.PrefetchCandidate> selected = service.selectCandidates(
+                repo(blob("a.tex", 100), blob("b.tex", 100), blob("c.tex", 100)), Set.of());
+        assertEquals(2, selected.size());
+
+        ReflectionTestUtils.setField(service, "maxFiles", 10);
+        // huge.tex is over the per-file cap, intro.tex would overflow the total, zsmall.tex still fits
+        selected = service.selectCandidates(
+                repo(blob("README.md", 4_000), blob("big.tex", 4_500), blob("huge.tex", 6_000),
+                        blob("intro.tex", 4_000), blob("zsmall.tex", 1_500)),
+                Set.of());
+        assertEquals(List.of("README.md", "big.tex", "zsmall.tex"),
+                selected.stream().map(RepositoryPrefetchService.PrefetchCandidate::path).sorted().toList());
+    }
+
+    @Test
+    void cachedFilesAreSkippedAndFetchedOnesWritten() throws Exception {
+        when(projectFileRepository.existsByProjectIdAndPath("p1", "README.md")).thenReturn(true);
+        when(gitHubService.getFileContent(any(), any(), any(), eq("main.tex"), any()))
+                .thenReturn(Map.of("content", "\\documentclass{article}"));
+
+        service.prefetch(project(), "u1", List.of(candidate("README.md"), candidate("main.tex")));
+
+        ArgumentCaptor<ProjectFile> written = ArgumentCaptor.forClass(ProjectFile.class);
+        verify(bulkWriter).enqueue(written.capture());
+        assertEquals("main.tex", written.getValue().getPath());
+        verify(gitHubService, never()).getFileContent(any(), any(), any(), eq("README.md"), any());
+        verify(bulkWriter).flush();
+    }
+
+    @Test
+    void rateLimitStopsThePrefetch() throws Exception {
+        when(gitHubService.getFileContent(any(), any(), any(), eq("a.tex"), any()))
+                .thenThrow(new Exception("Failed to fetch file content",
+                        HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                                new HttpHeaders(), new byte[0], null)));
+
+        service.prefetch(project(), "u1", List.of(candidate("a.tex"), candidate("b.tex")));
+
+        verify(gitHubService, never()).getFileContent(any(), any(), any(), eq("b.tex"), any());
+    }
+
+    @Test
+    void exhaustedQuotaIsARateLimitButAForbiddenFileIsNot() throws Exception {
+        HttpHeaders exhausted = new HttpHeaders();
+        exhausted.set("X-RateLimit-Remaining", "0");
+        assertTrue(GitHubService.isRateLimited(HttpClientErrorException.create(HttpStatus.FORBIDDEN, "Forbidden",
+                exhausted, new byte[0], null)));
+
+        when(gitHubService.getFileContent(any(), any(), any(), eq("a.tex"), any()))
+                .thenThrow(new Exception("Failed to fetch file content",
+                        HttpClientErrorException.create(HttpStatus.FORBIDDEN, "Forbidden", new HttpHeaders(),
+                                new byte[0], null)));
+        when(gitHubService.getFileContent(any(), any(), any(), eq("b.tex"), any()))
+                .thenReturn(Map.of("content", "b"));
+
+        service.prefetch(project(), "u1", List.of(candidate("a.tex"), candidate("b.tex")));
+
+        verify(bulkWriter).enqueue(any());
+    }
+
+    private static Project project() {
+        Project project = new Project();
+        project.setId("p1");
+        project.setRepositoryOwner("owner");
+        project.setRepositoryName("repo");
+        project.setDefaultBranch("main");
+        return project;
+    }
+
+    private static RepositoryPrefetchService.PrefetchCandidate candidate(String path) {
+        return new RepositoryPrefetchService.PrefetchCandidate(path, "sha-" + path, 100, 90);
+    }
+
+    private static Map<String, Object> blob(String path, long size) {
+        Map<String, Object> node = new HashMap<>();
+        node.put("path", path);
+        node.put("type", "blob");
+        node.put("size", size);
+        node.put("sha", "sha-" + path);
+        return node;
+    }
+
+    @SafeVarargs
+    private static Map<String, Object> repo(Map<String, Object>... blobs) {
+        Map<String, Object> tree = new HashMap<>();
+        tree.put("children", new ArrayList<>(List.of(blobs)));
+        return Map.of("main", Map.of("tree", tree));
+    }
+}
@@ -0,0 +1,149 @@
+package com.Backend_project.service.collab;
+
+import com.Backend_project.model.LatexDocument;
+import com.Backend_project.repository.LatexDocumentRepository;
+import com.Backend_project.service.LatexDocumentService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CollaborationServiceTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CollaborationService service;
+    private LatexDocumentService latexDocumentService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LatexDocument document = new LatexDocument();
+        document.setId("doc");
+        document.setProjectId("project");
+        document.setContent("Hello world");
+        document.setVersion(4L);
+
+        LatexDocumentRepository repository = mock(LatexDocumentRepository.class);
+        when(repository.findById("doc")).thenReturn(Optional.of(document));
+        latexDocumentService = mock(LatexDocumentService.class);
+
+        service = new CollaborationService();
+        ReflectionTestUtils.setField(service, "latexDocumentRepository", repository);
+        ReflectionTestUtils.setField(service, "latexDocumentService", latexDocumentService);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "persistIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(service, "idleEvictMs", 60_000L);
+        ReflectionTestUtils.setField(service, "maxHistory", 100);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    private static class Client {
+        final WebSocketSession connection = mock(WebSocketSession.class);
+        final List<Map<String, Object>> received = Collections.synchronizedList(new ArrayList<>());
+
+        Client(String id, ObjectMapper objectMapper) throws Exception {
+            when(connection.getId()).thenReturn(id);
+            when(connection.isOpen()).thenReturn(true);
+            doAnswer(invocation -> {
+                TextMessage message = invocation.getArgument(0);
+                received.add(objectMapper.readValue(message.getPayload(),
+                        new TypeReference<Map<String, Object>>() {
+                        }));
+                return null;
+            }).when(connection).sendMessage(any());
+        }
+
+        Map<String, Object> last(String type) {
+            synchronized (received) {
+                for (int i = received.size() - 1; i >= 0; i--) {
+                    if (type.equals(received.get(i).get("type"))) {
+                        return received.get(i);
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private Map<String, Object> op(long baseRevision, Object... components) {
+        return Map.of("type", "op", "baseRevision", baseRevision, "op", List.of(components));
+    }
+
+    @Test
+    void concurrentOperationsAreTransformedAndBroadcast() throws Exception {
+        Client alice = new Client("a", objectMapper);
+        Client bob = new Client("b", objectMapper);
+        service.join("project", "doc", "alice", alice.connection);
+        service.join("project", "doc", "bob", bob.connection);
+        assertEquals("Hello world", alice.last("init").get("content"));
+
+        // Both edit revision 0 without seeing each other
+        service.receive("doc", "alice", alice.connection, op(0, 5, ",", 6));
+        service.receive("doc", "bob", bob.connection, op(0, 11, "!"));
+
+        assertEquals(1, alice.last("ack").get("revision"));
+        assertEquals(2, bob.last("ack").get("revision"));
+        assertEquals(List.of(12, "!"), alice.last("op").get("op"));
+
+        Client carol = new Client("c", objectMapper);
+        service.join("project", "doc", "carol", carol.connection);
+        assertEquals("Hello, world!", carol.last("init").get("content"));
+        assertEquals(2, carol.last("init").get("revision"));
+    }
+
+    @Test
+    void editsArePersistedInBatches() throws Exception {
+        Client alice = new Client("a", objectMapper);
+        service.join("project", "doc", "alice", alice.connection);
+        service.receive("doc", "alice", alice.connection, op(0, 11, "!"));
+        service.receive("doc", "alice", alice.connection, op(1, 12, "!"));
+
+        LatexDocument saved = new LatexDocument();
+        saved.setVersion(5L);
+        when(latexDocumentService.saveCollaborativeContent(eq("doc"), eq(4L), anyString(), eq("alice")))
+                .thenReturn(saved);
+
+        ReflectionTestUtils.invokeMethod(service, "persistAndEvict");
+        ReflectionTestUtils.invokeMethod(service, "persistAndEvict");
+
+        verify(latexDocumentService, times(1)).saveCollaborativeContent("doc", 4L, "Hello world!!", "alice");
+    }
+
+    @Test
+    void staleClientIsAskedToResync() throws Exception {
+        ReflectionTestUtils.setField(service, "maxHistory", 1);
+        Client alice = new Client("a", objectMapper);
+        service.join("project", "doc", "alice", alice.connection);
+        service.receive("doc", "alice", alice.connection, op(0, 11, "!"));
+        service.receive("doc", "alice", alice.connection, op(1, 12, "!"));
+
+        service.receive("doc", "alice", alice.connection, op(0, "x", 11));
+
+        assertEquals("Hello world!!", alice.last("resync").get("content"));
+    }
+
+    @Test
+    void documentOfAnotherProjectIsRefused() throws Exception {
+        Client mallory = new Client("m", objectMapper);
+
+        assertThrows(Exception.class, () -> service.join("other", "doc", "mallory", mallory.connection));
+    }
+}
@@ -0,0 +1,92 @@
+package com.Backend_project.service.collab;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextOperationTests {
+
+    @Test
+    void applyFollowsRetainsInsertsAndDeletes() {
+        TextOperation operation = new TextOperation().retain(1).delete(3).retain(14).insert("\n");
+
+        assertEquals("\\section{Intro}\n", operation.apply("\\subsection{Intro}"));
+    }
+
+    @Test
+    void wireFormatRoundTrips() {
+        TextOperation operation = TextOperation.fromJson(List.of(3, "abc", -2, 4));
+
+        assertEquals(List.of(3, "abc", -2, 4), operation.toJson());
+        assertEquals(9, operation.getBaseLength());
+        assertEquals(10, operation.getTargetLength());
+        assertThrows(IllegalArgumentException.class, () -> TextOperation.fromJson(List.of(0)));
+        assertThrows(IllegalArgumentException.class, () -> TextOperation.fromJson(List.of(true)));
+    }
+
+    @Test
+    void operationSpanningOtherTextIsRejected() {
+        TextOperation operation = new TextOperation().retain(3);
+
+        assertThrows(IllegalArgumentException.class, () -> operation.apply("four"));
+    }
+
+    @Test
+    void concurrentInsertsAtSamePositionKeepFirstOperandFirst() {
+        String text = "ab";
+        TextOperation a = new TextOperation().retain(1).insert("X").retain(1);
+        TextOperation b = new TextOperation().retain(1).insert("Y").retain(1);
+
+        TextOperation[] transformed = TextOperation.transform(a, b);
+
+        assertEquals("aXYb", transformed[1].apply(a.apply(text)));
+        assertEquals("aXYb", transformed[0].apply(b.apply(text)));
+    }
+
+    @Test
+    void randomConcurrentOperationsConverge() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            String text = randomText(random, random.nextInt(30));
+            TextOperation a = randomOperation(random, text);
+            TextOperation b = randomOperation(random, text);
+
+            TextOperation[] transformed = TextOperation.transform(a, b);
+
+            assertEquals(transformed[1].apply(a.apply(text)), transformed[0].apply(b.apply(text)),
+                    "round " + round + " on \"" + text + "\": " + a.toJson() + " vs " + b.toJson());
+        }
+    }
+
+    private TextOperation randomOperation(Random random, String text) {
+        TextOperation operation = new TextOperation();
+        int index = 0;
+        while (index < text.length()) {
+            int length = 1 + random.nextInt(text.length() - index);
+            switch (random.nextInt(3)) {
+                case 0 -> operation.retain(length);
+                case 1 -> operation.delete(length);
+                default -> {
+                    operation.insert(randomText(random, 1 + random.nextInt(4)));
+                    operation.retain(length);
+                }
+            }
+            index += length;
+        }
+        if (random.nextBoolean()) {
+            operation.insert(randomText(random, 1 + random.nextInt(4)));
+        }
+        return operation;
+    }
+
+    private String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
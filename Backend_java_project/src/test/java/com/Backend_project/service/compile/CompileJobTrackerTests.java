@@ -0,0 +1,123 @@
+package com.Backend_project.service.compile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileJobTrackerTests {
+
+    private CompileJobTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new CompileJobTracker();
+        ReflectionTestUtils.setField(tracker, "retentionMinutes", 10L);
+        ReflectionTestUtils.setField(tracker, "sseTimeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(tracker, "sseBufferEvents", 10);
+        ReflectionTestUtils.setField(tracker, "sseSenders", 1);
+        tracker.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.stop();
+    }
+
+    @Test
+    void subscriberReceivesEventsInOrderAndIsCompleted() throws Exception {
+        TrackedCompileJob job = tracker.create(TrackedCompileJob.Type.DOCUMENT, "project", "document", "user");
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        tracker.subscribe(job, emitter);
+
+        LatexCompileListener listener = tracker.listenerFor(job);
+        listener.onStarted(job.getId());
+        listener.onLog("first");
+        listener.onLog("second");
+        tracker.complete(job, LatexCompileResult.Status.SUCCEEDED, "artifact", "first\nsecond", false);
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        // queued status, running status, two log lines, final status
+        assertEquals(5, emitter.events.size());
+        assertTrue(emitter.events.get(2).contains("first"));
+        assertTrue(emitter.events.get(3).contains("second"));
+    }
+
+    @Test
+    void slowSubscriberDoesNotHoldUpTheLogAndIsDropped() throws Exception {
+        TrackedCompileJob job = tracker.create(TrackedCompileJob.Type.DOCUMENT, "project", "document", "user");
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stuck = new RecordingEmitter(release);
+        tracker.subscribe(job, stuck);
+
+        LatexCompileListener listener = tracker.listenerFor(job);
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+                for (int i = 0; i < 100; i++) {
+                    listener.onLog("line " + i);
+                }
+            });
+
+            assertEquals(1L, tracker.getStats().get("droppedSubscribers"));
+            assertTrue(job.subscribers.isEmpty());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void lateSubscriberGetsBufferedLogOfFinishedJob() throws Exception {
+        TrackedCompileJob job = tracker.create(TrackedCompileJob.Type.DOCUMENT, "project", "document", "user");
+        tracker.complete(job, LatexCompileResult.Status.FAILED, null, "one\ntwo", false);
+
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        tracker.subscribe(job, emitter);
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(3, emitter.events.size());
+    }
+
+    /**
+     * Records what is sent, optionally blocking every send until released
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            events.add(text.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
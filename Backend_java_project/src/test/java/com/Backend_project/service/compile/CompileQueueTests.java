@@ -0,0 +1,90 @@
+package com.Backend_project.service.compile;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileQueueTests {
+
+    @Test
+    void interactiveJobsOvertakeProjectBuilds() throws Exception {
+        CompileQueue<String> queue = new CompileQueue<>(10, 10, 10);
+        queue.offer("build", "alice", LatexCompileJob.Priority.PROJECT_BUILD);
+        queue.offer("preview", "bob", LatexCompileJob.Priority.INTERACTIVE);
+
+        assertEquals("preview", queue.take().task);
+        assertEquals("build", queue.take().task);
+    }
+
+    @Test
+    void usersWithNothingQueuedOrRunningAreForgotten() throws Exception {
+        CompileQueue<String> queue = new CompileQueue<>(10, 10, 10);
+        queue.offer("alice-1", "alice", LatexCompileJob.Priority.INTERACTIVE);
+        queue.offer("bob-1", "bob", LatexCompileJob.Priority.INTERACTIVE);
+
+        queue.finished(queue.take());
+        assertTrue(queue.remove("bob-1"));
+
+        assertEquals(Map.of(), ReflectionTestUtils.getField(queue, "queuedByUser"));
+        assertEquals(Map.of(), ReflectionTestUtils.getField(queue, "runningByUser"));
+    }
+
+    @Test
+    void usersWithFewerRunningJobsGoFirst() throws Exception {
+        CompileQueue<String> queue = new CompileQueue<>(10, 10, 2);
+        queue.offer("alice-1", "alice", LatexCompileJob.Priority.INTERACTIVE);
+        queue.offer("alice-2", "alice", LatexCompileJob.Priority.INTERACTIVE);
+        queue.offer("bob-1", "bob", LatexCompileJob.Priority.INTERACTIVE);
+
+        assertEquals("alice-1", queue.take().task);
+        assertEquals("bob-1", queue.take().task);
+        assertEquals("alice-2", queue.take().task);
+    }
+
+    @Test
+    void userAtRunningQuotaWaitsForOwnJobToFinish() throws Exception {
+        CompileQueue<String> queue = new CompileQueue<>(10, 10, 1);
+        queue.offer("alice-1", "alice", LatexCompileJob.Priority.INTERACTIVE);
+        queue.offer("alice-2", "alice", LatexCompileJob.Priority.INTERACTIVE);
+
+        CompileQueue.Entry<String> first = queue.take();
+        Thread waiter = new Thread(() -> {
+            try {
+                queue.take();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        waiter.start();
+        waiter.join(200);
+        assertTrue(waiter.isAlive());
+
+        queue.finished(first);
+        waiter.join(2_000);
+        assertFalse(waiter.isAlive());
+    }
+
+    @Test
+    void perUserQueueLimitIsEnforced() {
+        CompileQueue<String> queue = new CompileQueue<>(10, 2, 1);
+
+        assertTrue(queue.offer("a", "alice", LatexCompileJob.Priority.INTERACTIVE));
+        assertTrue(queue.offer("b", "alice", LatexCompileJob.Priority.INTERACTIVE));
+        assertFalse(queue.offer("c", "alice", LatexCompileJob.Priority.INTERACTIVE));
+        assertTrue(queue.offer("d", "bob", LatexCompileJob.Priority.INTERACTIVE));
+    }
+
+    @Test
+    void removedJobIsNeverHandedOut() throws Exception {
+        CompileQueue<String> queue = new CompileQueue<>(10, 10, 10);
+        String cancelled = "cancelled";
+        queue.offer(cancelled, "alice", LatexCompileJob.Priority.INTERACTIVE);
+        queue.offer("kept", "alice", LatexCompileJob.Priority.INTERACTIVE);
+
+        assertTrue(queue.remove(cancelled));
+        assertEquals("kept", queue.take().task);
+        assertEquals(0, queue.size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.Backend_project.service.compile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Engine for tests: writes a tiny PDF after an optional delay and fails
+ * whenever the main file contains "\fail".
+ */
+public class FakeLatexEngine implements LatexEngine {
+    private final long delayMillis;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    public FakeLatexEngine() {
+        this(0);
+    }
+
+    public FakeLatexEngine(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    public int getRuns() {
+        return runs.get();
+    }
+
+    @Override
+    public String getName() {
+        return "fake";
+    }
+
+    @Override
+    public LatexEngineResult compile(Path workDir, String mainFile, CompileLimits limits, Consumer<String> logSink)
+            throws Exception {
+        runs.incrementAndGet();
+        logSink.accept("This is FakeTeX");
+        logSink.accept("(" + mainFile + ")");
+
+        if (delayMillis > limits.timeout().toMillis()) {
+            Thread.sleep(limits.timeout().toMillis());
+            return LatexEngineResult.timeout();
+        }
+        Thread.sleep(delayMillis);
+
+        String source = Files.readString(workDir.resolve(mainFile));
+        if (source.contains("\\fail")) {
+            logSink.accept("! Undefined control sequence.");
+            return LatexEngineResult.failed(1);
+        }
+
+        Path pdf = workDir.resolve(mainFile.replaceAll("\\.tex$", "") + ".pdf");
+        Files.writeString(pdf, "%PDF-1.4\n% " + source.length() + " bytes of source\n%%EOF\n",
+                StandardCharsets.UTF_8);
+        logSink.accept("Output written on " + pdf.getFileName());
+        return LatexEngineResult.succeeded(pdf);
+    }
+}
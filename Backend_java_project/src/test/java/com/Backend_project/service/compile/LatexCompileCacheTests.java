@@ -0,0 +1,155 @@
+package com.Backend_project.service.compile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LatexCompileCacheTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final LatexArtifactReferences references = mock(LatexArtifactReferences.class);
+
+    private LatexCompileJob job(String content) {
+        return new LatexCompileJob("job", "project", "document", "user", "main.tex",
+                Map.of("main.tex", content));
+    }
+
+    private LatexCompileResult storeArtifact(LatexArtifactStore store, int bytes) throws Exception {
+        Path pdf = Files.writeString(tempDir.resolve("out.pdf"), "x".repeat(bytes));
+        String artifactId = store.store(pdf);
+        return new LatexCompileResult("job", LatexCompileResult.Status.SUCCEEDED, artifactId, "log", "fake", 1);
+    }
+
+    @Test
+    void keyDependsOnContentEngineAndOptions() {
+        String key = LatexCompileCache.keyFor(job("a"), "pdflatex", "v1");
+
+        assertEquals(key, LatexCompileCache.keyFor(job("a"), "pdflatex", "v1"));
+        assertNotEquals(key, LatexCompileCache.keyFor(job("b"), "pdflatex", "v1"));
+        assertNotEquals(key, LatexCompileCache.keyFor(job("a"), "tectonic", "v1"));
+        assertNotEquals(key, LatexCompileCache.keyFor(job("a"), "pdflatex", "v2"));
+    }
+
+    @Test
+    void hitReturnsStoredArtifact() throws Exception {
+        LatexArtifactStore store = new LatexArtifactStore(tempDir.resolve("artifacts").toString());
+        LatexCompileCache cache = new LatexCompileCache(store, references, 1024, 1);
+        LatexCompileResult result = storeArtifact(store, 10);
+
+        assertTrue(cache.lookup("key").isEmpty());
+        cache.put("key", result);
+
+        assertEquals(result.getArtifactId(), cache.lookup("key").orElseThrow().artifactId());
+        assertEquals(0.5, (double) cache.getStats().get("hitRate"));
+    }
+
+    @Test
+    void exceedingSizeBudgetEvictsLeastRecentlyUsed() throws Exception {
+        LatexArtifactStore store = new LatexArtifactStore(tempDir.resolve("artifacts").toString());
+        LatexCompileCache cache = new LatexCompileCache(store, references, 100, 1);
+        LatexCompileResult first = storeArtifact(store, 60);
+        LatexCompileResult second = storeArtifact(store, 60);
+
+        cache.put("first", first);
+        cache.put("second", second);
+
+        assertTrue(cache.lookup("first").isEmpty());
+        assertTrue(store.find(first.getArtifactId()).isEmpty());
+        assertTrue(cache.lookup("second").isPresent());
+    }
+
+    @Test
+    void evictionKeepsArtifactsStillReferenced() throws Exception {
+        LatexArtifactStore store = new LatexArtifactStore(tempDir.resolve("artifacts").toString());
+        LatexCompileCache cache = new LatexCompileCache(store, references, 100, 1);
+        LatexCompileResult first = storeArtifact(store, 60);
+        LatexCompileResult second = storeArtifact(store, 60);
+        when(references.isReferenced(first.getArtifactId())).thenReturn(true);
+
+        cache.put("first", first);
+        cache.put("second", second);
+
+        assertTrue(cache.lookup("first").isEmpty());
+        assertTrue(store.find(first.getArtifactId()).isPresent());
+        assertEquals(1L, cache.getStats().get("retained"));
+
+        // Once its document moves on the artifact can go
+        when(references.isReferenced(first.getArtifactId())).thenReturn(false);
+        cache.release(first.getArtifactId());
+        assertTrue(store.find(first.getArtifactId()).isEmpty());
+    }
+
+    @Test
+    void referenceChecksDoNotHoldTheCache() throws Exception {
+        LatexArtifactStore store = new LatexArtifactStore(tempDir.resolve("artifacts").toString());
+        LatexCompileCache cache = new LatexCompileCache(store, references, 100, 1);
+        LatexCompileResult first = storeArtifact(store, 60);
+        LatexCompileResult second = storeArtifact(store, 60);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            // A slow reference check must not block lookups or a metrics scrape on other threads
+            when(references.isReferenced(first.getArtifactId())).thenAnswer(invocation -> {
+                reader.submit(() -> {
+                    cache.getStats();
+                    return cache.lookup("second");
+                }).get(5, TimeUnit.SECONDS);
+                return false;
+            });
+
+            cache.put("first", first);
+            cache.put("second", second);
+
+            assertTrue(store.find(first.getArtifactId()).isEmpty());
+            assertTrue(cache.lookup("second").isPresent());
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    @Test
+    void releaseKeepsArtifactsTheCacheHolds() throws Exception {
+        LatexArtifactStore store = new LatexArtifactStore(tempDir.resolve("artifacts").toString());
+        LatexCompileCache cache = new LatexCompileCache(store, references, 1024, 1);
+        LatexCompileResult result = storeArtifact(store, 10);
+        cache.put("key", result);
+
+        cache.release(result.getArtifactId());
+
+        assertTrue(store.find(result.getArtifactId()).isPresent());
+    }
+
+    @Test
+    void rebuildIndexesReferencedArtifactsAndRemovesOrphans() throws Exception {
+        LatexArtifactStore store = new LatexArtifactStore(tempDir.resolve("artifacts").toString());
+        LatexCompileCache cache = new LatexCompileCache(store, references, 1024, 1);
+        LatexCompileResult referenced = storeArtifact(store, 10);
+        LatexCompileResult orphan = storeArtifact(store, 10);
+        Path orphanFile = store.find(orphan.getArtifactId()).orElseThrow();
+        Files.setLastModifiedTime(orphanFile, FileTime.from(Instant.now().minusSeconds(60)));
+        when(references.findAll()).thenReturn(List.of(
+                new LatexArtifactReferences.Reference("key", referenced.getArtifactId(), "log"),
+                new LatexArtifactReferences.Reference("gone", "missing-artifact", "log")));
+
+        cache.rebuild();
+
+        assertEquals(referenced.getArtifactId(), cache.lookup("key").orElseThrow().artifactId());
+        assertTrue(cache.lookup("gone").isEmpty());
+        assertTrue(store.find(orphan.getArtifactId()).isEmpty());
+        assertEquals(1, cache.getStats().get("entries"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.Backend_project.service.compile;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatexCompileCoalescerTests {
+
+    private final LatexCompileCoalescer coalescer = new LatexCompileCoalescer();
+
+    private LatexCompileResult result(String compileKey) {
+        return new LatexCompileResult("job-" + compileKey, LatexCompileResult.Status.SUCCEEDED, "artifact",
+                "log", "fake", 1, 1, compileKey);
+    }
+
+    @Test
+    void sameContentSharesOneJob() throws Exception {
+        AtomicInteger starts = new AtomicInteger();
+        CompletableFuture<LatexCompileResult> job = new CompletableFuture<>();
+
+        CompletableFuture<LatexCompileResult> first = coalescer.submit("document:1", "a", 1, () -> {
+            starts.incrementAndGet();
+            return job;
+        });
+        CompletableFuture<LatexCompileResult> second = coalescer.submit("document:1", "a", 1, () -> {
+            starts.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        job.complete(result("a"));
+
+        assertEquals(1, starts.get());
+        assertEquals("a", first.get(1, TimeUnit.SECONDS).getCompileKey());
+        assertEquals("a", second.get(1, TimeUnit.SECONDS).getCompileKey());
+        assertEquals(1L, coalescer.getStats().get("joined"));
+    }
+
+    @Test
+    void newerContentCancelsStaleJob() throws Exception {
+        CompletableFuture<LatexCompileResult> staleJob = new CompletableFuture<>();
+        CompletableFuture<LatexCompileResult> freshJob = new CompletableFuture<>();
+
+        CompletableFuture<LatexCompileResult> stale = coalescer.submit("document:1", "old", 1, () -> staleJob);
+        CompletableFuture<LatexCompileResult> fresh = coalescer.submit("document:1", "new", 2, () -> freshJob);
+        freshJob.complete(result("new"));
+
+        assertTrue(staleJob.isCancelled());
+        assertEquals("new", stale.get(1, TimeUnit.SECONDS).getCompileKey());
+        assertEquals("new", fresh.get(1, TimeUnit.SECONDS).getCompileKey());
+        assertEquals(0, coalescer.getStats().get("inFlight"));
+    }
+
+    @Test
+    void olderVersionWaitsForNewerJob() throws Exception {
+        CompletableFuture<LatexCompileResult> freshJob = new CompletableFuture<>();
+        AtomicInteger starts = new AtomicInteger();
+
+        CompletableFuture<LatexCompileResult> fresh = coalescer.submit("document:1", "new", 3, () -> freshJob);
+        CompletableFuture<LatexCompileResult> late = coalescer.submit("document:1", "old", 2, () -> {
+            starts.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        freshJob.complete(result("new"));
+
+        assertFalse(freshJob.isCancelled());
+        assertEquals(0, starts.get());
+        assertEquals("new", late.get(1, TimeUnit.SECONDS).getCompileKey());
+        assertEquals("new", fresh.get(1, TimeUnit.SECONDS).getCompileKey());
+        assertEquals(0L, coalescer.getStats().get("superseded"));
+    }
+
+    @Test
+    void finishedJobIsNotJoined() throws Exception {
+        CompletableFuture<LatexCompileResult> firstJob = CompletableFuture.completedFuture(result("a"));
+        AtomicInteger starts = new AtomicInteger();
+
+        coalescer.submit("document:1", "a", 1, () -> {
+            starts.incrementAndGet();
+            return firstJob;
+        }).get(1, TimeUnit.SECONDS);
+        coalescer.submit("document:1", "a", 1, () -> {
+            starts.incrementAndGet();
+            return CompletableFuture.completedFuture(result("a"));
+        }).get(1, TimeUnit.SECONDS);
+
+        assertEquals(2, starts.get());
+    }
+}
@@ -0,0 +1,166 @@
+package com.Backend_project.service.compile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatexCompileServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    private LatexCompileService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private LatexCompileService createService(FakeLatexEngine engine, int workers, int queueCapacity,
+            long timeoutSeconds) {
+        LatexArtifactStore store = new LatexArtifactStore(tempDir.resolve("artifacts").toString());
+        service = new LatexCompileService(List.of(engine), store, "fake", workers, queueCapacity,
+                queueCapacity, workers, timeoutSeconds, 512, tempDir.resolve("work").toString());
+        return service;
+    }
+
+    private LatexCompileJob job(String content) {
+        return new LatexCompileJob("job", "project", "document", "user", "main.tex",
+                Map.of("main.tex", content));
+    }
+
+    @Test
+    void successfulCompileStoresArtifactAndStreamsLog() throws Exception {
+        createService(new FakeLatexEngine(), 1, 4, 10);
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+
+        LatexCompileResult result = service.submit(job("\\documentclass{article}"), lines::add)
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess());
+        assertNotNull(result.getArtifactId());
+        assertTrue(Files.exists(tempDir.resolve("artifacts").resolve(result.getArtifactId() + ".pdf")));
+        assertTrue(lines.contains("This is FakeTeX"));
+        assertTrue(result.getLog().contains("Output written on main.pdf"));
+        assertEquals(1L, service.getStats().get("succeeded"));
+    }
+
+    @Test
+    void failedCompileKeepsLogWithoutArtifact() throws Exception {
+        createService(new FakeLatexEngine(), 1, 4, 10);
+
+        LatexCompileResult result = service.submit(job("\\fail"), line -> {
+        }).get(5, TimeUnit.SECONDS);
+
+        assertEquals(LatexCompileResult.Status.FAILED, result.getStatus());
+        assertNull(result.getArtifactId());
+        assertTrue(result.getLog().contains("Undefined control sequence"));
+    }
+
+    @Test
+    void jobExceedingTimeoutIsStopped() throws Exception {
+        createService(new FakeLatexEngine(5_000), 1, 4, 1);
+
+        LatexCompileResult result = service.submit(job("slow"), line -> {
+        }).get(10, TimeUnit.SECONDS);
+
+        assertEquals(LatexCompileResult.Status.TIMED_OUT, result.getStatus());
+    }
+
+    @Test
+    void fullQueueRejectsNewJobs() throws Exception {
+        BlockingEngine engine = new BlockingEngine();
+        createService(engine, 1, 1, 10);
+        try {
+            service.submit(job("running"), line -> {
+            });
+            assertTrue(engine.entered.await(5, TimeUnit.SECONDS));
+            service.submit(job("queued"), line -> {
+            });
+
+            Exception error = assertThrows(Exception.class, () -> service.submit(job("rejected"), line -> {
+            }));
+            assertTrue(error.getMessage().contains("queue is full"));
+            assertEquals(1L, service.getStats().get("rejected"));
+        } finally {
+            engine.release.countDown();
+        }
+    }
+
+    @Test
+    void cancelledJobDoesNotComplete() throws Exception {
+        BlockingEngine engine = new BlockingEngine();
+        createService(engine, 1, 4, 10);
+
+        CompletableFuture<LatexCompileResult> future = service.submit(job("cancel me"), line -> {
+        });
+        assertTrue(engine.entered.await(5, TimeUnit.SECONDS));
+        future.cancel(true);
+
+        assertTrue(engine.interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+        assertEquals(0L, service.getStats().get("succeeded"));
+        // The compile itself never ran past the gate
+        assertEquals(0, engine.getRuns());
+    }
+
+    @Test
+    void cancelledQueuedJobNeverRuns() throws Exception {
+        BlockingEngine engine = new BlockingEngine();
+        createService(engine, 1, 4, 10);
+
+        CompletableFuture<LatexCompileResult> running = service.submit(job("running"), line -> {
+        });
+        assertTrue(engine.entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<LatexCompileResult> queued = service.submit(job("queued"), line -> {
+        });
+        queued.cancel(true);
+        engine.release.countDown();
+
+        assertTrue(running.get(5, TimeUnit.SECONDS).isSuccess());
+        assertTrue(queued.isCancelled());
+        assertEquals(1, engine.started.get());
+        assertEquals(1, engine.getRuns());
+        assertEquals(0, service.getQueueDepth());
+    }
+
+    /**
+     * Engine that holds every job until the test releases it
+     */
+    private static class BlockingEngine extends FakeLatexEngine {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final AtomicInteger started = new AtomicInteger();
+
+        @Override
+        public LatexEngineResult compile(Path workDir, String mainFile, CompileLimits limits,
+                Consumer<String> logSink) throws Exception {
+            started.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return super.compile(workDir, mainFile, limits, logSink);
+        }
+    }
+}
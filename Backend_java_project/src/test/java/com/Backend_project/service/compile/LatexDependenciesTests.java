@@ -0,0 +1,32 @@
+package com.Backend_project.service.compile;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatexDependenciesTests {
+
+    @Test
+    void findsInputsBibliographiesAndFigures() {
+        LatexDependencies.Dependencies dependencies = LatexDependencies.scan("""
+                \\input{sections/intro}
+                \\include{appendix.tex}
+                % \\input{commented/out}
+                \\bibliography{refs, more}
+                \\includegraphics[width=\\textwidth]{figures/plot.png}
+                """);
+
+        assertEquals(Set.of("sections/intro.tex", "appendix.tex"), dependencies.inputs());
+        assertEquals(Set.of("refs.bib", "more.bib"), dependencies.bibliographies());
+        assertEquals(Set.of("figures/plot.png"), dependencies.graphics());
+    }
+
+    @Test
+    void escapedPercentIsNotAComment() {
+        LatexDependencies.Dependencies dependencies = LatexDependencies.scan("50\\% done \\input{next}");
+
+        assertEquals(Set.of("next.tex"), dependencies.inputs());
+    }
+}
@@ -0,0 +1,165 @@
+package com.Backend_project.service.compile;
+
+import com.Backend_project.model.LatexDocument;
+import com.Backend_project.model.ProjectFile;
+import com.Backend_project.repository.LatexDocumentRepository;
+import com.Backend_project.repository.ProjectFileRepository;
+import com.Backend_project.service.jobs.JobLease;
+import com.Backend_project.service.jobs.JobQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LatexProjectBuildServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    private LatexDocumentRepository latexDocumentRepository;
+    private ProjectFileRepository projectFileRepository;
+    private LatexCompileService latexCompileService;
+    private LatexArtifactStore artifactStore;
+    private LatexProjectBuildService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        latexDocumentRepository = mock(LatexDocumentRepository.class);
+        projectFileRepository = mock(ProjectFileRepository.class);
+        latexCompileService = mock(LatexCompileService.class);
+        artifactStore = new LatexArtifactStore(tempDir.resolve("artifacts").toString());
+        JobQueue jobQueue = mock(JobQueue.class);
+        when(jobQueue.acquire(anyString(), anyString(), anyLong())).thenReturn(Optional.of(mock(JobLease.class)));
+        when(projectFileRepository.findByProjectIdAndPath(anyString(), anyString())).thenReturn(Optional.empty());
+        when(latexCompileService.getEngineName()).thenReturn("fake");
+        when(latexCompileService.submit(any(), any())).thenAnswer(invocation -> {
+            LatexCompileJob job = invocation.getArgument(0);
+            Path pdf = Files.writeString(tempDir.resolve(job.getId() + ".pdf"), "%PDF");
+            return CompletableFuture.completedFuture(new LatexCompileResult(job.getId(),
+                    LatexCompileResult.Status.SUCCEEDED, artifactStore.store(pdf), "log", "fake", 1));
+        });
+
+        service = new LatexProjectBuildService(1, 4);
+        ReflectionTestUtils.setField(service, "latexDocumentRepository", latexDocumentRepository);
+        ReflectionTestUtils.setField(service, "projectFileRepository", projectFileRepository);
+        ReflectionTestUtils.setField(service, "latexCompileService", latexCompileService);
+        ReflectionTestUtils.setField(service, "latexCompileCache",
+                new LatexCompileCache(artifactStore, mock(LatexArtifactReferences.class), 1 << 20, 1));
+        ReflectionTestUtils.setField(service, "latexArtifactStore", artifactStore);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "jobQueue", jobQueue);
+        ReflectionTestUtils.setField(service, "buildRoot", tempDir.resolve("builds").toString());
+        ReflectionTestUtils.setField(service, "maxPasses", 3);
+        ReflectionTestUtils.setField(service, "leaseWaitMs", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void unchangedBuildReusesThePreviousArtifact() throws Exception {
+        documents(document("d1", "Intro"), document("d2", "Method"));
+
+        LatexProjectBuild first = service.build("p1", "u1", line -> { });
+        LatexProjectBuild second = service.build("p1", "u1", line -> { });
+
+        assertTrue(first.isCompiled());
+        assertFalse(second.isCompiled());
+        assertEquals(first.getArtifactId(), second.getArtifactId());
+        assertEquals(List.of(), second.getChangedFiles());
+        verify(latexCompileService, times(1)).submit(any(), any());
+    }
+
+    @Test
+    void onlyChangedChaptersAreRewritten() throws Exception {
+        documents(document("d1", "Intro"), document("d2", "Method"));
+        service.build("p1", "u1", line -> { });
+        Path intro = tempDir.resolve("builds/p1/chapters/d1.tex");
+        Files.setLastModifiedTime(intro, FileTime.fromMillis(0));
+
+        documents(document("d1", "Intro"), document("d2", "Revised method"));
+        LatexProjectBuild build = service.build("p1", "u1", line -> { });
+
+        assertEquals(List.of("chapters/d2.tex"), build.getChangedFiles());
+        assertTrue(build.isCompiled());
+        assertEquals("Revised method", Files.readString(tempDir.resolve("builds/p1/chapters/d2.tex")));
+        assertEquals(0, Files.getLastModifiedTime(intro).toMillis());
+    }
+
+    @Test
+    void missingDependenciesAreRecorded() throws Exception {
+        documents(document("d1", "\\input{sections/results}\n\\input{sections/missing}"));
+        when(projectFileRepository.findByProjectIdAndPath("p1", "sections/results.tex"))
+                .thenReturn(Optional.of(file("sections/results.tex", "Results")));
+
+        LatexProjectBuild build = service.build("p1", "u1", line -> { });
+
+        assertEquals(List.of("sections/missing.tex"), build.getMissingDependencies());
+        assertEquals("Results", Files.readString(tempDir.resolve("builds/p1/sections/results.tex")));
+    }
+
+    @Test
+    void graphicsWithoutExtensionAreResolvedAndBinariesAreNotWritten() throws Exception {
+        documents(document("d1", "\\includegraphics{figures/diagram}\n\\includegraphics[width=3cm]{figures/photo}"));
+        when(projectFileRepository.findByProjectIdAndPath("p1", "figures/diagram.eps"))
+                .thenReturn(Optional.of(file("figures/diagram.eps", "%!PS-Adobe-3.0 EPSF-3.0")));
+        when(projectFileRepository.findByProjectIdAndPath("p1", "figures/photo.png"))
+                .thenReturn(Optional.of(file("figures/photo.png", "\uFFFDPNG")));
+
+        LatexProjectBuild build = service.build("p1", "u1", line -> { });
+
+        assertTrue(Files.exists(tempDir.resolve("builds/p1/figures/diagram.eps")));
+        assertFalse(Files.exists(tempDir.resolve("builds/p1/figures/photo.png")));
+        assertEquals(List.of("figures/photo.png (binary figures are not available to project builds)"),
+                build.getMissingDependencies());
+    }
+
+    @Test
+    void pathsOutsideTheBuildDirectoryAreRejected() throws Exception {
+        assertFalse(LatexProjectBuildService.isSafePath("../secrets.tex"));
+        assertFalse(LatexProjectBuildService.isSafePath("chapters/../../secrets.tex"));
+        assertFalse(LatexProjectBuildService.isSafePath("/etc/passwd"));
+        assertFalse(LatexProjectBuildService.isSafePath("C:/Windows/win.ini"));
+        assertTrue(LatexProjectBuildService.isSafePath("sections/intro.tex"));
+
+        documents(document("d1", "\\input{../../other-project/main}"));
+        service.build("p1", "u1", line -> { });
+
+        verify(projectFileRepository, never()).findByProjectIdAndPath(anyString(), contains(".."));
+    }
+
+    private void documents(LatexDocument... documents) {
+        when(latexDocumentRepository.findByProjectIdOrderByOrderAsc("p1")).thenReturn(List.of(documents));
+    }
+
+    private static LatexDocument document(String id, String content) {
+        LatexDocument document = new LatexDocument();
+        document.setId(id);
+        document.setProjectId("p1");
+        document.setContent(content);
+        return document;
+    }
+
+    private static ProjectFile file(String path, String content) {
+        ProjectFile file = new ProjectFile();
+        file.setProjectId("p1");
+        file.setPath(path);
+        file.setContent(content);
+        return file;
+    }
+}
@@ -0,0 +1,115 @@
+package com.Backend_project.service.jobs;
+
+import com.Backend_project.config.MongoIndexConfig;
+import com.Backend_project.model.CoordinatedJob;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the job queue against a real Mongo. Only the partial unique index on
+ * active keys stops two nodes from queueing or leasing the same key, and it
+ * is created in the background at startup, so these fail if it is missing.
+ */
+@DataMongoTest
+@Import({MongoIndexConfig.class, JobQueue.class})
+@Testcontainers(disabledWithoutDocker = true)
+class JobQueueIntegrationTests {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexConfig mongoIndexConfig;
+
+    @Autowired
+    private JobQueue jobQueue;
+
+    @BeforeEach
+    void createIndexes() {
+        mongoTemplate.remove(new Query(), CoordinatedJob.class);
+        mongoIndexConfig.ensureIndexes();
+    }
+
+    @Test
+    void activeKeyIndexIsUniqueAndPartial() {
+        Document index = mongoTemplate.getCollection("coordinated_jobs").listIndexes()
+                .into(new ArrayList<>()).stream()
+                .filter(candidate -> "active_key".equals(candidate.getString("name")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("active_key index missing"));
+
+        assertEquals(Boolean.TRUE, index.getBoolean("unique"));
+        assertEquals(new Document("active", true), index.get("partialFilterExpression"));
+    }
+
+    @Test
+    void secondActiveJobForAKeyIsRejected() {
+        mongoTemplate.insert(activeJob("ingest:p1"));
+
+        assertThrows(DuplicateKeyException.class, () -> mongoTemplate.insert(activeJob("ingest:p1")));
+    }
+
+    @Test
+    void enqueueCoalescesWhileAJobIsActive() {
+        assertTrue(jobQueue.enqueue("ingest", "ingest:p1", Map.of("projectId", "p1")));
+        assertFalse(jobQueue.enqueue("ingest", "ingest:p1", Map.of("projectId", "p1")));
+
+        assertEquals(1, mongoTemplate.count(
+                Query.query(Criteria.where("key").is("ingest:p1")), CoordinatedJob.class));
+    }
+
+    @Test
+    void completedJobFreesItsKey() {
+        jobQueue.enqueue("ingest", "ingest:p1", Map.of("projectId", "p1"));
+        Optional<JobLease> lease = jobQueue.claim(List.of("ingest"));
+        assertTrue(lease.isPresent());
+        assertFalse(jobQueue.claim(List.of("ingest")).isPresent());
+
+        jobQueue.complete(lease.get());
+
+        assertTrue(jobQueue.enqueue("ingest", "ingest:p1", Map.of("projectId", "p1")));
+    }
+
+    @Test
+    void heldLeaseCannotBeAcquiredTwice() {
+        assertTrue(jobQueue.acquire("build", "build:p1").isPresent());
+        assertFalse(jobQueue.acquire("build", "build:p1").isPresent());
+    }
+
+    private CoordinatedJob activeJob(String key) {
+        CoordinatedJob job = new CoordinatedJob();
+        job.setType("ingest");
+        job.setKey(key);
+        job.setStatus(CoordinatedJob.Status.QUEUED);
+        job.setActive(true);
+        job.setCreatedAt(new Date());
+        return job;
+    }
+}
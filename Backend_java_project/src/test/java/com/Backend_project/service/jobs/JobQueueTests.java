@@ -0,0 +1,147 @@
+package com.Backend_project.service.jobs;
+
+import com.Backend_project.exceptions.LeaseLostException;
+import com.Backend_project.model.CoordinatedJob;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JobQueueTests {
+
+    private MongoTemplate mongoTemplate;
+    private JobQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        queue = new JobQueue();
+        ReflectionTestUtils.setField(queue, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(queue, "nodeId", "node-a");
+        ReflectionTestUtils.setField(queue, "leaseMs", 30_000L);
+    }
+
+    @Test
+    void enqueueQueuesOnceAndAsksARunningJobToRunAgain() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CoordinatedJob.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(CoordinatedJob.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonString("job-1")))
+                .thenReturn(UpdateResult.acknowledged(1, 0L, null));
+
+        assertTrue(queue.enqueue("INGESTION", "ingest:p1", Map.of("projectId", "p1")));
+        assertFalse(queue.enqueue("INGESTION", "ingest:p1", Map.of("projectId", "p1")), "already queued");
+
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CoordinatedJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        assertFalse(queue.enqueue("INGESTION", "ingest:p1", Map.of("projectId", "p1")), "running, rerun requested");
+
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(UpdateDefinition.class),
+                eq(CoordinatedJob.class));
+        assertEquals(1L, queue.getStats().get("enqueued"));
+        assertEquals(2L, queue.getStats().get("coalesced"));
+    }
+
+    @Test
+    void leaseIsFencedByTheTokenItWasClaimedWith() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CoordinatedJob.class))).thenReturn(job("job-1", 5, 2));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CoordinatedJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        JobLease lease = queue.claim(List.of("INGESTION")).orElseThrow();
+        assertEquals(5, lease.getFencingToken());
+        assertEquals(1L, queue.getStats().get("reclaimed"), "second attempt means a node gave it up");
+
+        lease.ensureHeld();
+        ArgumentCaptor<Query> renewal = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(renewal.capture(), any(UpdateDefinition.class), eq(CoordinatedJob.class));
+        assertEquals(5L, renewal.getValue().getQueryObject().get("fencingToken"));
+
+        // Another node claimed it with a newer token
+        assertThrows(LeaseLostException.class, lease::ensureHeld);
+        assertFalse(lease.isHeld());
+
+        // Nothing is written on behalf of a lost lease
+        queue.complete(lease);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(UpdateDefinition.class),
+                eq(CoordinatedJob.class));
+    }
+
+    @Test
+    void completingARerunRequestedJobQueuesItAgain() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CoordinatedJob.class))).thenReturn(job("job-1", 1, 1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CoordinatedJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        JobLease lease = queue.claim(List.of("INGESTION")).orElseThrow();
+        queue.complete(lease);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1)).updateFirst(query.capture(), any(UpdateDefinition.class),
+                eq(CoordinatedJob.class));
+        assertEquals(true, query.getValue().getQueryObject().get("rerunRequested"));
+        assertEquals(0L, queue.getStats().get("completed"));
+    }
+
+    @Test
+    void acquireFailsWhileAnotherNodeHoldsTheKey() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CoordinatedJob.class))).thenReturn(null);
+        when(mongoTemplate.insert(any(CoordinatedJob.class))).thenThrow(new DuplicateKeyException("active_key"));
+
+        Optional<JobLease> lease = queue.acquire("PROJECT_BUILD", "build:p1");
+
+        assertTrue(lease.isEmpty());
+        assertEquals(0, queue.getStats().get("heldLeases"));
+    }
+
+    @Test
+    void releaseHandsClaimedJobsBack() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CoordinatedJob.class))).thenReturn(job("job-1", 3, 1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CoordinatedJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        JobLease lease = queue.claim(List.of("INGESTION")).orElseThrow();
+        queue.releaseAll();
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(CoordinatedJob.class));
+        assertEquals(CoordinatedJob.Status.QUEUED,
+                update.getValue().getUpdateObject().get("$set", org.bson.Document.class).get("status"));
+        assertFalse(lease.isHeld());
+        assertThrows(LeaseLostException.class, lease::ensureHeld);
+    }
+
+    private static CoordinatedJob job(String id, long fencingToken, int attempts) {
+        CoordinatedJob job = new CoordinatedJob();
+        job.setId(id);
+        job.setType("INGESTION");
+        job.setKey("ingest:p1");
+        job.setStatus(CoordinatedJob.Status.RUNNING);
+        job.setActive(true);
+        job.setOwner("node-a");
+        job.setFencingToken(fencingToken);
+        job.setAttempts(attempts);
+        job.setPayload(Map.of("projectId", "p1", "userId", "u1"));
+        return job;
+    }
+}
@@ -0,0 +1,126 @@
+package com.Backend_project.service.jobs;
+
+import com.Backend_project.exceptions.LeaseLostException;
+import com.Backend_project.model.CoordinatedJob;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.ReceiverContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JobWorkerTests {
+
+    private JobQueue queue;
+    private JobHandler handler;
+    private JobWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        queue = mock(JobQueue.class);
+        handler = mock(JobHandler.class);
+        when(handler.getType()).thenReturn("INGESTION");
+
+        worker = new JobWorker();
+        ReflectionTestUtils.setField(worker, "jobQueue", queue);
+        ReflectionTestUtils.setField(worker, "handlers", List.of(handler));
+        ReflectionTestUtils.setField(worker, "maxAttempts", 3);
+        ReflectionTestUtils.setField(worker, "workerThreads", 1);
+        ReflectionTestUtils.setField(worker, "pollIntervalMs", 60_000L);
+        worker.start();
+    }
+
+    @Test
+    void finishedJobIsCompleted() throws Exception {
+        JobLease lease = lease(1);
+
+        worker.run(lease);
+
+        verify(handler).run(lease.getJob(), lease);
+        verify(queue).complete(lease);
+        verify(queue, never()).fail(any(), any());
+    }
+
+    @Test
+    void failingJobIsRecordedAsFailed() throws Exception {
+        JobLease lease = lease(1);
+        doThrow(new Exception("Repository not found")).when(handler).run(any(), any());
+
+        worker.run(lease);
+
+        verify(queue).fail(lease, "Repository not found");
+        verify(queue, never()).complete(any());
+    }
+
+    @Test
+    void jobTakenOverElsewhereIsLeftAlone() throws Exception {
+        JobLease lease = lease(1);
+        doThrow(new LeaseLostException("Lease on ingest:p1 was lost", "ingest:p1")).when(handler).run(any(), any());
+
+        worker.run(lease);
+
+        verify(queue, never()).complete(any());
+        verify(queue, never()).fail(any(), any());
+    }
+
+    @Test
+    void jobAbandonedTooOftenIsNotRunAgain() throws Exception {
+        JobLease lease = lease(4);
+
+        worker.run(lease);
+
+        verify(handler, never()).run(any(), any());
+        // The handler gets to mark what the job was working on as failed
+        verify(handler).abandon(eq(lease.getJob()), eq(lease), contains("3 attempts"));
+        verify(queue).fail(eq(lease), contains("3 attempts"));
+    }
+
+    @Test
+    void jobRunsInTheTraceThatQueuedIt() throws Exception {
+        List<ReceiverContext<?>> observed = new ArrayList<>();
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new ObservationHandler<ReceiverContext<?>>() {
+            @Override
+            public void onStart(ReceiverContext<?> context) {
+                observed.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return context instanceof ReceiverContext;
+            }
+        });
+        ReflectionTestUtils.setField(worker, "observationRegistry", registry);
+        String traceparent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+        JobLease lease = lease(1);
+        lease.getJob().setTraceContext(Map.of("traceparent", traceparent));
+
+        worker.run(lease);
+
+        assertEquals(1, observed.size());
+        @SuppressWarnings("unchecked")
+        ReceiverContext<Map<String, String>> context = (ReceiverContext<Map<String, String>>) observed.get(0);
+        assertEquals(traceparent, context.getGetter().get(context.getCarrier(), "traceparent"));
+        assertEquals("job ingestion", context.getContextualName());
+        verify(queue).complete(lease);
+    }
+
+    private JobLease lease(int attempts) {
+        CoordinatedJob job = new CoordinatedJob();
+        job.setId("job-1");
+        job.setType("INGESTION");
+        job.setKey("ingest:p1");
+        job.setFencingToken(attempts);
+        job.setAttempts(attempts);
+        return new JobLease(queue, job, true);
+    }
+}
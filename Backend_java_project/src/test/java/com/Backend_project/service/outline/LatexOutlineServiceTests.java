@@ -0,0 +1,92 @@
+package com.Backend_project.service.outline;
+
+import com.Backend_project.util.ContentHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatexOutlineServiceTests {
+
+    private static final String THESIS = String.join("\n",
+            "\\chapter{Introduction}\\label{ch:intro}",
+            "As shown in \\cite[p.~3]{knuth84, lamport94} and Figure~\\ref{fig:arch}.",
+            "% \\section{Commented out}",
+            "",
+            "\\section*{Related   work}",
+            "\\begin{verbatim}",
+            "\\section{Not a section}",
+            "",
+            "\\label{not-a-label}",
+            "\\end{verbatim}",
+            "See \\eqref{eq:missing} and 100\\% of \\autoref{ch:intro}.",
+            "",
+            "\\subsection[Short]{Design \\emph{choices}}",
+            "\\input{figures/arch}",
+            "\\label{fig:arch}",
+            "");
+
+    private final LatexOutlineService service = new LatexOutlineService(10, 100);
+
+    @Test
+    void extractsStructureAndSymbols() {
+        LatexOutline outline = service.outline(ContentHash.of(THESIS), THESIS);
+
+        assertEquals(List.of("Introduction", "Related work", "Design \\emph{choices}"),
+                outline.sections().stream().map(LatexOutline.Section::title).toList());
+        assertEquals(List.of(0, 1, 2), outline.sections().stream().map(LatexOutline.Section::level).toList());
+        assertTrue(outline.sections().get(1).starred());
+        assertEquals(13, outline.sections().get(2).line());
+
+        assertEquals(List.of("ch:intro", "fig:arch"), outline.labels().stream().map(LatexOutline.Symbol::name).toList());
+        assertEquals(List.of(0, 2), outline.labels().stream().map(LatexOutline.Symbol::section).toList());
+        assertEquals(List.of("knuth84", "lamport94"), outline.cites().stream().map(LatexOutline.Symbol::name).toList());
+        assertEquals(List.of("fig:arch", "eq:missing", "ch:intro"),
+                outline.refs().stream().map(LatexOutline.Symbol::name).toList());
+        assertEquals(List.of("eq:missing"), outline.unresolvedRefs());
+        assertEquals("figures/arch", outline.inputs().get(0).name());
+        assertEquals(14, outline.inputs().get(0).line());
+    }
+
+    @Test
+    void offsetsPointAtTheCommand() {
+        LatexOutline outline = service.outline(ContentHash.of(THESIS), THESIS);
+
+        for (LatexOutline.Section section : outline.sections()) {
+            assertTrue(THESIS.startsWith("\\" + section.command(), section.offset()));
+        }
+        for (LatexOutline.Symbol label : outline.labels()) {
+            assertTrue(THESIS.startsWith("\\label{" + label.name(), label.offset()));
+        }
+    }
+
+    @Test
+    void editReparsesOnlyTheChangedChunk() {
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            document.append("\\section{Part ").append(i).append("}\\label{sec:").append(i).append("}\n")
+                    .append("Text for part ").append(i).append(".\n\n");
+        }
+        String original = document.toString();
+        service.outline(ContentHash.of(original), original);
+        long parsedBefore = (long) service.getStats().get("chunksParsed");
+
+        String edited = original.replace("Text for part 17.", "Text for part 17, see \\ref{sec:3}.");
+        LatexOutline outline = service.outline(ContentHash.of(edited), edited);
+
+        assertEquals(1, (long) service.getStats().get("chunksParsed") - parsedBefore);
+        assertEquals(40, outline.sections().size());
+        assertEquals("sec:3", outline.refs().get(0).name());
+        assertEquals(17, outline.refs().get(0).section());
+        assertEquals(53, outline.refs().get(0).line());
+    }
+
+    @Test
+    void unchangedContentIsServedFromCache() {
+        service.outline("hash", THESIS);
+        service.outline("hash", THESIS);
+
+        assertEquals(1L, service.getStats().get("outlineHits"));
+    }
+}
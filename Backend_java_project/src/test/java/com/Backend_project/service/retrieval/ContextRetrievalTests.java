@@ -0,0 +1,139 @@
+package com.Backend_project.service.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextRetrievalTests {
+
+    private static final String SERVICE = String.join("\n",
+            "package demo;",
+            "",
+            "import java.util.List;",
+            "",
+            "/**",
+            " * Turns GitHub trees into the frontend file tree.",
+            " */",
+            "public class TreeService {",
+            "    private final int depth = 3;",
+            "",
+            "    /** Recursively converts a GitHub tree. */",
+            "    @Override",
+            "    public Tree transformTree(List<Node> nodes) {",
+            "        return walk(nodes, depth);",
+            "    }",
+            "",
+            "    private boolean shouldSkipPath(String path) {",
+            "        return path.startsWith(\".git/\");",
+            "    }",
+            "}",
+            "");
+
+    private static final String README = String.join("\n",
+            "# Demo",
+            "",
+            "Intro paragraph about the project.",
+            "",
+            "## Installation",
+            "",
+            "Run the installer and configure the GitHub token.",
+            "",
+            "## Usage",
+            "",
+            "Open the editor and compile.",
+            "");
+
+    @Test
+    void codeIsCutAtDeclarationsWithTheirComments() {
+        List<ContentChunk> chunks = ContentChunker.chunk("src/TreeService.java", SERVICE, 80, 10);
+
+        ContentChunk transform = chunks.stream().filter(c -> "transformTree".equals(c.symbol())).findFirst()
+                .orElseThrow();
+        assertEquals(11, transform.startLine());
+        assertEquals(15, transform.endLine());
+        assertTrue(transform.text().startsWith("    /** Recursively"));
+
+        ContentChunk type = chunks.stream().filter(c -> "TreeService".equals(c.symbol())).findFirst().orElseThrow();
+        assertEquals(5, type.startLine());
+
+        // Chunks never overlap and stay in file order
+        for (int i = 1; i < chunks.size(); i++) {
+            assertTrue(chunks.get(i).startLine() > chunks.get(i - 1).endLine());
+        }
+    }
+
+    @Test
+    void smallDeclarationsAreMergedUpToTheTarget() {
+        List<ContentChunk> chunks = ContentChunker.chunk("src/TreeService.java", SERVICE, 80, 1000);
+        assertEquals(1, chunks.size());
+        assertEquals(1, chunks.get(0).startLine());
+        assertEquals(20, chunks.get(0).endLine());
+    }
+
+    @Test
+    void proseIsCutAtHeadings() {
+        List<ContentChunk> chunks = ContentChunker.chunk("README.md", README, 80, 300);
+        assertEquals(List.of("Demo", "Installation", "Usage"), chunks.stream().map(ContentChunk::symbol).toList());
+        assertEquals(5, chunks.get(1).startLine());
+        assertEquals(7, chunks.get(1).endLine());
+    }
+
+    @Test
+    void longSectionsAreSplitWithinTheLineLimit() {
+        StringBuilder content = new StringBuilder("def long_function():\n");
+        for (int i = 0; i < 200; i++) {
+            content.append("    x").append(i).append(" = ").append(i).append('\n');
+            if (i % 20 == 19) {
+                content.append('\n');
+            }
+        }
+        List<ContentChunk> chunks = ContentChunker.chunk("job.py", content.toString(), 50, 100_000);
+        assertTrue(chunks.size() >= 5);
+        assertTrue(chunks.stream().allMatch(c -> c.endLine() - c.startLine() < 50));
+        assertTrue(chunks.stream().allMatch(c -> "long_function".equals(c.symbol())));
+    }
+
+    @Test
+    void ranksWithBm25AndPacksWithinTheBudget() {
+        Bm25ChunkIndex index = new Bm25ChunkIndex();
+        index.put("src/TreeService.java", "sha-1", ContentChunker.chunk("src/TreeService.java", SERVICE, 80, 10));
+        index.put("README.md", "sha-2", ContentChunker.chunk("README.md", README, 80, 300));
+
+        ContextPack pack = index.pack("configure github token", 1000, 3);
+        assertEquals("README.md", pack.chunks().get(0).path());
+        assertEquals("Installation", pack.chunks().get(0).symbol());
+
+        // Symbol names rank their chunk first
+        ContextPack symbol = index.pack("skip path", 1000, 3);
+        assertEquals("shouldSkipPath", symbol.chunks().get(0).symbol());
+
+        int budget = pack.chunks().get(0).tokens();
+        ContextPack tight = index.pack("configure github token", budget, 3);
+        assertTrue(tight.usedTokens() <= budget);
+        assertEquals(1, tight.chunks().size());
+
+        ContextPack perFile = index.pack("github", 1000, 1);
+        assertEquals(perFile.chunks().size(), perFile.chunks().stream().map(ContextPack.PackedChunk::path)
+                .distinct().count());
+    }
+
+    @Test
+    void unchangedFilesAreSkippedAndReplacedFilesForgotten() {
+        Bm25ChunkIndex index = new Bm25ChunkIndex();
+        index.put("README.md", "sha-1", ContentChunker.chunk("README.md", README, 80, 300));
+        assertTrue(index.isCurrent("README.md", "sha-1"));
+        assertFalse(index.isCurrent("README.md", "sha-2"));
+
+        index.put("README.md", "sha-2", ContentChunker.chunk("README.md", "# Other\n\nNothing relevant.", 80, 300));
+        assertTrue(index.pack("installer", 1000, 3).chunks().isEmpty());
+        assertEquals(1, index.chunks());
+
+        for (int i = 0; i < 5000; i++) {
+            index.put("file" + (i % 3), null, List.of(new ContentChunk("file" + (i % 3), 1, 1, null, "round " + i)));
+        }
+        assertEquals(4, index.chunks());
+        assertEquals("file1", index.pack("4999", 100, 3).chunks().get(0).path());
+    }
+}
@@ -0,0 +1,133 @@
+package com.Backend_project.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectSearchShardTests {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final String PARSER = String.join("\n",
+            "package demo;",
+            "",
+            "public class TreeParser {",
+            "    // Walks the GitHub tree and builds the file index",
+            "    public FileTree parseFileTree(String json) {",
+            "        return null;",
+            "    }",
+            "}");
+
+    private static final String README = String.join("\n",
+            "# Demo",
+            "The file tree is built from the GitHub API.",
+            "");
+
+    @Test
+    void tokenizerSplitsIdentifiers() {
+        assertEquals(Set.of("parsefiletree", "parse", "file", "tree"), SearchTokenizer.terms("parseFileTree"));
+        assertEquals(Set.of("httpserver2", "http", "server", "2"), SearchTokenizer.terms("HTTPServer2"));
+        assertEquals(List.of("Grüße", "x1"), SearchTokenizer.words("Grüße, x1!"));
+    }
+
+    @Test
+    void termQueriesIntersectPostings() {
+        ProjectSearchShard shard = shardWithFiles();
+
+        List<String> paths = paths(shard.search(SearchMode.TERMS, "github tree", null, 10, NO_DEADLINE));
+        assertEquals(List.of("src/TreeParser.java", "README.md"), paths);
+
+        // Identifier parts are searchable, as are path words
+        assertEquals(List.of("src/TreeParser.java"),
+                paths(shard.search(SearchMode.TERMS, "parse", null, 10, NO_DEADLINE)));
+        SearchHit byPath = shard.search(SearchMode.TERMS, "src", null, 10, NO_DEADLINE).hits().get(0);
+        assertEquals(0, byPath.line());
+
+        assertTrue(shard.search(SearchMode.TERMS, "github missing", null, 10, NO_DEADLINE).hits().isEmpty());
+    }
+
+    @Test
+    void phraseQueriesVerifyWordOrder() {
+        ProjectSearchShard shard = shardWithFiles();
+
+        SearchResults results = shard.search(SearchMode.PHRASE, "FILE TREE", null, 10, NO_DEADLINE);
+        assertEquals(List.of("README.md"), paths(results));
+        assertEquals(2, results.hits().get(0).line());
+        assertEquals("The file tree is built from the GitHub API.", results.hits().get(0).snippet());
+
+        // Both words occur in the parser, but only as parts of one identifier or in the other order
+        assertEquals(2, results.candidates());
+    }
+
+    @Test
+    void regexQueriesScanContent() {
+        ProjectSearchShard shard = shardWithFiles();
+
+        SearchResults results = shard.search(SearchMode.REGEX, "public \\w+ parse\\w*\\(", null, 10, NO_DEADLINE);
+        assertEquals(List.of("src/TreeParser.java"), paths(results));
+        assertEquals(5, results.hits().get(0).line());
+        assertTrue(results.complete());
+    }
+
+    @Test
+    void updatesReplaceAndRemoveEntries() {
+        ProjectSearchShard shard = shardWithFiles();
+        shard.put(ProjectSearchShard.LATEX, "doc-1", "Introduction", "We describe the file tree.");
+
+        shard.put(ProjectSearchShard.FILE, "README.md", null, "# Nothing here");
+        assertEquals(List.of("src/TreeParser.java"),
+                paths(shard.search(SearchMode.TERMS, "github", null, 10, NO_DEADLINE)));
+
+        // A patch without a title keeps the old one
+        shard.put(ProjectSearchShard.LATEX, "doc-1", null, "We describe the GitHub tree.");
+        SearchResults latex = shard.search(SearchMode.TERMS, "github", ProjectSearchShard.LATEX, 10, NO_DEADLINE);
+        assertEquals(1, latex.hits().size());
+        assertEquals("doc-1", latex.hits().get(0).documentId());
+        assertEquals("Introduction", latex.hits().get(0).title());
+
+        shard.remove(ProjectSearchShard.FILE, "src/TreeParser.java");
+        shard.remove(ProjectSearchShard.LATEX, "doc-1");
+        assertTrue(shard.search(SearchMode.TERMS, "github", null, 10, NO_DEADLINE).hits().isEmpty());
+        assertEquals(1, shard.size());
+    }
+
+    @Test
+    void compactionKeepsPostingsConsistent() {
+        ProjectSearchShard shard = new ProjectSearchShard();
+        for (int round = 0; round < 3000; round++) {
+            shard.put(ProjectSearchShard.FILE, "file" + (round % 10), null, "revision r" + round + " shared");
+        }
+
+        assertEquals(10, shard.size());
+        assertEquals(10, shard.search(SearchMode.TERMS, "shared", null, 100, NO_DEADLINE).hits().size());
+        assertEquals(List.of("file9"), paths(shard.search(SearchMode.TERMS, "r2999", null, 10, NO_DEADLINE)));
+        assertTrue(shard.search(SearchMode.TERMS, "r5", null, 10, NO_DEADLINE).hits().isEmpty());
+    }
+
+    @Test
+    void limitAndDeadlineStopEarly() {
+        ProjectSearchShard shard = shardWithFiles();
+
+        SearchResults limited = shard.search(SearchMode.TERMS, "tree", null, 1, NO_DEADLINE);
+        assertEquals(1, limited.hits().size());
+        assertFalse(limited.complete());
+
+        shard.put(ProjectSearchShard.FILE, "big.txt", null, "a".repeat(100_000));
+        SearchResults timedOut = shard.search(SearchMode.REGEX, "(a+)+b", null, 10, System.nanoTime());
+        assertFalse(timedOut.complete());
+    }
+
+    private static ProjectSearchShard shardWithFiles() {
+        ProjectSearchShard shard = new ProjectSearchShard();
+        shard.put(ProjectSearchShard.FILE, "src/TreeParser.java", null, PARSER);
+        shard.put(ProjectSearchShard.FILE, "README.md", null, README);
+        return shard;
+    }
+
+    private static List<String> paths(SearchResults results) {
+        return results.hits().stream().map(SearchHit::path).toList();
+    }
+}
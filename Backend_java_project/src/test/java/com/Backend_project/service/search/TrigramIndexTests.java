@@ -0,0 +1,110 @@
+package com.Backend_project.service.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void extractsRequiredLiteralsConservatively() {
+        assertEquals(List.of("getFile", "Content"), Trigrams.literals("getFile\\w*Content"));
+        assertEquals(List.of("colo", "r"), Trigrams.literals("colou?r"));
+        assertEquals(List.of("ab", "cd"), Trigrams.literals("ab+cd"));
+        assertEquals(List.of("foo", "bar"), Trigrams.literals("foo(x|y)?bar"));
+        assertEquals(List.of("a.", "c"), Trigrams.literals("\\Qa.b\\E*c"));
+        assertEquals(List.of("key", "abc"), Trigrams.literals("key\\x41abc"));
+        assertEquals(List.of("[x", "z"), Trigrams.literals("\\[x[a-z]z"));
+
+        assertEquals(List.of("foo", "ba(r|z)", "[q|]"), Trigrams.splitTopLevel("foo|ba(r|z)|[q|]"));
+        assertNull(Trigrams.query("foo|.*"));
+        assertNull(Trigrams.query("(?x) s p a c e d"));
+        assertEquals(2, Trigrams.query("class|interface").size());
+    }
+
+    @Test
+    void foldingCoversCaseInsensitivePatterns() {
+        int[] content = Trigrams.of("ParseFILE and STRASSE");
+        for (String literal : List.of("parsefile", "PARSEfile", "strasse")) {
+            for (int trigram : Trigrams.of(literal)) {
+                assertTrue(Arrays.binarySearch(content, trigram) >= 0, literal);
+            }
+        }
+    }
+
+    @Test
+    void narrowingNeverLosesMatches() {
+        ProjectSearchShard shard = new ProjectSearchShard();
+        Map<String, String> contents = new HashMap<>();
+        Random random = new Random(7);
+        String[] words = { "parse", "Tree", "file", "index", "çà", "日本語", "get", "Content", "_", "(", ")" };
+        for (int file = 0; file < 200; file++) {
+            StringBuilder content = new StringBuilder();
+            for (int word = 0; word < 30; word++) {
+                content.append(words[random.nextInt(words.length)]).append(random.nextBoolean() ? " " : "");
+            }
+            shard.put(ProjectSearchShard.FILE, "f" + file, null, content.toString(), "sha" + file);
+            contents.put("f" + file, content.toString());
+        }
+
+        for (String regex : List.of("parseTree", "(?i)PARSETREE", "get\\w+Content", "日本語\\s*file",
+                "index|çà_", "Tree\\(\\)", "file(index)?get")) {
+            Pattern pattern = Pattern.compile(regex);
+            SearchResults narrowed = shard.search(SearchMode.REGEX, regex, null, 1000, Long.MAX_VALUE);
+            long expected = contents.values().stream().filter(content -> pattern.matcher(content).find()).count();
+            assertEquals(expected, narrowed.hits().size(), regex);
+        }
+
+        shard.put(ProjectSearchShard.FILE, "unique", null, "zebraStripes()", "sha-unique");
+        assertEquals(1, shard.search(SearchMode.REGEX, "zebra\\w+\\(", null, 10, Long.MAX_VALUE).candidates());
+    }
+
+    @Test
+    void segmentSurvivesReopenAndDropsDeadBlobs() throws Exception {
+        Path file = dir.resolve("project.tri");
+        TrigramIndex index = new TrigramIndex(file);
+        index.add("sha-a", "public class TreeParser {}");
+        index.add("sha-b", "def parse_tree(): pass");
+        index.add("sha-c", "unrelated");
+        index.flush(Set.of("sha-a", "sha-b", "sha-c"));
+        assertEquals(3, index.segmentBlobs());
+        assertEquals(0, index.deltaBlobs());
+
+        TrigramIndex reopened = new TrigramIndex(file);
+        assertTrue(reopened.contains("sha-a"));
+        assertEquals(Set.of("sha-a"), reopened.candidates(Trigrams.query("TreeParser")));
+        assertEquals(Set.of("sha-a", "sha-b"), reopened.candidates(Trigrams.query("(?i)tree")));
+
+        // Delta blobs are found before and after the merge; unreferenced ones are dropped
+        reopened.add("sha-d", "class TreeParserTests");
+        assertEquals(Set.of("sha-a", "sha-d"), reopened.candidates(Trigrams.query("TreeParser")));
+        reopened.flush(Set.of("sha-a", "sha-d"));
+        assertEquals(2, reopened.segmentBlobs());
+        assertFalse(reopened.contains("sha-b"));
+        assertEquals(Set.of("sha-a", "sha-d"), reopened.candidates(Trigrams.query("TreeParser")));
+    }
+
+    @Test
+    void corruptSegmentIsDiscarded() throws Exception {
+        Path file = dir.resolve("broken.tri");
+        Files.write(file, new byte[] { 1, 2, 3 });
+
+        TrigramIndex index = new TrigramIndex(file);
+        assertEquals(0, index.segmentBlobs());
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,176 @@
+package com.Backend_project.service.symbols;
+
+import com.Backend_project.model.BlobSymbols;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolExtractorTests {
+
+    private static final String JAVA = String.join("\n",
+            "package demo;",
+            "",
+            "/** class Fake in a comment */",
+            "public class TreeService implements Service {",
+            "    private final Map<String, Node> cache = new HashMap<>();",
+            "    private final Runnable task = new Runnable() {",
+            "        public void run() { refresh(); }",
+            "    };",
+            "",
+            "    public TreeService(int depth) {",
+            "        this.depth = depth;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Tree transformTree(List<Node> nodes) throws IOException {",
+            "        String label = \"shouldSkipPath(x) {\";",
+            "        return walk(nodes, depth);",
+            "    }",
+            "",
+            "    private boolean shouldSkipPath(String path) {",
+            "        return path.startsWith(\".git/\");",
+            "    }",
+            "",
+            "    enum Mode { FAST, SLOW }",
+            "",
+            "    record Entry(String path, int size) {",
+            "    }",
+            "}",
+            "");
+
+    private static final String PYTHON = String.join("\n",
+            "import os",
+            "",
+            "class Indexer:",
+            "    \"\"\"def notAFunction(): pass\"\"\"",
+            "",
+            "    def __init__(self, root):",
+            "        self.root = root",
+            "",
+            "    def build(self,",
+            "              depth=3):",
+            "        return walk(self.root)",
+            "",
+            "def walk(path):",
+            "    def visit(node):",
+            "        return node",
+            "    return visit(path)",
+            "");
+
+    private static final String TYPESCRIPT = String.join("\n",
+            "export interface Props { name: string }",
+            "export type Mode = 'fast' | 'slow';",
+            "export function render(props: Props) {",
+            "  return `function fake() {}`;",
+            "}",
+            "export const useTree = async (id: string): Promise<Tree> => {",
+            "  return fetchTree(id);",
+            "};",
+            "const limit = 10;",
+            "export class Store {",
+            "  private items: Item[] = [];",
+            "  constructor(private readonly api: Api) {}",
+            "  load(id: string): Promise<void> {",
+            "    return this.api.get(id);",
+            "  }",
+            "}",
+            "");
+
+    @Test
+    void detectsLanguageByExtension() {
+        assertEquals("java", SymbolExtractor.language("src/Main.java"));
+        assertEquals("python", SymbolExtractor.language("tools/build.py"));
+        assertEquals("typescript", SymbolExtractor.language("web/App.tsx"));
+        assertEquals("typescript", SymbolExtractor.language("web/index.js"));
+        assertNull(SymbolExtractor.language("paper/main.tex"));
+    }
+
+    @Test
+    void extractsJavaDeclarationsWithContainers() {
+        BlobSymbols symbols = SymbolExtractor.extract("sha1", "java", JAVA);
+
+        assertEquals("sha1", symbols.getId());
+        assertEquals(SymbolExtractor.VERSION, symbols.getExtractorVersion());
+        assertDefinition(symbols, "TreeService", "class", 4, null);
+        assertDefinition(symbols, "TreeService", "constructor", 10, "TreeService");
+        assertDefinition(symbols, "transformTree", "method", 15, "TreeService");
+        assertDefinition(symbols, "shouldSkipPath", "method", 20, "TreeService");
+        assertDefinition(symbols, "Mode", "enum", 24, "TreeService");
+        assertDefinition(symbols, "Entry", "record", 26, "TreeService");
+
+        List<String> names = symbols.getDefinitions().stream().map(BlobSymbols.Definition::name).toList();
+        assertFalse(names.contains("Fake"), "comments are skipped");
+        assertFalse(names.contains("HashMap"), "constructor calls are not declarations");
+        assertFalse(names.contains("walk"), "calls are not declarations");
+        assertEquals(1, names.stream().filter("shouldSkipPath"::equals).count(), "strings are skipped");
+
+        assertTrue(symbols.getReferences().contains(new BlobSymbols.Reference("walk", 17)));
+        assertTrue(symbols.getReferences().contains(new BlobSymbols.Reference("refresh", 7)));
+    }
+
+    @Test
+    void extractsPythonDeclarationsByIndentation() {
+        BlobSymbols symbols = SymbolExtractor.extract("sha2", "python", PYTHON);
+
+        assertDefinition(symbols, "Indexer", "class", 3, null);
+        assertDefinition(symbols, "__init__", "method", 6, "Indexer");
+        assertDefinition(symbols, "build", "method", 9, "Indexer");
+        assertDefinition(symbols, "walk", "function", 13, null);
+        assertDefinition(symbols, "visit", "function", 14, "walk");
+        assertEquals(5, symbols.getDefinitions().size(), "docstrings are skipped");
+        assertTrue(symbols.getReferences().contains(new BlobSymbols.Reference("walk", 11)));
+    }
+
+    @Test
+    void extractsTypeScriptDeclarations() {
+        BlobSymbols symbols = SymbolExtractor.extract("sha3", "typescript", TYPESCRIPT);
+
+        assertDefinition(symbols, "Props", "interface", 1, null);
+        assertDefinition(symbols, "Mode", "type", 2, null);
+        assertDefinition(symbols, "render", "function", 3, null);
+        assertDefinition(symbols, "useTree", "function", 6, null);
+        assertDefinition(symbols, "Store", "class", 10, null);
+        assertDefinition(symbols, "constructor", "constructor", 12, "Store");
+        assertDefinition(symbols, "load", "method", 13, "Store");
+
+        List<String> names = symbols.getDefinitions().stream().map(BlobSymbols.Definition::name).toList();
+        assertFalse(names.contains("fake"), "template literals are skipped");
+        assertFalse(names.contains("limit"), "plain constants are not functions");
+        assertFalse(names.contains("get"), "calls are not declarations");
+    }
+
+    @Test
+    void symbolTableFindsByPrefixAndReplacesChangedFiles() {
+        ProjectSymbolTable table = new ProjectSymbolTable();
+        table.put("src/TreeService.java", SymbolExtractor.extract("sha1", "java", JAVA));
+        table.put("tools/indexer.py", SymbolExtractor.extract("sha2", "python", PYTHON));
+
+        assertTrue(table.isCurrent("src/TreeService.java", "sha1"));
+        assertFalse(table.isCurrent("src/TreeService.java", "sha9"));
+
+        List<CodeSymbol> prefix = table.find("tree", true, null, 10);
+        assertEquals(List.of("TreeService", "TreeService"), prefix.stream().map(CodeSymbol::name).toList());
+        assertEquals(1, table.find("TreeService", false, "class", 10).size());
+        assertEquals("tools/indexer.py", table.find("walk", false, null, 10).get(0).path());
+
+        List<CodeReference> uses = table.references("walk", 10);
+        assertEquals(List.of(new CodeReference("src/TreeService.java", 17), new CodeReference("tools/indexer.py", 11)),
+                uses);
+
+        table.put("tools/indexer.py", SymbolExtractor.extract("sha4", "python", "def other():\n    pass\n"));
+        assertTrue(table.find("walk", false, null, 10).isEmpty());
+        assertEquals(List.of(new CodeReference("src/TreeService.java", 17)), table.references("walk", 10));
+        assertEquals(2, table.files());
+
+        table.remove("src/TreeService.java");
+        assertTrue(table.find("tree", true, null, 10).isEmpty());
+        assertEquals(1, table.definitions());
+    }
+
+    private static void assertDefinition(BlobSymbols symbols, String name, String kind, int line, String container) {
+        assertTrue(symbols.getDefinitions().contains(new BlobSymbols.Definition(name, kind, line, container)),
+                () -> "missing " + kind + " " + name + " at line " + line + " in " + symbols.getDefinitions());
+    }
+}
@@ -0,0 +1,56 @@
+package com.Backend_project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextEditsTests {
+
+    @Test
+    void editsApplyInSequence() {
+        String result = TextEdits.apply("\\section{Intro}", List.of(
+                new TextEdit(9, 5, "Introduction"),
+                new TextEdit(0, 0, "% draft\n")));
+
+        assertEquals("% draft\n\\section{Introduction}", result);
+    }
+
+    @Test
+    void editOutsideTextIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TextEdits.apply("short", List.of(new TextEdit(3, 10, ""))));
+        assertThrows(IllegalArgumentException.class,
+                () -> TextEdits.apply("short", List.of(new TextEdit(-1, 0, "x"))));
+    }
+
+    @Test
+    void diffCoversOnlyTheChangedRegion() {
+        String before = "\\chapter{One}\nSome text here.\n\\chapter{Two}\n";
+        String after = "\\chapter{One}\nSome other text here.\n\\chapter{Two}\n";
+
+        TextEdit edit = TextEdits.diff(before, after);
+
+        assertEquals(19, edit.offset());
+        assertEquals(0, edit.deleteCount());
+        assertEquals("other ", edit.insert());
+        assertEquals(after, TextEdits.apply(before, List.of(edit)));
+    }
+
+    @Test
+    void diffRoundTripsEdgeCases() {
+        String[][] pairs = {
+                {"", "abc"},
+                {"abc", ""},
+                {"same", "same"},
+                {"aaaa", "aa"},
+                {"x\uD83D\uDE00y", "x\uD83D\uDE01y"},
+        };
+        for (String[] pair : pairs) {
+            TextEdit edit = TextEdits.diff(pair[0], pair[1]);
+            assertEquals(pair[1], TextEdits.apply(pair[0], List.of(edit)), pair[0] + " -> " + pair[1]);
+        }
+        assertTrue(TextEdits.diff("same", "same").isNoop());
+    }
+}
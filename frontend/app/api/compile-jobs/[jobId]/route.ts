@@ -0,0 +1,33 @@
+import { NextRequest } from 'next/server';
+import { auth } from '@/auth';
+
+const BACKEND_URL = process.env.NEXT_PUBLIC_BACKEND_URL || 'http://localhost:8080';
+
+export async function GET(
+    req: NextRequest,
+    { params }: { params: { jobId: string } }
+) {
+    try {
+        const session = await auth();
+        if (!session?.user) {
+            return new Response('Unauthorized', { status: 401 });
+        }
+
+        const response = await fetch(`${BACKEND_URL}/api/compile-jobs/${params.jobId}`, {
+            headers: {
+                'Authorization': `Bearer ${(session.user as any).token}`,
+                'Content-Type': 'application/json',
+            },
+        });
+
+        if (!response.ok) {
+            return new Response('Compile job not found', { status: response.status });
+        }
+
+        const data = await response.json();
+        return Response.json(data);
+    } catch (error: any) {
+        console.error('Error fetching compile job:', error);
+        return new Response(error.message, { status: 500 });
+    }
+}
@@ -0,0 +1,39 @@
+import { NextRequest } from 'next/server';
+import { auth } from '@/auth';
+
+const BACKEND_URL = process.env.NEXT_PUBLIC_BACKEND_URL || 'http://localhost:8080';
+
+export async function GET(
+    req: NextRequest,
+    { params }: { params: { id: string; documentId: string } }
+) {
+    try {
+        const session = await auth();
+        if (!session?.user) {
+            return new Response('Unauthorized', { status: 401 });
+        }
+
+        const response = await fetch(
+            `${BACKEND_URL}/api/projects/${params.id}/latex/${params.documentId}/pdf`,
+            {
+                headers: {
+                    'Authorization': `Bearer ${(session.user as any).token}`,
+                },
+            }
+        );
+
+        if (!response.ok) {
+            return new Response('Compiled PDF not found', { status: response.status });
+        }
+
+        return new Response(response.body, {
+            headers: {
+                'Content-Type': 'application/pdf',
+                'Cache-Control': 'no-store',
+            },
+        });
+    } catch (error: any) {
+        console.error('Error fetching compiled PDF:', error);
+        return new Response(error.message, { status: 500 });
+    }
+}
@@ -133,7 +133,7 @@ export default function ProjectPage() {
         documentType: doc.type, // chapter, section, etc.
         status: doc.status,
         isCompiled: doc.isCompiled,
-        compiledContent: doc.compiledContent
+        pdfUrl: doc.isCompiled ? `/api/projects/${params.id}/latex/${doc.id}/pdf` : null
       })),
       selectedFile: selectedLatexDocument ? {
         name: `${selectedLatexDocument.title}.tex`,
@@ -144,7 +144,9 @@ export default function ProjectPage() {
         documentType: selectedLatexDocument.type,
         status: selectedLatexDocument.status,
         isCompiled: selectedLatexDocument.isCompiled,
-        compiledContent: selectedLatexDocument.compiledContent
+        pdfUrl: selectedLatexDocument.isCompiled
+          ? `/api/projects/${params.id}/latex/${selectedLatexDocument.id}/pdf`
+          : null
       } : null,
       availableViews: ['repository', 'latex'],
       currentTab: activeTab,
@@ -216,7 +218,7 @@ export default function ProjectPage() {
           type: document.type,
           status: document.status,
           isCompiled: document.isCompiled,
-          compiledContent: document.compiledContent
+          pdfUrl: document.isCompiled ? `/api/projects/${params.id}/latex/${document.id}/pdf` : null
         }
       };
     }
@@ -14,9 +14,20 @@ interface LatexDocument {
     type: string;
     status: string;
     isCompiled: boolean;
-    compiledContent?: string;
 }
 
+interface CompileJob {
+    id: string;
+    status: 'QUEUED' | 'RUNNING' | 'SUCCEEDED' | 'FAILED' | 'TIMED_OUT' | 'CANCELLED';
+    error?: string;
+}
+
+const COMPILE_POLL_INTERVAL_MS = 1000;
+const COMPILE_POLL_TIMEOUT_MS = 180000;
+
+const pdfUrl = (projectId: string, documentId: string) =>
+    `/api/projects/${projectId}/latex/${documentId}/pdf?t=${Date.now()}`;
+
 interface LatexDocumentEditorProps {
     projectId: string;
     document: LatexDocument;
@@ -33,6 +44,7 @@ export const LatexDocumentEditor: FC<LatexDocumentEditorProps> = ({
     const [saving, setSaving] = useState(false);
     const [compiling, setCompiling] = useState(false);
     const [showPreview, setShowPreview] = useState(false);
+    const [previewUrl, setPreviewUrl] = useState<string | null>(null);
 
     useEffect(() => {
         setContent(document.content);
@@ -71,6 +83,22 @@ export const LatexDocumentEditor: FC<LatexDocumentEditorProps> = ({
         }
     };
 
+    // Compiles run in the background; poll the job until it finishes
+    const waitForCompile = async (job: CompileJob): Promise<CompileJob> => {
+        const deadline = Date.now() + COMPILE_POLL_TIMEOUT_MS;
+        let current = job;
+        while (current.status === 'QUEUED' || current.status === 'RUNNING') {
+            if (Date.now() > deadline) {
+                throw new Error('Compilation is taking too long');
+            }
+            await new Promise((resolve) => setTimeout(resolve, COMPILE_POLL_INTERVAL_MS));
+            const response = await fetch(`/api/compile-jobs/${job.id}`);
+            if (!response.ok) throw new Error('Failed to check compile status');
+            current = await response.json();
+        }
+        return current;
+    };
+
     const handleCompile = async () => {
         try {
             setCompiling(true);
@@ -80,8 +108,13 @@ export const LatexDocumentEditor: FC<LatexDocumentEditorProps> = ({
 
             if (!response.ok) throw new Error('Failed to compile document');
 
-            const compiledDocument = await response.json();
-            onSave?.(compiledDocument);
+            const job = await waitForCompile(await response.json());
+            if (job.status !== 'SUCCEEDED') {
+                throw new Error(job.error || `Compilation ${job.status.toLowerCase().replace('_', ' ')}`);
+            }
+
+            onSave?.({ ...document, content, isCompiled: true });
+            setPreviewUrl(pdfUrl(projectId, document.id));
             setShowPreview(true);
             toast({
                 title: "Success",
@@ -90,7 +123,7 @@ export const LatexDocumentEditor: FC<LatexDocumentEditorProps> = ({
         } catch (error) {
             toast({
                 title: "Error",
-                description: "Failed to compile document",
+                description: error instanceof Error ? error.message : "Failed to compile document",
                 variant: "destructive",
             });
         } finally {
@@ -137,15 +170,12 @@ export const LatexDocumentEditor: FC<LatexDocumentEditorProps> = ({
                 </div>
             </div>
             <div className="flex-1 min-h-0">
-                {showPreview && document.compiledContent ? (
-                    <ScrollArea className="h-full">
-                        <div className="p-4">
-                            <div
-                                className="prose prose-sm max-w-none"
-                                dangerouslySetInnerHTML={{ __html: document.compiledContent }}
-                            />
-                        </div>
-                    </ScrollArea>
+                {showPreview && previewUrl ? (
+                    <iframe
+                        src={previewUrl}
+                        title={`${document.title} preview`}
+                        className="h-full w-full border-0"
+                    />
                 ) : (
                     <Editor
                         height="100%"
@@ -12,7 +12,6 @@ interface LatexDocument {
   order: number;
   status: string;
   content: string | null;
-  compiledContent: string | null;
   compiled: boolean;
   createdAt: string;
   updatedAt: string;